@@ -10,6 +10,7 @@ import java.io.ObjectOutputStream;
 import com.github.phenomics.ontolib.formats.go.GoOntology;
 import com.github.phenomics.ontolib.formats.hpo.HpoOntology;
 import com.github.phenomics.ontolib.formats.mpo.MpoOntology;
+import com.github.phenomics.ontolib.io.obo.OboFile;
 import com.github.phenomics.ontolib.io.obo.OboParser;
 import com.github.phenomics.ontolib.io.obo.go.GoOboParser;
 import com.github.phenomics.ontolib.io.obo.hpo.HpoOboParser;
@@ -69,6 +70,9 @@ public class App {
         case PARSE_OBO:
           parseObo();
           break;
+        case COMPARE_OBO:
+          compareObo();
+          break;
         case PARSE_GO_OBO:
           parseGoObo();
           break;
@@ -102,6 +106,38 @@ public class App {
     System.out.println("Parsing OBO took " + duration + " seconds");
   }
 
+  private void compareObo() {
+    System.err.println("Comparing OBO parser implementations...");
+    final OboFile antlrResult = timeParseObo(OboParser.Implementation.ANTLR);
+    final OboFile streamingResult = timeParseObo(OboParser.Implementation.STREAMING);
+
+    if (antlrResult.toString().equals(streamingResult.toString())) {
+      System.out.println("Parse results are identical");
+    } else {
+      System.err.println("ERROR: parse results differ!");
+      System.exit(1);
+    }
+  }
+
+  private OboFile timeParseObo(OboParser.Implementation implementation) {
+    final long startTime = System.nanoTime();
+
+    final OboParser parser = new OboParser(false, implementation);
+    final OboFile result;
+    try {
+      result = parser.parseFile(inputFile);
+    } catch (IOException e) {
+      e.printStackTrace();
+      System.exit(1);
+      return null; // javac does not understand this is unreachable
+    }
+
+    final long endTime = System.nanoTime();
+    final double duration = (endTime - startTime) / 1_000_000_000.0;
+    System.out.println("Parsing OBO with " + implementation + " took " + duration + " seconds");
+    return result;
+  }
+
   private void parseHpoObo() {
     System.err.println("Parsing HPO OBO...");
     long startTime = System.nanoTime();
@@ -215,6 +251,10 @@ public class App {
           inputFile = new File(args[i + 1]);
           command = Command.PARSE_OBO;
           break;
+        case "--compare-obo":
+          inputFile = new File(args[i + 1]);
+          command = Command.COMPARE_OBO;
+          break;
         case "--go-obo":
           command = Command.PARSE_GO_OBO;
           inputFile = new File(args[i + 1]);
@@ -223,6 +263,10 @@ public class App {
           command = Command.PARSE_HPO_OBO;
           inputFile = new File(args[i + 1]);
           break;
+        case "--mpo-obo":
+          command = Command.PARSE_MPO_OBO;
+          inputFile = new File(args[i + 1]);
+          break;
         case "--output-ser":
           outputSerFile = new File(args[i + 1]);
           break;
@@ -237,7 +281,7 @@ public class App {
   private void printUsageError(String string) {
     System.err.println("ERROR: " + string + "\n");
     System.err.println("Usage: java -jar app.jar [--output-ser FILE.ser] "
-        + "(--obo FILE.obo|--[go|hpo|mpo]-obo FILE.obo)");
+        + "(--obo FILE.obo|--compare-obo FILE.obo|--[go|hpo|mpo]-obo FILE.obo)");
     System.exit(1);
   }
 
@@ -245,6 +289,8 @@ public class App {
   enum Command {
     /** Generic OBO parsing */
     PARSE_OBO,
+    /** Generic OBO parsing with ANTLR and streaming parser, comparing results */
+    COMPARE_OBO,
     /** Parse GO OBO file */
     PARSE_GO_OBO,
     /** Parse HPO OBO file */
@@ -112,7 +112,7 @@ public class App {
     final Map<TermId, Set<Integer>> termIdToEntrezGeneIds = new HashMap<>();
     // Build the actual mappings
     try (HpoGeneAnnotationParser annoParser =
-        new HpoGeneAnnotationParser(new File(pathGeneToPhenoTsvFile))) {
+        new HpoGeneAnnotationParser(new File(pathGeneToPhenoTsvFile), hpo.getTermIdDictionary())) {
       while (annoParser.hasNext()) {
         final HpoGeneAnnotation anno = annoParser.next();
         annos.add(anno);
@@ -0,0 +1,106 @@
+package com.github.phenomics.ontolib.cli;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.base.OntoLibRuntimeException;
+import com.github.phenomics.ontolib.io.scoredist.BinaryScoreDistributionWriter;
+import com.github.phenomics.ontolib.io.scoredist.H2ScoreDistributionReader;
+import com.github.phenomics.ontolib.io.scoredist.ScoreDistributionReader;
+import com.github.phenomics.ontolib.io.scoredist.ScoreDistributionWriter;
+import com.github.phenomics.ontolib.io.scoredist.TextFileScoreDistributionReader;
+import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistribution;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of {@code convert-scores} command.
+ *
+ * <p>
+ * Converts score distributions from a text file or H2 database to the indexed binary format of
+ * {@link BinaryScoreDistributionWriter}.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class ConvertScoresCommand {
+
+  /**
+   * {@link Logger} object to use.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(ConvertScoresCommand.class);
+
+  /** Configuration parsed from command line. */
+  private ConvertScoresOptions options;
+
+  /** The loaded distributions, by term count. */
+  private Map<Integer, ScoreDistribution> distributions;
+
+  /** Constructor. */
+  public ConvertScoresCommand(ConvertScoresOptions options) {
+    this.options = options;
+  }
+
+  /** Execute the command. */
+  public void run() {
+    printHeader();
+    loadDistributions();
+    writeResult();
+    printFooter();
+  }
+
+  private void printHeader() {
+    LOGGER.info("OntoLib CLI -- Converting Score Distributions");
+    LOGGER.info("");
+    LOGGER.info("Options");
+    LOGGER.info("=======");
+    LOGGER.info("");
+    LOGGER.info(options.toString());
+  }
+
+  private void loadDistributions() {
+    LOGGER.info("Loading distributions from {}...", options.getInputFile());
+    try (ScoreDistributionReader reader = buildReader()) {
+      distributions = new TreeMap<>(reader.readAll());
+    } catch (IOException | OntoLibException e) {
+      throw new OntoLibRuntimeException("Problem reading input: " + options.getInputFile(), e);
+    }
+    LOGGER.info("Done loading distributions.");
+  }
+
+  /**
+   * @return {@link ScoreDistributionReader}, depending on configured path and type.
+   * @throws OntoLibException in the case of problems creating the reader.
+   */
+  private ScoreDistributionReader buildReader() throws OntoLibException {
+    if (options.isReadFromH2()) {
+      final String pathDbAbs = new File(options.getInputFile()).getAbsolutePath();
+      return new H2ScoreDistributionReader(pathDbAbs, options.getH2TableName());
+    } else {
+      return new TextFileScoreDistributionReader(new File(options.getInputFile()),
+          options.getNumThreads());
+    }
+  }
+
+  private void writeResult() {
+    LOGGER.info("Writing binary file {}...", options.getOutputFile());
+    try (ScoreDistributionWriter writer =
+        new BinaryScoreDistributionWriter(new File(options.getOutputFile()))) {
+      for (Entry<Integer, ScoreDistribution> e : distributions.entrySet()) {
+        writer.write(e.getKey(), e.getValue(), options.getResampleToPoints());
+      }
+    } catch (IOException | OntoLibException e) {
+      throw new OntoLibRuntimeException("Problem writing to output file: "
+          + options.getOutputFile(), e);
+    }
+    LOGGER.info("Done writing binary file.");
+  }
+
+  private void printFooter() {
+    LOGGER.info("All Done.\nHave a nice day!\n");
+  }
+
+}
@@ -0,0 +1,86 @@
+package com.github.phenomics.ontolib.cli;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+
+/**
+ * Command line options for the {@code convert-scores} command.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+@Parameters(separators = "=",
+    commandDescription = "Convert score distribution text file or H2 database to binary file")
+public class ConvertScoresOptions {
+
+  @Parameter(names = {"-t", "--num-threads"},
+      description = "Number of threads to use for parsing text input.")
+  private int numThreads = 1;
+
+  @Parameter(names = "--input", description = "Input file or H2 database to convert",
+      required = true)
+  private String inputFile;
+
+  @Parameter(names = "--read-from-h2", description = "Read from H2 database instead of text file.")
+  private boolean readFromH2 = false;
+
+  @Parameter(names = "--h2-table-name",
+      description = "Name of table in H2 database when reading from H2 db.")
+  private String h2TableName = "phenix_score_distribution";
+
+  @Parameter(names = "--output", description = "Binary output file to write to", required = true)
+  private String outputFile;
+
+  @Parameter(names = "--resample-to-points", description = "Distribution will be resampled to "
+      + "this number of points (0 for no resampling, default)")
+  private int resampleToPoints = 0;
+
+  /**
+   * @return Return number of threads to use for parsing text input.
+   */
+  public int getNumThreads() {
+    return numThreads;
+  }
+
+  /**
+   * @return The input file or H2 database to read.
+   */
+  public String getInputFile() {
+    return inputFile;
+  }
+
+  /**
+   * @return Whether or not to read from H2 database.
+   */
+  public boolean isReadFromH2() {
+    return readFromH2;
+  }
+
+  /**
+   * @return Name of table in H2 database when reading from H2 database.
+   */
+  public String getH2TableName() {
+    return h2TableName;
+  }
+
+  /**
+   * @return The binary output file to write.
+   */
+  public String getOutputFile() {
+    return outputFile;
+  }
+
+  /**
+   * @return The number of points to resample to.
+   */
+  public int getResampleToPoints() {
+    return resampleToPoints;
+  }
+
+  @Override
+  public String toString() {
+    return "ConvertScoresOptions [numThreads=" + numThreads + ", inputFile=" + inputFile
+        + ", readFromH2=" + readFromH2 + ", h2TableName=" + h2TableName + ", outputFile="
+        + outputFile + ", resampleToPoints=" + resampleToPoints + "]";
+  }
+
+}
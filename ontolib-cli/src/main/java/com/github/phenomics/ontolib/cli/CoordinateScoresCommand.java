@@ -0,0 +1,330 @@
+package com.github.phenomics.ontolib.cli;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.base.OntoLibRuntimeException;
+import com.github.phenomics.ontolib.cli.ShardManifest.Shard;
+import com.github.phenomics.ontolib.cli.ShardManifest.State;
+import com.github.phenomics.ontolib.io.base.TermAnnotationParserException;
+import com.github.phenomics.ontolib.io.obo.hpo.HpoGeneAnnotationParser;
+import java.io.File;
+import java.io.IOException;
+import java.lang.ProcessBuilder.Redirect;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Implementation of {@code coordinate-scores} command.
+ *
+ * <p>
+ * The objects are partitioned into shards of contiguous object ID ranges, balanced by the number
+ * of annotations of each object as an estimate of its sampling cost. Each shard is computed by a
+ * {@code precompute-scores} worker process on the local machine, at most
+ * {@link CoordinateScoresOptions#getNumWorkers()} at a time, and failed shards are retried. The
+ * shard states are tracked in a manifest in the work directory, so rerunning the command with the
+ * same configuration only computes the missing shards. Finally, the shard outputs are merged into
+ * the output file by a streaming merge.
+ * </p>
+ *
+ * <p>
+ * As the sampling seeds each object by its ID, the result does not depend on the partitioning.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class CoordinateScoresCommand {
+
+  /**
+   * {@link Logger} object to use.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(CoordinateScoresCommand.class);
+
+  /** File name of the manifest in the work directory. */
+  private static final String MANIFEST_FILE_NAME = "manifest.tsv";
+
+  /** Number of shards per worker if not configured. */
+  private static final int DEFAULT_SHARDS_PER_WORKER = 4;
+
+  /** Configuration parsed from command line. */
+  private CoordinateScoresOptions options;
+
+  /** The work directory. */
+  private File workDir;
+
+  /** The shard manifest. */
+  private ShardManifest manifest;
+
+  /** Constructor. */
+  public CoordinateScoresCommand(CoordinateScoresOptions options) {
+    this.options = options;
+  }
+
+  /** Execute the command. */
+  public void run() {
+    printHeader();
+    prepareManifest();
+    runShards();
+    mergeShards();
+    printFooter();
+  }
+
+  private void printHeader() {
+    LOGGER.info("OntoLib CLI -- Coordinating Score Precomputation");
+    LOGGER.info("");
+    LOGGER.info("Options");
+    LOGGER.info("=======");
+    LOGGER.info("");
+    LOGGER.info(options.toString());
+  }
+
+  private void prepareManifest() {
+    workDir = new File(options.getWorkDir());
+    if (!workDir.isDirectory() && !workDir.mkdirs()) {
+      throw new OntoLibRuntimeException("Could not create work directory " + workDir);
+    }
+
+    final File manifestFile = new File(workDir, MANIFEST_FILE_NAME);
+    final int numShards = (options.getNumShards() > 0) ? options.getNumShards()
+        : DEFAULT_SHARDS_PER_WORKER * options.getNumWorkers();
+    LOGGER.info("Loading or creating shard manifest {}...", manifestFile);
+    try {
+      manifest = ShardManifest.loadOrPartition(manifestFile, buildFingerprint(),
+          this::estimateCosts, numShards);
+    } catch (OntoLibException e) {
+      throw new OntoLibRuntimeException("Problem preparing shard manifest", e);
+    }
+
+    for (Shard shard : manifest.getShards()) {
+      LOGGER.info("{}", shard);
+    }
+    LOGGER.info("Done preparing {} shards.", manifest.getShards().size());
+  }
+
+  /**
+   * @return Fingerprint of all options that affect the shard outputs.
+   */
+  private String buildFingerprint() {
+    return "oboFile=" + new File(options.getOboFile()).getAbsolutePath() + ",geneToTermLinkFile="
+        + new File(options.getGeneToTermLinkFile()).getAbsolutePath() + ",minNumTerms="
+        + options.getMinNumTerms() + ",maxNumTerms=" + options.getMaxNumTerms()
+        + ",numIterations=" + options.getNumIterations() + ",seed=" + options.getSeed()
+        + ",sharedSamples=" + options.isSharedSamples() + ",convergenceTolerance="
+        + options.getConvergenceTolerance() + ",convergenceCheckInterval="
+        + options.getConvergenceCheckInterval();
+  }
+
+  /**
+   * Estimate the sampling cost of each object.
+   *
+   * <p>
+   * Scoring a query against an object is linear in the number of terms of the object, so the
+   * estimate is the number of annotations plus one for the per-object overhead.
+   * </p>
+   *
+   * @return Estimated cost by object ID.
+   */
+  private SortedMap<Integer, Long> estimateCosts() {
+    final SortedMap<Integer, Long> costs = new TreeMap<>();
+    final File inputFile = new File(options.getGeneToTermLinkFile());
+    try (HpoGeneAnnotationParser parser = new HpoGeneAnnotationParser(inputFile)) {
+      while (parser.hasNext()) {
+        costs.merge(parser.next().getEntrezGeneId(), 1L, Long::sum);
+      }
+    } catch (IOException | TermAnnotationParserException e) {
+      throw new OntoLibRuntimeException("Problem reading from file " + inputFile, e);
+    }
+    costs.replaceAll((objectId, cost) -> cost + 1);
+    return costs;
+  }
+
+  private void runShards() {
+    final List<Shard> todo = new ArrayList<>();
+    for (Shard shard : manifest.getShards()) {
+      if (manifest.getState(shard) != State.DONE || !getOutputFile(shard).exists()) {
+        todo.add(shard);
+      }
+    }
+    LOGGER.info("Running {} of {} shards with {} workers...",
+        new Object[] {todo.size(), manifest.getShards().size(), options.getNumWorkers()});
+
+    final AtomicInteger numFinished = new AtomicInteger();
+    final ExecutorService executor = Executors.newFixedThreadPool(options.getNumWorkers());
+    final List<Future<Boolean>> futures = new ArrayList<>();
+    for (Shard shard : todo) {
+      futures.add(executor.submit(() -> {
+        final boolean success = runShard(shard);
+        LOGGER.info("Finished {} of {} shards", numFinished.incrementAndGet(), todo.size());
+        return success;
+      }));
+    }
+    executor.shutdown();
+
+    final List<Integer> failed = new ArrayList<>();
+    for (int i = 0; i < todo.size(); ++i) {
+      try {
+        if (!futures.get(i).get()) {
+          failed.add(todo.get(i).getIndex());
+        }
+      } catch (InterruptedException | ExecutionException e) {
+        throw new OntoLibRuntimeException("Problem running shard " + todo.get(i).getIndex(), e);
+      }
+    }
+    if (!failed.isEmpty()) {
+      throw new OntoLibRuntimeException("Shards " + failed + " failed, see logs in " + workDir
+          + "; rerun the command to retry them");
+    }
+    LOGGER.info("Done running shards.");
+  }
+
+  /**
+   * Run one shard in a worker process, retrying on failure.
+   *
+   * @param shard The {@link Shard} to compute.
+   * @return Whether or not the shard was computed successfully.
+   * @throws OntoLibException In the case of problems updating the manifest.
+   */
+  private boolean runShard(Shard shard) throws OntoLibException {
+    final File logFile = new File(workDir, "shard-" + shard.getIndex() + ".log");
+    return runWithRetries(manifest, shard, getOutputFile(shard), options.getMaxRetries(),
+        tmpFile -> {
+          LOGGER.info("Starting shard {} (attempt {}), log is {}",
+              new Object[] {shard.getIndex(), manifest.getAttempts(shard), logFile});
+          final ProcessBuilder builder = new ProcessBuilder(buildWorkerCommand(shard, tmpFile));
+          builder.redirectErrorStream(true);
+          builder.redirectOutput(Redirect.appendTo(logFile));
+          return builder.start().waitFor();
+        });
+  }
+
+  /**
+   * One attempt at computing a shard.
+   */
+  @FunctionalInterface
+  interface ShardAttempt {
+
+    /**
+     * Compute the shard.
+     *
+     * @param outputFile Path to the file to write the shard output to.
+     * @return Exit code, <code>0</code> on success.
+     * @throws IOException In the case of problems starting the computation.
+     * @throws InterruptedException If interrupted while waiting for the computation.
+     */
+    int run(File outputFile) throws IOException, InterruptedException;
+
+  }
+
+  /**
+   * Compute a shard, retrying on failure, and track its state and attempts in the manifest.
+   *
+   * <p>
+   * Each attempt writes to a temporary file that is moved to <code>outputFile</code> on success.
+   * On interruption, the shard is reset to pending and no further attempts are made.
+   * </p>
+   *
+   * @param manifest The {@link ShardManifest} to update.
+   * @param shard The {@link Shard} to compute.
+   * @param outputFile Path to the output file of the shard.
+   * @param maxRetries Number of retries after the first attempt.
+   * @param attempt The {@link ShardAttempt} to run for each attempt.
+   * @return Whether or not the shard was computed successfully.
+   * @throws OntoLibException In the case of problems updating the manifest.
+   */
+  static boolean runWithRetries(ShardManifest manifest, Shard shard, File outputFile,
+      int maxRetries, ShardAttempt attempt) throws OntoLibException {
+    final File tmpFile = new File(outputFile.getPath() + ".tmp");
+    for (int i = 0; i <= maxRetries; ++i) {
+      manifest.update(shard, State.RUNNING, true);
+      int exitCode;
+      try {
+        exitCode = attempt.run(tmpFile);
+        if (exitCode == 0) {
+          Files.move(tmpFile.toPath(), outputFile.toPath(), StandardCopyOption.REPLACE_EXISTING,
+              StandardCopyOption.ATOMIC_MOVE);
+          manifest.update(shard, State.DONE, false);
+          return true;
+        }
+      } catch (IOException e) {
+        LOGGER.warn("Problem running shard {}: {}", shard.getIndex(), e.getMessage());
+        exitCode = -1;
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        manifest.update(shard, State.PENDING, false);
+        return false;
+      }
+      LOGGER.warn("Shard {} failed with exit code {}", shard.getIndex(), exitCode);
+      manifest.update(shard, State.FAILED, false);
+    }
+    return false;
+  }
+
+  /**
+   * Build the command line of the worker process for a shard.
+   *
+   * <p>
+   * The worker runs {@link Main} with the class path and Java installation of this process.
+   * </p>
+   */
+  private List<String> buildWorkerCommand(Shard shard, File outputFile) {
+    final List<String> command = new ArrayList<>();
+    command.add(new File(new File(System.getProperty("java.home"), "bin"), "java").getPath());
+    command.addAll(options.getWorkerJvmArgs());
+    command.add("-cp");
+    command.add(System.getProperty("java.class.path"));
+    command.add(Main.class.getName());
+    command.add("precompute-scores");
+    command.add("--num-threads=" + options.getNumThreads());
+    command.add("--min-object-id=" + shard.getMinObjectId());
+    command.add("--max-object-id=" + shard.getMaxObjectId());
+    command.add("--min-num-terms=" + options.getMinNumTerms());
+    command.add("--max-num-terms=" + options.getMaxNumTerms());
+    command.add("--num-iterations=" + options.getNumIterations());
+    command.add("--seed=" + options.getSeed());
+    if (options.isSharedSamples()) {
+      command.add("--shared-samples");
+    }
+    command.add("--convergence-tolerance=" + options.getConvergenceTolerance());
+    command.add("--convergence-check-interval=" + options.getConvergenceCheckInterval());
+    command.add("--input-obo-file=" + options.getOboFile());
+    command.add("--gene-to-term-file=" + options.getGeneToTermLinkFile());
+    command.add("--output-score-dist=" + outputFile.getPath());
+    return command;
+  }
+
+  /**
+   * @return Path to the score distribution file of a shard.
+   */
+  private File getOutputFile(Shard shard) {
+    return new File(workDir, "shard-" + shard.getIndex() + ".txt");
+  }
+
+  private void mergeShards() {
+    LOGGER.info("Merging shard outputs...");
+    final List<File> inputFiles = new ArrayList<>();
+    for (Shard shard : manifest.getShards()) {
+      inputFiles.add(getOutputFile(shard));
+    }
+    try {
+      final long numRecords =
+          ShardOutputMerger.merge(inputFiles, new File(options.getOutputScoreDistFile()));
+      LOGGER.info("Done merging {} records.", numRecords);
+    } catch (OntoLibException e) {
+      throw new OntoLibRuntimeException("Problem merging shard outputs", e);
+    }
+  }
+
+  private void printFooter() {
+    LOGGER.info("All Done.\nHave a nice day!\n");
+  }
+
+}
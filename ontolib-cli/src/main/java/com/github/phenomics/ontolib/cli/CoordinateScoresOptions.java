@@ -0,0 +1,200 @@
+package com.github.phenomics.ontolib.cli;
+
+import com.beust.jcommander.Parameter;
+import com.beust.jcommander.Parameters;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Command line options for the {@code coordinate-scores} command.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+@Parameters(separators = "=",
+    commandDescription = "Precompute score distributions in shards run by local worker processes")
+public class CoordinateScoresOptions {
+
+  @Parameter(names = {"--work-dir"},
+      description = "Directory for shard manifest, outputs, and logs.", required = true)
+  private String workDir;
+
+  @Parameter(names = {"--num-workers"}, description = "Number of worker processes to run.")
+  private int numWorkers = 1;
+
+  @Parameter(names = {"--num-shards"},
+      description = "Number of shards to create, 0 for four shards per worker.")
+  private int numShards = 0;
+
+  @Parameter(names = {"--max-retries"}, description = "Number of retries for failed shards.")
+  private int maxRetries = 2;
+
+  @Parameter(names = {"--worker-jvm-arg"},
+      description = "Argument to pass to the JVM of the workers, e.g., -Xmx4G; may be repeated.")
+  private List<String> workerJvmArgs = new ArrayList<>();
+
+  @Parameter(names = {"-t", "--num-threads"}, description = "Number of threads per worker.")
+  private int numThreads = 1;
+
+  @Parameter(names = {
+      "--min-num-terms"}, description = "Minimal number of terms to precompute for.")
+  private int minNumTerms = 1;
+
+  @Parameter(names = {
+      "--max-num-terms"}, description = "Maximal number of terms to precompute for.")
+  private int maxNumTerms = 20;
+
+  @Parameter(names = {"--num-iterations"}, description = "Number of iterations to run.")
+  private int numIterations = 10_000;
+
+  @Parameter(names = {"--seed"}, description = "Seed to use for RNG.")
+  private int seed = 42;
+
+  @Parameter(names = {"--shared-samples"},
+      description = "Score the same random term sets against all objects.")
+  private boolean sharedSamples = false;
+
+  @Parameter(names = {"--convergence-tolerance"},
+      description = "Stop sampling an object once its tail quantiles change by at most this value.")
+  private double convergenceTolerance = 0.0;
+
+  @Parameter(names = {"--convergence-check-interval"},
+      description = "Number of iterations between convergence checks.")
+  private int convergenceCheckInterval = 1000;
+
+  @Parameter(names = {
+      "--input-obo-file"}, description = "Path to (HPO) OBO file to load.", required = true)
+  private String oboFile;
+
+  @Parameter(names = {
+      "--gene-to-term-file"}, description = "Path to gene-to-term link file.", required = true)
+  private String geneToTermLinkFile;
+
+  @Parameter(names = {"--output-score-dist"},
+      description = "Path to merged output score distribution file", required = true)
+  private String outputScoreDistFile;
+
+  /**
+   * @return Path to the work directory.
+   */
+  public String getWorkDir() {
+    return workDir;
+  }
+
+  /**
+   * @return Number of worker processes to run in parallel.
+   */
+  public int getNumWorkers() {
+    return numWorkers;
+  }
+
+  /**
+   * @return Number of shards to create, {@code 0} for four shards per worker.
+   */
+  public int getNumShards() {
+    return numShards;
+  }
+
+  /**
+   * @return Number of times to retry a failed shard.
+   */
+  public int getMaxRetries() {
+    return maxRetries;
+  }
+
+  /**
+   * @return Arguments to pass to the JVM of the worker processes.
+   */
+  public List<String> getWorkerJvmArgs() {
+    return workerJvmArgs;
+  }
+
+  /**
+   * @return Return number of threads to use per worker.
+   */
+  public int getNumThreads() {
+    return numThreads;
+  }
+
+  /**
+   * @return The smallest number of terms to precompute for.
+   */
+  public int getMinNumTerms() {
+    return minNumTerms;
+  }
+
+  /**
+   * @return The largest number of terms to precompute for.
+   */
+  public int getMaxNumTerms() {
+    return maxNumTerms;
+  }
+
+  /**
+   * @return The number of iterations to perform.
+   */
+  public int getNumIterations() {
+    return numIterations;
+  }
+
+  /**
+   * @return The seed for RNG.
+   */
+  public int getSeed() {
+    return seed;
+  }
+
+  /**
+   * @return Whether or not to share random term sets between all objects.
+   */
+  public boolean isSharedSamples() {
+    return sharedSamples;
+  }
+
+  /**
+   * @return Tolerance of the tail quantiles for stopping early, {@code 0} for no early stopping.
+   */
+  public double getConvergenceTolerance() {
+    return convergenceTolerance;
+  }
+
+  /**
+   * @return Number of iterations between two convergence checks.
+   */
+  public int getConvergenceCheckInterval() {
+    return convergenceCheckInterval;
+  }
+
+  /**
+   * @return Path to the input OBO file.
+   */
+  public String getOboFile() {
+    return oboFile;
+  }
+
+  /**
+   * @return Path to the gene-to-term link file.
+   */
+  public String getGeneToTermLinkFile() {
+    return geneToTermLinkFile;
+  }
+
+  /**
+   * @return Path to merged output score distribution file to write.
+   */
+  public String getOutputScoreDistFile() {
+    return outputScoreDistFile;
+  }
+
+  @Override
+  public String toString() {
+    return "CoordinateScoresOptions [workDir=" + workDir + ", numWorkers=" + numWorkers
+        + ", numShards=" + numShards + ", maxRetries=" + maxRetries + ", workerJvmArgs="
+        + workerJvmArgs + ", numThreads=" + numThreads + ", minNumTerms=" + minNumTerms
+        + ", maxNumTerms=" + maxNumTerms + ", numIterations=" + numIterations + ", seed=" + seed
+        + ", sharedSamples=" + sharedSamples + ", convergenceTolerance=" + convergenceTolerance
+        + ", convergenceCheckInterval=" + convergenceCheckInterval + ", oboFile=" + oboFile
+        + ", geneToTermLinkFile=" + geneToTermLinkFile + ", outputScoreDistFile="
+        + outputScoreDistFile + "]";
+  }
+
+}
@@ -18,13 +18,19 @@ public class Main {
 
   private static final String PRECOMPUTE_SCORES = "precompute-scores";
   private static final String MERGE_SCORES = "merge-scores";
+  private static final String COORDINATE_SCORES = "coordinate-scores";
+  private static final String CONVERT_SCORES = "convert-scores";
 
   public static void main(String[] argv) {
     final PrecomputeScoresOptions precomputeScoresOptions = new PrecomputeScoresOptions();
     final MergeScoresOptions mergeScoresOptions = new MergeScoresOptions();
+    final CoordinateScoresOptions coordinateScoresOptions = new CoordinateScoresOptions();
+    final ConvertScoresOptions convertScoresOptions = new ConvertScoresOptions();
     final JCommander jc =
         JCommander.newBuilder().addCommand(PRECOMPUTE_SCORES, precomputeScoresOptions)
-            .addCommand(MERGE_SCORES, mergeScoresOptions).build();
+            .addCommand(MERGE_SCORES, mergeScoresOptions)
+            .addCommand(COORDINATE_SCORES, coordinateScoresOptions)
+            .addCommand(CONVERT_SCORES, convertScoresOptions).build();
     try {
       jc.parse(argv);
     } catch (ParameterException e) {
@@ -45,6 +51,12 @@ public class Main {
       case MERGE_SCORES:
         new MergeScoresCommand(mergeScoresOptions).run();
         break;
+      case COORDINATE_SCORES:
+        new CoordinateScoresCommand(coordinateScoresOptions).run();
+        break;
+      case CONVERT_SCORES:
+        new ConvertScoresCommand(convertScoresOptions).run();
+        break;
     }
   }
 
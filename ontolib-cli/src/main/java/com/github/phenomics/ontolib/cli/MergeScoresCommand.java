@@ -3,12 +3,7 @@ package com.github.phenomics.ontolib.cli;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.IOException;
-import java.util.ArrayList;
-import java.util.List;
-import java.util.Map;
-import java.util.Map.Entry;
-import java.util.SortedMap;
-import java.util.TreeMap;
+import java.util.Collections;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -16,16 +11,23 @@ import org.slf4j.LoggerFactory;
 import com.github.phenomics.ontolib.base.OntoLibException;
 import com.github.phenomics.ontolib.base.OntoLibRuntimeException;
 import com.github.phenomics.ontolib.io.scoredist.H2ScoreDistributionWriter;
-import com.github.phenomics.ontolib.io.scoredist.ScoreDistributionReader;
+import com.github.phenomics.ontolib.io.scoredist.H2ScoreDistributionWriter.ArrayEncoding;
 import com.github.phenomics.ontolib.io.scoredist.ScoreDistributionWriter;
 import com.github.phenomics.ontolib.io.scoredist.TextFileScoreDistributionReader;
 import com.github.phenomics.ontolib.io.scoredist.TextFileScoreDistributionWriter;
+import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
 import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistribution;
-import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistributions;
 
 /**
  * Implementation of {@code merge-scores} command.
  *
+ * <p>
+ * The input files must be sorted by term count and object ID, as written by
+ * {@code precompute-scores}. They are merged by a streaming k-way merge
+ * ({@link SortedScoreRecordMerge}) that keeps only the current record of each input in memory and
+ * writes each merged record straight to the output.
+ * </p>
+ *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  */
 public class MergeScoresCommand {
@@ -38,12 +40,6 @@ public class MergeScoresCommand {
   /** Configuration parsed from command line. */
   private MergeScoresOptions options;
 
-  /** The loaded distributions. */
-  private SortedMap<Integer, List<ScoreDistribution>> loadedDists = new TreeMap<>();
-
-  /** The merged distributions. */
-  private SortedMap<Integer, ScoreDistribution> mergedDists = new TreeMap<>();
-
   public MergeScoresCommand(MergeScoresOptions options) {
     this.options = options;
   }
@@ -52,55 +48,39 @@ public class MergeScoresCommand {
   public void run() {
     printHeader();
 
-    loadDistributions();
     mergeDistributions();
-    writeResult();
 
     printFooter();
   }
 
-  private void loadDistributions() {
-    LOGGER.info("Loading distributions...");
-
-    for (String inputPath : options.getInputFiles()) {
-      LOGGER.info("Loading {}", inputPath);
-      try (final ScoreDistributionReader reader =
-          new TextFileScoreDistributionReader(new File(inputPath))) {
-        Map<Integer, ScoreDistribution> distributions = reader.readAll();
-        for (Entry<Integer, ScoreDistribution> e : distributions.entrySet()) {
-          if (!loadedDists.containsKey(e.getKey())) {
-            loadedDists.put(e.getKey(), new ArrayList<>());
-          }
-          loadedDists.get(e.getKey()).add(e.getValue());
-        }
-      } catch (OntoLibException | IOException e) {
-        throw new OntoLibRuntimeException("Problem reading input file: " + inputPath, e);
-      }
-    }
-
-    LOGGER.info("Done loading distributions.");
-  }
-
   private void mergeDistributions() {
-    LOGGER.info("Merging distributions...");
-
-    for (Entry<Integer, List<ScoreDistribution>> e : loadedDists.entrySet()) {
-      mergedDists.put(e.getKey(), ScoreDistributions.merge(e.getValue()));
-    }
-
-    LOGGER.info("Done merging distributions.");
-  }
+    LOGGER.info("Merging {} input files...", options.getInputFiles().size());
+
+    try (SortedScoreRecordMerge<ObjectScoreDistribution> merge = new SortedScoreRecordMerge<>(
+        ObjectScoreDistribution::getNumTerms, ObjectScoreDistribution::getObjectId);
+        ScoreDistributionWriter writer = buildWriter()) {
+      for (String inputPath : options.getInputFiles()) {
+        final TextFileScoreDistributionReader reader =
+            new TextFileScoreDistributionReader(new File(inputPath));
+        merge.addInput(inputPath, reader::readNext, reader);
+      }
 
-  private void writeResult() {
-    LOGGER.info("Writing result...");
-    try (ScoreDistributionWriter writer = buildWriter()) {
-      for (Entry<Integer, ScoreDistribution> e : mergedDists.entrySet()) {
-        writer.write(e.getKey(), e.getValue(), options.getResampleToPoints());
+      long count = 0;
+      ObjectScoreDistribution dist;
+      while ((dist = merge.next()) != null) {
+        writer.write(dist.getNumTerms(), new ScoreDistribution(dist.getNumTerms(),
+            Collections.singletonMap(dist.getObjectId(), dist)), options.getResampleToPoints());
+        if (++count % 10_000 == 0) {
+          LOGGER.info("Merged {} records", count);
+        }
       }
+      LOGGER.info("Merged {} records in total", count);
     } catch (IOException | OntoLibException e) {
-      throw new RuntimeException("Problem writing to output file: " + options.getOutputFile(), e);
+      throw new OntoLibRuntimeException("Problem merging into output file: "
+          + options.getOutputFile(), e);
     }
-    LOGGER.info("Done writing result.");
+
+    LOGGER.info("Done merging distributions.");
   }
 
   /**
@@ -111,7 +91,8 @@ public class MergeScoresCommand {
     if (options.isWriteToH2()) {
       LOGGER.info("Creating H2 database connection for writing score distribution...");
       final String pathDbAbs = new File(options.getOutputFile()).getAbsolutePath();
-      return new H2ScoreDistributionWriter(pathDbAbs, options.getH2TableName(), true);
+      return new H2ScoreDistributionWriter(pathDbAbs, options.getH2TableName(), true,
+          ArrayEncoding.PACKED, options.getH2BatchSize());
     } else {
       LOGGER.info("Opening text file for writing score distribution...");
       try {
@@ -2,6 +2,7 @@ package com.github.phenomics.ontolib.cli;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
+import com.github.phenomics.ontolib.io.scoredist.H2ScoreDistributionWriter;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -25,6 +26,10 @@ public class MergeScoresOptions {
   @Parameter(names = "--h2-table-name", description = "Name of table in H2 database when writing to H2 db.")
   private String h2TableName = "phenix_score_distribution";
 
+  @Parameter(names = "--h2-batch-size",
+      description = "Number of rows per batch and transaction when writing to H2 db.")
+  private int h2BatchSize = H2ScoreDistributionWriter.DEFAULT_BATCH_SIZE;
+
   @Parameter(names = "--resample-to-points", description = "Distribution will be resampled to this number "
       + "of points (0 for no resampling, default)")
   private int resampleToPoints = 0;
@@ -57,6 +62,13 @@ public class MergeScoresOptions {
     return h2TableName;
   }
 
+  /**
+   * @return Number of rows per batch and transaction when writing to H2 database.
+   */
+  public int getH2BatchSize() {
+    return h2BatchSize;
+  }
+
   /**
    * @return The number of points to resample to.
    */
@@ -67,8 +79,8 @@ public class MergeScoresOptions {
   @Override
   public String toString() {
     return "MergeScoresOptions [inputFiles=" + inputFiles + ", outputFile=" + outputFile
-        + ", writeToH2=" + writeToH2 + ", h2TableName=" + h2TableName + ", resampleToPoints="
-        + resampleToPoints + "]";
+        + ", writeToH2=" + writeToH2 + ", h2TableName=" + h2TableName + ", h2BatchSize="
+        + h2BatchSize + ", resampleToPoints=" + resampleToPoints + "]";
   }
 
 }
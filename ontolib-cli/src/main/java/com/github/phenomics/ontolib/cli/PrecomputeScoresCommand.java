@@ -8,9 +8,14 @@ import com.github.phenomics.ontolib.formats.hpo.HpoTermRelation;
 import com.github.phenomics.ontolib.io.base.TermAnnotationParserException;
 import com.github.phenomics.ontolib.io.obo.hpo.HpoGeneAnnotationParser;
 import com.github.phenomics.ontolib.io.obo.hpo.HpoOboParser;
+import com.github.phenomics.ontolib.io.scoredist.H2ScoreDistributionWriter;
+import com.github.phenomics.ontolib.io.scoredist.H2ScoreDistributionWriter.ArrayEncoding;
+import com.github.phenomics.ontolib.io.scoredist.ScoreDistributionReader;
 import com.github.phenomics.ontolib.io.scoredist.ScoreDistributionWriter;
+import com.github.phenomics.ontolib.io.scoredist.TextFileScoreDistributionReader;
 import com.github.phenomics.ontolib.io.scoredist.TextFileScoreDistributionWriter;
 import com.github.phenomics.ontolib.ontology.algo.InformationContentComputation;
+import com.github.phenomics.ontolib.ontology.algo.InformationContentTable;
 import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
 import com.github.phenomics.ontolib.ontology.data.TermAnnotations;
 import com.github.phenomics.ontolib.ontology.data.TermId;
@@ -19,6 +24,7 @@ import com.github.phenomics.ontolib.ontology.scoredist.ScoreSamplingOptions;
 import com.github.phenomics.ontolib.ontology.scoredist.SimilarityScoreSampling;
 import com.github.phenomics.ontolib.ontology.similarity.ResnikSimilarity;
 import java.io.File;
+import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Collection;
@@ -108,7 +114,8 @@ public class PrecomputeScoresCommand {
     LOGGER.info("Loading gene-to-term link file...");
     final ArrayList<HpoGeneAnnotation> termAnnotations = new ArrayList<>();
     final File inputFile = new File(options.getGeneToTermLinkFile());
-    try (HpoGeneAnnotationParser parser = new HpoGeneAnnotationParser(inputFile)) {
+    try (HpoGeneAnnotationParser parser =
+        new HpoGeneAnnotationParser(inputFile, ontology.getTermIdDictionary())) {
       while (parser.hasNext()) {
         final HpoGeneAnnotation anno = parser.next();
         if (phenotypicAbnormalitySubOntology.getNonObsoleteTermIds().contains(anno.getTermId())) {
@@ -144,13 +151,13 @@ public class PrecomputeScoresCommand {
     LOGGER.info("Performing information content precomputation...");
     final InformationContentComputation<HpoTerm, HpoTermRelation> icPrecomputation =
         new InformationContentComputation<>(phenotypicAbnormalitySubOntology);
-    final Map<TermId, Double> termToIc =
-        icPrecomputation.computeInformationContent(termIdToObjectId);
+    final InformationContentTable icTable =
+        icPrecomputation.computeInformationContentTable(termIdToObjectId);
     LOGGER.info("Done with precomputing information content.");
 
     LOGGER.info("Performing pairwise Resnik similarity precomputation...");
     resnikSimilarity = new ResnikSimilarity<HpoTerm, HpoTermRelation>(
-        phenotypicAbnormalitySubOntology, termToIc, /* symmetric= */false);
+        phenotypicAbnormalitySubOntology, icTable, /* symmetric= */false);
     LOGGER.info("Done with precomputing pairwise Resnik similarity.");
   }
 
@@ -160,11 +167,30 @@ public class PrecomputeScoresCommand {
     final ScoreSamplingOptions samplingOptions = new ScoreSamplingOptions(options.getNumThreads(),
         options.getMinObjectId(), options.getMaxObjectId(), options.getMinNumTerms(),
         options.getMaxNumTerms(), options.getSeed(), options.getNumIterations());
+    samplingOptions.setSharedSamples(options.isSharedSamples());
+    samplingOptions.setConvergenceTolerance(options.getConvergenceTolerance());
+    samplingOptions.setConvergenceCheckInterval(options.getConvergenceCheckInterval());
 
     final SimilarityScoreSampling<HpoTerm, HpoTermRelation> sampling =
         new SimilarityScoreSampling<>(phenotypicAbnormalitySubOntology, resnikSimilarity,
             samplingOptions);
-    scoreDistribution = sampling.performSampling(objectIdToTermId);
+    if (options.getResumeScoreDistFile() == null) {
+      scoreDistribution = sampling.performSampling(objectIdToTermId);
+    } else {
+      LOGGER.info("Loading score distribution to extend...");
+      LOGGER.warn("Resuming from {}; the result only equals sampling all iterations at once if "
+          + "it was written with --resolution 0, otherwise it is an approximation.",
+          new Object[] {options.getResumeScoreDistFile()});
+      final Map<Integer, ScoreDistribution> previous;
+      try (final ScoreDistributionReader reader =
+          new TextFileScoreDistributionReader(new File(options.getResumeScoreDistFile()))) {
+        previous = reader.readAll();
+      } catch (IOException | OntoLibException e) {
+        throw new RuntimeException("Problem reading score distribution file", e);
+      }
+      LOGGER.info("Done loading score distribution.");
+      scoreDistribution = sampling.extendSampling(objectIdToTermId, previous);
+    }
 
     LOGGER.info("Done with sampling.");
   }
@@ -172,11 +198,15 @@ public class PrecomputeScoresCommand {
   private void writeDistribution() {
     LOGGER.info("Writing out score distribution...");
 
-    final int resolution = Math.min(1000, Math.max(100, options.getNumIterations() / 100));
+    final int resolution = options.getResolution();
+    if (resolution != 0) {
+      LOGGER.info("Writing {} points per distribution, use --resolution 0 for resumable output.",
+          new Object[] {resolution});
+    }
 
-    try (final ScoreDistributionWriter writer =
-        new TextFileScoreDistributionWriter(new File(options.getOutputScoreDistFile()))) {
-      for (Entry<Integer, ScoreDistribution> e : scoreDistribution.entrySet()) {
+    try (final ScoreDistributionWriter writer = buildWriter()) {
+      // Write out sorted by term count, such that outputs can be merged as sorted streams.
+      for (Entry<Integer, ScoreDistribution> e : new TreeMap<>(scoreDistribution).entrySet()) {
         writer.write(e.getKey(), e.getValue(), resolution);
       }
     } catch (IOException | OntoLibException e) {
@@ -186,6 +216,25 @@ public class PrecomputeScoresCommand {
     LOGGER.info("Done writing out distribution.");
   }
 
+  /**
+   * @return {@link ScoreDistributionWriter}, depending on configured path and type.
+   * @throws OntoLibException in the case of problems creating the writer.
+   */
+  private ScoreDistributionWriter buildWriter() throws OntoLibException {
+    if (options.isWriteToH2()) {
+      LOGGER.info("Creating H2 database connection for writing score distribution...");
+      final String pathDbAbs = new File(options.getOutputScoreDistFile()).getAbsolutePath();
+      return new H2ScoreDistributionWriter(pathDbAbs, options.getH2TableName(), true,
+          ArrayEncoding.PACKED, options.getH2BatchSize());
+    } else {
+      try {
+        return new TextFileScoreDistributionWriter(new File(options.getOutputScoreDistFile()));
+      } catch (FileNotFoundException e) {
+        throw new OntoLibException("Could not find file " + options.getOutputScoreDistFile(), e);
+      }
+    }
+  }
+
   private void printFooter() {
     LOGGER.info("All Done.\nHave a nice day!\n");
   }
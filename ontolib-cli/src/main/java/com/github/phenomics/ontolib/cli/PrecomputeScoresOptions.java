@@ -2,6 +2,7 @@ package com.github.phenomics.ontolib.cli;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.Parameters;
+import com.github.phenomics.ontolib.io.scoredist.H2ScoreDistributionWriter;
 
 /**
  * Command line options for the {@code precompute-scores} command.
@@ -34,6 +35,30 @@ public class PrecomputeScoresOptions {
   @Parameter(names = {"--seed"}, description = "Seed to use for RNG.")
   private int seed = 42;
 
+  @Parameter(names = {"--shared-samples"},
+      description = "Score the same random term sets against all objects.")
+  private boolean sharedSamples = false;
+
+  @Parameter(names = {"--convergence-tolerance"},
+      description = "Stop sampling an object once its tail quantiles change by at most this value.")
+  private double convergenceTolerance = 0.0;
+
+  @Parameter(names = {"--convergence-check-interval"},
+      description = "Number of iterations between convergence checks.")
+  private int convergenceCheckInterval = 1000;
+
+  @Parameter(names = {"--resume-score-dist"},
+      description = "Path to score distribution file to extend to --num-iterations, if any. The "
+          + "file must have been written with --resolution 0, otherwise the result is only an "
+          + "approximation of sampling all iterations at once.")
+  private String resumeScoreDistFile;
+
+  @Parameter(names = {"--resolution"},
+      description = "Number of points to write per score distribution, 0 for full resolution as "
+          + "required for --resume-score-dist; defaults to --num-iterations / 100, clamped to "
+          + "[100, 1000].")
+  private Integer resolution;
+
   @Parameter(names = {
       "--input-obo-file"}, description = "Path to (HPO) OBO file to load.", required = true)
   private String oboFile;
@@ -46,6 +71,18 @@ public class PrecomputeScoresOptions {
       "--output-score-dist"}, description = "Path to output score distribution file", required = true)
   private String outputScoreDistFile;
 
+  @Parameter(names = {"--write-to-h2"},
+      description = "Write out to H2 database instead of text file.")
+  private boolean writeToH2 = false;
+
+  @Parameter(names = {"--h2-table-name"},
+      description = "Name of table in H2 database when writing to H2 db.")
+  private String h2TableName = "phenix_score_distribution";
+
+  @Parameter(names = {"--h2-batch-size"},
+      description = "Number of rows per batch and transaction when writing to H2 db.")
+  private int h2BatchSize = H2ScoreDistributionWriter.DEFAULT_BATCH_SIZE;
+
   /**
    * @return Return number of threads to use.
    */
@@ -95,6 +132,45 @@ public class PrecomputeScoresOptions {
     return seed;
   }
 
+  /**
+   * @return Whether or not to share random term sets between all objects.
+   */
+  public boolean isSharedSamples() {
+    return sharedSamples;
+  }
+
+  /**
+   * @return Tolerance of the tail quantiles for stopping early, {@code 0} for no early stopping.
+   */
+  public double getConvergenceTolerance() {
+    return convergenceTolerance;
+  }
+
+  /**
+   * @return Number of iterations between two convergence checks.
+   */
+  public int getConvergenceCheckInterval() {
+    return convergenceCheckInterval;
+  }
+
+  /**
+   * @return Path to the score distribution file to extend, {@code null} for none.
+   */
+  public String getResumeScoreDistFile() {
+    return resumeScoreDistFile;
+  }
+
+  /**
+   * @return Number of points to write per score distribution, {@code 0} for full resolution.
+   */
+  public int getResolution() {
+    if (resolution == null) {
+      return Math.min(1000, Math.max(100, numIterations / 100));
+    } else {
+      return resolution;
+    }
+  }
+
   /**
    * @return Path to the input OBO file.
    */
@@ -116,13 +192,38 @@ public class PrecomputeScoresOptions {
     return outputScoreDistFile;
   }
 
+  /**
+   * @return Whether or not to write to H2 database.
+   */
+  public boolean isWriteToH2() {
+    return writeToH2;
+  }
+
+  /**
+   * @return Name of table in H2 database when writing to H2 database.
+   */
+  public String getH2TableName() {
+    return h2TableName;
+  }
+
+  /**
+   * @return Number of rows per batch and transaction when writing to H2 database.
+   */
+  public int getH2BatchSize() {
+    return h2BatchSize;
+  }
+
   @Override
   public String toString() {
     return "PrecomputeScoresOptions [numThreads=" + numThreads + ", minObjectId=" + minObjectId
         + ", maxObjectId=" + maxObjectId + ", minNumTerms=" + minNumTerms + ", maxNumTerms="
-        + maxNumTerms + ", numIterations=" + numIterations + ", seed=" + seed + ", oboFile="
-        + oboFile + ", geneToTermLinkFile=" + geneToTermLinkFile + ", outputScoreDistFile="
-        + outputScoreDistFile + "]";
+        + maxNumTerms + ", numIterations=" + numIterations + ", seed=" + seed + ", sharedSamples="
+        + sharedSamples + ", convergenceTolerance=" + convergenceTolerance
+        + ", convergenceCheckInterval=" + convergenceCheckInterval + ", resumeScoreDistFile="
+        + resumeScoreDistFile + ", resolution=" + resolution + ", oboFile=" + oboFile
+        + ", geneToTermLinkFile=" + geneToTermLinkFile + ", outputScoreDistFile="
+        + outputScoreDistFile + ", writeToH2=" + writeToH2 + ", h2TableName=" + h2TableName
+        + ", h2BatchSize=" + h2BatchSize + "]";
   }
 
 }
@@ -0,0 +1,311 @@
+package com.github.phenomics.ontolib.cli;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map.Entry;
+import java.util.SortedMap;
+import java.util.function.Supplier;
+
+/**
+ * Manifest of the shards of a {@code coordinate-scores} run, persisted in a local text file.
+ *
+ * <p>
+ * Each shard is a contiguous range of object IDs together with its estimated cost, state, and
+ * number of attempts. The file is rewritten atomically on every state change such that an
+ * interrupted run can be resumed from the work directory. The manifest also records a fingerprint
+ * of the sampling configuration, shards are only reused for the same configuration.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class ShardManifest {
+
+  /** First line of manifest files. */
+  private static final String MAGIC = "#ontolib-shard-manifest\t1";
+
+  /** Prefix of the fingerprint line. */
+  private static final String FINGERPRINT_PREFIX = "#fingerprint\t";
+
+  /** Column header line. */
+  private static final String COLUMNS = "#shard\tminObjectId\tmaxObjectId\tcost\tstate\tattempts";
+
+  /** State of a shard. */
+  enum State {
+    /** Not computed yet. */
+    PENDING,
+    /** Currently being computed by a worker. */
+    RUNNING,
+    /** Computed successfully. */
+    DONE,
+    /** All attempts failed. */
+    FAILED
+  }
+
+  /** One shard of the manifest. */
+  static final class Shard {
+
+    /** Index of the shard. */
+    private final int index;
+
+    /** Smallest object ID of the shard. */
+    private final int minObjectId;
+
+    /** Largest object ID of the shard. */
+    private final int maxObjectId;
+
+    /** Estimated cost of the shard. */
+    private final long cost;
+
+    /** State of the shard. */
+    private State state;
+
+    /** Number of attempts so far. */
+    private int attempts;
+
+    Shard(int index, int minObjectId, int maxObjectId, long cost, State state, int attempts) {
+      this.index = index;
+      this.minObjectId = minObjectId;
+      this.maxObjectId = maxObjectId;
+      this.cost = cost;
+      this.state = state;
+      this.attempts = attempts;
+    }
+
+    int getIndex() {
+      return index;
+    }
+
+    int getMinObjectId() {
+      return minObjectId;
+    }
+
+    int getMaxObjectId() {
+      return maxObjectId;
+    }
+
+    long getCost() {
+      return cost;
+    }
+
+    @Override
+    public String toString() {
+      return "Shard [index=" + index + ", minObjectId=" + minObjectId + ", maxObjectId="
+          + maxObjectId + ", cost=" + cost + ", state=" + state + ", attempts=" + attempts + "]";
+    }
+
+  }
+
+  /** Path to the manifest file. */
+  private final File file;
+
+  /** Fingerprint of the configuration the shards were created for. */
+  private final String fingerprint;
+
+  /** The shards, sorted by object ID range. */
+  private final List<Shard> shards;
+
+  private ShardManifest(File file, String fingerprint, List<Shard> shards) {
+    this.file = file;
+    this.fingerprint = fingerprint;
+    this.shards = shards;
+  }
+
+  /**
+   * Partition objects into shards of contiguous object ID ranges with balanced cost.
+   *
+   * <p>
+   * The objects are assigned greedily in the order of their IDs, a shard is closed once its cost
+   * reaches the average cost of the remaining shards.
+   * </p>
+   *
+   * @param file Path to the manifest file, not written by this method.
+   * @param fingerprint Fingerprint of the configuration.
+   * @param costs Estimated cost by object ID.
+   * @param numShards Number of shards to create, fewer are created for fewer objects.
+   * @return The resulting {@link ShardManifest} with all shards pending.
+   */
+  static ShardManifest partition(File file, String fingerprint, SortedMap<Integer, Long> costs,
+      int numShards) {
+    long remainingCost = 0;
+    for (long cost : costs.values()) {
+      remainingCost += cost;
+    }
+
+    final List<Shard> shards = new ArrayList<>();
+    int remainingObjects = costs.size();
+    Integer minObjectId = null;
+    long shardCost = 0;
+    for (Entry<Integer, Long> e : costs.entrySet()) {
+      if (minObjectId == null) {
+        minObjectId = e.getKey();
+      }
+      shardCost += e.getValue();
+      --remainingObjects;
+
+      final int remainingShards = numShards - shards.size();
+      if (remainingObjects == 0
+          || (remainingShards > 1 && shardCost * remainingShards >= remainingCost)) {
+        shards.add(new Shard(shards.size(), minObjectId, e.getKey(), shardCost, State.PENDING, 0));
+        remainingCost -= shardCost;
+        shardCost = 0;
+        minObjectId = null;
+      }
+    }
+    return new ShardManifest(file, fingerprint, shards);
+  }
+
+  /**
+   * Resume from existing manifest file or partition objects into a new manifest and save it.
+   *
+   * @param file Path to the manifest file.
+   * @param fingerprint Fingerprint of the current configuration.
+   * @param costs Supplier of the estimated costs by object ID, only called for a new manifest.
+   * @param numShards Number of shards to create for a new manifest.
+   * @return The loaded or created {@link ShardManifest}.
+   * @throws OntoLibException In the case of problems reading or writing the file, or if the
+   *         existing manifest was created for a different fingerprint.
+   */
+  static ShardManifest loadOrPartition(File file, String fingerprint,
+      Supplier<SortedMap<Integer, Long>> costs, int numShards) throws OntoLibException {
+    if (file.exists()) {
+      final ShardManifest result = load(file);
+      if (!fingerprint.equals(result.getFingerprint())) {
+        throw new OntoLibException("Shard manifest " + file
+            + " was created for a different configuration, use a new work directory");
+      }
+      return result;
+    } else {
+      final ShardManifest result = partition(file, fingerprint, costs.get(), numShards);
+      result.save();
+      return result;
+    }
+  }
+
+  /**
+   * Load manifest from file.
+   *
+   * <p>
+   * Shards that were running when the manifest was written are reset to pending.
+   * </p>
+   *
+   * @param file Path to the manifest file.
+   * @return The loaded {@link ShardManifest}.
+   * @throws OntoLibException In the case of problems reading or parsing the file.
+   */
+  static ShardManifest load(File file) throws OntoLibException {
+    try (BufferedReader reader = Files.newBufferedReader(file.toPath(), StandardCharsets.UTF_8)) {
+      if (!MAGIC.equals(reader.readLine())) {
+        throw new OntoLibException("Not a shard manifest: " + file);
+      }
+      final String fingerprintLine = reader.readLine();
+      if (fingerprintLine == null || !fingerprintLine.startsWith(FINGERPRINT_PREFIX)) {
+        throw new OntoLibException("Missing fingerprint in shard manifest: " + file);
+      }
+      final String fingerprint = fingerprintLine.substring(FINGERPRINT_PREFIX.length());
+
+      final List<Shard> shards = new ArrayList<>();
+      String line;
+      while ((line = reader.readLine()) != null) {
+        if (line.isEmpty() || line.startsWith("#")) {
+          continue;
+        }
+        final String[] arr = line.split("\t");
+        if (arr.length != 6) {
+          throw new OntoLibException("Invalid line in shard manifest " + file + ": " + line);
+        }
+        State state = State.valueOf(arr[4]);
+        if (state == State.RUNNING) {
+          state = State.PENDING;
+        }
+        shards.add(new Shard(Integer.parseInt(arr[0]), Integer.parseInt(arr[1]),
+            Integer.parseInt(arr[2]), Long.parseLong(arr[3]), state, Integer.parseInt(arr[5])));
+      }
+      return new ShardManifest(file, fingerprint, shards);
+    } catch (IOException | IllegalArgumentException e) {
+      throw new OntoLibException("Problem reading shard manifest " + file, e);
+    }
+  }
+
+  /**
+   * Write the manifest to its file, atomically replacing the previous version.
+   *
+   * @throws OntoLibException In the case of problems writing the file.
+   */
+  synchronized void save() throws OntoLibException {
+    final File tmpFile = new File(file.getPath() + ".tmp");
+    try (PrintStream out = new PrintStream(tmpFile, StandardCharsets.UTF_8.name())) {
+      out.println(MAGIC);
+      out.println(FINGERPRINT_PREFIX + fingerprint);
+      out.println(COLUMNS);
+      for (Shard shard : shards) {
+        out.println(shard.index + "\t" + shard.minObjectId + "\t" + shard.maxObjectId + "\t"
+            + shard.cost + "\t" + shard.state + "\t" + shard.attempts);
+      }
+    } catch (IOException e) {
+      throw new OntoLibException("Problem writing shard manifest " + tmpFile, e);
+    }
+    try {
+      Files.move(tmpFile.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING,
+          StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new OntoLibException("Problem replacing shard manifest " + file, e);
+    }
+  }
+
+  /**
+   * Update the state of a shard and save the manifest.
+   *
+   * @param shard The {@link Shard} to update.
+   * @param state The new {@link State}.
+   * @param countAttempt Whether or not to increment the number of attempts.
+   * @throws OntoLibException In the case of problems writing the file.
+   */
+  synchronized void update(Shard shard, State state, boolean countAttempt)
+      throws OntoLibException {
+    shard.state = state;
+    if (countAttempt) {
+      shard.attempts += 1;
+    }
+    save();
+  }
+
+  /**
+   * @param shard The {@link Shard} to query.
+   * @return The current {@link State} of the shard.
+   */
+  synchronized State getState(Shard shard) {
+    return shard.state;
+  }
+
+  /**
+   * @param shard The {@link Shard} to query.
+   * @return Number of attempts of the shard so far.
+   */
+  synchronized int getAttempts(Shard shard) {
+    return shard.attempts;
+  }
+
+  /**
+   * @return Fingerprint of the configuration the shards were created for.
+   */
+  String getFingerprint() {
+    return fingerprint;
+  }
+
+  /**
+   * @return The shards, sorted by object ID range.
+   */
+  List<Shard> getShards() {
+    return Collections.unmodifiableList(shards);
+  }
+
+}
@@ -0,0 +1,118 @@
+package com.github.phenomics.ontolib.cli;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.io.scoredist.TextFileScoreDistributionWriter;
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+/**
+ * Streaming merge of score distribution text files that are sorted by term count and object ID.
+ *
+ * <p>
+ * The records are merged by a {@link SortedScoreRecordMerge} over the input files and copied
+ * verbatim to the output, so only the current line of each input is kept in memory and the lines
+ * are not parsed beyond their term count and object ID.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class ShardOutputMerger {
+
+  /** One line of an input file with its term count and object ID. */
+  private static final class Line {
+
+    /** Term count of the record. */
+    private final int numTerms;
+
+    /** Object ID of the record. */
+    private final int objectId;
+
+    /** The line, without line break. */
+    private final String text;
+
+    Line(int numTerms, int objectId, String text) {
+      this.numTerms = numTerms;
+      this.objectId = objectId;
+      this.text = text;
+    }
+
+  }
+
+  /** Utility class, no construction. */
+  private ShardOutputMerger() {}
+
+  /**
+   * Merge sorted score distribution text files.
+   *
+   * @param inputFiles The input files, each sorted by term count and object ID.
+   * @param outputFile The output file to write to.
+   * @return Number of records written.
+   * @throws OntoLibException In the case of I/O problems or unsorted input.
+   * @throws com.github.phenomics.ontolib.ontology.scoredist.CannotMergeScoreDistributions In the
+   *         case of duplicate records.
+   */
+  static long merge(List<File> inputFiles, File outputFile) throws OntoLibException {
+    try (SortedScoreRecordMerge<Line> merge =
+        new SortedScoreRecordMerge<>(line -> line.numTerms, line -> line.objectId);
+        BufferedWriter out =
+            Files.newBufferedWriter(outputFile.toPath(), StandardCharsets.UTF_8)) {
+      for (File inputFile : inputFiles) {
+        final BufferedReader reader =
+            Files.newBufferedReader(inputFile.toPath(), StandardCharsets.UTF_8);
+        final String header = reader.readLine();
+        if (!TextFileScoreDistributionWriter.HEADER.equals(header)) {
+          reader.close();
+          throw new OntoLibException("Invalid header in " + inputFile + ": " + header);
+        }
+        merge.addInput(inputFile.toString(), () -> readLine(inputFile, reader), reader);
+      }
+
+      out.write(TextFileScoreDistributionWriter.HEADER);
+      out.newLine();
+      long count = 0;
+      Line line;
+      while ((line = merge.next()) != null) {
+        out.write(line.text);
+        out.newLine();
+        ++count;
+      }
+      return count;
+    } catch (IOException e) {
+      throw new OntoLibException("Problem merging into " + outputFile, e);
+    }
+  }
+
+  /**
+   * Read next line and parse its term count and object ID.
+   *
+   * @param file Path to the input file, for error messages.
+   * @param reader {@link BufferedReader} to read from.
+   * @return The next {@link Line}, <code>null</code> at the end of the file.
+   * @throws IOException In case of problems with reading.
+   * @throws OntoLibException If the line is invalid.
+   */
+  private static Line readLine(File file, BufferedReader reader)
+      throws IOException, OntoLibException {
+    final String text = reader.readLine();
+    if (text == null) {
+      return null;
+    }
+    final int tab1 = text.indexOf('\t');
+    final int tab2 = (tab1 < 0) ? -1 : text.indexOf('\t', tab1 + 1);
+    if (tab2 < 0) {
+      throw new OntoLibException("Invalid line in " + file + ": " + text);
+    }
+    try {
+      return new Line(Integer.parseInt(text.substring(0, tab1)),
+          Integer.parseInt(text.substring(tab1 + 1, tab2)), text);
+    } catch (NumberFormatException e) {
+      throw new OntoLibException("Invalid line in " + file + ": " + text, e);
+    }
+  }
+
+}
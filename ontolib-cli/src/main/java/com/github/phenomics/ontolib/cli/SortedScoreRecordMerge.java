@@ -0,0 +1,216 @@
+package com.github.phenomics.ontolib.cli;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.ontology.scoredist.CannotMergeScoreDistributions;
+import java.io.Closeable;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.ToIntFunction;
+
+/**
+ * Streaming k-way merge of score distribution records sorted by term count and object ID.
+ *
+ * <p>
+ * Only the current record of each input is kept in memory. Unsorted inputs are rejected with an
+ * {@link OntoLibException} and duplicate object IDs for the same term count with
+ * {@link CannotMergeScoreDistributions}, as by
+ * {@link com.github.phenomics.ontolib.ontology.scoredist.ScoreDistributions#merge}. Used by
+ * {@code merge-scores} for parsed records and by {@link ShardOutputMerger} for verbatim lines.
+ * </p>
+ *
+ * @param <T> Type of the records.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class SortedScoreRecordMerge<T> implements Closeable {
+
+  /**
+   * Reading of records from one input.
+   *
+   * @param <T> Type of the records.
+   */
+  @FunctionalInterface
+  interface RecordReader<T> {
+
+    /**
+     * Read next record.
+     *
+     * @return The next record, <code>null</code> at the end of the input.
+     * @throws IOException In case of problems with reading.
+     * @throws OntoLibException In case of invalid records.
+     */
+    T readNext() throws IOException, OntoLibException;
+
+  }
+
+  /** Cursor into one input. */
+  private final class Cursor implements Comparable<Cursor> {
+
+    /** Name of the input, e.g., the path, for error messages. */
+    private final String name;
+
+    /** Reader for the input. */
+    private final RecordReader<T> reader;
+
+    /** Current record, <code>null</code> at the end of the input. */
+    private T current;
+
+    /** Term count of the current record. */
+    private int numTerms;
+
+    /** Object ID of the current record. */
+    private int objectId;
+
+    Cursor(String name, RecordReader<T> reader) {
+      this.name = name;
+      this.reader = reader;
+    }
+
+    /**
+     * Advance to the next record.
+     *
+     * @return <code>false</code> at the end of the input.
+     * @throws IOException In case of problems with reading.
+     * @throws OntoLibException In case of invalid records or if the input is not sorted.
+     */
+    boolean advance() throws IOException, OntoLibException {
+      final boolean first = (current == null);
+      final int prevNumTerms = numTerms;
+      final int prevObjectId = objectId;
+
+      current = reader.readNext();
+      if (current == null) {
+        return false;
+      }
+      numTerms = numTermsOf.applyAsInt(current);
+      objectId = objectIdOf.applyAsInt(current);
+      if (!first && compare(prevNumTerms, prevObjectId, numTerms, objectId) > 0) {
+        throw new OntoLibException(
+            "Input " + name + " is not sorted by term count and object ID");
+      }
+      return true;
+    }
+
+    @Override
+    public int compareTo(Cursor other) {
+      return compare(numTerms, objectId, other.numTerms, other.objectId);
+    }
+
+  }
+
+  /** Extraction of the term count from a record. */
+  private final ToIntFunction<T> numTermsOf;
+
+  /** Extraction of the object ID from a record. */
+  private final ToIntFunction<T> objectIdOf;
+
+  /** Cursors with a current record, ordered by term count and object ID. */
+  private final PriorityQueue<Cursor> queue = new PriorityQueue<>();
+
+  /** Inputs to close in {@link #close()}. */
+  private final List<Closeable> closeables = new ArrayList<>();
+
+  /** Whether or not a record has been returned by {@link #next()} yet. */
+  private boolean started = false;
+
+  /** Term count of the last record returned by {@link #next()}. */
+  private int lastNumTerms;
+
+  /** Object ID of the last record returned by {@link #next()}. */
+  private int lastObjectId;
+
+  /**
+   * Constructor.
+   *
+   * @param numTermsOf Extraction of the term count from a record.
+   * @param objectIdOf Extraction of the object ID from a record.
+   */
+  SortedScoreRecordMerge(ToIntFunction<T> numTermsOf, ToIntFunction<T> objectIdOf) {
+    this.numTermsOf = numTermsOf;
+    this.objectIdOf = objectIdOf;
+  }
+
+  /**
+   * Add input and read its first record.
+   *
+   * @param name Name of the input, e.g., the path, for error messages.
+   * @param reader {@link RecordReader} for the input.
+   * @param closeable Resource to close in {@link #close()}, e.g., the underlying reader.
+   * @throws IOException In case of problems with reading.
+   * @throws OntoLibException In case of invalid records.
+   */
+  void addInput(String name, RecordReader<T> reader, Closeable closeable)
+      throws IOException, OntoLibException {
+    closeables.add(closeable);
+    final Cursor cursor = new Cursor(name, reader);
+    if (cursor.advance()) {
+      queue.add(cursor);
+    }
+  }
+
+  /**
+   * Return next record in the order of term count and object ID.
+   *
+   * @return The next record, <code>null</code> if all inputs are exhausted.
+   * @throws IOException In case of problems with reading.
+   * @throws OntoLibException In case of invalid records or if an input is not sorted.
+   * @throws CannotMergeScoreDistributions If an object ID occurs twice for the same term count.
+   */
+  T next() throws IOException, OntoLibException {
+    final Cursor cursor = queue.poll();
+    if (cursor == null) {
+      return null;
+    }
+    if (started && cursor.numTerms == lastNumTerms && cursor.objectId == lastObjectId) {
+      throw new CannotMergeScoreDistributions("Duplicate object ID " + cursor.objectId
+          + " detected for " + cursor.numTerms + " terms in " + cursor.name);
+    }
+    started = true;
+    lastNumTerms = cursor.numTerms;
+    lastObjectId = cursor.objectId;
+
+    final T result = cursor.current;
+    if (cursor.advance()) {
+      queue.add(cursor);
+    }
+    return result;
+  }
+
+  /**
+   * Close all inputs.
+   *
+   * @throws IOException If closing one of the inputs failed, after trying to close all.
+   */
+  @Override
+  public void close() throws IOException {
+    IOException exception = null;
+    for (Closeable closeable : closeables) {
+      try {
+        closeable.close();
+      } catch (IOException e) {
+        if (exception == null) {
+          exception = e;
+        } else {
+          exception.addSuppressed(e);
+        }
+      }
+    }
+    closeables.clear();
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  /**
+   * Compare records by term count and object ID.
+   *
+   * @return Negative, zero, or positive value as for {@link Comparable#compareTo(Object)}.
+   */
+  private static int compare(int numTerms1, int objectId1, int numTerms2, int objectId2) {
+    final int result = Integer.compare(numTerms1, numTerms2);
+    return (result != 0) ? result : Integer.compare(objectId1, objectId2);
+  }
+
+}
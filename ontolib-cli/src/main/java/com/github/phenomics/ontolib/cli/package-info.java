@@ -2,8 +2,8 @@
  * Command line interface to Ontolib.
  *
  * <p>
- * Currently, this only gives access to score distribution precomputation and merging of score
- * files.
+ * Currently, this only gives access to score distribution precomputation, optionally coordinated
+ * over sharded local worker processes, and merging and conversion of score files.
  * </p>
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
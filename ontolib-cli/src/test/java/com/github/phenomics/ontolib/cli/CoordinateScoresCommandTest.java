@@ -0,0 +1,125 @@
+package com.github.phenomics.ontolib.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.cli.ShardManifest.Shard;
+import com.github.phenomics.ontolib.cli.ShardManifest.State;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class CoordinateScoresCommandTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private ShardManifest manifest;
+
+  private Shard shard;
+
+  private File outputFile;
+
+  private AtomicInteger numAttempts;
+
+  @Before
+  public void setUp() {
+    final SortedMap<Integer, Long> costs = new TreeMap<>();
+    costs.put(1, 1L);
+    manifest =
+        ShardManifest.partition(new File(tmpFolder.getRoot(), "manifest.tsv"), "fp", costs, 1);
+    shard = manifest.getShards().get(0);
+    outputFile = new File(tmpFolder.getRoot(), "shard-0.txt");
+    numAttempts = new AtomicInteger();
+  }
+
+  /**
+   * @return {@link CoordinateScoresCommand.ShardAttempt} that fails <code>numFailures</code> times
+   *         and writes <code>"ok"</code> afterwards.
+   */
+  private CoordinateScoresCommand.ShardAttempt failingAttempt(int numFailures) {
+    return tmpFile -> {
+      if (numAttempts.incrementAndGet() <= numFailures) {
+        return 1;
+      }
+      Files.write(tmpFile.toPath(), Arrays.asList("ok"), StandardCharsets.UTF_8);
+      return 0;
+    };
+  }
+
+  @Test
+  public void testRunWithRetriesSuccess() throws IOException, OntoLibException {
+    assertTrue(CoordinateScoresCommand.runWithRetries(manifest, shard, outputFile, 2,
+        failingAttempt(0)));
+
+    assertEquals(State.DONE, manifest.getState(shard));
+    assertEquals(1, manifest.getAttempts(shard));
+    assertEquals(Arrays.asList("ok"),
+        Files.readAllLines(outputFile.toPath(), StandardCharsets.UTF_8));
+    assertFalse(new File(outputFile.getPath() + ".tmp").exists());
+  }
+
+  @Test
+  public void testRunWithRetriesSuccessAfterFailures() throws OntoLibException {
+    assertTrue(CoordinateScoresCommand.runWithRetries(manifest, shard, outputFile, 2,
+        failingAttempt(2)));
+
+    assertEquals(State.DONE, manifest.getState(shard));
+    assertEquals(3, manifest.getAttempts(shard));
+    assertTrue(outputFile.exists());
+  }
+
+  @Test
+  public void testRunWithRetriesFailure() throws OntoLibException {
+    assertFalse(CoordinateScoresCommand.runWithRetries(manifest, shard, outputFile, 2,
+        failingAttempt(3)));
+
+    assertEquals(State.FAILED, manifest.getState(shard));
+    assertEquals(3, manifest.getAttempts(shard));
+    assertFalse(outputFile.exists());
+
+    // The manifest on disk records the failure for the next run.
+    final ShardManifest loaded = ShardManifest.load(new File(tmpFolder.getRoot(), "manifest.tsv"));
+    assertEquals(State.FAILED, loaded.getState(loaded.getShards().get(0)));
+    assertEquals(3, loaded.getAttempts(loaded.getShards().get(0)));
+  }
+
+  @Test
+  public void testRunWithRetriesIoProblem() throws OntoLibException {
+    assertTrue(CoordinateScoresCommand.runWithRetries(manifest, shard, outputFile, 1, tmpFile -> {
+      if (numAttempts.incrementAndGet() == 1) {
+        throw new IOException("Cannot start worker");
+      }
+      Files.write(tmpFile.toPath(), Arrays.asList("ok"), StandardCharsets.UTF_8);
+      return 0;
+    }));
+
+    assertEquals(State.DONE, manifest.getState(shard));
+    assertEquals(2, manifest.getAttempts(shard));
+  }
+
+  @Test
+  public void testRunWithRetriesInterrupted() throws OntoLibException {
+    assertFalse(CoordinateScoresCommand.runWithRetries(manifest, shard, outputFile, 2,
+        tmpFile -> {
+          numAttempts.incrementAndGet();
+          throw new InterruptedException();
+        }));
+
+    assertTrue(Thread.interrupted());
+    assertEquals(1, numAttempts.get());
+    assertEquals(State.PENDING, manifest.getState(shard));
+  }
+
+}
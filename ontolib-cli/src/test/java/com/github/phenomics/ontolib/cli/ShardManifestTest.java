@@ -0,0 +1,149 @@
+package com.github.phenomics.ontolib.cli;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.cli.ShardManifest.Shard;
+import com.github.phenomics.ontolib.cli.ShardManifest.State;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ShardManifestTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private File file;
+
+  private SortedMap<Integer, Long> costs;
+
+  @Before
+  public void setUp() throws IOException {
+    file = new File(tmpFolder.getRoot(), "manifest.tsv");
+    costs = new TreeMap<>();
+    costs.put(1, 10L);
+    costs.put(2, 1L);
+    costs.put(5, 1L);
+    costs.put(7, 4L);
+    costs.put(8, 4L);
+    costs.put(9, 1L);
+    costs.put(12, 1L);
+  }
+
+  private static String ranges(ShardManifest manifest) {
+    final StringBuilder builder = new StringBuilder();
+    for (Shard shard : manifest.getShards()) {
+      builder.append(shard.getIndex()).append(':').append(shard.getMinObjectId()).append('-')
+          .append(shard.getMaxObjectId()).append('=').append(shard.getCost()).append(' ');
+    }
+    return builder.toString().trim();
+  }
+
+  @Test
+  public void testPartitionBalancesCost() {
+    final ShardManifest manifest = ShardManifest.partition(file, "fp", costs, 3);
+
+    // Total cost 22: the expensive first object fills a shard, the rest is split evenly.
+    assertEquals("0:1-1=10 1:2-7=6 2:8-12=6", ranges(manifest));
+    for (Shard shard : manifest.getShards()) {
+      assertEquals(State.PENDING, manifest.getState(shard));
+      assertEquals(0, manifest.getAttempts(shard));
+    }
+  }
+
+  @Test
+  public void testPartitionContiguousRanges() {
+    final ShardManifest manifest = ShardManifest.partition(file, "fp", costs, 4);
+
+    final List<Shard> shards = manifest.getShards();
+    long totalCost = 0;
+    for (int i = 0; i < shards.size(); ++i) {
+      assertEquals(i, shards.get(i).getIndex());
+      assertTrue(shards.get(i).getMinObjectId() <= shards.get(i).getMaxObjectId());
+      if (i > 0) {
+        assertEquals(costs.headMap(shards.get(i).getMinObjectId()).lastKey().intValue(),
+            shards.get(i - 1).getMaxObjectId());
+      }
+      totalCost += shards.get(i).getCost();
+    }
+    assertEquals(costs.firstKey().intValue(), shards.get(0).getMinObjectId());
+    assertEquals(costs.lastKey().intValue(), shards.get(shards.size() - 1).getMaxObjectId());
+    assertEquals(22, totalCost);
+  }
+
+  @Test
+  public void testPartitionFewerObjectsThanShards() {
+    final SortedMap<Integer, Long> fewCosts = new TreeMap<>(costs.headMap(5));
+
+    assertEquals("0:1-1=10 1:2-2=1", ranges(ShardManifest.partition(file, "fp", fewCosts, 4)));
+  }
+
+  @Test
+  public void testSaveAndLoad() throws OntoLibException {
+    final ShardManifest manifest = ShardManifest.partition(file, "fp", costs, 3);
+    final List<Shard> shards = manifest.getShards();
+    manifest.update(shards.get(0), State.DONE, true);
+    manifest.update(shards.get(1), State.RUNNING, true);
+    manifest.update(shards.get(2), State.FAILED, true);
+    manifest.update(shards.get(2), State.FAILED, true);
+
+    final ShardManifest loaded = ShardManifest.load(file);
+    final List<Shard> loadedShards = loaded.getShards();
+
+    assertEquals("fp", loaded.getFingerprint());
+    assertEquals(ranges(manifest), ranges(loaded));
+    assertEquals(State.DONE, loaded.getState(loadedShards.get(0)));
+    // Shards that were running are reset to pending.
+    assertEquals(State.PENDING, loaded.getState(loadedShards.get(1)));
+    assertEquals(State.FAILED, loaded.getState(loadedShards.get(2)));
+    assertEquals(1, loaded.getAttempts(loadedShards.get(0)));
+    assertEquals(2, loaded.getAttempts(loadedShards.get(2)));
+    assertTrue(!new File(file.getPath() + ".tmp").exists());
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testLoadInvalid() throws IOException, OntoLibException {
+    Files.write(file.toPath(), Arrays.asList("#something else"), StandardCharsets.UTF_8);
+    ShardManifest.load(file);
+  }
+
+  @Test
+  public void testLoadOrPartitionNew() throws OntoLibException {
+    final ShardManifest manifest = ShardManifest.loadOrPartition(file, "fp", () -> costs, 3);
+
+    assertTrue(file.exists());
+    assertEquals("0:1-1=10 1:2-7=6 2:8-12=6", ranges(manifest));
+  }
+
+  @Test
+  public void testLoadOrPartitionResume() throws OntoLibException {
+    final ShardManifest manifest = ShardManifest.partition(file, "fp", costs, 3);
+    manifest.update(manifest.getShards().get(1), State.DONE, true);
+
+    final ShardManifest resumed = ShardManifest.loadOrPartition(file, "fp", () -> {
+      throw new AssertionError("Costs must not be estimated on resume");
+    }, 2);
+
+    assertEquals(ranges(manifest), ranges(resumed));
+    assertEquals(State.PENDING, resumed.getState(resumed.getShards().get(0)));
+    assertEquals(State.DONE, resumed.getState(resumed.getShards().get(1)));
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testLoadOrPartitionFingerprintMismatch() throws OntoLibException {
+    ShardManifest.partition(file, "fp", costs, 3).save();
+    ShardManifest.loadOrPartition(file, "other", () -> costs, 3);
+  }
+
+}
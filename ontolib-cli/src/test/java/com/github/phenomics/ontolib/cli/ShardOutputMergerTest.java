@@ -0,0 +1,77 @@
+package com.github.phenomics.ontolib.cli;
+
+import static org.junit.Assert.assertEquals;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.io.scoredist.TextFileScoreDistributionWriter;
+import com.github.phenomics.ontolib.ontology.scoredist.CannotMergeScoreDistributions;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class ShardOutputMergerTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private File outputFile;
+
+  @Before
+  public void setUp() {
+    outputFile = new File(tmpFolder.getRoot(), "merged.txt");
+  }
+
+  private File writeInput(String name, String... records) throws IOException {
+    final File file = tmpFolder.newFile(name);
+    final List<String> lines = new ArrayList<>();
+    lines.add(TextFileScoreDistributionWriter.HEADER);
+    lines.addAll(Arrays.asList(records));
+    Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  @Test
+  public void testMerge() throws IOException, OntoLibException {
+    final File first = writeInput("first.txt", "1\t1\t10\t0.0:1.0", "1\t5\t10\t0.5:1.0",
+        "2\t1\t10\t1.0:1.0");
+    final File second = writeInput("second.txt", "1\t3\t10\t0.25:1.0", "2\t7\t10\t2.0:1.0");
+
+    assertEquals(5, ShardOutputMerger.merge(Arrays.asList(first, second), outputFile));
+    assertEquals(
+        Arrays.asList(TextFileScoreDistributionWriter.HEADER, "1\t1\t10\t0.0:1.0",
+            "1\t3\t10\t0.25:1.0", "1\t5\t10\t0.5:1.0", "2\t1\t10\t1.0:1.0", "2\t7\t10\t2.0:1.0"),
+        Files.readAllLines(outputFile.toPath(), StandardCharsets.UTF_8));
+  }
+
+  @Test(expected = CannotMergeScoreDistributions.class)
+  public void testMergeDuplicate() throws IOException, OntoLibException {
+    final File first = writeInput("first.txt", "1\t1\t10\t0.0:1.0");
+    final File second = writeInput("second.txt", "1\t1\t10\t0.5:1.0");
+
+    ShardOutputMerger.merge(Arrays.asList(first, second), outputFile);
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testMergeUnsorted() throws IOException, OntoLibException {
+    final File first = writeInput("first.txt", "1\t5\t10\t0.0:1.0", "1\t2\t10\t0.0:1.0");
+
+    ShardOutputMerger.merge(Arrays.asList(first), outputFile);
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testMergeInvalidHeader() throws IOException, OntoLibException {
+    final File first = tmpFolder.newFile("first.txt");
+    Files.write(first.toPath(), Arrays.asList("1\t1\t10\t0.0:1.0"), StandardCharsets.UTF_8);
+
+    ShardOutputMerger.merge(Arrays.asList(first), outputFile);
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.github.phenomics.ontolib.cli;
+
+import static org.junit.Assert.assertEquals;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.io.scoredist.TextFileScoreDistributionReader;
+import com.github.phenomics.ontolib.io.scoredist.TextFileScoreDistributionWriter;
+import com.github.phenomics.ontolib.ontology.scoredist.CannotMergeScoreDistributions;
+import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class SortedScoreRecordMergeTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private File writeInput(String name, String... records) throws IOException {
+    final File file = tmpFolder.newFile(name);
+    final List<String> lines = new ArrayList<>();
+    lines.add(TextFileScoreDistributionWriter.HEADER);
+    lines.addAll(Arrays.asList(records));
+    Files.write(file.toPath(), lines, StandardCharsets.UTF_8);
+    return file;
+  }
+
+  private List<String> merge(File... inputFiles) throws IOException, OntoLibException {
+    final List<String> result = new ArrayList<>();
+    try (SortedScoreRecordMerge<ObjectScoreDistribution> merge = new SortedScoreRecordMerge<>(
+        ObjectScoreDistribution::getNumTerms, ObjectScoreDistribution::getObjectId)) {
+      for (File inputFile : inputFiles) {
+        final TextFileScoreDistributionReader reader =
+            new TextFileScoreDistributionReader(inputFile);
+        merge.addInput(inputFile.getName(), reader::readNext, reader);
+      }
+      ObjectScoreDistribution dist;
+      while ((dist = merge.next()) != null) {
+        result.add(dist.getNumTerms() + "/" + dist.getObjectId());
+      }
+    }
+    return result;
+  }
+
+  @Test
+  public void testMergeInterleaved() throws IOException, OntoLibException {
+    final File first = writeInput("first.txt", "1\t1\t10\t0.0:1.0", "1\t4\t10\t0.0:1.0",
+        "2\t2\t10\t0.0:1.0");
+    final File second = writeInput("second.txt", "1\t2\t10\t0.0:1.0", "2\t1\t10\t0.0:1.0",
+        "2\t3\t10\t0.0:1.0");
+    final File empty = writeInput("empty.txt");
+
+    assertEquals("[1/1, 1/2, 1/4, 2/1, 2/2, 2/3]", merge(first, empty, second).toString());
+  }
+
+  @Test
+  public void testMergeSameObjectDifferentTermCounts() throws IOException, OntoLibException {
+    final File first = writeInput("first.txt", "1\t1\t10\t0.0:1.0");
+    final File second = writeInput("second.txt", "2\t1\t10\t0.0:1.0");
+
+    assertEquals("[1/1, 2/1]", merge(second, first).toString());
+  }
+
+  @Test(expected = CannotMergeScoreDistributions.class)
+  public void testMergeDuplicate() throws IOException, OntoLibException {
+    final File first = writeInput("first.txt", "1\t1\t10\t0.0:1.0", "1\t2\t10\t0.0:1.0");
+    final File second = writeInput("second.txt", "1\t2\t10\t0.0:1.0");
+
+    merge(first, second);
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testMergeUnsorted() throws IOException, OntoLibException {
+    final File first = writeInput("first.txt", "2\t1\t10\t0.0:1.0", "1\t2\t10\t0.0:1.0");
+    final File second = writeInput("second.txt", "1\t3\t10\t0.0:1.0");
+
+    merge(first, second);
+  }
+
+}
@@ -2,10 +2,12 @@ package com.github.phenomics.ontolib.formats.hpo;
 
 import java.util.Collection;
 
-import com.github.phenomics.ontolib.graph.data.ImmutableDirectedGraph;
+import com.github.phenomics.ontolib.graph.data.DirectedGraph;
 import com.github.phenomics.ontolib.graph.data.ImmutableEdge;
 import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
+import com.github.phenomics.ontolib.ontology.data.TermAncestorIndex;
 import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.data.TermIdDictionary;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSortedMap;
 
@@ -45,10 +47,33 @@ public final class HpoOntology extends ImmutableOntology<HpoTerm, HpoTermRelatio
    * @param relationMap Mapping from numeric edge identifier to {@link HpoTermRelation}.
    */
   public HpoOntology(ImmutableSortedMap<String, String> metaInfo,
-      ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>> graph, TermId rootTermId,
+      DirectedGraph<TermId, ImmutableEdge<TermId>> graph, TermId rootTermId,
       Collection<TermId> nonObsoleteTermIds, Collection<TermId> obsoleteTermIds,
       ImmutableMap<TermId, HpoTerm> termMap, ImmutableMap<Integer, HpoTermRelation> relationMap) {
-    super(metaInfo, graph, rootTermId, nonObsoleteTermIds, obsoleteTermIds, termMap, relationMap);
+    this(metaInfo, graph, rootTermId, nonObsoleteTermIds, obsoleteTermIds, termMap, relationMap,
+        new TermAncestorIndex(graph, new TermIdDictionary()));
+  }
+
+  /**
+   * Constructor with precomputed {@link TermAncestorIndex}, e.g., when loading an ontology
+   * snapshot.
+   *
+   * @param metaInfo {@link ImmutableSortedMap} with meta information.
+   * @param graph Graph with the ontology's topology.
+   * @param rootTermId {@link TermId} of the root term.
+   * @param nonObsoleteTermIds {@link Collection} of {@link TermId}s of non-obsolete terms.
+   * @param obsoleteTermIds {@link Collection} of {@link TermId}s of obsolete terms.
+   * @param termMap Mapping from {@link TermId} to HPO term.
+   * @param relationMap Mapping from numeric edge identifier to {@link HpoTermRelation}.
+   * @param ancestorIndex Precomputed {@link TermAncestorIndex} of <code>graph</code>.
+   */
+  public HpoOntology(ImmutableSortedMap<String, String> metaInfo,
+      DirectedGraph<TermId, ImmutableEdge<TermId>> graph, TermId rootTermId,
+      Collection<TermId> nonObsoleteTermIds, Collection<TermId> obsoleteTermIds,
+      ImmutableMap<TermId, HpoTerm> termMap, ImmutableMap<Integer, HpoTermRelation> relationMap,
+      TermAncestorIndex ancestorIndex) {
+    super(metaInfo, graph, rootTermId, nonObsoleteTermIds, obsoleteTermIds, termMap, relationMap,
+        ancestorIndex);
     // Construct "phenotypic abnormality sub ontology" on construction.
     this.phenotypicAbnormalitySubOntology = (ImmutableOntology<HpoTerm,
         HpoTermRelation>) super.subOntology(HpoSubOntologyRootTermIds.PHENOTYPIC_ABNORMALITY);
@@ -2,7 +2,7 @@ package com.github.phenomics.ontolib.formats.mpo;
 
 import java.util.Collection;
 
-import com.github.phenomics.ontolib.graph.data.ImmutableDirectedGraph;
+import com.github.phenomics.ontolib.graph.data.DirectedGraph;
 import com.github.phenomics.ontolib.graph.data.ImmutableEdge;
 import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
 import com.github.phenomics.ontolib.ontology.data.TermId;
@@ -32,7 +32,7 @@ public final class MpoOntology extends ImmutableOntology<MpoTerm, MpoTermRelatio
    * @param relationMap Mapping from numeric edge identifier to {@link MpoTermRelation}.
    */
   public MpoOntology(ImmutableSortedMap<String, String> metaInfo,
-      ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>> graph, TermId rootTermId,
+      DirectedGraph<TermId, ImmutableEdge<TermId>> graph, TermId rootTermId,
       Collection<TermId> nonObsoleteTermIds, Collection<TermId> obsoleteTermIds,
       ImmutableMap<TermId, MpoTerm> termMap, ImmutableMap<Integer, MpoTermRelation> relationMap) {
     super(metaInfo, graph, rootTermId, nonObsoleteTermIds, obsoleteTermIds, termMap, relationMap);
@@ -2,7 +2,7 @@ package com.github.phenomics.ontolib.formats.uberpheno;
 
 import java.util.Collection;
 
-import com.github.phenomics.ontolib.graph.data.ImmutableDirectedGraph;
+import com.github.phenomics.ontolib.graph.data.DirectedGraph;
 import com.github.phenomics.ontolib.graph.data.ImmutableEdge;
 import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
 import com.github.phenomics.ontolib.ontology.data.TermId;
@@ -33,7 +33,7 @@ public final class UberphenoOntology
    * @param relationMap Mapping from numeric edge identifier to {@link UberphenoTermRelation}.
    */
   public UberphenoOntology(ImmutableSortedMap<String, String> metaInfo,
-      ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>> graph, TermId rootTermId,
+      DirectedGraph<TermId, ImmutableEdge<TermId>> graph, TermId rootTermId,
       Collection<TermId> nonObsoleteTermIds, Collection<TermId> obsoleteTermIds,
       ImmutableMap<TermId, UberphenoTerm> termMap,
       ImmutableMap<Integer, UberphenoTermRelation> relationMap) {
@@ -1,12 +1,16 @@
 package com.github.phenomics.ontolib.graph.algo;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.PrimitiveIterator;
 import java.util.Set;
 
 import com.github.phenomics.ontolib.graph.data.DirectedGraph;
 import com.github.phenomics.ontolib.graph.data.Edge;
+import com.github.phenomics.ontolib.graph.data.IndexedDirectedGraph;
 
 // TODO: Create a helper class with static methods similar to OntologyTerms
 /**
@@ -31,6 +35,15 @@ public final class BreadthFirstSearch<V extends Comparable<V>, E extends Edge<V>
   @Override
   protected void startFromImpl(DirectedGraph<V, E> g, V v, VertexVisitor<V, E> visitor,
       NeighborSelector<V, E> selector) {
+    if (g instanceof IndexedDirectedGraph) {
+      final IndexedDirectedGraph<V, E> indexed = (IndexedDirectedGraph<V, E>) g;
+      final int index = indexed.getVertexIndex(v);
+      if (index != -1) {
+        startFromIndexedImpl(indexed, index, visitor, selector);
+        return;
+      }
+    }
+
     final Set<V> seen = new HashSet<V>();
     final ArrayDeque<V> dequeue = new ArrayDeque<V>();
     dequeue.addLast(v);
@@ -49,4 +62,44 @@ public final class BreadthFirstSearch<V extends Comparable<V>, E extends Edge<V>
     }
   }
 
+  /**
+   * Implementation of BFS on {@link IndexedDirectedGraph}s using vertex indices only.
+   *
+   * <p>
+   * The vertices are visited in the same order as in the generic implementation.
+   * </p>
+   *
+   * @param g {@link IndexedDirectedGraph} to use for iteration.
+   * @param v Index of vertex to start from.
+   * @param visitor {@link VertexVisitor} to use for visiting vertices.
+   * @param selector {@link NeighborSelector} for selecting forward/reverse vertices.
+   */
+  private void startFromIndexedImpl(IndexedDirectedGraph<V, E> g, int v,
+      VertexVisitor<V, E> visitor, NeighborSelector<V, E> selector) {
+    final BitSet seen = new BitSet(g.countVertices());
+    int[] queue = new int[16];
+    int head = 0;
+    int tail = 0;
+    queue[tail++] = v;
+    while (head < tail) {
+      final int vertex = queue[head++];
+      if (!seen.get(vertex)) { // skip seen ones
+        seen.set(vertex);
+        if (!visitor.visit(g, g.getVertexAt(vertex))) {
+          break;
+        }
+        final PrimitiveIterator.OfInt it = selector.nextIndicesFrom(g, vertex);
+        while (it.hasNext()) {
+          final int next = it.nextInt();
+          if (!seen.get(next)) {
+            if (tail == queue.length) {
+              queue = Arrays.copyOf(queue, 2 * queue.length);
+            }
+            queue[tail++] = next;
+          }
+        }
+      }
+    }
+  }
+
 }
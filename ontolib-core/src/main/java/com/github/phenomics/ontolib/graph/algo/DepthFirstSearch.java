@@ -1,12 +1,16 @@
 package com.github.phenomics.ontolib.graph.algo;
 
 import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.BitSet;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.PrimitiveIterator;
 import java.util.Set;
 
 import com.github.phenomics.ontolib.graph.data.DirectedGraph;
 import com.github.phenomics.ontolib.graph.data.Edge;
+import com.github.phenomics.ontolib.graph.data.IndexedDirectedGraph;
 
 /**
  * Depth-first-search for {@link DirectedGraph}s using the <b>visitor pattern</b>.
@@ -30,6 +34,15 @@ public final class DepthFirstSearch<V extends Comparable<V>, E extends Edge<V>>
   @Override
   protected void startFromImpl(DirectedGraph<V, E> g, V v, VertexVisitor<V, E> visitor,
       NeighborSelector<V, E> selector) {
+    if (g instanceof IndexedDirectedGraph) {
+      final IndexedDirectedGraph<V, E> indexed = (IndexedDirectedGraph<V, E>) g;
+      final int index = indexed.getVertexIndex(v);
+      if (index != -1) {
+        startFromIndexedImpl(indexed, index, visitor, selector);
+        return;
+      }
+    }
+
     final Set<V> seen = new HashSet<V>();
     final ArrayDeque<V> dequeue = new ArrayDeque<V>();
     dequeue.addLast(v);
@@ -47,4 +60,43 @@ public final class DepthFirstSearch<V extends Comparable<V>, E extends Edge<V>>
       }
     }
   }
+
+  /**
+   * Implementation of DFS on {@link IndexedDirectedGraph}s using vertex indices only.
+   *
+   * <p>
+   * The vertices are visited in the same order as in the generic implementation.
+   * </p>
+   *
+   * @param g {@link IndexedDirectedGraph} to use for iteration.
+   * @param v Index of vertex to start from.
+   * @param visitor {@link VertexVisitor} to use for visiting vertices.
+   * @param selector {@link NeighborSelector} for selecting forward/reverse vertices.
+   */
+  private void startFromIndexedImpl(IndexedDirectedGraph<V, E> g, int v,
+      VertexVisitor<V, E> visitor, NeighborSelector<V, E> selector) {
+    final BitSet seen = new BitSet(g.countVertices());
+    int[] stack = new int[16];
+    int size = 0;
+    stack[size++] = v;
+    while (size > 0) {
+      final int vertex = stack[--size];
+      if (!seen.get(vertex)) { // skip seen ones
+        seen.set(vertex);
+        if (!visitor.visit(g, g.getVertexAt(vertex))) {
+          break;
+        }
+        final PrimitiveIterator.OfInt it = selector.nextIndicesFrom(g, vertex);
+        while (it.hasNext()) {
+          final int next = it.nextInt();
+          if (!seen.get(next)) {
+            if (size == stack.length) {
+              stack = Arrays.copyOf(stack, 2 * stack.length);
+            }
+            stack[size++] = next;
+          }
+        }
+      }
+    }
+  }
 }
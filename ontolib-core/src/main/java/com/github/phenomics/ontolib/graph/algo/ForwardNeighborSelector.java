@@ -1,9 +1,11 @@
 package com.github.phenomics.ontolib.graph.algo;
 
 import java.util.Iterator;
+import java.util.PrimitiveIterator;
 
 import com.github.phenomics.ontolib.graph.data.DirectedGraph;
 import com.github.phenomics.ontolib.graph.data.Edge;
+import com.github.phenomics.ontolib.graph.data.IndexedDirectedGraph;
 
 /**
  * Implementation of {@link NeighborSelector} using out-edges.
@@ -23,4 +25,9 @@ class ForwardNeighborSelector<V extends Comparable<V>, E extends Edge<V>>
     return g.viaOutEdgeIterator(v);
   }
 
+  @Override
+  public PrimitiveIterator.OfInt nextIndicesFrom(IndexedDirectedGraph<V, E> g, int v) {
+    return g.viaOutEdgeIndexIterator(v);
+  }
+
 }
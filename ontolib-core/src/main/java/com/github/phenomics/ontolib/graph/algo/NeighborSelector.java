@@ -1,9 +1,11 @@
 package com.github.phenomics.ontolib.graph.algo;
 
 import java.util.Iterator;
+import java.util.PrimitiveIterator;
 
 import com.github.phenomics.ontolib.graph.data.DirectedGraph;
 import com.github.phenomics.ontolib.graph.data.Edge;
+import com.github.phenomics.ontolib.graph.data.IndexedDirectedGraph;
 
 /**
  * Abstraction for going over forward/reverse edges for traversal algorithms.
@@ -25,4 +27,14 @@ interface NeighborSelector<V extends Comparable<V>, E extends Edge<V>> {
    */
   public Iterator<V> nextFrom(DirectedGraph<V, E> g, V v);
 
+  /**
+   * Return {@link PrimitiveIterator.OfInt} of vertex indices to go from next from the vertex with
+   * index <code>v</code>.
+   *
+   * @param g {@link IndexedDirectedGraph} that contains <code>v</code>
+   * @param v Index of vertex to iterate neighbors of
+   * @return {@link PrimitiveIterator.OfInt} of vertex indices to go to next from <code>v</code>.
+   */
+  public PrimitiveIterator.OfInt nextIndicesFrom(IndexedDirectedGraph<V, E> g, int v);
+
 }
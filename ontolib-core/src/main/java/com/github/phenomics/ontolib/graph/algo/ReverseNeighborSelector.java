@@ -1,9 +1,11 @@
 package com.github.phenomics.ontolib.graph.algo;
 
 import java.util.Iterator;
+import java.util.PrimitiveIterator;
 
 import com.github.phenomics.ontolib.graph.data.DirectedGraph;
 import com.github.phenomics.ontolib.graph.data.Edge;
+import com.github.phenomics.ontolib.graph.data.IndexedDirectedGraph;
 
 /**
  * Implementation of {@link NeighborSelector} using in-edges.
@@ -23,4 +25,9 @@ class ReverseNeighborSelector<V extends Comparable<V>, E extends Edge<V>>
     return g.viaInEdgeIterator(v);
   }
 
+  @Override
+  public PrimitiveIterator.OfInt nextIndicesFrom(IndexedDirectedGraph<V, E> g, int v) {
+    return g.viaInEdgeIndexIterator(v);
+  }
+
 }
@@ -2,10 +2,12 @@ package com.github.phenomics.ontolib.graph.algo;
 
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.PrimitiveIterator;
 import java.util.Set;
 
 import com.github.phenomics.ontolib.graph.data.DirectedGraph;
 import com.github.phenomics.ontolib.graph.data.Edge;
+import com.github.phenomics.ontolib.graph.data.IndexedDirectedGraph;
 
 /**
  * Topological sorting for {@link DirectedGraph}s using the <b>visitor pattern</b>.
@@ -38,6 +40,11 @@ public final class TopologicalSorting<V extends Comparable<V>, E extends Edge<V>
    * @param selector {@link NeighborSelector} to use for selecting the next neighbor
    */
   public void startImpl(G g, VertexVisitor<V, E> visitor, NeighborSelector<V, E> selector) {
+    if (g instanceof IndexedDirectedGraph) {
+      startIndexedImpl((IndexedDirectedGraph<V, E>) g, visitor, selector);
+      return;
+    }
+
     final Set<V> tmpMarked = new HashSet<V>();
 
     // Collect unmarked vertices
@@ -82,4 +89,57 @@ public final class TopologicalSorting<V extends Comparable<V>, E extends Edge<V>
     }
   }
 
+  /** Mark for vertices that have not been visited yet. */
+  private static final byte UNMARKED = 0;
+
+  /** Mark for vertices that are currently on the recursion stack. */
+  private static final byte TMP_MARKED = 1;
+
+  /** Mark for vertices that have been completely processed. */
+  private static final byte DONE = 2;
+
+  /**
+   * Implementation of Tarjan's algorithm on {@link IndexedDirectedGraph}s, keeping the marks in a
+   * <code>byte</code> array indexed by vertex index.
+   *
+   * @param g {@link IndexedDirectedGraph} to iterate
+   * @param visitor {@link VertexVisitor} to use for notifying about reaching a vertex
+   * @param selector {@link NeighborSelector} to use for selecting the next neighbor
+   */
+  private void startIndexedImpl(IndexedDirectedGraph<V, E> g, VertexVisitor<V, E> visitor,
+      NeighborSelector<V, E> selector) {
+    final byte[] marks = new byte[g.countVertices()];
+    for (int v = 0; v < marks.length; ++v) {
+      if (marks[v] == UNMARKED) {
+        startFromIndexedImpl(g, marks, v, visitor, selector);
+      }
+    }
+  }
+
+  /**
+   * Tarjan's <code>visit()</code> on vertex indices.
+   *
+   * @param g {@link IndexedDirectedGraph} to traverse
+   * @param marks Marks of the vertices, by vertex index
+   * @param v Index of vertex to start from
+   * @param selector {@link NeighborSelector} to select neighbors with
+   */
+  private void startFromIndexedImpl(IndexedDirectedGraph<V, E> g, byte[] marks, int v,
+      VertexVisitor<V, E> visitor, NeighborSelector<V, E> selector) {
+    if (marks[v] == TMP_MARKED) {
+      throw new GraphNotDagException("Graph is not a DAG");
+    }
+    if (marks[v] == UNMARKED) {
+      marks[v] = TMP_MARKED;
+      final PrimitiveIterator.OfInt nextVertices = selector.nextIndicesFrom(g, v);
+      while (nextVertices.hasNext()) {
+        startFromIndexedImpl(g, marks, nextVertices.nextInt(), visitor, selector);
+      }
+      marks[v] = DONE;
+      if (!visitor.visit(g, g.getVertexAt(v))) {
+        return;
+      }
+    }
+  }
+
 }
@@ -191,7 +191,7 @@ public final class ImmutableDirectedGraph<V extends Comparable<V>, E extends Imm
    *
    * @raises VerticesAndEdgesIncompatibleException in case of incompatibilities.
    */
-  private static <VertexT extends Comparable<VertexT>> void checkCompatibility(
+  static <VertexT extends Comparable<VertexT>> void checkCompatibility(
       Collection<VertexT> vertices, Collection<? extends Edge<VertexT>> edges) {
     LOGGER.info("Checking vertices ({}) and edges ({}) for compatibility...",
         new Object[] {vertices.size(), edges.size()});
@@ -0,0 +1,701 @@
+package com.github.phenomics.ontolib.graph.data;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+import com.google.common.collect.ImmutableSortedSet;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.util.AbstractCollection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+/**
+ * Implementation of an immutable {@link IndexedDirectedGraph} using compressed sparse row (CSR)
+ * storage.
+ *
+ * <p>
+ * Each vertex is assigned a dense integer index at construction time (following the natural
+ * ordering of <code>V</code>, or the given order for {@link #constructFromCsr}). The out- and
+ * in-adjacency is stored as <code>int[]</code> arrays with offsets, neighbor indices, and edge
+ * IDs, and vertices are looked up in an open addressing hash table of vertex indices. Compared to
+ * {@link ImmutableDirectedGraph}, there are no per-vertex edge list objects and no edge objects at
+ * all, which reduces memory usage considerably for ontologies with tens of thousands of terms and
+ * makes traversals over the int-based API cache-friendly.
+ * </p>
+ *
+ * <p>
+ * The edges are not stored but created on demand from the CSR arrays by
+ * {@link ImmutableEdge#construct(Comparable, Comparable, int)}, so the edge objects returned are
+ * equal to but not the same as the ones given on construction. The order of the out- and in-edges
+ * of each vertex is the same as the order in the edge {@link Collection} given on construction.
+ * </p>
+ *
+ * @param <V> Vertex type, see {@link DirectedGraph} for requirements on this type.
+ * @param <E> Edge type, must be {@link ImmutableEdge} of <code>V</code>.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class ImmutableIndexedDirectedGraph<V extends Comparable<V>,
+    E extends ImmutableEdge<V>> implements IndexedDirectedGraph<V, E> {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 2L;
+
+  /** Vertices, position is the vertex index. */
+  private final ImmutableList<V> vertices;
+
+  /**
+   * Open addressing hash table with the vertex indices, <code>-1</code> for empty slots; rebuilt
+   * after deserialization as the vertices' hash codes need not be stable.
+   */
+  private transient int[] vertexTable;
+
+  /** Offsets into {@link #outTargets} and {@link #outEdgeIds}, of length <code>n + 1</code>. */
+  private final int[] outOffsets;
+
+  /** Destination vertex indices of out-edges. */
+  private final int[] outTargets;
+
+  /** Edge IDs of out-edges. */
+  private final int[] outEdgeIds;
+
+  /** Offsets into {@link #inSources} and {@link #inEdgeIds}, of length <code>n + 1</code>. */
+  private final int[] inOffsets;
+
+  /** Source vertex indices of in-edges. */
+  private final int[] inSources;
+
+  /** Edge IDs of in-edges. */
+  private final int[] inEdgeIds;
+
+  /**
+   * Construct a new {@link ImmutableIndexedDirectedGraph} from a collection of vertices and edges.
+   *
+   * @param <V> Vertex type, see {@link DirectedGraph} for requirements on this type.
+   * @param <E> Edge type, must be {@link ImmutableEdge} of <code>V</code>.
+   *
+   * @param vertices {@link Collection} of <code>Vertex</code> objects to use for construction
+   * @param edges {@link Collection} of <code>Edge</code> objects to use for construction
+   * @param checkCompatibility whether or not to check vertex and edge list to be compatible
+   * @return the built {@link ImmutableIndexedDirectedGraph}
+   */
+  public static <V extends Comparable<V>,
+      E extends ImmutableEdge<V>> ImmutableIndexedDirectedGraph<V, E> construct(
+          final Collection<V> vertices, final Collection<E> edges,
+          final boolean checkCompatibility) {
+    if (checkCompatibility) {
+      ImmutableDirectedGraph.checkCompatibility(vertices, edges);
+    }
+    return new ImmutableIndexedDirectedGraph<V, E>(vertices, edges);
+  }
+
+  /**
+   * Construct a new {@link ImmutableIndexedDirectedGraph} from a collection edges.
+   *
+   * <p>
+   * The vertex list is automatically inferred from the edges' vertices.
+   * </p>
+   *
+   * @param <V> Vertex type, see {@link DirectedGraph} for requirements on this type.
+   * @param <E> Edge type, must be {@link ImmutableEdge} of <code>V</code>.
+   *
+   * @param edges {@link Collection} of <code>Edge</code> objects to use for construction
+   * @param checkCompatibility whether or not to check vertex and edge list to be compatible
+   * @return the built {@link ImmutableIndexedDirectedGraph}
+   */
+  public static <V extends Comparable<V>,
+      E extends ImmutableEdge<V>> ImmutableIndexedDirectedGraph<V, E> construct(
+          final Collection<E> edges, final boolean checkCompatibility) {
+    final Set<V> vertices = new HashSet<>();
+    for (E edge : edges) {
+      vertices.add(edge.getSource());
+      vertices.add(edge.getDest());
+    }
+    return construct(vertices, edges, checkCompatibility);
+  }
+
+  /**
+   * Construct a new {@link ImmutableIndexedDirectedGraph} from a collection of vertices and edges.
+   *
+   * <p>
+   * This is just a forward to <code>construct(vertices, edges, false);</code>
+   * </p>
+   *
+   * @param <V> Vertex type, see {@link DirectedGraph} for requirements on this type.
+   * @param <E> Edge type, must be {@link ImmutableEdge} of <code>V</code>.
+   *
+   * @param vertices {@link Collection} of vertices to use for construction.
+   * @param edges {@link Collection} of edges to use for construction.
+   * @return Freshly built {@link ImmutableIndexedDirectedGraph}.
+   */
+  public static <V extends Comparable<V>,
+      E extends ImmutableEdge<V>> ImmutableIndexedDirectedGraph<V, E> construct(
+          final Collection<V> vertices, final Collection<E> edges) {
+    return construct(vertices, edges, false);
+  }
+
+  /**
+   * Construct a new {@link ImmutableIndexedDirectedGraph} from a collection of edges.
+   *
+   * <p>
+   * This is just a forward to <code>construct(edges, false);</code>
+   * </p>
+   *
+   * @param <V> Vertex type, see {@link DirectedGraph} for requirements on this type.
+   * @param <E> Edge type, must be {@link ImmutableEdge} of <code>V</code>.
+   *
+   * @param edges {@link Collection} of edges to use for construction.
+   * @return Freshly built {@link ImmutableIndexedDirectedGraph}.
+   */
+  public static <V extends Comparable<V>,
+      E extends ImmutableEdge<V>> ImmutableIndexedDirectedGraph<V, E> construct(
+          final Collection<E> edges) {
+    return construct(edges, false);
+  }
+
+  /**
+   * Construct a new {@link ImmutableIndexedDirectedGraph} with the same vertices and edges as the
+   * given {@link DirectedGraph}.
+   *
+   * @param <V> Vertex type, see {@link DirectedGraph} for requirements on this type.
+   * @param <E> Edge type, must be {@link ImmutableEdge} of <code>V</code>.
+   *
+   * @param graph {@link DirectedGraph} to copy.
+   * @return Freshly built {@link ImmutableIndexedDirectedGraph}.
+   */
+  public static <V extends Comparable<V>,
+      E extends ImmutableEdge<V>> ImmutableIndexedDirectedGraph<V, E> copyOf(
+          final DirectedGraph<V, E> graph) {
+    if (graph instanceof ImmutableIndexedDirectedGraph) {
+      return (ImmutableIndexedDirectedGraph<V, E>) graph;
+    }
+    final List<E> edges = new ArrayList<>(graph.countEdges());
+    final Iterator<E> it = graph.edgeIterator();
+    while (it.hasNext()) {
+      edges.add(it.next());
+    }
+    return construct(graph.getVertices(), edges, false);
+  }
+
+  /**
+   * Construct a new {@link ImmutableIndexedDirectedGraph} from out-adjacency arrays, e.g., when
+   * reading it from a file.
+   *
+   * <p>
+   * In contrast to the other factory methods, the vertex indices are the positions in
+   * <code>vertices</code> rather than following the natural ordering. The in-adjacency is derived
+   * from the out-adjacency. The arrays are not copied and must not be modified afterwards.
+   * </p>
+   *
+   * @param <V> Vertex type, see {@link DirectedGraph} for requirements on this type.
+   * @param <E> Edge type, must be {@link ImmutableEdge} of <code>V</code>.
+   *
+   * @param vertices Distinct vertices, by index.
+   * @param outOffsets Offsets into <code>outTargets</code> and <code>outEdgeIds</code> by source
+   *        vertex index, of length <code>vertices.size() + 1</code>.
+   * @param outTargets Destination vertex indices of the out-edges.
+   * @param outEdgeIds Edge IDs of the out-edges.
+   * @return Freshly built {@link ImmutableIndexedDirectedGraph}.
+   * @throws IllegalArgumentException if the vertices are not distinct or the arrays are not
+   *         consistent.
+   */
+  public static <V extends Comparable<V>,
+      E extends ImmutableEdge<V>> ImmutableIndexedDirectedGraph<V, E> constructFromCsr(
+          final List<V> vertices, final int[] outOffsets, final int[] outTargets,
+          final int[] outEdgeIds) {
+    return new ImmutableIndexedDirectedGraph<V, E>(ImmutableList.copyOf(vertices), outOffsets,
+        outTargets, outEdgeIds);
+  }
+
+  /**
+   * This constructor is used internally for constructing via the static <code>construct</code>
+   * functions.
+   *
+   * @param vertices to use for constructing the graph with
+   * @param edges to use for constructing the graph with.
+   */
+  private ImmutableIndexedDirectedGraph(final Collection<V> vertices,
+      final Collection<? extends Edge<V>> edges) {
+    // Assign dense vertex indices following the natural ordering.
+    this.vertices = ImmutableSortedSet.copyOf(vertices).asList();
+    this.vertexTable = buildVertexTable(this.vertices);
+    final int n = this.vertices.size();
+
+    // Translate edges to source/destination indices and count degrees.
+    final int m = edges.size();
+    final int[] sources = new int[m];
+    final int[] dests = new int[m];
+    final int[] ids = new int[m];
+    this.outOffsets = new int[n + 1];
+    this.inOffsets = new int[n + 1];
+    int j = 0;
+    for (Edge<V> e : edges) {
+      sources[j] = getVertexIndex(e.getSource());
+      dests[j] = getVertexIndex(e.getDest());
+      ids[j] = e.getId();
+      outOffsets[sources[j] + 1] += 1;
+      inOffsets[dests[j] + 1] += 1;
+      ++j;
+    }
+    for (int i = 0; i < n; ++i) {
+      outOffsets[i + 1] += outOffsets[i];
+      inOffsets[i + 1] += inOffsets[i];
+    }
+
+    // Fill the out- and in-edge arrays, keeping the input order stable within each vertex.
+    this.outTargets = new int[m];
+    this.outEdgeIds = new int[m];
+    final int[] outFill = Arrays.copyOf(outOffsets, n);
+    this.inSources = new int[m];
+    this.inEdgeIds = new int[m];
+    final int[] inFill = Arrays.copyOf(inOffsets, n);
+    for (j = 0; j < m; ++j) {
+      final int outPos = outFill[sources[j]]++;
+      outTargets[outPos] = dests[j];
+      outEdgeIds[outPos] = ids[j];
+      final int inPos = inFill[dests[j]]++;
+      inSources[inPos] = sources[j];
+      inEdgeIds[inPos] = ids[j];
+    }
+  }
+
+  /**
+   * This constructor is used internally for constructing via {@link #constructFromCsr}.
+   *
+   * @param vertices Vertices, by index.
+   * @param outOffsets Offsets into <code>outTargets</code> and <code>outEdgeIds</code>.
+   * @param outTargets Destination vertex indices of the out-edges.
+   * @param outEdgeIds Edge IDs of the out-edges.
+   */
+  private ImmutableIndexedDirectedGraph(final ImmutableList<V> vertices, final int[] outOffsets,
+      final int[] outTargets, final int[] outEdgeIds) {
+    final int n = vertices.size();
+    final int m = outTargets.length;
+    if (outOffsets.length != n + 1 || outOffsets[0] != 0 || outOffsets[n] != m
+        || outEdgeIds.length != m) {
+      throw new IllegalArgumentException("Inconsistent adjacency array lengths");
+    }
+    this.vertices = vertices;
+    this.vertexTable = buildVertexTable(vertices);
+    for (int i = 0; i < n; ++i) {
+      if (getVertexIndex(vertices.get(i)) != i) {
+        throw new IllegalArgumentException("Duplicate vertex " + vertices.get(i));
+      }
+    }
+    this.outOffsets = outOffsets;
+    this.outTargets = outTargets;
+    this.outEdgeIds = outEdgeIds;
+
+    // Count in-degrees and fill the in-edge arrays, in the order of the source vertices.
+    this.inOffsets = new int[n + 1];
+    for (int i = 0; i < n; ++i) {
+      if (outOffsets[i] > outOffsets[i + 1]) {
+        throw new IllegalArgumentException("Decreasing offset for vertex " + vertices.get(i));
+      }
+    }
+    for (int pos = 0; pos < m; ++pos) {
+      if (outTargets[pos] < 0 || outTargets[pos] >= n) {
+        throw new IllegalArgumentException("Invalid destination vertex index " + outTargets[pos]);
+      }
+      inOffsets[outTargets[pos] + 1] += 1;
+    }
+    for (int i = 0; i < n; ++i) {
+      inOffsets[i + 1] += inOffsets[i];
+    }
+    this.inSources = new int[m];
+    this.inEdgeIds = new int[m];
+    final int[] inFill = Arrays.copyOf(inOffsets, n);
+    for (int source = 0; source < n; ++source) {
+      for (int pos = outOffsets[source]; pos < outOffsets[source + 1]; ++pos) {
+        final int inPos = inFill[outTargets[pos]]++;
+        inSources[inPos] = source;
+        inEdgeIds[inPos] = outEdgeIds[pos];
+      }
+    }
+  }
+
+  /**
+   * Build open addressing hash table with linear probing for vertex lookup.
+   *
+   * @param <V> Vertex type.
+   * @param vertices The vertices, by index.
+   * @return Hash table with a load factor of at most <code>0.5</code>.
+   */
+  private static <V> int[] buildVertexTable(List<V> vertices) {
+    final int[] table = new int[Integer.highestOneBit(Math.max(1, vertices.size())) * 4];
+    Arrays.fill(table, -1);
+    final int mask = table.length - 1;
+    for (int i = 0; i < vertices.size(); ++i) {
+      int slot = smear(vertices.get(i).hashCode()) & mask;
+      while (table[slot] != -1) {
+        slot = (slot + 1) & mask;
+      }
+      table[slot] = i;
+    }
+    return table;
+  }
+
+  /**
+   * Spread hash code bits, such that sequential hash codes do not cluster in the hash table.
+   *
+   * @param hashCode The hash code to spread.
+   * @return Spread hash code.
+   */
+  private static int smear(int hashCode) {
+    return 0x1b873593 * Integer.rotateLeft(hashCode * 0xcc9e2d51, 15);
+  }
+
+  /**
+   * Rebuild the vertex hash table after deserialization.
+   *
+   * @param in The stream to read the object from.
+   * @throws IOException on problems with reading.
+   * @throws ClassNotFoundException if a class of the serialized object cannot be found.
+   */
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    in.defaultReadObject();
+    this.vertexTable = buildVertexTable(vertices);
+  }
+
+  /**
+   * Create edge object from the CSR arrays.
+   *
+   * @param source Index of the source vertex.
+   * @param dest Index of the destination vertex.
+   * @param id ID of the edge.
+   * @return Freshly constructed edge.
+   */
+  @SuppressWarnings("unchecked")
+  private E edgeAt(int source, int dest, int id) {
+    return (E) ImmutableEdge.construct(vertices.get(source), vertices.get(dest), id);
+  }
+
+  /**
+   * Return index of <code>v</code>, throwing an exception if <code>v</code> is not in the graph.
+   *
+   * @param v Vertex to query for.
+   * @return Dense index of <code>v</code>.
+   */
+  private int indexOrThrow(V v) {
+    final int idx = getVertexIndex(v);
+    if (idx == -1) {
+      throw new NoSuchElementException("Vertex " + v + " is not in graph");
+    }
+    return idx;
+  }
+
+  @Override
+  public int getVertexIndex(V v) {
+    if (v == null) {
+      return -1;
+    }
+    final int mask = vertexTable.length - 1;
+    int slot = smear(v.hashCode()) & mask;
+    int idx;
+    while ((idx = vertexTable[slot]) != -1) {
+      if (vertices.get(idx).equals(v)) {
+        return idx;
+      }
+      slot = (slot + 1) & mask;
+    }
+    return -1;
+  }
+
+  @Override
+  public V getVertexAt(int index) {
+    return vertices.get(index);
+  }
+
+  @Override
+  public int outDegreeAt(int index) {
+    return outOffsets[index + 1] - outOffsets[index];
+  }
+
+  @Override
+  public int inDegreeAt(int index) {
+    return inOffsets[index + 1] - inOffsets[index];
+  }
+
+  @Override
+  public int getOutNeighborIndex(int index, int i) {
+    return outTargets[outOffsets[index] + i];
+  }
+
+  @Override
+  public int getInNeighborIndex(int index, int i) {
+    return inSources[inOffsets[index] + i];
+  }
+
+  @Override
+  public PrimitiveIterator.OfInt viaOutEdgeIndexIterator(int index) {
+    return new ArrayRangeIterator(outTargets, outOffsets[index], outOffsets[index + 1]);
+  }
+
+  @Override
+  public PrimitiveIterator.OfInt viaInEdgeIndexIterator(int index) {
+    return new ArrayRangeIterator(inSources, inOffsets[index], inOffsets[index + 1]);
+  }
+
+  @Override
+  public boolean containsVertex(V v) {
+    return getVertexIndex(v) != -1;
+  }
+
+  @Override
+  public int countVertices() {
+    return vertices.size();
+  }
+
+  @Override
+  public Collection<V> getVertices() {
+    return vertices;
+  }
+
+  @Override
+  public Iterator<V> vertexIterator() {
+    return vertices.iterator();
+  }
+
+  @Override
+  public int countEdges() {
+    return outTargets.length;
+  }
+
+  @Override
+  public boolean containsEdgeFromTo(V s, V t) {
+    return getEdge(s, t) != null;
+  }
+
+  /**
+   * {@inheritDoc}
+   *
+   * <p>
+   * The result is an unmodifiable view that creates the edges on iteration, in the order of their
+   * source vertices' indices.
+   * </p>
+   */
+  @Override
+  public Collection<E> getEdges() {
+    return new AbstractCollection<E>() {
+      @Override
+      public Iterator<E> iterator() {
+        return edgeIterator();
+      }
+
+      @Override
+      public int size() {
+        return countEdges();
+      }
+    };
+  }
+
+  @Override
+  public Iterator<E> edgeIterator() {
+    return new Iterator<E>() {
+      /** Source vertex index of the next edge. */
+      private int source = 0;
+
+      /** Position of the next edge in the out-edge arrays. */
+      private int pos = 0;
+
+      @Override
+      public boolean hasNext() {
+        return pos < outTargets.length;
+      }
+
+      @Override
+      public E next() {
+        if (pos >= outTargets.length) {
+          throw new NoSuchElementException();
+        }
+        while (outOffsets[source + 1] <= pos) {
+          ++source;
+        }
+        final E result = edgeAt(source, outTargets[pos], outEdgeIds[pos]);
+        ++pos;
+        return result;
+      }
+    };
+  }
+
+  @Override
+  public E getEdge(V s, V t) {
+    final int idxS = indexOrThrow(s);
+    final int idxT = getVertexIndex(t);
+    for (int pos = outOffsets[idxS]; pos < outOffsets[idxS + 1]; ++pos) {
+      if (outTargets[pos] == idxT) {
+        return edgeAt(idxS, idxT, outEdgeIds[pos]);
+      }
+    }
+    return null;
+  }
+
+  @Override
+  public int inDegree(V v) {
+    return inDegreeAt(indexOrThrow(v));
+  }
+
+  @Override
+  public Iterator<E> inEdgeIterator(V v) {
+    final int idx = indexOrThrow(v);
+    final int end = inOffsets[idx + 1];
+
+    return new Iterator<E>() {
+      private int pos = inOffsets[idx];
+
+      @Override
+      public boolean hasNext() {
+        return pos < end;
+      }
+
+      @Override
+      public E next() {
+        if (pos >= end) {
+          throw new NoSuchElementException();
+        }
+        final E result = edgeAt(inSources[pos], idx, inEdgeIds[pos]);
+        ++pos;
+        return result;
+      }
+    };
+  }
+
+  @Override
+  public Iterator<V> viaInEdgeIterator(V v) {
+    return new VertexIterator(viaInEdgeIndexIterator(indexOrThrow(v)));
+  }
+
+  @Override
+  public int outDegree(V v) {
+    return outDegreeAt(indexOrThrow(v));
+  }
+
+  @Override
+  public Iterator<E> outEdgeIterator(V v) {
+    final int idx = indexOrThrow(v);
+    final int end = outOffsets[idx + 1];
+
+    return new Iterator<E>() {
+      private int pos = outOffsets[idx];
+
+      @Override
+      public boolean hasNext() {
+        return pos < end;
+      }
+
+      @Override
+      public E next() {
+        if (pos >= end) {
+          throw new NoSuchElementException();
+        }
+        final E result = edgeAt(idx, outTargets[pos], outEdgeIds[pos]);
+        ++pos;
+        return result;
+      }
+    };
+  }
+
+  @Override
+  public Iterator<V> viaOutEdgeIterator(V v) {
+    return new VertexIterator(viaOutEdgeIndexIterator(indexOrThrow(v)));
+  }
+
+  @Override
+  public DirectedGraph<V, E> subGraph(Collection<V> vertices) {
+    final Set<V> argVertexSet = ImmutableSet.copyOf(vertices);
+
+    final List<V> vertexSubset = new ArrayList<>();
+    final boolean[] selected = new boolean[this.vertices.size()];
+    for (int i = 0; i < selected.length; ++i) {
+      if (argVertexSet.contains(this.vertices.get(i))) {
+        vertexSubset.add(this.vertices.get(i));
+        selected[i] = true;
+      }
+    }
+    final List<Edge<V>> edgeSubset = new ArrayList<>();
+    for (int source = 0; source < selected.length; ++source) {
+      if (!selected[source]) {
+        continue;
+      }
+      for (int pos = outOffsets[source]; pos < outOffsets[source + 1]; ++pos) {
+        if (selected[outTargets[pos]]) {
+          edgeSubset.add(edgeAt(source, outTargets[pos], outEdgeIds[pos]));
+        }
+      }
+    }
+
+    return new ImmutableIndexedDirectedGraph<V, E>(vertexSubset, edgeSubset);
+  }
+
+  @Override
+  public String toString() {
+    return "ImmutableIndexedDirectedGraph [vertices=" + vertices + ", edges=" + getEdges() + "]";
+  }
+
+  /**
+   * {@link PrimitiveIterator.OfInt} over a range of an <code>int[]</code> array.
+   */
+  private static final class ArrayRangeIterator implements PrimitiveIterator.OfInt {
+
+    /** The array to iterate over. */
+    private final int[] arr;
+
+    /** End position (exclusive). */
+    private final int end;
+
+    /** Current position. */
+    private int pos;
+
+    ArrayRangeIterator(int[] arr, int begin, int end) {
+      this.arr = arr;
+      this.pos = begin;
+      this.end = end;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return pos < end;
+    }
+
+    @Override
+    public int nextInt() {
+      if (pos >= end) {
+        throw new NoSuchElementException();
+      }
+      return arr[pos++];
+    }
+
+  }
+
+  /**
+   * Translate {@link PrimitiveIterator.OfInt} of vertex indices to {@link Iterator} of vertices.
+   */
+  private final class VertexIterator implements Iterator<V> {
+
+    /** The wrapped iterator over vertex indices. */
+    private final PrimitiveIterator.OfInt iter;
+
+    VertexIterator(PrimitiveIterator.OfInt iter) {
+      this.iter = iter;
+    }
+
+    @Override
+    public boolean hasNext() {
+      return iter.hasNext();
+    }
+
+    @Override
+    public V next() {
+      return vertices.get(iter.nextInt());
+    }
+
+  }
+
+}
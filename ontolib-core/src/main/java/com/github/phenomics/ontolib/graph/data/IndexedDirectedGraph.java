@@ -0,0 +1,90 @@
+package com.github.phenomics.ontolib.graph.data;
+
+import java.util.PrimitiveIterator;
+
+/**
+ * Extension of {@link DirectedGraph} where each vertex has a dense integer index.
+ *
+ * <p>
+ * Vertices are numbered from <code>0</code> to <code>countVertices() - 1</code> and the indices are
+ * fixed for the life time of the graph. Besides the generic API, implementations allow to walk the
+ * graph using these indices only, which avoids hashing and boxing in inner loops of traversal
+ * algorithms.
+ * </p>
+ *
+ * @param <V> vertex type; see {@link DirectedGraph} for the requirements on this type.
+ * @param <E> edge type; should implement the {@link Edge} interface for the given <code>V</code>.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public interface IndexedDirectedGraph<V extends Comparable<V>, E extends Edge<V>>
+    extends
+      DirectedGraph<V, E> {
+
+  /**
+   * Query for vertex index.
+   *
+   * @param v Vertex to query for.
+   * @return Dense index of <code>v</code> or <code>-1</code> if <code>v</code> is not in the graph.
+   */
+  int getVertexIndex(V v);
+
+  /**
+   * Query for vertex by index.
+   *
+   * @param index Dense vertex index, must be in the range <code>[0, countVertices())</code>.
+   * @return Vertex with the given <code>index</code>.
+   */
+  V getVertexAt(int index);
+
+  /**
+   * Query for out degree by index.
+   *
+   * @param index Dense index of the vertex to query the out degree for.
+   * @return Number of out edges from the vertex with the given <code>index</code>.
+   */
+  int outDegreeAt(int index);
+
+  /**
+   * Query for in degree by index.
+   *
+   * @param index Dense index of the vertex to query the in degree for.
+   * @return Number of in edges towards the vertex with the given <code>index</code>.
+   */
+  int inDegreeAt(int index);
+
+  /**
+   * Query for neighbor over out edge by index.
+   *
+   * @param index Dense index of the source vertex.
+   * @param i Number of out edge, in the range <code>[0, outDegreeAt(index))</code>.
+   * @return Dense index of the destination of the <code>i</code>-th out edge.
+   */
+  int getOutNeighborIndex(int index, int i);
+
+  /**
+   * Query for neighbor over in edge by index.
+   *
+   * @param index Dense index of the destination vertex.
+   * @param i Number of in edge, in the range <code>[0, inDegreeAt(index))</code>.
+   * @return Dense index of the source of the <code>i</code>-th in edge.
+   */
+  int getInNeighborIndex(int index, int i);
+
+  /**
+   * Obtain iterator of vertex indices reachable through out-edges.
+   *
+   * @param index Dense index of the vertex to enumerate neighbors of.
+   * @return {@link PrimitiveIterator.OfInt} of the dense indices of the out neighbors.
+   */
+  PrimitiveIterator.OfInt viaOutEdgeIndexIterator(int index);
+
+  /**
+   * Obtain iterator of vertex indices reachable through in-edges.
+   *
+   * @param index Dense index of the vertex to enumerate neighbors of.
+   * @return {@link PrimitiveIterator.OfInt} of the dense indices of the in neighbors.
+   */
+  PrimitiveIterator.OfInt viaInEdgeIndexIterator(int index);
+
+}
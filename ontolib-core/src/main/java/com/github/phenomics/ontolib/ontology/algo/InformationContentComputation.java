@@ -12,9 +12,11 @@ import org.slf4j.LoggerFactory;
 import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
 import com.github.phenomics.ontolib.ontology.data.Ontology;
 import com.github.phenomics.ontolib.ontology.data.Term;
+import com.github.phenomics.ontolib.ontology.data.TermAnnotationIndex;
 import com.github.phenomics.ontolib.ontology.data.TermId;
 import com.github.phenomics.ontolib.ontology.data.TermIds;
 import com.github.phenomics.ontolib.ontology.data.TermRelation;
+import com.google.common.collect.ImmutableSortedSet;
 
 // TODO: separate resulting precomputation DS and algorithm to equalize with graph.algo
 
@@ -62,68 +64,123 @@ public final class InformationContentComputation<T extends Term, R extends TermR
    *
    * @param termLabels Labels for each {@link Term}, identified by {@link TermId}
    * @return {@link Map} from {@link TermId} to information content.
+   *
+   * @see #computeInformationContentTable(Map)
    */
   public <LabelT> Map<TermId, Double>
       computeInformationContent(Map<TermId, ? extends Collection<LabelT>> termLabels) {
+    return new HashMap<>(computeInformationContentTable(termLabels).toMap());
+  }
+
+  /**
+   * Perform the actual computation, yielding an {@link InformationContentTable}.
+   *
+   * <p>
+   * The table contains all non-obsolete terms of the ontology and all terms from
+   * {@code termLabels}. Frequencies are counted in an <code>int</code> array indexed by the dense
+   * term index of the table.
+   * </p>
+   *
+   * @param <LabelT> Labels for objects from "the real world", see
+   *        {@link #computeInformationContent(Map)}.
+   *
+   * @param termLabels Labels for each {@link Term}, identified by {@link TermId}, including the
+   *        implicit ancestor annotations.
+   * @return {@link InformationContentTable} with the information content of each term.
+   */
+  public <LabelT> InformationContentTable
+      computeInformationContentTable(Map<TermId, ? extends Collection<LabelT>> termLabels) {
     LOGGER.info("Computing IC of {} terms using {} labels...", new Object[] {ontology.countAllTerms(),
         termLabels.values().stream().mapToInt(l -> l.size()).sum()});
 
-    // Build mapping from TermId -> absolute frequency
-    final TermId root = ontology.getRootTermId();
-    final Map<TermId, Integer> termToFrequency = new HashMap<>();
-    for (TermId termId : ontology.getNonObsoleteTermIds()) {
-      termToFrequency.put(termId, 0);
+    // Assign dense indices to the terms.
+    final ImmutableSortedSet<TermId> termIds = ImmutableSortedSet.<TermId>naturalOrder()
+        .addAll(ontology.getNonObsoleteTermIds()).addAll(termLabels.keySet()).build();
+    final Map<TermId, Integer> termIdToIdx = new HashMap<>(termIds.size());
+    for (TermId termId : termIds) {
+      termIdToIdx.put(termId, termIdToIdx.size());
     }
+
+    // Build array of absolute frequencies by term index.
+    final int[] frequencies = new int[termIds.size()];
     for (Entry<TermId, ? extends Collection<LabelT>> e : termLabels.entrySet()) {
-      termToFrequency.put(e.getKey(), e.getValue().size());
+      frequencies[termIdToIdx.get(e.getKey())] = e.getValue().size();
     }
 
-    // Compute information content for each TermId
-    final int maxFreq = termToFrequency.get(root);
-    final Map<TermId, Double> termToInformationContent =
-        caculateInformationContent(maxFreq, termToFrequency);
-
-    // Fix terms with IC of zero, set it to IC of root
-    int countIcZero = 0;
-    final double dummyIc = -Math.log(1 / (double) maxFreq);
+    final InformationContentTable result = buildTable(termIds, frequencies);
+    LOGGER.info("Computing IC is complete.");
+    return result;
+  }
 
-    for (Term t : ontology.getTerms()) {
-      if (t.isObsolete()) {
-        continue;
-      }
-      if (!termToFrequency.containsKey(t.getId())) {
-        ++countIcZero;
-        termToInformationContent.put(t.getId(), dummyIc);
+  /**
+   * Perform the actual computation based on a {@link TermAnnotationIndex}.
+   *
+   * <p>
+   * The frequency of each term is the length of its posting list, such that no label sets have to
+   * be built. The table contains all non-obsolete terms of the ontology and all annotated terms.
+   * </p>
+   *
+   * @param annotationIndex {@link TermAnnotationIndex} built for the ontology, it already contains
+   *        the implicit ancestor annotations.
+   * @return {@link InformationContentTable} with the information content of each term.
+   */
+  public InformationContentTable
+      computeInformationContentTable(TermAnnotationIndex annotationIndex) {
+    LOGGER.info("Computing IC of {} terms using index of {} objects...",
+        new Object[] {ontology.countAllTerms(), annotationIndex.countObjects()});
+
+    final ImmutableSortedSet.Builder<TermId> builder =
+        ImmutableSortedSet.<TermId>naturalOrder().addAll(ontology.getNonObsoleteTermIds());
+    for (int code = 0; code < annotationIndex.countTerms(); ++code) {
+      if (!annotationIndex.getPostings(code).isEmpty()) {
+        builder.add(annotationIndex.termIdAt(code));
       }
     }
+    final ImmutableSortedSet<TermId> termIds = builder.build();
 
-    if (countIcZero > 0) {
-      LOGGER.warn("Frequency of {} non-obsolete terms was zero! Their IC has been set to {} = "
-          + "- log(1 / {}).", new Object[] {countIcZero, dummyIc, maxFreq});
+    final int[] frequencies = new int[termIds.size()];
+    int i = 0;
+    for (TermId termId : termIds) {
+      frequencies[i++] = annotationIndex.countObjects(termId);
     }
-    LOGGER.info("Computing IC is complete.");
 
-    return termToInformationContent;
+    final InformationContentTable result = buildTable(termIds, frequencies);
+    LOGGER.info("Computing IC is complete.");
+    return result;
   }
 
   /**
-   * Calculate information content for each {@link TermId}.
+   * Build {@link InformationContentTable} from absolute frequencies.
    *
-   * @param maxFreq Maximal frequency of any term (root's frequency).
-   * @param termToFrequency {@link Map} from term to absolute frequency.
-   * @return {@link Map} from {@link TermId} to information content.
+   * <p>
+   * Terms with a frequency of zero are counted as annotated once.
+   * </p>
+   *
+   * @param termIds The {@link TermId}s, sorted.
+   * @param frequencies Absolute frequencies, parallel to <code>termIds</code>; modified in place.
+   * @return Freshly constructed {@link InformationContentTable}.
    */
-  private Map<TermId, Double> caculateInformationContent(double maxFreq,
-      Map<TermId, Integer> termToFrequency) {
-    final Map<TermId, Double> termToIc = new HashMap<>();
-
-    for (Entry<TermId, Integer> e : termToFrequency.entrySet()) {
-      final double probability = e.getValue() / maxFreq;
-      final double informationContent = -Math.log(probability);
-      termToIc.put(e.getKey(), informationContent);
+  private InformationContentTable buildTable(ImmutableSortedSet<TermId> termIds,
+      int[] frequencies) {
+    final TermId rootTermId = ontology.getRootTermId();
+    final int maxFreq =
+        termIds.contains(rootTermId) ? frequencies[termIds.headSet(rootTermId).size()] : 0;
+
+    // Fix terms with frequency of zero, count them as annotated once.
+    int countFreqZero = 0;
+    for (int i = 0; i < frequencies.length; ++i) {
+      if (frequencies[i] == 0) {
+        ++countFreqZero;
+        frequencies[i] = 1;
+      }
+    }
+    if (countFreqZero > 0) {
+      LOGGER.warn("Frequency of {} terms was zero! Their IC has been set to {} = "
+          + "- log(1 / {}).", new Object[] {countFreqZero, -Math.log(1 / (double) maxFreq),
+              maxFreq});
     }
 
-    return termToIc;
+    return InformationContentTable.fromFrequencies(termIds, frequencies, maxFreq);
   }
 
 }
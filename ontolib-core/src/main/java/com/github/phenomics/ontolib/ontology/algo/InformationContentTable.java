@@ -0,0 +1,223 @@
+package com.github.phenomics.ontolib.ontology.algo;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Map;
+
+import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.data.TermIdDictionary;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+
+/**
+ * Table with the information content of {@link TermId}s, backed by a <code>double</code> array.
+ *
+ * <p>
+ * Each term is assigned a dense index in ascending order of its {@link TermId}. Information content
+ * values can be queried by index without boxing, or by {@link TermId} with a single hash lookup.
+ * For inner loops over an ontology's terms, {@link #valuesByCode(TermIdDictionary)} maps the table
+ * to the codes of the ontology's {@link TermIdDictionary}.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class InformationContentTable implements Serializable {
+
+  /** Serial UID for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** The {@link TermId}s, by their index. */
+  private final ImmutableList<TermId> termIds;
+
+  /** Mapping from {@link TermId} to index. */
+  private final ImmutableMap<TermId, Integer> termIdToIdx;
+
+  /** Information content values, by term index. */
+  private final double[] values;
+
+  /**
+   * Constructor.
+   *
+   * @param termIds The {@link TermId}s, sorted ascendingly.
+   * @param values Information content values, parallel to <code>termIds</code>; used without
+   *        copying.
+   */
+  private InformationContentTable(ImmutableList<TermId> termIds, double[] values) {
+    this.termIds = termIds;
+    final ImmutableMap.Builder<TermId, Integer> builder = ImmutableMap.builder();
+    for (int i = 0; i < termIds.size(); ++i) {
+      builder.put(termIds.get(i), i);
+    }
+    this.termIdToIdx = builder.build();
+    this.values = values;
+  }
+
+  /**
+   * Construct from {@link Map}.
+   *
+   * @param termToIc {@link Map} from {@link TermId} to information content.
+   * @return Freshly constructed {@link InformationContentTable}.
+   */
+  public static InformationContentTable copyOf(Map<TermId, Double> termToIc) {
+    final ImmutableSortedMap<TermId, Double> sorted = ImmutableSortedMap.copyOf(termToIc);
+    final double[] values = new double[sorted.size()];
+    int i = 0;
+    for (Double value : sorted.values()) {
+      values[i++] = value;
+    }
+    return new InformationContentTable(sorted.keySet().asList(), values);
+  }
+
+  /**
+   * Construct from absolute annotation frequencies.
+   *
+   * <p>
+   * The information content of a term with frequency <code>f</code> is
+   * <code>-log(f / maxFrequency)</code>.
+   * </p>
+   *
+   * @param termIds The {@link TermId}s, sorted strictly ascendingly.
+   * @param frequencies Absolute frequencies, parallel to <code>termIds</code>.
+   * @param maxFrequency The maximal frequency, i.e., the one of the root.
+   * @return Freshly constructed {@link InformationContentTable}.
+   * @throws IllegalArgumentException if the lengths of <code>termIds</code> and
+   *         <code>frequencies</code> differ or if <code>termIds</code> is not sorted strictly
+   *         ascendingly.
+   */
+  public static InformationContentTable fromFrequencies(Collection<TermId> termIds,
+      int[] frequencies, int maxFrequency) {
+    if (termIds.size() != frequencies.length) {
+      throw new IllegalArgumentException("Got " + termIds.size() + " term IDs but "
+          + frequencies.length + " frequencies");
+    }
+    // The term indices must match the ones of copyOf(), e.g., for stable table hashes.
+    TermId prev = null;
+    for (TermId termId : termIds) {
+      if (prev != null && prev.compareTo(termId) >= 0) {
+        throw new IllegalArgumentException("Term IDs not sorted strictly ascendingly: " + prev
+            + " is followed by " + termId);
+      }
+      prev = termId;
+    }
+    final double[] values = new double[frequencies.length];
+    for (int i = 0; i < values.length; ++i) {
+      values[i] = -Math.log(frequencies[i] / (double) maxFrequency);
+    }
+    return new InformationContentTable(ImmutableList.copyOf(termIds), values);
+  }
+
+  /**
+   * @return Number of terms in the table.
+   */
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * Query for term index.
+   *
+   * @param termId The {@link TermId} to query for.
+   * @return Index of <code>termId</code>, <code>-1</code> if it is not in the table.
+   */
+  public int indexOf(TermId termId) {
+    final Integer index = termIdToIdx.get(termId);
+    return (index == null) ? -1 : index.intValue();
+  }
+
+  /**
+   * Query for {@link TermId} by index.
+   *
+   * @param index Index of the term, in the range <code>[0, size())</code>.
+   * @return {@link TermId} with the given <code>index</code>.
+   */
+  public TermId termIdAt(int index) {
+    return termIds.get(index);
+  }
+
+  /**
+   * Query for information content by index.
+   *
+   * @param index Index of the term, in the range <code>[0, size())</code>.
+   * @return Information content of the term with the given <code>index</code>.
+   */
+  public double get(int index) {
+    return values[index];
+  }
+
+  /**
+   * Query for information content by {@link TermId}.
+   *
+   * @param termId The {@link TermId} to query for.
+   * @return Information content of <code>termId</code>, <code>0.0</code> if it is not in the
+   *         table.
+   */
+  public double get(TermId termId) {
+    final Integer index = termIdToIdx.get(termId);
+    return (index == null) ? 0.0 : values[index.intValue()];
+  }
+
+  /**
+   * Map the table to the codes of a {@link TermIdDictionary}, e.g., the one of an ontology.
+   *
+   * @param dictionary The {@link TermIdDictionary} whose codes to use.
+   * @return Information content values by code in <code>dictionary</code>, <code>0.0</code> for
+   *         term IDs that are not in the table.
+   */
+  public double[] valuesByCode(TermIdDictionary dictionary) {
+    final double[] result = new double[dictionary.size()];
+    for (int i = 0; i < values.length; ++i) {
+      final int code = dictionary.codeOf(termIds.get(i));
+      if (code != -1 && code < result.length) {
+        result[code] = values[i];
+      }
+    }
+    return result;
+  }
+
+  /**
+   * @return Largest information content value, <code>0.0</code> if the table is empty.
+   */
+  public double max() {
+    double result = 0.0;
+    for (double value : values) {
+      result = Math.max(result, value);
+    }
+    return result;
+  }
+
+  /**
+   * @return {@link ImmutableMap} from {@link TermId} to information content, a copy of the table.
+   */
+  public ImmutableMap<TermId, Double> toMap() {
+    final ImmutableMap.Builder<TermId, Double> builder = ImmutableMap.builder();
+    for (int i = 0; i < values.length; ++i) {
+      builder.put(termIds.get(i), values[i]);
+    }
+    return builder.build();
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * termIds.hashCode() + Arrays.hashCode(values);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    final InformationContentTable other = (InformationContentTable) obj;
+    return termIds.equals(other.termIds) && Arrays.equals(values, other.values);
+  }
+
+  @Override
+  public String toString() {
+    return "InformationContentTable [size=" + size() + "]";
+  }
+
+}
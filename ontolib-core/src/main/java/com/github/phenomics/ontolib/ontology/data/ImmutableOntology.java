@@ -1,20 +1,20 @@
 package com.github.phenomics.ontolib.ontology.data;
 
+import java.util.ArrayList;
 import java.util.Collection;
-import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 
-import com.github.phenomics.ontolib.graph.algo.BreadthFirstSearch;
-import com.github.phenomics.ontolib.graph.algo.VertexVisitor;
 import com.github.phenomics.ontolib.graph.data.DirectedGraph;
-import com.github.phenomics.ontolib.graph.data.Edge;
-import com.github.phenomics.ontolib.graph.data.ImmutableDirectedGraph;
 import com.github.phenomics.ontolib.graph.data.ImmutableEdge;
+import com.github.phenomics.ontolib.graph.data.ImmutableIndexedDirectedGraph;
 import com.github.phenomics.ontolib.ontology.algo.OntologyTerms;
+import com.github.phenomics.ontolib.utils.ImmutableSparseBitSet;
 import com.google.common.collect.ImmutableMap;
 import com.google.common.collect.ImmutableSet;
 import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.collect.ImmutableSortedSet;
 import com.google.common.collect.Sets;
 
 /**
@@ -28,13 +28,13 @@ import com.google.common.collect.Sets;
 public class ImmutableOntology<T extends Term, R extends TermRelation> implements Ontology<T, R> {
 
   /** Serial UId for serialization. */
-  private static final long serialVersionUID = 1L;
+  private static final long serialVersionUID = 2L;
 
   /** Meta information, as loaded from file. */
   private final ImmutableSortedMap<String, String> metaInfo;
 
   /** The graph storing the ontology's structure. */
-  private final ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>> graph;
+  private final ImmutableIndexedDirectedGraph<TermId, ImmutableEdge<TermId>> graph;
 
   /** Id of the root term. */
   private final TermId rootTermId;
@@ -59,13 +59,17 @@ public class ImmutableOntology<T extends Term, R extends TermRelation> implement
   private final ImmutableMap<Integer, R> relationMap;
 
   /** Precomputed ancestors (including vertex itself). */
-  private final ImmutableMap<TermId, ImmutableSet<TermId>> precomputedAncestors;
+  private final TermAncestorIndex ancestorIndex;
+
+  /** Dictionary with all term IDs of the ontology, including alternative ones. */
+  private final TermIdDictionary termIdDictionary;
 
   /**
    * Constructor.
    *
    * @param metaInfo {@link ImmutableMap} with meta information.
-   * @param graph Graph to use for underlying structure.
+   * @param graph Graph to use for underlying structure, stored as
+   *        {@link ImmutableIndexedDirectedGraph}.
    * @param rootTermId Root node's {@link TermId}.
    * @param nonObsoleteTermIds {@link Collection} of {@link TermId}s of non-obsolete terms.
    * @param obsoleteTermIds {@link Collection} of {@link TermId}s of obsolete terms.
@@ -73,11 +77,44 @@ public class ImmutableOntology<T extends Term, R extends TermRelation> implement
    * @param relationMap Mapping from numeric edge Id to <code>R</code>.
    */
   public ImmutableOntology(ImmutableSortedMap<String, String> metaInfo,
-      ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>> graph, TermId rootTermId,
+      DirectedGraph<TermId, ImmutableEdge<TermId>> graph, TermId rootTermId,
       Collection<? extends TermId> nonObsoleteTermIds, Collection<? extends TermId> obsoleteTermIds,
       ImmutableMap<TermId, T> termMap, ImmutableMap<Integer, R> relationMap) {
+    this(metaInfo, graph, rootTermId, nonObsoleteTermIds, obsoleteTermIds, termMap, relationMap,
+        new TermAncestorIndex(graph, new TermIdDictionary()));
+  }
+
+  /**
+   * Constructor with precomputed {@link TermAncestorIndex}, e.g., when loading an ontology
+   * snapshot.
+   *
+   * @param metaInfo {@link ImmutableMap} with meta information.
+   * @param graph Graph to use for underlying structure, stored as
+   *        {@link ImmutableIndexedDirectedGraph}.
+   * @param rootTermId Root node's {@link TermId}.
+   * @param nonObsoleteTermIds {@link Collection} of {@link TermId}s of non-obsolete terms.
+   * @param obsoleteTermIds {@link Collection} of {@link TermId}s of obsolete terms.
+   * @param termMap Mapping from {@link TermId} to <code>T</code>.
+   * @param relationMap Mapping from numeric edge Id to <code>R</code>.
+   * @param ancestorIndex Precomputed {@link TermAncestorIndex} of <code>graph</code>, the
+   *        remaining term IDs of the ontology are registered in its {@link TermIdDictionary},
+   *        which is then frozen.
+   * @throws IllegalArgumentException if <code>ancestorIndex</code> does not have exactly one entry
+   *         for each vertex of <code>graph</code>.
+   * @throws com.github.phenomics.ontolib.base.OntoLibRuntimeException if the dictionary of
+   *         <code>ancestorIndex</code> is frozen and lacks term IDs of the ontology.
+   */
+  public ImmutableOntology(ImmutableSortedMap<String, String> metaInfo,
+      DirectedGraph<TermId, ImmutableEdge<TermId>> graph, TermId rootTermId,
+      Collection<? extends TermId> nonObsoleteTermIds, Collection<? extends TermId> obsoleteTermIds,
+      ImmutableMap<TermId, T> termMap, ImmutableMap<Integer, R> relationMap,
+      TermAncestorIndex ancestorIndex) {
+    if (ancestorIndex.size() != graph.countVertices()) {
+      throw new IllegalArgumentException("Ancestor index has " + ancestorIndex.size()
+          + " terms but graph has " + graph.countVertices() + " vertices");
+    }
     this.metaInfo = metaInfo;
-    this.graph = graph;
+    this.graph = ImmutableIndexedDirectedGraph.copyOf(graph);
     this.rootTermId = rootTermId;
     this.termMap = termMap;
     this.nonObsoleteTermIds = ImmutableSet.copyOf(nonObsoleteTermIds);
@@ -85,30 +122,25 @@ public class ImmutableOntology<T extends Term, R extends TermRelation> implement
     this.allTermIds =
         ImmutableSet.copyOf(Sets.union(this.nonObsoleteTermIds, this.obsoleteTermIds));
     this.relationMap = relationMap;
-    this.precomputedAncestors = precomputeAncestors();
+    this.ancestorIndex = ancestorIndex;
+    this.termIdDictionary = buildTermIdDictionary();
   }
 
   /**
-   * @return Precomputed map from term id to list of ancestor term ids (a term is its own ancestor).
+   * Register the term IDs that are not graph vertices (e.g., alternative ones) in the dictionary
+   * of the ancestor index, after the vertices.
+   *
+   * @return Frozen {@link TermIdDictionary} with all term IDs of this ontology.
    */
-  private ImmutableMap<TermId, ImmutableSet<TermId>> precomputeAncestors() {
-    final ImmutableMap.Builder<TermId, ImmutableSet<TermId>> mapBuilder = ImmutableMap.builder();
-
-    for (TermId termId : graph.getVertices()) {
-      final ImmutableSet.Builder<TermId> setBuilder = ImmutableSet.builder();
-      BreadthFirstSearch<TermId, ImmutableEdge<TermId>> bfs = new BreadthFirstSearch<>();
-      bfs.startFromForward(graph, termId, new VertexVisitor<TermId, ImmutableEdge<TermId>>() {
-        @Override
-        public boolean visit(DirectedGraph<TermId, ImmutableEdge<TermId>> g, TermId v) {
-          setBuilder.add(v);
-          return true;
-        }
-      });
-
-      mapBuilder.put(termId, setBuilder.build());
+  private TermIdDictionary buildTermIdDictionary() {
+    final TermIdDictionary result = ancestorIndex.getTermIdDictionary();
+    for (TermId termId : ImmutableSortedSet.copyOf(allTermIds)) {
+      result.intern(termId);
     }
-
-    return mapBuilder.build();
+    for (TermId termId : ImmutableSortedSet.copyOf(termMap.keySet())) {
+      result.intern(termId);
+    }
+    return result.freeze();
   }
 
   @Override
@@ -117,7 +149,7 @@ public class ImmutableOntology<T extends Term, R extends TermRelation> implement
   }
 
   @Override
-  public DirectedGraph<TermId, ? extends Edge<TermId>> getGraph() {
+  public ImmutableIndexedDirectedGraph<TermId, ImmutableEdge<TermId>> getGraph() {
     return graph;
   }
 
@@ -136,31 +168,102 @@ public class ImmutableOntology<T extends Term, R extends TermRelation> implement
     return termId.equals(rootTermId);
   }
 
-  @Override
-  public Set<TermId> getAncestorTermIds(TermId termId, boolean includeRoot) {
+  /**
+   * Obtain the ontology's term dictionary.
+   *
+   * <p>
+   * Use this dictionary when parsing annotation files for the ontology, such that the annotations
+   * share the {@link TermId} objects with the ontology. The dictionary is frozen, term IDs that
+   * are not part of the ontology must be interned in a child dictionary, see
+   * {@link TermIdDictionary#TermIdDictionary(TermIdDictionary)}.
+   * </p>
+   *
+   * <p>
+   * The dictionary's codes are the ontology's term indices: the codes of the graph's vertices are
+   * their indices in {@link #getAncestorIndex()}, followed by the alternative term IDs.
+   * </p>
+   *
+   * @return The frozen {@link TermIdDictionary} with all term IDs of this ontology.
+   */
+  public TermIdDictionary getTermIdDictionary() {
+    return termIdDictionary;
+  }
+
+  /**
+   * @return The {@link TermAncestorIndex} with the precomputed ancestors of all terms.
+   */
+  public TermAncestorIndex getAncestorIndex() {
+    return ancestorIndex;
+  }
+
+  /**
+   * Query for ancestors of a term as indices into {@link #getAncestorIndex()}.
+   *
+   * @param termId The {@link TermId} to query ancestors for, alternative IDs are resolved.
+   * @param includeRoot Whether or not to include the root.
+   * @return Indices of the ancestors of <code>termId</code> (including itself), empty if
+   *         <code>termId</code> is not a valid term ID in the ontology.
+   */
+  public ImmutableSparseBitSet getAncestorBits(TermId termId, boolean includeRoot) {
     final TermId primaryTermId = getPrimaryTermId(termId);
     if (primaryTermId == null) {
-      return ImmutableSet.of();
+      return ImmutableSparseBitSet.of();
     }
 
-    final ImmutableSet<TermId> precomputed = precomputedAncestors.getOrDefault(termId, ImmutableSet.of());
+    final ImmutableSparseBitSet bits = ancestorIndex.getAncestors(primaryTermId);
     if (includeRoot) {
-      return precomputed;
+      return bits;
     } else {
-      return ImmutableSet.copyOf(Sets.difference(precomputed, ImmutableSet.of(rootTermId)));
+      return bits.without(ancestorIndex.indexOf(rootTermId));
     }
   }
 
-  @Override
-  public Set<TermId> getAllAncestorTermIds(Collection<TermId> termIds, boolean includeRoot) {
-    final Set<TermId> result = new HashSet<>();
+  /**
+   * Count ancestors of a term without materializing them.
+   *
+   * @param termId The {@link TermId} to count ancestors for, alternative IDs are resolved.
+   * @param includeRoot Whether or not to include the root.
+   * @return Number of ancestors of <code>termId</code> (including itself), <code>0</code> if
+   *         <code>termId</code> is not a valid term ID in the ontology.
+   */
+  public int countAncestors(TermId termId, boolean includeRoot) {
+    final ImmutableSparseBitSet bits = getAncestorBits(termId, true);
+    if (!includeRoot && bits.get(ancestorIndex.indexOf(rootTermId))) {
+      return bits.cardinality() - 1;
+    } else {
+      return bits.cardinality();
+    }
+  }
+
+  /**
+   * Query for ancestors of a collection of terms as indices into {@link #getAncestorIndex()}.
+   *
+   * @param termIds {@link Collection} of {@link TermId}s to gather ancestors of.
+   * @param includeRoot Whether or not to include the root.
+   * @return Indices of all ancestors of <code>termIds</code> (including themselves).
+   */
+  public ImmutableSparseBitSet getAllAncestorBits(Collection<TermId> termIds,
+      boolean includeRoot) {
+    final List<ImmutableSparseBitSet> sets = new ArrayList<>(termIds.size());
     for (TermId termId : termIds) {
-      result.addAll(getAncestorTermIds(termId, true));
+      sets.add(getAncestorBits(termId, true));
     }
-    if (!includeRoot) {
-      result.remove(rootTermId);
+    final ImmutableSparseBitSet bits = ImmutableSparseBitSet.union(sets);
+    if (includeRoot) {
+      return bits;
+    } else {
+      return bits.without(ancestorIndex.indexOf(rootTermId));
     }
-    return result;
+  }
+
+  @Override
+  public Set<TermId> getAncestorTermIds(TermId termId, boolean includeRoot) {
+    return ancestorIndex.asTermIdSet(getAncestorBits(termId, includeRoot));
+  }
+
+  @Override
+  public Set<TermId> getAllAncestorTermIds(Collection<TermId> termIds, boolean includeRoot) {
+    return ancestorIndex.asTermIdSet(getAllAncestorBits(termIds, includeRoot));
   }
 
   @Override
@@ -191,8 +294,7 @@ public class ImmutableOntology<T extends Term, R extends TermRelation> implement
   @Override
   public Ontology<T, R> subOntology(TermId subOntologyRoot) {
     final Set<TermId> childTermIds = OntologyTerms.childrenOf(subOntologyRoot, this);
-    final ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>> subGraph =
-        (ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>>) graph.subGraph(childTermIds);
+    final DirectedGraph<TermId, ImmutableEdge<TermId>> subGraph = graph.subGraph(childTermIds);
     return new ImmutableOntology<T, R>(metaInfo, subGraph, subOntologyRoot,
         Sets.intersection(nonObsoleteTermIds, childTermIds),
         Sets.intersection(obsoleteTermIds, childTermIds), termMap, relationMap);
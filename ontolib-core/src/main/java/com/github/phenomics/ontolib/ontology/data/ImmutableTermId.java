@@ -1,7 +1,6 @@
 package com.github.phenomics.ontolib.ontology.data;
 
 import com.github.phenomics.ontolib.base.OntoLibRuntimeException;
-import com.google.common.collect.ComparisonChain;
 
 /**
  * Implementation of an immutable {@link TermId}.
@@ -19,6 +18,9 @@ public final class ImmutableTermId implements TermId {
   /** Identifier behind the prefix. */
   private final String id;
 
+  /** Cached hash value, <code>0</code> if not computed yet. */
+  private transient int hashCodeValue;
+
   /**
    * Construct from term ID including prefix.
    *
@@ -50,8 +52,15 @@ public final class ImmutableTermId implements TermId {
 
   @Override
   public int compareTo(TermId that) {
-    return ComparisonChain.start().compare(this.getPrefix(), that.getPrefix())
-        .compare(this.getId(), that.getId()).result();
+    if (this == that) {
+      return 0;
+    }
+    final int result = this.prefix.compareTo(that.getPrefix());
+    if (result != 0) {
+      return result;
+    } else {
+      return this.id.compareTo(that.getId());
+    }
   }
 
   @Override
@@ -80,10 +89,15 @@ public final class ImmutableTermId implements TermId {
 
   @Override
   public int hashCode() {
-    final int prime = 31;
-    int result = 1;
-    result = prime * result + ((id == null) ? 0 : id.hashCode());
-    result = prime * result + ((prefix == null) ? 0 : prefix.hashCode());
+    // Racy single-check idiom as in String.hashCode(), recomputation is harmless.
+    int result = hashCodeValue;
+    if (result == 0) {
+      final int prime = 31;
+      result = 1;
+      result = prime * result + ((id == null) ? 0 : id.hashCode());
+      result = prime * result + ((prefix == null) ? 0 : prefix.hashCode());
+      hashCodeValue = result;
+    }
     return result;
   }
 
@@ -0,0 +1,60 @@
+package com.github.phenomics.ontolib.ontology.data;
+
+/**
+ * Generic {@link TermRelation} implementation without relation qualifier, the counterpart of
+ * {@link ImmutableTerm}.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class ImmutableTermRelation implements TermRelation {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /**
+   * Source {@link TermId}.
+   */
+  private final TermId source;
+
+  /**
+   * Destination {@link TermId}.
+   */
+  private final TermId dest;
+
+  /** Id for this term relation, corresponds to Id of edge in graph. */
+  private final int id;
+
+  /**
+   * Constructor.
+   *
+   * @param source Source {@link TermId}.
+   * @param dest Destination {@link TermId}.
+   * @param id The term relation's Id, corresponds to Id of edge in graph.
+   */
+  public ImmutableTermRelation(TermId source, TermId dest, int id) {
+    this.source = source;
+    this.dest = dest;
+    this.id = id;
+  }
+
+  @Override
+  public TermId getSource() {
+    return source;
+  }
+
+  @Override
+  public TermId getDest() {
+    return dest;
+  }
+
+  @Override
+  public int getId() {
+    return id;
+  }
+
+  @Override
+  public String toString() {
+    return "ImmutableTermRelation [source=" + source + ", dest=" + dest + ", id=" + id + "]";
+  }
+
+}
@@ -0,0 +1,247 @@
+package com.github.phenomics.ontolib.ontology.data;
+
+import java.io.Serializable;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Set;
+
+import com.github.phenomics.ontolib.graph.algo.TopologicalSorting;
+import com.github.phenomics.ontolib.graph.algo.VertexVisitor;
+import com.github.phenomics.ontolib.graph.data.DirectedGraph;
+import com.github.phenomics.ontolib.graph.data.Edge;
+import com.github.phenomics.ontolib.utils.ImmutableSparseBitSet;
+
+/**
+ * Precomputed transitive closure of the "is-a" relation of an ontology graph.
+ *
+ * <p>
+ * Each term is assigned a dense index such that ancestors come before their descendants (i.e., the
+ * root has index <code>0</code>). The indices are the codes of the terms in a
+ * {@link TermIdDictionary}, e.g., the one of the {@link ImmutableOntology}. The ancestor set of
+ * each term (including the term itself) is stored as an {@link ImmutableSparseBitSet} over these
+ * indices. The sets are computed in a single pass over the terms in topological order, each being
+ * the union of its parents' sets.
+ * </p>
+ *
+ * <p>
+ * Because ancestors have small indices, the ancestor sets of different terms share most of their
+ * words, and intersection sizes can be computed by word-wise <code>AND</code> and population count.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class TermAncestorIndex implements Serializable {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** Dictionary with the indexed terms' codes, which are the term indices. */
+  private final TermIdDictionary termIdDictionary;
+
+  /** Ancestor sets (including the term itself), by term index. */
+  private final ImmutableSparseBitSet[] ancestors;
+
+  /**
+   * Construct index for the given graph, edges must point from child to parent terms.
+   *
+   * <p>
+   * The terms are registered in a new {@link TermIdDictionary}, which is frozen.
+   * </p>
+   *
+   * @param <E> Edge type of the graph.
+   * @param graph The ontology's {@link DirectedGraph}, must be a DAG.
+   * @throws com.github.phenomics.ontolib.graph.algo.GraphNotDagException if <code>graph</code> is
+   *         not a DAG.
+   */
+  public <E extends Edge<TermId>> TermAncestorIndex(DirectedGraph<TermId, E> graph) {
+    this(graph, new TermIdDictionary());
+    termIdDictionary.freeze();
+  }
+
+  /**
+   * Construct index for the given graph, registering its terms in <code>termIdDictionary</code>.
+   *
+   * <p>
+   * Afterwards, further term IDs (e.g., alternative ones) can be registered in the dictionary,
+   * they are not part of the index.
+   * </p>
+   *
+   * @param <E> Edge type of the graph.
+   * @param graph The ontology's {@link DirectedGraph}, must be a DAG.
+   * @param termIdDictionary Empty, non-frozen {@link TermIdDictionary} to register the terms in.
+   * @throws com.github.phenomics.ontolib.graph.algo.GraphNotDagException if <code>graph</code> is
+   *         not a DAG.
+   * @throws IllegalArgumentException if <code>termIdDictionary</code> is not empty.
+   */
+  public <E extends Edge<TermId>> TermAncestorIndex(DirectedGraph<TermId, E> graph,
+      TermIdDictionary termIdDictionary) {
+    if (termIdDictionary.size() != 0) {
+      throw new IllegalArgumentException("Term ID dictionary must be empty");
+    }
+    final List<ImmutableSparseBitSet> tmpAncestors = new ArrayList<>(graph.countVertices());
+
+    // The forward topological sorting visits parents before their children.
+    new TopologicalSorting<TermId, E, DirectedGraph<TermId, E>>().startForward(graph,
+        new VertexVisitor<TermId, E>() {
+          @Override
+          public boolean visit(DirectedGraph<TermId, E> g, TermId v) {
+            final int index = tmpAncestors.size();
+            ImmutableSparseBitSet bits = ImmutableSparseBitSet.of(index);
+            final Iterator<TermId> it = g.viaOutEdgeIterator(v);
+            while (it.hasNext()) {
+              bits = bits.or(tmpAncestors.get(termIdDictionary.codeOf(it.next())));
+            }
+            termIdDictionary.intern(v);
+            tmpAncestors.add(bits);
+            return true;
+          }
+        });
+    if (termIdDictionary.size() != tmpAncestors.size()) {
+      throw new IllegalArgumentException("Graph vertices are not distinct term IDs");
+    }
+
+    this.termIdDictionary = termIdDictionary;
+    this.ancestors = tmpAncestors.toArray(new ImmutableSparseBitSet[tmpAncestors.size()]);
+  }
+
+  /**
+   * Construct index from precomputed ancestor sets, e.g., when loading an ontology snapshot.
+   *
+   * @param termIdDictionary {@link TermIdDictionary} whose first codes are the indexed terms;
+   *        ancestors must come before descendants.
+   * @param ancestors Ancestor sets (including the term itself), by term index.
+   * @throws IllegalArgumentException if the dictionary has fewer term IDs than ancestor sets.
+   */
+  public TermAncestorIndex(TermIdDictionary termIdDictionary,
+      List<ImmutableSparseBitSet> ancestors) {
+    if (termIdDictionary.size() < ancestors.size()) {
+      throw new IllegalArgumentException("Got " + termIdDictionary.size() + " term IDs but "
+          + ancestors.size() + " ancestor sets");
+    }
+    this.termIdDictionary = termIdDictionary;
+    this.ancestors = ancestors.toArray(new ImmutableSparseBitSet[ancestors.size()]);
+  }
+
+  /**
+   * @return Number of indexed terms.
+   */
+  public int size() {
+    return ancestors.length;
+  }
+
+  /**
+   * @return The {@link TermIdDictionary} whose codes are the term indices.
+   */
+  public TermIdDictionary getTermIdDictionary() {
+    return termIdDictionary;
+  }
+
+  /**
+   * Query for term index.
+   *
+   * @param termId The {@link TermId} to query for.
+   * @return Index of <code>termId</code>, <code>-1</code> if it is not in the index.
+   */
+  public int indexOf(TermId termId) {
+    final int code = termIdDictionary.codeOf(termId);
+    return (code < ancestors.length) ? code : -1;
+  }
+
+  /**
+   * Query for {@link TermId} by index.
+   *
+   * @param index Index of the term, in the range <code>[0, size())</code>.
+   * @return {@link TermId} with the given <code>index</code>.
+   */
+  public TermId termIdAt(int index) {
+    if (index >= ancestors.length) {
+      throw new IndexOutOfBoundsException("No term with index " + index);
+    }
+    return termIdDictionary.termIdOf(index);
+  }
+
+  /**
+   * Query for ancestors by index.
+   *
+   * @param index Index of the term, in the range <code>[0, size())</code>.
+   * @return Indices of the ancestors of the term, including itself.
+   */
+  public ImmutableSparseBitSet getAncestors(int index) {
+    return ancestors[index];
+  }
+
+  /**
+   * Query for ancestors by {@link TermId}.
+   *
+   * @param termId The {@link TermId} to query for.
+   * @return Indices of the ancestors of the term, including itself, empty if <code>termId</code> is
+   *         not in the index.
+   */
+  public ImmutableSparseBitSet getAncestors(TermId termId) {
+    final int index = indexOf(termId);
+    return (index == -1) ? ImmutableSparseBitSet.of() : ancestors[index];
+  }
+
+  /**
+   * Obtain {@link Set} view of {@link TermId}s for a set of term indices.
+   *
+   * @param bits Term indices, as obtained from this index.
+   * @return Unmodifiable {@link Set} of the {@link TermId}s for <code>bits</code>.
+   */
+  public Set<TermId> asTermIdSet(ImmutableSparseBitSet bits) {
+    return new TermIdSetView(bits);
+  }
+
+  /**
+   * Unmodifiable {@link Set} of {@link TermId}s backed by an {@link ImmutableSparseBitSet}.
+   */
+  private final class TermIdSetView extends AbstractSet<TermId> {
+
+    /** The term indices. */
+    private final ImmutableSparseBitSet bits;
+
+    /**
+     * Constructor.
+     *
+     * @param bits The term indices.
+     */
+    TermIdSetView(ImmutableSparseBitSet bits) {
+      this.bits = bits;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+      return (o instanceof TermId) && bits.get(indexOf((TermId) o));
+    }
+
+    @Override
+    public int size() {
+      return bits.cardinality();
+    }
+
+    @Override
+    public Iterator<TermId> iterator() {
+      final PrimitiveIterator.OfInt it = bits.iterator();
+      return new Iterator<TermId>() {
+        @Override
+        public boolean hasNext() {
+          return it.hasNext();
+        }
+
+        @Override
+        public TermId next() {
+          if (!it.hasNext()) {
+            throw new NoSuchElementException();
+          }
+          return termIdDictionary.termIdOf(it.nextInt());
+        }
+      };
+    }
+
+  }
+
+}
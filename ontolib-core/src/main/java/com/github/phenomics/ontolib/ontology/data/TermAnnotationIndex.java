@@ -0,0 +1,335 @@
+package com.github.phenomics.ontolib.ontology.data;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.PrimitiveIterator;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+import com.github.phenomics.ontolib.ontology.algo.InformationContentComputation;
+import com.github.phenomics.ontolib.utils.ImmutablePostingList;
+import com.github.phenomics.ontolib.utils.ImmutableSparseBitSet;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Inverted index from terms to the "world objects" annotated with them, including the implicit
+ * annotations of ancestors.
+ *
+ * <p>
+ * Objects are identified by integer IDs. Terms are identified by dense codes, the indices of the
+ * ontology's {@link TermAncestorIndex}. For each term code, the IDs of the annotated objects are
+ * stored as an {@link ImmutablePostingList}, which makes unions and intersections cheap and is
+ * compressed on serialization.
+ * </p>
+ *
+ * <p>
+ * The index can be used for candidate generation before scoring, e.g., for restricting a search to
+ * the objects that share an ancestor other than the root with the query, and as the input for
+ * {@link InformationContentComputation#computeInformationContentTable(TermAnnotationIndex)}.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class TermAnnotationIndex implements Serializable {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** The ontology's {@link TermAncestorIndex}, defining the term codes. */
+  private final TermAncestorIndex ancestorIndex;
+
+  /** Mapping from {@link TermId} (including alternative ones) to code. */
+  private final ImmutableMap<TermId, Integer> termIdToCode;
+
+  /** Code of the root term. */
+  private final int rootCode;
+
+  /** Posting lists with object IDs, by term code. */
+  private final ImmutablePostingList[] postings;
+
+  /** All object IDs. */
+  private final ImmutablePostingList objectIds;
+
+  /** Object labels, by object ID; empty if objects were not given by label. */
+  private final ImmutableList<String> objectLabels;
+
+  /**
+   * Constructor.
+   *
+   * @param ontology The {@link ImmutableOntology} the index is built for.
+   * @param postings Posting lists, by term code.
+   * @param objectIds All object IDs.
+   * @param objectLabels Object labels, by object ID.
+   */
+  private TermAnnotationIndex(ImmutableOntology<?, ?> ontology, ImmutablePostingList[] postings,
+      ImmutablePostingList objectIds, ImmutableList<String> objectLabels) {
+    this.ancestorIndex = ontology.getAncestorIndex();
+    final ImmutableMap.Builder<TermId, Integer> codeBuilder = ImmutableMap.builder();
+    for (TermId termId : ontology.getTermMap().keySet()) {
+      final int code = ancestorIndex.indexOf(ontology.getPrimaryTermId(termId));
+      if (code != -1) {
+        codeBuilder.put(termId, code);
+      }
+    }
+    this.termIdToCode = codeBuilder.build();
+    this.rootCode = ancestorIndex.indexOf(ontology.getRootTermId());
+
+    this.postings = postings;
+    this.objectIds = objectIds;
+    this.objectLabels = objectLabels;
+  }
+
+  /**
+   * Construct index from "world objects" given by integer ID.
+   *
+   * @param ontology The {@link ImmutableOntology} to use for computing implicit annotations.
+   * @param objects {@link Map} from non-negative object ID to the {@link TermId}s the object is
+   *        annotated with.
+   * @return Freshly constructed {@link TermAnnotationIndex}.
+   * @throws IllegalArgumentException if an object ID is negative.
+   */
+  public static TermAnnotationIndex construct(ImmutableOntology<?, ?> ontology,
+      Map<Integer, ? extends Collection<TermId>> objects) {
+    final SortedMap<Integer, Collection<TermId>> sorted = new TreeMap<>(objects);
+    if (!sorted.isEmpty() && sorted.firstKey() < 0) {
+      throw new IllegalArgumentException(
+          "Object ID must not be negative but was " + sorted.firstKey());
+    }
+    return build(ontology, sorted, ImmutableList.of());
+  }
+
+  /**
+   * Construct index from {@link TermAnnotation}s.
+   *
+   * <p>
+   * The object IDs are assigned in ascending order of the labels, starting from <code>0</code>, and
+   * the labels can be retrieved using {@link #getObjectLabel(int)}.
+   * </p>
+   *
+   * @param ontology The {@link ImmutableOntology} to use for computing implicit annotations.
+   * @param annotations {@link Collection} of {@link TermAnnotation}s to index.
+   * @return Freshly constructed {@link TermAnnotationIndex}.
+   */
+  public static TermAnnotationIndex construct(ImmutableOntology<?, ?> ontology,
+      Collection<? extends TermAnnotation> annotations) {
+    final TreeSet<String> labels = new TreeSet<>();
+    for (TermAnnotation anno : annotations) {
+      labels.add(anno.getLabel());
+    }
+    final ImmutableList<String> objectLabels = ImmutableList.copyOf(labels);
+    final Map<String, Integer> labelToId = new TreeMap<>();
+    for (String label : objectLabels) {
+      labelToId.put(label, labelToId.size());
+    }
+
+    final SortedMap<Integer, Collection<TermId>> objects = new TreeMap<>();
+    for (TermAnnotation anno : annotations) {
+      objects.computeIfAbsent(labelToId.get(anno.getLabel()), id -> new ArrayList<>())
+          .add(anno.getTermId());
+    }
+    return build(ontology, objects, objectLabels);
+  }
+
+  /**
+   * Build index.
+   *
+   * <p>
+   * Objects are processed in ascending order of ID such that the posting lists are built in sorted
+   * order without further sorting.
+   * </p>
+   *
+   * @param ontology The {@link ImmutableOntology} to use for computing implicit annotations.
+   * @param objects Objects, sorted by non-negative ID.
+   * @param objectLabels Object labels, by object ID.
+   * @return Freshly constructed {@link TermAnnotationIndex}.
+   */
+  private static TermAnnotationIndex build(ImmutableOntology<?, ?> ontology,
+      SortedMap<Integer, Collection<TermId>> objects, ImmutableList<String> objectLabels) {
+    final int termCount = ontology.getAncestorIndex().size();
+    final int[][] buffers = new int[termCount][];
+    final int[] sizes = new int[termCount];
+
+    final int[] ids = new int[objects.size()];
+    int numObjects = 0;
+    for (Map.Entry<Integer, Collection<TermId>> e : objects.entrySet()) {
+      final int objectId = e.getKey();
+      ids[numObjects++] = objectId;
+      final ImmutableSparseBitSet bits = ontology.getAllAncestorBits(e.getValue(), true);
+      final PrimitiveIterator.OfInt it = bits.iterator();
+      while (it.hasNext()) {
+        final int code = it.nextInt();
+        if (buffers[code] == null) {
+          buffers[code] = new int[4];
+        } else if (sizes[code] == buffers[code].length) {
+          buffers[code] = Arrays.copyOf(buffers[code], 2 * sizes[code]);
+        }
+        buffers[code][sizes[code]++] = objectId;
+      }
+    }
+
+    final ImmutablePostingList[] postings = new ImmutablePostingList[termCount];
+    for (int code = 0; code < termCount; ++code) {
+      postings[code] = (buffers[code] == null) ? ImmutablePostingList.of()
+          : ImmutablePostingList.copyOfSorted(buffers[code], sizes[code]);
+      buffers[code] = null;
+    }
+    return new TermAnnotationIndex(ontology, postings,
+        ImmutablePostingList.copyOfSorted(ids, numObjects), objectLabels);
+  }
+
+  /**
+   * @return Number of indexed terms, term codes are in the range <code>[0, countTerms())</code>.
+   */
+  public int countTerms() {
+    return ancestorIndex.size();
+  }
+
+  /**
+   * @return Number of indexed objects.
+   */
+  public int countObjects() {
+    return objectIds.size();
+  }
+
+  /**
+   * @return IDs of all indexed objects.
+   */
+  public ImmutablePostingList getObjectIds() {
+    return objectIds;
+  }
+
+  /**
+   * Query for object label.
+   *
+   * @param objectId The object ID to query for.
+   * @return Label of the object, <code>null</code> if the index was not constructed from
+   *         {@link TermAnnotation}s.
+   * @throws IndexOutOfBoundsException if the index was constructed from {@link TermAnnotation}s
+   *         and there is no object with the given ID.
+   */
+  public String getObjectLabel(int objectId) {
+    return objectLabels.isEmpty() ? null : objectLabels.get(objectId);
+  }
+
+  /**
+   * Query for term code.
+   *
+   * @param termId The {@link TermId} to query for, alternative IDs are resolved.
+   * @return Code of <code>termId</code>, <code>-1</code> if it is not in the index.
+   */
+  public int indexOf(TermId termId) {
+    final Integer code = termIdToCode.get(termId);
+    return (code == null) ? -1 : code.intValue();
+  }
+
+  /**
+   * Query for {@link TermId} by code.
+   *
+   * @param code Code of the term, in the range <code>[0, countTerms())</code>.
+   * @return Primary {@link TermId} with the given <code>code</code>.
+   */
+  public TermId termIdAt(int code) {
+    return ancestorIndex.termIdAt(code);
+  }
+
+  /**
+   * Query for annotated objects by term code.
+   *
+   * @param code Code of the term, in the range <code>[0, countTerms())</code>.
+   * @return IDs of the objects annotated with the term or one of its descendants.
+   */
+  public ImmutablePostingList getPostings(int code) {
+    return postings[code];
+  }
+
+  /**
+   * Query for annotated objects by {@link TermId}.
+   *
+   * @param termId The {@link TermId} to query for, alternative IDs are resolved.
+   * @return IDs of the objects annotated with the term or one of its descendants, empty if
+   *         <code>termId</code> is not in the index.
+   */
+  public ImmutablePostingList getPostings(TermId termId) {
+    final int code = indexOf(termId);
+    return (code == -1) ? ImmutablePostingList.of() : postings[code];
+  }
+
+  /**
+   * Count annotated objects.
+   *
+   * @param termId The {@link TermId} to query for, alternative IDs are resolved.
+   * @return Number of objects annotated with the term or one of its descendants.
+   */
+  public int countObjects(TermId termId) {
+    return getPostings(termId).size();
+  }
+
+  /**
+   * Query for objects annotated with all given terms (or their descendants).
+   *
+   * @param termIds The {@link TermId}s to query for.
+   * @return Intersection of the posting lists of <code>termIds</code>, all objects if
+   *         <code>termIds</code> is empty.
+   */
+  public ImmutablePostingList getObjectsAnnotatedWithAll(Collection<TermId> termIds) {
+    if (termIds.isEmpty()) {
+      return objectIds;
+    }
+    final List<ImmutablePostingList> lists = new ArrayList<>(termIds.size());
+    for (TermId termId : termIds) {
+      lists.add(getPostings(termId));
+    }
+    return ImmutablePostingList.intersection(lists);
+  }
+
+  /**
+   * Query for objects sharing at least one ancestor with the query terms.
+   *
+   * <p>
+   * Excluding the root yields the candidates with a non-zero score for similarity measures that
+   * ignore the root, e.g., Resnik similarity with the usual information content of zero for the
+   * root.
+   * </p>
+   *
+   * @param query The query {@link TermId}s, alternative IDs are resolved.
+   * @param includeRoot Whether or not to count the root as a shared ancestor.
+   * @return IDs of the objects sharing an ancestor with <code>query</code>.
+   */
+  public ImmutablePostingList getObjectsSharingAncestors(Collection<TermId> query,
+      boolean includeRoot) {
+    final List<ImmutableSparseBitSet> sets = new ArrayList<>(query.size());
+    for (TermId termId : query) {
+      final int code = indexOf(termId);
+      if (code != -1) {
+        sets.add(ancestorIndex.getAncestors(code));
+      }
+    }
+    final ImmutableSparseBitSet bits = ImmutableSparseBitSet.union(sets);
+    if (includeRoot && bits.get(rootCode)) {
+      return postings[rootCode];
+    }
+
+    final List<ImmutablePostingList> lists = new ArrayList<>(bits.cardinality());
+    final PrimitiveIterator.OfInt it = bits.iterator();
+    while (it.hasNext()) {
+      final int code = it.nextInt();
+      if (code != rootCode) {
+        lists.add(postings[code]);
+      }
+    }
+    return ImmutablePostingList.union(lists);
+  }
+
+  @Override
+  public String toString() {
+    return "TermAnnotationIndex [countTerms=" + countTerms() + ", countObjects=" + countObjects()
+        + "]";
+  }
+
+}
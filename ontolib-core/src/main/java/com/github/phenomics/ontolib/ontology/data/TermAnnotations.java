@@ -29,6 +29,11 @@ public final class TermAnnotations {
    * mapping for {@link InformationContentComputation}, for example.
    * </p>
    *
+   * <p>
+   * For large corpora, consider {@link TermAnnotationIndex}, which stores the same information as
+   * sorted <code>int</code> posting lists.
+   * </p>
+   *
    * @param ontology {@link Ontology} to use for computing implicit annotations.
    * @param annotations {@link Collection} of {@link TermAnnotation}s to convert.
    * @return Constructed {@link Map} from {@link TermId} to {@link Collection} of "world object"
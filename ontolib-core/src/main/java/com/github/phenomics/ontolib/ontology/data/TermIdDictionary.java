@@ -0,0 +1,323 @@
+package com.github.phenomics.ontolib.ontology.data;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.github.phenomics.ontolib.base.OntoLibRuntimeException;
+
+/**
+ * Dictionary for interning {@link TermId}s and assigning them dense integer codes.
+ *
+ * <p>
+ * Each distinct term ID is represented by exactly one {@link ImmutableTermId} object and all term
+ * IDs constructed by the dictionary with the same prefix share one {@link ImmutableTermPrefix}
+ * object. In addition, each term ID is assigned an integer code on first registration. Codes are
+ * assigned consecutively starting from <code>0</code> and never change, so they can be used for
+ * indexing into arrays in inner loops instead of hashing {@link TermId} objects.
+ * </p>
+ *
+ * <p>
+ * The dictionary of an {@link ImmutableOntology} provides the one index of its terms: the codes
+ * of the graph's vertices are the indices of its {@link TermAncestorIndex}, and other tables of
+ * per-term values are mapped to the codes.
+ * </p>
+ *
+ * <p>
+ * A dictionary can be frozen using {@link #freeze()}, after which interning a term ID that has
+ * not been registered before throws an {@link OntoLibRuntimeException}. A child dictionary created
+ * with {@link #TermIdDictionary(TermIdDictionary)} shares the term IDs and codes of its frozen
+ * parent and registers all other term IDs itself, with codes following the parent's, leaving the
+ * parent unchanged. This is used for parsing annotation files of an {@link ImmutableOntology},
+ * whose dictionary is frozen.
+ * </p>
+ *
+ * <p>
+ * Interning is thread-safe. Lookups of term IDs and codes do not lock.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class TermIdDictionary implements Serializable {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** Parent dictionary to look up term IDs in first, <code>null</code> if none. */
+  private final TermIdDictionary parent;
+
+  /** Interned prefixes, by prefix value. */
+  private final ConcurrentHashMap<String, ImmutableTermPrefix> prefixes =
+      new ConcurrentHashMap<>();
+
+  /** Interned term IDs, by their string representation including prefix. */
+  private final ConcurrentHashMap<String, ImmutableTermId> termIds = new ConcurrentHashMap<>();
+
+  /** Mapping from term ID registered in this dictionary to code. */
+  private final ConcurrentHashMap<TermId, Integer> codes = new ConcurrentHashMap<>();
+
+  /** Code of the first term ID registered in this dictionary, the size of the parent. */
+  private final int firstCode;
+
+  /** Term IDs registered in this dictionary, by code minus {@link #firstCode}. */
+  private volatile ImmutableTermId[] byCode = new ImmutableTermId[16];
+
+  /** Number of term IDs registered in this dictionary. */
+  private volatile int count = 0;
+
+  /** Whether or not registering further term IDs and prefixes is forbidden. */
+  private volatile boolean frozen = false;
+
+  /**
+   * Construct empty dictionary.
+   */
+  public TermIdDictionary() {
+    this(null);
+  }
+
+  /**
+   * Construct empty child dictionary of <code>parent</code>.
+   *
+   * @param parent Frozen dictionary to look up term IDs and prefixes in first, <code>null</code>
+   *        for none.
+   * @throws IllegalArgumentException if <code>parent</code> is not frozen.
+   */
+  public TermIdDictionary(TermIdDictionary parent) {
+    if (parent != null && !parent.isFrozen()) {
+      throw new IllegalArgumentException("Parent term ID dictionary must be frozen");
+    }
+    this.parent = parent;
+    this.firstCode = (parent == null) ? 0 : parent.size();
+  }
+
+  /**
+   * Forbid registration of further term IDs and prefixes.
+   *
+   * @return <code>this</code>, for convenience.
+   */
+  public synchronized TermIdDictionary freeze() {
+    frozen = true;
+    return this;
+  }
+
+  /**
+   * @return Whether or not the dictionary has been frozen.
+   */
+  public boolean isFrozen() {
+    return frozen;
+  }
+
+  /**
+   * Intern term ID given as string.
+   *
+   * @param termIdString Term ID including prefix, e.g., <code>"HP:0000118"</code>.
+   * @return Interned {@link ImmutableTermId}.
+   * @throws OntoLibRuntimeException if the string does not have a prefix or if the term ID is not
+   *         registered yet and the dictionary is frozen.
+   */
+  public ImmutableTermId intern(String termIdString) {
+    final ImmutableTermId result = get(termIdString);
+    if (result != null) {
+      return result;
+    }
+
+    final int pos = termIdString.lastIndexOf(':');
+    if (pos == -1) {
+      throw new OntoLibRuntimeException(
+          "Term ID string \"" + termIdString + "\" does not have a prefix!");
+    }
+    checkNotFrozen(termIdString);
+    return register(termIdString,
+        new ImmutableTermId(internPrefix(termIdString.substring(0, pos)),
+            termIdString.substring(pos + 1)));
+  }
+
+  /**
+   * Intern term ID given as prefix and local ID.
+   *
+   * @param prefixValue The prefix value, e.g., <code>"HP"</code>.
+   * @param id The local ID, e.g., <code>"0000118"</code>.
+   * @return Interned {@link ImmutableTermId}.
+   * @throws OntoLibRuntimeException if the term ID is not registered yet and the dictionary is
+   *         frozen.
+   */
+  public ImmutableTermId intern(String prefixValue, String id) {
+    final String termIdString = prefixValue + ":" + id;
+    final ImmutableTermId result = get(termIdString);
+    if (result != null) {
+      return result;
+    }
+
+    checkNotFrozen(termIdString);
+    return register(termIdString, new ImmutableTermId(internPrefix(prefixValue), id));
+  }
+
+  /**
+   * Intern {@link TermId} object.
+   *
+   * <p>
+   * If no equal term ID has been registered yet, <code>termId</code> itself is registered in case
+   * it is an {@link ImmutableTermId}, such that existing objects (e.g., the ones of an ontology)
+   * are shared. Otherwise, a copy with an interned prefix is registered.
+   * </p>
+   *
+   * @param termId The {@link TermId} to intern.
+   * @return Interned {@link ImmutableTermId} equal to <code>termId</code>.
+   * @throws OntoLibRuntimeException if the term ID is not registered yet and the dictionary is
+   *         frozen.
+   */
+  public ImmutableTermId intern(TermId termId) {
+    final String termIdString = termId.getIdWithPrefix();
+    final ImmutableTermId result = get(termIdString);
+    if (result != null) {
+      return result;
+    }
+
+    checkNotFrozen(termIdString);
+    if (termId instanceof ImmutableTermId) {
+      if (termId.getPrefix() instanceof ImmutableTermPrefix
+          && getPrefix(termId.getPrefix().getValue()) == null) {
+        prefixes.putIfAbsent(termId.getPrefix().getValue(),
+            (ImmutableTermPrefix) termId.getPrefix());
+      }
+      return register(termIdString, (ImmutableTermId) termId);
+    } else {
+      return register(termIdString,
+          new ImmutableTermId(internPrefix(termId.getPrefix().getValue()), termId.getId()));
+    }
+  }
+
+  /**
+   * Intern term prefix.
+   *
+   * @param prefixValue The prefix value, e.g., <code>"HP"</code>.
+   * @return Interned {@link ImmutableTermPrefix}.
+   * @throws OntoLibRuntimeException if the prefix is not registered yet and the dictionary is
+   *         frozen.
+   */
+  public ImmutableTermPrefix internPrefix(String prefixValue) {
+    final ImmutableTermPrefix result = getPrefix(prefixValue);
+    if (result != null) {
+      return result;
+    }
+    checkNotFrozen(prefixValue);
+    return prefixes.computeIfAbsent(prefixValue, ImmutableTermPrefix::new);
+  }
+
+  /**
+   * Query for interned prefix in this dictionary and its ancestors.
+   *
+   * @param prefixValue The prefix value.
+   * @return Interned {@link ImmutableTermPrefix} or <code>null</code> if not registered.
+   */
+  private ImmutableTermPrefix getPrefix(String prefixValue) {
+    final ImmutableTermPrefix result = (parent == null) ? null : parent.getPrefix(prefixValue);
+    return (result != null) ? result : prefixes.get(prefixValue);
+  }
+
+  /**
+   * Throw if the dictionary is frozen.
+   *
+   * @param value The term ID or prefix that was to be registered, for the error message.
+   * @throws OntoLibRuntimeException if the dictionary is frozen.
+   */
+  private void checkNotFrozen(String value) {
+    if (frozen) {
+      throw new OntoLibRuntimeException("Cannot register \"" + value
+          + "\" in frozen term ID dictionary, use a child dictionary instead");
+    }
+  }
+
+  /**
+   * Register new term ID with the next code unless another thread was faster.
+   *
+   * @param termIdString String representation of <code>termId</code>.
+   * @param termId The {@link ImmutableTermId} to register.
+   * @return The registered {@link ImmutableTermId}.
+   * @throws OntoLibRuntimeException if the dictionary has been frozen in the meantime.
+   */
+  private synchronized ImmutableTermId register(String termIdString, ImmutableTermId termId) {
+    final ImmutableTermId existing = termIds.get(termIdString);
+    if (existing != null) {
+      return existing;
+    }
+    checkNotFrozen(termIdString);
+
+    ImmutableTermId[] arr = byCode;
+    if (count == arr.length) {
+      arr = Arrays.copyOf(arr, 2 * arr.length);
+    }
+    arr[count] = termId;
+    byCode = arr;
+    codes.put(termId, firstCode + count);
+    // Publish count last so that a code obtained from this dictionary can always be resolved.
+    count = count + 1;
+    termIds.put(termIdString, termId);
+    return termId;
+  }
+
+  /**
+   * Query for interned term ID in this dictionary and its ancestors without registering it.
+   *
+   * @param termIdString Term ID including prefix.
+   * @return Interned {@link ImmutableTermId} or <code>null</code> if not registered.
+   */
+  public ImmutableTermId get(String termIdString) {
+    final ImmutableTermId result = (parent == null) ? null : parent.get(termIdString);
+    return (result != null) ? result : termIds.get(termIdString);
+  }
+
+  /**
+   * Query for code of a term ID in this dictionary and its ancestors.
+   *
+   * @param termId The {@link TermId} to query for.
+   * @return Code of <code>termId</code>, <code>-1</code> if it has not been registered.
+   */
+  public int codeOf(TermId termId) {
+    if (parent != null) {
+      final int code = parent.codeOf(termId);
+      if (code != -1) {
+        return code;
+      }
+    }
+    final Integer code = codes.get(termId);
+    return (code == null) ? -1 : code.intValue();
+  }
+
+  /**
+   * Query for term ID by code.
+   *
+   * @param code Code of the term ID, in the range <code>[0, size())</code>.
+   * @return {@link ImmutableTermId} with the given <code>code</code>.
+   * @throws IndexOutOfBoundsException if there is no term ID with the given <code>code</code>.
+   */
+  public ImmutableTermId termIdOf(int code) {
+    if (code < firstCode) {
+      if (code < 0) {
+        throw new IndexOutOfBoundsException("No term ID with code " + code);
+      }
+      return parent.termIdOf(code);
+    }
+    // Read count before the array, see register().
+    final int size = count;
+    final ImmutableTermId[] arr = byCode;
+    if (code - firstCode >= size) {
+      throw new IndexOutOfBoundsException("No term ID with code " + code);
+    }
+    return arr[code - firstCode];
+  }
+
+  /**
+   * @return Number of registered term IDs, including the ones of the ancestors.
+   */
+  public int size() {
+    return firstCode + count;
+  }
+
+  @Override
+  public String toString() {
+    return "TermIdDictionary [size=" + size() + ", frozen=" + frozen + ", prefixes="
+        + prefixes.keySet() + ", parent=" + parent + "]";
+  }
+
+}
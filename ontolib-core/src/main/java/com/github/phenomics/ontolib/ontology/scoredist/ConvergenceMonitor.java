@@ -0,0 +1,79 @@
+package com.github.phenomics.ontolib.ontology.scoredist;
+
+/**
+ * Convergence check of the tail quantiles of a {@link ScoreHistogram}, for stopping the sampling
+ * early.
+ *
+ * <p>
+ * Every time the sample size reaches a multiple of the check interval, the quantiles in
+ * {@link #TAIL_QUANTILES} are compared to the ones from the previous check. The sampling is
+ * considered converged if none of them changed by more than the tolerance and the sample size is
+ * large enough for the highest quantile to be based on {@link #MIN_TAIL_SAMPLES} samples.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class ConvergenceMonitor {
+
+  /** The tail quantiles relevant for p value estimation, sorted ascendingly. */
+  static final double[] TAIL_QUANTILES = new double[] {0.95, 0.99, 0.999};
+
+  /** Smallest number of samples above the highest quantile before stopping. */
+  private static final int MIN_TAIL_SAMPLES = 10;
+
+  /** Smallest sample size before stopping. */
+  private static final long MIN_SAMPLE_SIZE = (long) Math
+      .ceil(MIN_TAIL_SAMPLES / (1.0 - TAIL_QUANTILES[TAIL_QUANTILES.length - 1]));
+
+  /** Largest accepted change of the quantiles between two checks. */
+  private final double tolerance;
+
+  /** Number of samples between two checks. */
+  private final int checkInterval;
+
+  /** Quantiles at the previous check. */
+  private double[] previous = new double[TAIL_QUANTILES.length];
+
+  /** Quantiles at the current check. */
+  private double[] current = new double[TAIL_QUANTILES.length];
+
+  /** Whether or not {@link #previous} has been computed. */
+  private boolean hasPrevious = false;
+
+  /**
+   * Constructor.
+   *
+   * @param tolerance Largest accepted change of the quantiles between two checks.
+   * @param checkInterval Number of samples between two checks.
+   */
+  ConvergenceMonitor(double tolerance, int checkInterval) {
+    this.tolerance = tolerance;
+    this.checkInterval = checkInterval;
+  }
+
+  /**
+   * Check for convergence, to be called after each added sample.
+   *
+   * @param histogram The {@link ScoreHistogram} with the samples so far.
+   * @return Whether or not the tail quantiles have converged.
+   */
+  boolean isConverged(ScoreHistogram histogram) {
+    final long sampleSize = histogram.getTotalCount();
+    if (sampleSize % checkInterval != 0) {
+      return false;
+    }
+
+    histogram.quantiles(TAIL_QUANTILES, current);
+    boolean converged = hasPrevious && sampleSize >= MIN_SAMPLE_SIZE;
+    for (int i = 0; converged && i < current.length; ++i) {
+      converged = Math.abs(current[i] - previous[i]) <= tolerance;
+    }
+
+    final double[] tmp = previous;
+    previous = current;
+    current = tmp;
+    hasPrevious = true;
+    return converged;
+  }
+
+}
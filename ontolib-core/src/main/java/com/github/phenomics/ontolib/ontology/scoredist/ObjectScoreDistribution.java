@@ -1,7 +1,14 @@
 package com.github.phenomics.ontolib.ontology.scoredist;
 
+import java.io.IOException;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamException;
+import java.io.ObjectStreamField;
 import java.io.Serializable;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map.Entry;
 import java.util.SortedMap;
@@ -10,6 +17,16 @@ import java.util.TreeMap;
 /**
  * Precomputed score distribution for a fixed number of terms and one world object Ids.
  *
+ * <p>
+ * The distribution is stored as two parallel arrays of scores (sorted ascendingly) and cumulative
+ * frequencies, such that p value lookup is performed by binary search without allocations.
+ * </p>
+ *
+ * <p>
+ * The serialized form is the one of earlier versions that stored the distribution as a
+ * {@link SortedMap}, such that previously serialized data remains readable.
+ * </p>
+ *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  * @author <a href="mailto:sebastian.koehler@charite.de">Sebastian Koehler</a>
  */
@@ -18,6 +35,13 @@ public final class ObjectScoreDistribution implements Serializable {
   /** Serial UId for serialization. */
   private static final long serialVersionUID = 1L;
 
+  /** Serialized fields, as in the {@link SortedMap}-based form of earlier versions. */
+  private static final ObjectStreamField[] serialPersistentFields = {
+      new ObjectStreamField("objectId", int.class),
+      new ObjectStreamField("numTerms", int.class),
+      new ObjectStreamField("sampleSize", int.class),
+      new ObjectStreamField("cumulativeFrequencies", SortedMap.class)};
+
   /** "World object" identifier. */
   private final int objectId;
 
@@ -27,9 +51,14 @@ public final class ObjectScoreDistribution implements Serializable {
   /** Number of iterations for sampling. */
   private final int sampleSize;
 
-  // TODO: maybe better replace by arrays?
-  /** Cumulative frequencies for the score. */
-  private final SortedMap<Double, Double> cumulativeFrequencies;
+  /** Observed scores, sorted ascendingly. */
+  private final double[] scores;
+
+  /** Cumulative frequencies for the score at the same index in {@link #scores}. */
+  private final double[] cumulativeFrequencies;
+
+  /** Equivalent object constructed on deserialization, returned by {@link #readResolve()}. */
+  private transient ObjectScoreDistribution deserialized;
 
   /**
    * Construct score distribution for a given number of terms, sample size, and cumulative
@@ -45,7 +74,105 @@ public final class ObjectScoreDistribution implements Serializable {
     this.objectId = objectId;
     this.numTerms = numTerms;
     this.sampleSize = sampleSize;
-    this.cumulativeFrequencies = cumulativeFrequencies;
+    this.scores = new double[cumulativeFrequencies.size()];
+    this.cumulativeFrequencies = new double[cumulativeFrequencies.size()];
+    int i = 0;
+    for (Entry<Double, Double> entry : cumulativeFrequencies.entrySet()) {
+      this.scores[i] = entry.getKey();
+      this.cumulativeFrequencies[i] = entry.getValue();
+      ++i;
+    }
+  }
+
+  /**
+   * Construct score distribution for a given number of terms, sample size, and parallel arrays of
+   * scores and cumulative frequencies.
+   *
+   * <p>
+   * For repeated scores, only the cumulative frequency of the last occurrence is kept, as if the
+   * pairs had been put into a {@link SortedMap} in order.
+   * </p>
+   *
+   * @param objectId "World object" identifier.
+   * @param numTerms Number of terms used in precomputation.
+   * @param sampleSize Sample size used for precomputation.
+   * @param scores Observed scores, sorted ascendingly; the array is copied.
+   * @param cumulativeFrequencies Cumulative frequencies of the scores at the same indices; the
+   *        array is copied.
+   * @throws IllegalArgumentException If the array lengths differ or the scores are not sorted.
+   */
+  public ObjectScoreDistribution(int objectId, int numTerms, int sampleSize, double[] scores,
+      double[] cumulativeFrequencies) {
+    this(objectId, numTerms, sampleSize, scores, cumulativeFrequencies,
+        checkLengths(scores, cumulativeFrequencies));
+  }
+
+  /**
+   * Construct score distribution from the first <code>length</code> entries of parallel arrays of
+   * scores and cumulative frequencies, e.g., from reused parse buffers.
+   *
+   * <p>
+   * For repeated scores, only the cumulative frequency of the last occurrence is kept, as if the
+   * pairs had been put into a {@link SortedMap} in order.
+   * </p>
+   *
+   * @param objectId "World object" identifier.
+   * @param numTerms Number of terms used in precomputation.
+   * @param sampleSize Sample size used for precomputation.
+   * @param scores Observed scores, the first <code>length</code> sorted ascendingly; the entries
+   *        are copied.
+   * @param cumulativeFrequencies Cumulative frequencies of the scores at the same indices; the
+   *        entries are copied.
+   * @param length Number of entries to use from the arrays.
+   * @throws IllegalArgumentException If an array is shorter than <code>length</code> or the scores
+   *         are not sorted.
+   */
+  public ObjectScoreDistribution(int objectId, int numTerms, int sampleSize, double[] scores,
+      double[] cumulativeFrequencies, int length) {
+    if (length < 0 || scores.length < length || cumulativeFrequencies.length < length) {
+      throw new IllegalArgumentException("Got " + scores.length + " scores and "
+          + cumulativeFrequencies.length + " cumulative frequencies but length " + length);
+    }
+    int numDistinct = Math.min(1, length);
+    for (int i = 1; i < length; ++i) {
+      final int cmp = Double.compare(scores[i - 1], scores[i]);
+      if (cmp > 0) {
+        throw new IllegalArgumentException("Scores must be sorted, but " + scores[i - 1]
+            + " is followed by " + scores[i]);
+      } else if (cmp < 0) {
+        ++numDistinct;
+      }
+    }
+    this.objectId = objectId;
+    this.numTerms = numTerms;
+    this.sampleSize = sampleSize;
+    if (numDistinct == length) {
+      this.scores = Arrays.copyOf(scores, length);
+      this.cumulativeFrequencies = Arrays.copyOf(cumulativeFrequencies, length);
+    } else {
+      this.scores = new double[numDistinct];
+      this.cumulativeFrequencies = new double[numDistinct];
+      int j = -1;
+      for (int i = 0; i < length; ++i) {
+        if (i == 0 || Double.compare(scores[i - 1], scores[i]) != 0) {
+          ++j;
+        }
+        this.scores[j] = scores[i];
+        this.cumulativeFrequencies[j] = cumulativeFrequencies[i];
+      }
+    }
+  }
+
+  /**
+   * @return The common length of <code>scores</code> and <code>cumulativeFrequencies</code>.
+   * @throws IllegalArgumentException If the array lengths differ.
+   */
+  private static int checkLengths(double[] scores, double[] cumulativeFrequencies) {
+    if (scores.length != cumulativeFrequencies.length) {
+      throw new IllegalArgumentException("Got " + scores.length + " scores but "
+          + cumulativeFrequencies.length + " cumulative frequencies");
+    }
+    return scores.length;
   }
 
   /**
@@ -55,34 +182,116 @@ public final class ObjectScoreDistribution implements Serializable {
    * @return Empirically estimated p value.
    */
   public double estimatePValue(double score) {
-    Entry<Double, Double> previous = null;
-    for (Entry<Double, Double> entry : cumulativeFrequencies.entrySet()) {
-      if (previous == null && score < entry.getKey()) {
-        return 1.0; // smaller than all
-      }
-      if (previous != null && previous.getKey() <= score && score < entry.getKey()) {
-        // interpolate and return
-        final double dx = (entry.getKey() - previous.getKey()) / 2.0;
-        return 1 - (previous.getValue() + dx * (entry.getValue() - previous.getValue()));
+    // Index of the first observed score that is greater than score.
+    int lo = 0;
+    int hi = scores.length;
+    while (lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      if (Double.compare(scores[mid], score) <= 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
       }
-      previous = entry;
     }
-    // If we reach here, p value is 0.0
-    return 0.0;
+
+    if (lo == 0) {
+      return 1.0; // smaller than all
+    } else if (lo == scores.length) {
+      return 0.0; // greater than or equal to all
+    } else {
+      // interpolate between previous and next observed score
+      final int previous = lo - 1;
+      final double dx = (scores[lo] - scores[previous]) / 2.0;
+      return 1 - (cumulativeFrequencies[previous]
+          + dx * (cumulativeFrequencies[lo] - cumulativeFrequencies[previous]));
+    }
+  }
+
+  /**
+   * Estimate p values for multiple scores.
+   *
+   * @param scores The scores to estimate p values for.
+   * @return Empirically estimated p values, at the same indices as <code>scores</code>.
+   */
+  public double[] estimatePValues(double[] scores) {
+    final double[] result = new double[scores.length];
+    estimatePValues(scores, result);
+    return result;
+  }
+
+  /**
+   * Estimate p values for multiple scores into a caller-provided array.
+   *
+   * @param scores The scores to estimate p values for.
+   * @param pValues Output array for the empirically estimated p values, at the same indices as
+   *        <code>scores</code>; must be at least as long as <code>scores</code>.
+   */
+  public void estimatePValues(double[] scores, double[] pValues) {
+    for (int i = 0; i < scores.length; ++i) {
+      pValues[i] = estimatePValue(scores[i]);
+    }
+  }
+
+  /**
+   * @return Number of observed scores.
+   */
+  public int countScores() {
+    return scores.length;
+  }
+
+  /**
+   * @param i Index of the observed score, from <code>0</code> to {@link #countScores()}
+   *        (exclusive).
+   * @return The <code>i</code>-th observed score in ascending order.
+   */
+  public double scoreAt(int i) {
+    return scores[i];
+  }
+
+  /**
+   * @param i Index of the observed score, from <code>0</code> to {@link #countScores()}
+   *        (exclusive).
+   * @return The cumulative frequency of the <code>i</code>-th observed score.
+   */
+  public double cumulativeFrequencyAt(int i) {
+    return cumulativeFrequencies[i];
   }
 
   /**
    * @return List of copy of observed scores, sorted ascendingly.
    */
   public List<Double> observedScores() {
-    return new ArrayList<>(cumulativeFrequencies.keySet());
+    final List<Double> result = new ArrayList<>(scores.length);
+    for (double score : scores) {
+      result.add(score);
+    }
+    return result;
   }
-  
+
+  /**
+   * @return Copy of the observed scores, sorted ascendingly.
+   */
+  public double[] getScores() {
+    return scores.clone();
+  }
+
+  /**
+   * @return Copy of the cumulative frequencies of the observed scores, at the same indices as in
+   *         {@link #getScores()}.
+   */
+  public double[] getCumulativeFrequencyValues() {
+    return cumulativeFrequencies.clone();
+  }
+
   /**
    * @return Copy of the score distribution.
    */
   public SortedMap<Double, Double> getCumulativeFrequencies() {
-    return new TreeMap<>(cumulativeFrequencies);
+    final TreeMap<Double, Double> result = new TreeMap<>();
+    for (int i = 0; i < scores.length; ++i) {
+      result.put(scores[i], cumulativeFrequencies[i]);
+    }
+    return result;
   }
 
   /**
@@ -106,10 +315,54 @@ public final class ObjectScoreDistribution implements Serializable {
     return sampleSize;
   }
 
+  /**
+   * Write in the {@link SortedMap}-based serialized form.
+   *
+   * @param out The {@link ObjectOutputStream} to write to.
+   * @throws IOException In case of problems with writing.
+   */
+  private void writeObject(ObjectOutputStream out) throws IOException {
+    final ObjectOutputStream.PutField fields = out.putFields();
+    fields.put("objectId", objectId);
+    fields.put("numTerms", numTerms);
+    fields.put("sampleSize", sampleSize);
+    fields.put("cumulativeFrequencies", getCumulativeFrequencies());
+    out.writeFields();
+  }
+
+  /**
+   * Read the {@link SortedMap}-based serialized form and construct the equivalent object with the
+   * scores and frequencies in arrays, as the array fields are final.
+   *
+   * @param in The {@link ObjectInputStream} to read from.
+   * @throws IOException In case of problems with reading or invalid serialized data.
+   * @throws ClassNotFoundException If a class of a serialized field cannot be found.
+   */
+  @SuppressWarnings("unchecked")
+  private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+    final ObjectInputStream.GetField fields = in.readFields();
+    final Object frequencies = fields.get("cumulativeFrequencies", null);
+    if (!(frequencies instanceof SortedMap)) {
+      throw new InvalidObjectException("Invalid cumulative frequencies: " + frequencies);
+    }
+    deserialized = new ObjectScoreDistribution(fields.get("objectId", 0),
+        fields.get("numTerms", 0), fields.get("sampleSize", 0),
+        (SortedMap<Double, Double>) frequencies);
+  }
+
+  /**
+   * @return The object constructed in {@link #readObject(ObjectInputStream)}.
+   * @throws ObjectStreamException Not thrown.
+   */
+  private Object readResolve() throws ObjectStreamException {
+    return deserialized;
+  }
+
   @Override
   public String toString() {
     return "ObjectScoreDistribution [objectId=" + objectId + ", numTerms=" + numTerms
-        + ", sampleSize=" + sampleSize + ", cumulativeFrequencies=" + cumulativeFrequencies + "]";
+        + ", sampleSize=" + sampleSize + ", cumulativeFrequencies=" + getCumulativeFrequencies()
+        + "]";
   }
 
 }
@@ -0,0 +1,77 @@
+package com.github.phenomics.ontolib.ontology.scoredist;
+
+import java.util.AbstractList;
+import java.util.Random;
+import java.util.RandomAccess;
+
+import com.github.phenomics.ontolib.ontology.data.TermId;
+
+/**
+ * Reusable random subset of a fixed array of {@link TermId}s, for score sampling.
+ *
+ * <p>
+ * Each call to {@link #draw(Random)} selects a new subset of distinct terms without allocation by
+ * a partial Fisher-Yates shuffle of a permutation of term indices. The permutation is kept between
+ * draws, which does not affect uniformity, so the sequence of subsets only depends on the state of
+ * the random number generator. The object is a {@link java.util.List} view of the current subset
+ * and is not thread-safe.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class RandomTermSet extends AbstractList<TermId> implements RandomAccess {
+
+  /** The terms to draw from. */
+  private final TermId[] termIds;
+
+  /** Permutation of indices into {@link #termIds}, the first {@link #size} form the subset. */
+  private final int[] permutation;
+
+  /** Number of terms in the subset. */
+  private final int size;
+
+  /**
+   * Constructor.
+   *
+   * @param termIds The terms to draw from; the array is not copied.
+   * @param size Number of terms to draw, all terms are drawn if larger than
+   *        <code>termIds.length</code>.
+   */
+  RandomTermSet(TermId[] termIds, int size) {
+    this.termIds = termIds;
+    this.permutation = new int[termIds.length];
+    for (int i = 0; i < permutation.length; ++i) {
+      permutation[i] = i;
+    }
+    this.size = Math.min(size, termIds.length);
+  }
+
+  /**
+   * Draw a new random subset.
+   *
+   * @param rng The random number generator to use.
+   */
+  void draw(Random rng) {
+    final int n = permutation.length;
+    for (int i = 0; i < size; ++i) {
+      final int j = i + rng.nextInt(n - i);
+      final int tmp = permutation[i];
+      permutation[i] = permutation[j];
+      permutation[j] = tmp;
+    }
+  }
+
+  @Override
+  public TermId get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("Index: " + index + ", size: " + size);
+    }
+    return termIds[permutation[index]];
+  }
+
+  @Override
+  public int size() {
+    return size;
+  }
+
+}
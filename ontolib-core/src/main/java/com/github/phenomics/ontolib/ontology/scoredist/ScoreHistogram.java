@@ -0,0 +1,182 @@
+package com.github.phenomics.ontolib.ontology.scoredist;
+
+import java.util.Arrays;
+
+/**
+ * Histogram of sampled similarity scores with a fixed resolution.
+ *
+ * <p>
+ * Scores are rounded to multiples of <code>1 / {@link #RESOLUTION}</code> and counted in a
+ * <code>long[]</code> indexed by the rounded score, so adding a score does not allocate unless the
+ * range of observed scores grows.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class ScoreHistogram {
+
+  /** Number of bins per score unit, i.e., scores are rounded to three decimal places. */
+  static final double RESOLUTION = 1000.0;
+
+  /** Initial number of bins. */
+  private static final int INITIAL_CAPACITY = 1024;
+
+  /** Counts, <code>counts[i]</code> is the count of bin <code>i + offset</code>. */
+  private long[] counts = new long[INITIAL_CAPACITY];
+
+  /** Bin of <code>counts[0]</code>. */
+  private int offset = 0;
+
+  /** Total number of added scores. */
+  private long totalCount = 0;
+
+  /**
+   * Construct histogram from the cumulative relative frequencies of an
+   * {@link ObjectScoreDistribution}.
+   *
+   * <p>
+   * The counts are reconstructed from the sample size, which is exact for distributions built by
+   * {@link #toObjectScoreDistribution(int, int)} and approximate for distributions with reduced
+   * resolution.
+   * </p>
+   *
+   * @param dist The {@link ObjectScoreDistribution} to reconstruct the histogram of.
+   * @return The reconstructed {@link ScoreHistogram}.
+   */
+  static ScoreHistogram of(ObjectScoreDistribution dist) {
+    final ScoreHistogram result = new ScoreHistogram();
+    long previousCount = 0;
+    for (int i = 0; i < dist.countScores(); ++i) {
+      final long cumulativeCount = Math.max(previousCount,
+          Math.round(dist.cumulativeFrequencyAt(i) * dist.getSampleSize()));
+      result.add(dist.scoreAt(i), cumulativeCount - previousCount);
+      previousCount = cumulativeCount;
+    }
+    return result;
+  }
+
+  /**
+   * Add a score to the histogram.
+   *
+   * @param score The score to add.
+   */
+  void add(double score) {
+    add(score, 1);
+  }
+
+  /**
+   * Add a score multiple times to the histogram.
+   *
+   * @param score The score to add.
+   * @param count Number of times to add the score.
+   */
+  void add(double score, long count) {
+    final int bin = (int) Math.round(score * RESOLUTION);
+    ensureBin(bin);
+    counts[bin - offset] += count;
+    totalCount += count;
+  }
+
+  /**
+   * Add all counts of <code>other</code> to this histogram.
+   *
+   * @param other The {@link ScoreHistogram} to add.
+   */
+  void addAll(ScoreHistogram other) {
+    if (other.totalCount == 0) {
+      return;
+    }
+    ensureBin(other.offset);
+    ensureBin(other.offset + other.counts.length - 1);
+    for (int i = 0; i < other.counts.length; ++i) {
+      counts[other.offset + i - offset] += other.counts[i];
+    }
+    totalCount += other.totalCount;
+  }
+
+  /**
+   * Grow {@link #counts} such that it contains <code>bin</code>.
+   */
+  private void ensureBin(int bin) {
+    if (bin < offset) {
+      final int shift = Math.max(offset - bin, counts.length);
+      final long[] newCounts = new long[counts.length + shift];
+      System.arraycopy(counts, 0, newCounts, shift, counts.length);
+      counts = newCounts;
+      offset -= shift;
+    } else if (bin - offset >= counts.length) {
+      counts = Arrays.copyOf(counts, Math.max(bin - offset + 1, 2 * counts.length));
+    }
+  }
+
+  /**
+   * @return Total number of added scores.
+   */
+  long getTotalCount() {
+    return totalCount;
+  }
+
+  /**
+   * Compute quantiles of the scores.
+   *
+   * <p>
+   * The <code>p</code>-quantile is the smallest score such that at least a fraction of
+   * <code>p</code> of the scores is smaller than or equal to it, computed for all quantiles in one
+   * pass over the histogram.
+   * </p>
+   *
+   * @param ps The quantiles to compute, sorted ascendingly, each in <code>(0, 1]</code>.
+   * @param result Output array for the quantile scores, <code>NaN</code> if the histogram is empty.
+   */
+  void quantiles(double[] ps, double[] result) {
+    int j = 0;
+    long cumulativeCount = 0;
+    for (int i = 0; i < counts.length && j < ps.length; ++i) {
+      cumulativeCount += counts[i];
+      while (j < ps.length && totalCount > 0 && cumulativeCount >= ps[j] * totalCount) {
+        result[j++] = (i + offset) / RESOLUTION;
+      }
+    }
+    while (j < ps.length) {
+      result[j++] = Double.NaN;
+    }
+  }
+
+  /**
+   * Build {@link ObjectScoreDistribution} with the cumulative relative frequencies of the scores.
+   *
+   * <p>
+   * The score <code>0.0</code> is always contained in the result, even if it has not been
+   * observed.
+   * </p>
+   *
+   * @param objectId "World object" identifier.
+   * @param numTerms Number of query terms used for sampling.
+   * @return {@link ObjectScoreDistribution} with sample size {@link #getTotalCount()}.
+   */
+  ObjectScoreDistribution toObjectScoreDistribution(int objectId, int numTerms) {
+    ensureBin(0);
+    int numScores = 0;
+    for (int i = 0; i < counts.length; ++i) {
+      if (counts[i] != 0 || i + offset == 0) {
+        ++numScores;
+      }
+    }
+
+    final double[] scores = new double[numScores];
+    final double[] cumulativeFrequencies = new double[numScores];
+    long cumulativeCount = 0;
+    int j = 0;
+    for (int i = 0; i < counts.length; ++i) {
+      if (counts[i] != 0 || i + offset == 0) {
+        cumulativeCount += counts[i];
+        scores[j] = (i + offset) / RESOLUTION;
+        cumulativeFrequencies[j] = (double) cumulativeCount / totalCount;
+        ++j;
+      }
+    }
+    return new ObjectScoreDistribution(objectId, numTerms, (int) totalCount, scores,
+        cumulativeFrequencies);
+  }
+
+}
@@ -34,6 +34,15 @@ public final class ScoreSamplingOptions implements Serializable, Cloneable {
   /** The seed to use for the precomputations. */
   private int seed = 42;
 
+  /** Whether or not to share the random query term sets between all objects. */
+  private boolean sharedSamples = false;
+
+  /** Tolerance of the tail quantiles for stopping early, <code>0</code> for no early stopping. */
+  private double convergenceTolerance = 0.0;
+
+  /** Number of iterations between two convergence checks. */
+  private int convergenceCheckInterval = 1000;
+
   /**
    * Default constructor.
    *
@@ -207,17 +216,88 @@ public final class ScoreSamplingOptions implements Serializable, Cloneable {
     this.numIterations = numIterations;
   }
 
+  /**
+   * @return Whether or not to share the random query term sets between all objects.
+   */
+  public boolean isSharedSamples() {
+    return sharedSamples;
+  }
+
+  /**
+   * Set whether or not to share the random query term sets between all objects.
+   *
+   * <p>
+   * The default is <code>false</code>, see {@link SimilarityScoreSampling} for details.
+   * </p>
+   *
+   * @param sharedSamples Whether or not to share the random query term sets between all objects.
+   */
+  public void setSharedSamples(boolean sharedSamples) {
+    this.sharedSamples = sharedSamples;
+  }
+
+  /**
+   * @return Tolerance of the tail quantiles for stopping early, <code>0</code> for no early
+   *         stopping.
+   */
+  public double getConvergenceTolerance() {
+    return convergenceTolerance;
+  }
+
+  /**
+   * Set tolerance of the tail quantiles for stopping early.
+   *
+   * <p>
+   * If positive, the sampling for an object is stopped before reaching the configured number of
+   * iterations once the 0.95, 0.99, and 0.999 quantiles of the sampled scores change by at most
+   * this value (in score units) between two convergence checks. The actual number of iterations is
+   * recorded as the sample size of the {@link ObjectScoreDistribution}. The default is
+   * <code>0</code>, i.e., no early stopping.
+   * </p>
+   *
+   * @param convergenceTolerance Tolerance of the tail quantiles, <code>0</code> to disable.
+   */
+  public void setConvergenceTolerance(double convergenceTolerance) {
+    this.convergenceTolerance = convergenceTolerance;
+  }
+
+  /**
+   * @return Number of iterations between two convergence checks.
+   */
+  public int getConvergenceCheckInterval() {
+    return convergenceCheckInterval;
+  }
+
+  /**
+   * Set number of iterations between two convergence checks.
+   *
+   * <p>
+   * The default is <code>1000</code>.
+   * </p>
+   *
+   * @param convergenceCheckInterval Number of iterations between two convergence checks.
+   */
+  public void setConvergenceCheckInterval(int convergenceCheckInterval) {
+    this.convergenceCheckInterval = convergenceCheckInterval;
+  }
+
   @Override
   public Object clone() throws CloneNotSupportedException {
-    return new ScoreSamplingOptions(numThreads, minObjectId, maxObjectId, minNumTerms, maxNumTerms,
-        seed, numIterations);
+    final ScoreSamplingOptions result = new ScoreSamplingOptions(numThreads, minObjectId,
+        maxObjectId, minNumTerms, maxNumTerms, seed, numIterations);
+    result.setSharedSamples(sharedSamples);
+    result.setConvergenceTolerance(convergenceTolerance);
+    result.setConvergenceCheckInterval(convergenceCheckInterval);
+    return result;
   }
 
   @Override
   public String toString() {
     return "ScoreSamplingOptions [numThreads=" + numThreads + ", minObjectId=" + minObjectId
         + ", maxObjectId=" + maxObjectId + ", minNumTerms=" + minNumTerms + ", maxNumTerms="
-        + maxNumTerms + ", numIterations=" + numIterations + ", seed=" + seed + "]";
+        + maxNumTerms + ", numIterations=" + numIterations + ", seed=" + seed + ", sharedSamples="
+        + sharedSamples + ", convergenceTolerance=" + convergenceTolerance
+        + ", convergenceCheckInterval=" + convergenceCheckInterval + "]";
   }
 
 }
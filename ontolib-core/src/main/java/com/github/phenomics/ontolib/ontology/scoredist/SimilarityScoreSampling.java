@@ -4,19 +4,14 @@ import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
 import java.util.Iterator;
-import java.util.List;
 import java.util.Map;
-import java.util.Map.Entry;
 import java.util.Random;
-import java.util.TreeMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
 import java.util.function.Function;
-import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -40,6 +35,33 @@ import com.github.phenomics.ontolib.utils.ProgressReporter;
  * values.
  * </p>
  *
+ * <p>
+ * By default, each object gets its own random query term sets, drawn from a generator seeded with
+ * the configured seed plus the object Id. With {@link ScoreSamplingOptions#isSharedSamples()},
+ * the random query term sets are drawn and prepared (see {@link Similarity#prepareQuery}) only
+ * once per term count and every object is scored against all of them. In both modes, the query
+ * term sets of one object are independent uniform samples of distinct non-obsolete terms, so the
+ * score distribution of each object is an estimate of the same null distribution with the same
+ * sample size. The difference is that in the shared mode, the estimates of different objects are
+ * based on the same samples and thus their errors are correlated.
+ * </p>
+ *
+ * <p>
+ * Existing score distributions can be extended to a larger number of iterations with
+ * {@link #extendSampling(Map, Map)}. As the random query term sets only depend on the seed, the
+ * object Id (or term count, in shared sample mode), and the iteration, the query term sets of the
+ * existing iterations are redrawn without scoring them and only the additional iterations are
+ * scored. Thus, extending a distribution computed with the same seed and mode yields the same
+ * result as sampling all iterations at once.
+ * </p>
+ *
+ * <p>
+ * With a positive {@link ScoreSamplingOptions#getConvergenceTolerance()}, the sampling for each
+ * object stops as soon as the tail quantiles of its scores relevant for p value estimation have
+ * stabilized (see {@link ConvergenceMonitor}), and the actual number of iterations is recorded as
+ * the sample size.
+ * </p>
+ *
  * @param <T> {@link Term} sub class this <code>Ontology</code> uses.
  * @param <R> {@link TermRelation} sub class this <code>Ontology</code> uses.
  *
@@ -65,6 +87,9 @@ public final class SimilarityScoreSampling<T extends Term, R extends TermRelatio
   /** Configuration for score sampling. */
   private final ScoreSamplingOptions options;
 
+  /** The non-obsolete {@link TermId}s of {@link #ontology} to draw random query terms from. */
+  private final TermId[] allTermIds;
+
   // TODO: ontology already is in similarity?
   /**
    * Constructor.
@@ -81,6 +106,7 @@ public final class SimilarityScoreSampling<T extends Term, R extends TermRelatio
     } catch (CloneNotSupportedException e) {
       throw new RuntimeException("This cannot happen.");
     }
+    this.allTermIds = ontology.getNonObsoleteTermIds().toArray(new TermId[0]);
   }
 
   /**
@@ -105,6 +131,48 @@ public final class SimilarityScoreSampling<T extends Term, R extends TermRelatio
     return result;
   }
 
+  /**
+   * Extend existing score distributions to {@link ScoreSamplingOptions#getNumIterations()}
+   * iterations for all configured query term counts.
+   *
+   * <p>
+   * Objects and term counts without an existing distribution are sampled from scratch, existing
+   * distributions with at least the configured number of iterations are kept as they are. The
+   * existing distributions must have been computed with the same seed and sampling mode, and
+   * without reducing their resolution, for the result to equal sampling all iterations at once.
+   * </p>
+   *
+   * @param labels {@link Map} from "world object" Id to a {@link Collection} of {@link TermId}
+   *        labels.
+   * @param previous {@link Map} from query term count to existing {@link ScoreDistribution}.
+   * @return Resulting {@link Map} from query term count to precomputed {@link ScoreDistribution}.
+   */
+  public Map<Integer, ScoreDistribution> extendSampling(
+      Map<Integer, ? extends Collection<TermId>> labels, Map<Integer, ScoreDistribution> previous) {
+    Map<Integer, ScoreDistribution> result = new HashMap<>();
+    for (int numTerms = options.getMinNumTerms(); numTerms <= options
+        .getMaxNumTerms(); ++numTerms) {
+      result.put(numTerms, performSamplingForTermCount(labels, numTerms, previous.get(numTerms)));
+    }
+    return result;
+  }
+
+  /**
+   * Extend an existing {@link ScoreDistribution} to {@link ScoreSamplingOptions#getNumIterations()}
+   * iterations.
+   *
+   * @param labels {@link Map} from "world object" Id to a {@code Collection} of {@link TermId}
+   *        labels.
+   * @param previous The existing {@link ScoreDistribution}, also defines the number of query
+   *        terms.
+   * @return Resulting {@link ScoreDistribution}.
+   * @see #extendSampling(Map, Map)
+   */
+  public ScoreDistribution extendSamplingForTermCount(
+      Map<Integer, ? extends Collection<TermId>> labels, ScoreDistribution previous) {
+    return performSamplingForTermCount(labels, previous.getNumTerms(), previous);
+  }
+
   /**
    * Perform the sampling for a given number of terms and return the resulting
    * {@link ScoreDistribution}.
@@ -121,9 +189,41 @@ public final class SimilarityScoreSampling<T extends Term, R extends TermRelatio
    */
   public ScoreDistribution performSamplingForTermCount(
       Map<Integer, ? extends Collection<TermId>> labels, int numTerms) {
+    return performSamplingForTermCount(labels, numTerms, null);
+  }
+
+  /**
+   * Perform the sampling for a given number of terms, optionally extending existing results.
+   *
+   * @param labels {@link Map} from "world object" Id to a {@code Collection} of {@link TermId}
+   *        labels.
+   * @param numTerms Number of query terms to compute score distributions for.
+   * @param previous Existing {@link ScoreDistribution} to extend, <code>null</code> for none.
+   * @return Resulting {@link ScoreDistribution}.
+   */
+  private ScoreDistribution performSamplingForTermCount(
+      Map<Integer, ? extends Collection<TermId>> labels, int numTerms,
+      ScoreDistribution previous) {
     LOGGER.info("Running precomputation for {} world objects using {} query terms...",
         new Object[] {labels.size(), numTerms});
 
+    // Select the computation for one object.
+    final Function<Integer, ObjectScoreDistribution> previousDist = objectId -> (previous == null)
+        ? null : previous.getObjectScoreDistribution(objectId);
+    final Function<Integer, ObjectScoreDistribution> computation;
+    if (options.isSharedSamples()) {
+      // Only the iterations missing in any of the objects need to be drawn.
+      final int firstIteration = labels.keySet().stream().filter(this::selectObject)
+          .map(previousDist).mapToInt(dist -> (dist == null) ? 0 : dist.getSampleSize()).min()
+          .orElse(0);
+      final Similarity.PreparedQuery[] queries = prepareSharedQueries(numTerms, firstIteration);
+      computation = objectId -> performSharedComputation(objectId, labels.get(objectId), numTerms,
+          previousDist.apply(objectId), queries, firstIteration);
+    } else {
+      computation = objectId -> performComputation(objectId, labels.get(objectId), numTerms,
+          previousDist.apply(objectId));
+    }
+
     // Setup progress reporting.
     final ProgressReporter progressReport = new ProgressReporter(LOGGER, "objects", labels.size());
     progressReport.start();
@@ -133,8 +233,7 @@ public final class SimilarityScoreSampling<T extends Term, R extends TermRelatio
         new ConcurrentHashMap<>();
     Consumer<Integer> task = (Integer objectId) -> {
       try {
-        final ObjectScoreDistribution dist =
-            performComputation(objectId, labels.get(objectId), numTerms);
+        final ObjectScoreDistribution dist = computation.apply(objectId);
         distributions.put(dist.getObjectId(), dist);
         progressReport.incCurrent();
       } catch (Exception e) {
@@ -196,97 +295,167 @@ public final class SimilarityScoreSampling<T extends Term, R extends TermRelatio
    * @param objectId "World object" id.
    * @param terms The {@link TermId}s that this object is labeled with.
    * @param numTerms Number of query terms to compute score distributions for.
+   * @param previous Existing {@link ObjectScoreDistribution} to extend, <code>null</code> for
+   *        none.
    * @return Resulting {@link ObjectScoreDistribution}.
    */
   private ObjectScoreDistribution performComputation(int objectId, Collection<TermId> terms,
-      int numTerms) {
+      int numTerms, ObjectScoreDistribution previous) {
     LOGGER.info("Running precomputation for world object {}.", new Object[] {objectId});
 
     // Create and seed MersenneTwister
     final MersenneTwister rng = new MersenneTwister();
     rng.setSeed(options.getSeed() + objectId);
 
-    // Sample per-object score distribution
-    ObjectScoreDistribution result = new ObjectScoreDistribution(objectId, numTerms,
-        options.getNumIterations(),
-        sampleScoreCumulativeRelFreq(objectId, terms, numTerms, options.getNumIterations(), rng));
+    // Sample per-object score distribution, skipping the existing iterations
+    final ScoreHistogram histogram;
+    final int numSkipped;
+    if (previous == null) {
+      histogram = new ScoreHistogram();
+      numSkipped = 0;
+    } else {
+      histogram = ScoreHistogram.of(previous);
+      numSkipped = previous.getSampleSize();
+    }
+    if (sampleScores(terms, numTerms, numSkipped, options.getNumIterations() - numSkipped, rng,
+        histogram)) {
+      logEarlyStop(objectId, histogram);
+    }
+    final ObjectScoreDistribution result = histogram.toObjectScoreDistribution(objectId, numTerms);
 
     LOGGER.info("Done computing precomputation for world object {}.", new Object[] {objectId});
     return result;
   }
 
   /**
-   * Compute cumulative relative frequencies for the gene with the given "world object Id, number of
-   * terms, iterations, and RNG using sampling.
+   * Draw and prepare the random query term sets for the shared sample mode.
    *
-   * @param objectId World object Id to compute for.
+   * @param numTerms Number of query terms to use.
+   * @param firstIteration The first iteration to prepare the query for, the query term sets of
+   *        the previous iterations are only drawn.
+   * @return Array with the prepared random queries from <code>firstIteration</code> to
+   *         {@link ScoreSamplingOptions#getNumIterations()}.
+   */
+  private Similarity.PreparedQuery[] prepareSharedQueries(int numTerms, int firstIteration) {
+    final int numQueries = Math.max(0, options.getNumIterations() - firstIteration);
+    LOGGER.info("Drawing {} shared random query term sets...", new Object[] {numQueries});
+
+    final MersenneTwister rng = new MersenneTwister(new int[] {options.getSeed(), numTerms});
+    final RandomTermSet randomTerms = new RandomTermSet(allTermIds, numTerms);
+    for (int i = 0; i < firstIteration; ++i) {
+      randomTerms.draw(rng);
+    }
+    final Similarity.PreparedQuery[] result = new Similarity.PreparedQuery[numQueries];
+    for (int i = 0; i < result.length; ++i) {
+      randomTerms.draw(rng);
+      result[i] = similarity.prepareQuery(new ArrayList<>(randomTerms));
+    }
+
+    LOGGER.info("Done drawing shared random query term sets.");
+    return result;
+  }
+
+  /**
+   * Score the shared random queries against the given <code>terms</code> for "world object"
+   * <code>objectId</code>.
+   *
+   * @param objectId "World object" id.
    * @param terms The {@link TermId}s that this object is labeled with.
-   * @param numTerms Number of query terms to use for the computation.
-   * @param rng Random number generator to use.
-   * @return Mapping between score and cumulative relative frequency (to use for p value
-   *         computation).
+   * @param numTerms Number of query terms used for the queries.
+   * @param previous Existing {@link ObjectScoreDistribution} to extend, <code>null</code> for
+   *        none.
+   * @param queries The prepared shared random queries.
+   * @param firstIteration The iteration of the first query in <code>queries</code>.
+   * @return Resulting {@link ObjectScoreDistribution}.
    */
-  private TreeMap<Double, Double> sampleScoreCumulativeRelFreq(int objectId,
-      Collection<TermId> terms, int numTerms, int numIterations, Random rng) {
-    final List<TermId> allTermIds = new ArrayList<TermId>(ontology.getNonObsoleteTermIds());
-
-    // Now, perform the iterations: pick random terms, compute score, and increment absolute
-    // frequency
-    Map<Double, Long> counts = IntStream.range(0, numIterations - 1).boxed().map(i -> {
-      // Sample numTerms Term objects from ontology.
-      final List<TermId> randomTerms = selectRandomElements(allTermIds, numTerms, rng);
-      final double score = similarity.computeScore(randomTerms, terms);
-      // Round to four decimal places.
-      return Math.round(score * 1000.) / 1000.0;
-    }).collect(Collectors.groupingByConcurrent(Function.identity(), Collectors.counting()));
-    counts.putIfAbsent(0.0, 0L);
-
-    // Create cumulative relative frequencies
-    TreeMap<Double, Double> result = new TreeMap<>();
-    for (Entry<Double, Long> entry : counts.entrySet()) {
-      result.put(entry.getKey(), (double) entry.getValue());
+  private ObjectScoreDistribution performSharedComputation(int objectId, Collection<TermId> terms,
+      int numTerms, ObjectScoreDistribution previous, Similarity.PreparedQuery[] queries,
+      int firstIteration) {
+    LOGGER.info("Running precomputation for world object {}.", new Object[] {objectId});
+
+    final ScoreHistogram histogram;
+    final int numSkipped;
+    if (previous == null) {
+      histogram = new ScoreHistogram();
+      numSkipped = 0;
+    } else {
+      histogram = ScoreHistogram.of(previous);
+      numSkipped = previous.getSampleSize();
     }
-    double counter = 0.0;
-    for (Entry<Double, Double> entry : result.entrySet()) {
-      counter += entry.getValue();
-      result.put(entry.getKey(), counter / numIterations);
+    final ConvergenceMonitor monitor = newConvergenceMonitor();
+    for (int i = numSkipped - firstIteration; i < queries.length; ++i) {
+      histogram.add(queries[i].computeScore(terms));
+      if (monitor != null && monitor.isConverged(histogram)) {
+        logEarlyStop(objectId, histogram);
+        break;
+      }
     }
+    final ObjectScoreDistribution result = histogram.toObjectScoreDistribution(objectId, numTerms);
 
+    LOGGER.info("Done computing precomputation for world object {}.", new Object[] {objectId});
     return result;
   }
 
   /**
-   * Sample <code>count</code> random elements from the given {@link List} using PRNG
-   * <code>rng</code>.
+   * Sample scores of random query term sets against the given <code>terms</code>.
    *
    * <p>
-   * <a href="http://stackoverflow.com/a/41322569/84349">Taken from StackOverflow.</a>
+   * The random query terms are drawn into a reusable {@link RandomTermSet} and the scores are
+   * counted in <code>histogram</code>, such that no objects are allocated per iteration (apart
+   * from what the {@link Similarity} allocates). For symmetric similarities, <code>terms</code> is
+   * prepared once with {@link Similarity#prepareQuery(Collection)} and the random term sets are
+   * scored against it. The result only depends on the state of <code>rng</code>. If configured,
+   * the sampling stops early once the tail quantiles converged.
    * </p>
    *
-   * @param src {@link List} to sample random elements from.
-   * @param count Number of elements to sample.
-   * @param rng PRNG to use for random number generation.
-   * @return List of sampled elements.
+   * @param terms The {@link TermId}s that the object is labeled with.
+   * @param numTerms Number of query terms to use for the computation.
+   * @param numSkipped Number of random query term sets to draw without scoring them.
+   * @param numIterations Number of random query term sets to score.
+   * @param rng Random number generator to use.
+   * @param histogram {@link ScoreHistogram} to add the scores to.
+   * @return Whether or not the sampling has been stopped early.
    */
-  private static <E> List<E> selectRandomElements(List<E> src, int count, Random rng) {
-    // Avoid running infinitely
-    if (count >= src.size()) {
-      return src;
+  private boolean sampleScores(Collection<TermId> terms, int numTerms, int numSkipped,
+      int numIterations, Random rng, ScoreHistogram histogram) {
+    final RandomTermSet randomTerms = new RandomTermSet(allTermIds, numTerms);
+    for (int i = 0; i < numSkipped; ++i) {
+      randomTerms.draw(rng);
     }
-
-    final List<E> selected = new ArrayList<>();
-    final Random random = new Random();
-    final int listSize = src.size();
-
-    // Get a random item until we got the requested amount
-    while (selected.size() < count) {
-      final int randomIndex = random.nextInt(listSize);
-      final E element = src.get(randomIndex);
-      if (!selected.contains(element)) {
-        selected.add(element);
+    final Similarity.PreparedQuery scorer;
+    if (similarity.isSymmetric()) {
+      scorer = similarity.prepareQuery(terms);
+    } else {
+      scorer = query -> similarity.computeScore(query, terms);
+    }
+    final ConvergenceMonitor monitor = newConvergenceMonitor();
+    for (int i = 0; i < numIterations; ++i) {
+      randomTerms.draw(rng);
+      histogram.add(scorer.computeScore(randomTerms));
+      if (monitor != null && monitor.isConverged(histogram)) {
+        return true;
       }
     }
+    return false;
+  }
+
+  /**
+   * @return New {@link ConvergenceMonitor} for early stopping, <code>null</code> if disabled.
+   */
+  private ConvergenceMonitor newConvergenceMonitor() {
+    if (options.getConvergenceTolerance() <= 0.0) {
+      return null;
+    }
+    return new ConvergenceMonitor(options.getConvergenceTolerance(),
+        options.getConvergenceCheckInterval());
+  }
 
-    return selected;
+  /**
+   * Log that sampling has been stopped early for an object.
+   */
+  private static void logEarlyStop(int objectId, ScoreHistogram histogram) {
+    LOGGER.info("Tail quantiles converged for world object {} after {} iterations.",
+        new Object[] {objectId, histogram.getTotalCount()});
   }
+
 }
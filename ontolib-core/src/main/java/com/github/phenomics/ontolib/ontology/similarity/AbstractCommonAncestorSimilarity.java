@@ -1,5 +1,6 @@
 package com.github.phenomics.ontolib.ontology.similarity;
 
+import java.util.Arrays;
 import java.util.Collection;
 
 import com.github.phenomics.ontolib.ontology.data.Term;
@@ -54,6 +55,128 @@ abstract class AbstractCommonAncestorSimilarity<T extends Term, R extends TermRe
     }
   }
 
+  /**
+   * Prepare computing scores of one <code>query</code> against many targets.
+   *
+   * <p>
+   * In the case of a {@link PrecomputingPairwiseResnikSimilarity}, the query {@link TermId}s are
+   * resolved to indices into the precomputed scores only once.
+   * </p>
+   *
+   * <p>
+   * The upper bound is based on the self-similarity of terms: the pairwise score of two terms is
+   * assumed to be at most the pairwise score of each term with itself, which holds for Resnik
+   * similarity as the common ancestors of two terms are ancestors of each of them.
+   * </p>
+   */
+  @Override
+  public PreparedQuery prepareQuery(Collection<TermId> query) {
+    if (!(pairwiseSimilarity instanceof PrecomputingPairwiseResnikSimilarity)) {
+      final double[] querySelfScores =
+          query.stream().mapToDouble(q -> pairwiseSimilarity.computeScore(q, q)).toArray();
+      return new PreparedQuery() {
+        @Override
+        public double computeScore(Collection<TermId> target) {
+          return AbstractCommonAncestorSimilarity.this.computeScore(query, target);
+        }
+
+        @Override
+        public double upperBound(Collection<TermId> target) {
+          return computeUpperBound(querySelfScores, target.stream()
+              .mapToDouble(t -> pairwiseSimilarity.computeScore(t, t)).toArray());
+        }
+      };
+    }
+
+    final PrecomputingPairwiseResnikSimilarity<?, ?> precomputed =
+        (PrecomputingPairwiseResnikSimilarity<?, ?>) pairwiseSimilarity;
+    final int[] queryIndices = precomputed.indicesOf(query);
+    final double[] querySelfScores =
+        Arrays.stream(queryIndices).mapToDouble(q -> precomputed.computeScore(q, q)).toArray();
+    return new PreparedQuery() {
+      @Override
+      public double computeScore(Collection<TermId> target) {
+        final int[] targetIndices = precomputed.indicesOf(target);
+        if (symmetric) {
+          return 0.5 * (computeScoreImpl(precomputed, queryIndices, targetIndices)
+              + computeScoreImpl(precomputed, targetIndices, queryIndices));
+        } else {
+          return computeScoreImpl(precomputed, queryIndices, targetIndices);
+        }
+      }
+
+      @Override
+      public double upperBound(Collection<TermId> target) {
+        return computeUpperBound(querySelfScores, Arrays.stream(precomputed.indicesOf(target))
+            .mapToDouble(t -> precomputed.computeScore(t, t)).toArray());
+      }
+    };
+  }
+
+  /**
+   * Compute upper bound of the score from the self-similarity scores of the query and target
+   * terms.
+   *
+   * @param querySelfScores Self-similarity scores of the query terms.
+   * @param targetSelfScores Self-similarity scores of the target terms.
+   * @return Upper bound of the score between query and target.
+   */
+  private double computeUpperBound(double[] querySelfScores, double[] targetSelfScores) {
+    if (symmetric) {
+      return 0.5 * (computeUpperBoundImpl(querySelfScores, targetSelfScores)
+          + computeUpperBoundImpl(targetSelfScores, querySelfScores));
+    } else {
+      return computeUpperBoundImpl(querySelfScores, targetSelfScores);
+    }
+  }
+
+  /**
+   * Compute upper bound of the directed score, mirroring the summation in
+   * {@link #computeScoreImpl(Collection, Collection)} such that rounding cannot make the bound
+   * smaller than the score.
+   *
+   * @param querySelfScores Self-similarity scores of the query terms.
+   * @param targetSelfScores Self-similarity scores of the target terms.
+   * @return Upper bound of the directed score between query and target.
+   */
+  private static double computeUpperBoundImpl(double[] querySelfScores,
+      double[] targetSelfScores) {
+    double maxTarget = 0.0;
+    for (double t : targetSelfScores) {
+      maxTarget = Math.max(maxTarget, t);
+    }
+
+    double sum = 0;
+    for (double q : querySelfScores) {
+      sum += Math.min(q, maxTarget);
+    }
+    return sum / querySelfScores.length;
+  }
+
+  /**
+   * Compute directed score between a query and a target set of term indices, equivalent to
+   * {@link #computeScoreImpl(Collection, Collection)}.
+   *
+   * @param precomputed The {@link PrecomputingPairwiseResnikSimilarity} to use.
+   * @param query Query term indices.
+   * @param target Target term indices.
+   * @return Similarity score between <code>query</code> and <code>target</code>.
+   */
+  private static double computeScoreImpl(PrecomputingPairwiseResnikSimilarity<?, ?> precomputed,
+      int[] query, int[] target) {
+    double sum = 0;
+
+    for (int q : query) {
+      double maxValue = 0.0;
+      for (int t : target) {
+        maxValue = Math.max(maxValue, precomputed.computeScore(q, t));
+      }
+      sum += maxValue;
+    }
+
+    return sum / query.length;
+  }
+
   /**
    * Compute directed score between a query and a target set of {@link TermId}s.
    *
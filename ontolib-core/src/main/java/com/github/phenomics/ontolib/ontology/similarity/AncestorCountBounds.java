@@ -0,0 +1,55 @@
+package com.github.phenomics.ontolib.ontology.similarity;
+
+import java.util.Collection;
+
+import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
+import com.github.phenomics.ontolib.ontology.data.TermId;
+
+/**
+ * Cheap lower and upper bounds of the number of ancestors of a set of terms (excluding the root).
+ *
+ * <p>
+ * The ancestor set of a term set is the union of the terms' ancestor sets, so its size is at least
+ * the largest and at most the sum of their sizes. Both are computed from cached cardinalities
+ * without materializing the union.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class AncestorCountBounds {
+
+  /** Lower bound of the ancestor count. */
+  private final long lower;
+
+  /** Upper bound of the ancestor count. */
+  private final long upper;
+
+  /**
+   * Constructor.
+   *
+   * @param ontology The {@link ImmutableOntology} to use.
+   * @param termIds The {@link TermId}s to bound the ancestor count of.
+   */
+  AncestorCountBounds(ImmutableOntology<?, ?> ontology, Collection<TermId> termIds) {
+    long tmpLower = 0;
+    long tmpUpper = 0;
+    for (TermId termId : termIds) {
+      final int count = ontology.countAncestors(termId, false);
+      tmpLower = Math.max(tmpLower, count);
+      tmpUpper += count;
+    }
+    this.lower = tmpLower;
+    this.upper = tmpUpper;
+  }
+
+  /** @return Lower bound of the ancestor count. */
+  long getLower() {
+    return lower;
+  }
+
+  /** @return Upper bound of the ancestor count. */
+  long getUpper() {
+    return upper;
+  }
+
+}
@@ -0,0 +1,144 @@
+package com.github.phenomics.ontolib.ontology.similarity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+
+import com.github.phenomics.ontolib.base.OntoLibRuntimeException;
+import com.github.phenomics.ontolib.ontology.data.TermId;
+
+/**
+ * Scoring of one query against all "world objects" of a corpus.
+ *
+ * <p>
+ * The query is prepared only once using {@link Similarity#prepareQuery(Collection)} and then
+ * scored against all objects, optionally in parallel using an {@link ExecutorService}. The
+ * resulting scores are identical to the ones obtained by calling
+ * {@link Similarity#computeScore(Collection, Collection)} for each object.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class BatchSimilarityScorer {
+
+  /** Number of objects to score in one task. */
+  private static final int CHUNK_SIZE = 256;
+
+  /** The {@link Similarity} to use. */
+  private final Similarity similarity;
+
+  /** {@link ExecutorService} to use, <code>null</code> for scoring in the calling thread. */
+  private final ExecutorService executorService;
+
+  /**
+   * Construct scorer that scores in the calling thread.
+   *
+   * @param similarity The {@link Similarity} to use.
+   */
+  public BatchSimilarityScorer(Similarity similarity) {
+    this(similarity, null);
+  }
+
+  /**
+   * Construct scorer that scores in parallel.
+   *
+   * <p>
+   * The <code>executorService</code> is not shut down by this class.
+   * </p>
+   *
+   * @param similarity The {@link Similarity} to use.
+   * @param executorService {@link ExecutorService} to submit the scoring tasks to,
+   *        <code>null</code> for scoring in the calling thread.
+   */
+  public BatchSimilarityScorer(Similarity similarity, ExecutorService executorService) {
+    this.similarity = similarity;
+    this.executorService = executorService;
+  }
+
+  /**
+   * Score <code>query</code> against all <code>objects</code>.
+   *
+   * @param query Query collection of {@link TermId}s to use.
+   * @param objects {@link Map} from "world object" Id to a {@link Collection} of {@link TermId}
+   *        labels.
+   * @return {@link ObjectScores} with the scores of all objects, in the iteration order of
+   *         <code>objects</code>.
+   * @throws OntoLibRuntimeException if scoring failed in a worker thread or was interrupted.
+   */
+  public ObjectScores scoreAgainstAll(Collection<TermId> query,
+      Map<Integer, ? extends Collection<TermId>> objects) {
+    final int[] objectIds = new int[objects.size()];
+    final List<Collection<TermId>> labels = new ArrayList<>(objects.size());
+    int i = 0;
+    for (Map.Entry<Integer, ? extends Collection<TermId>> e : objects.entrySet()) {
+      objectIds[i++] = e.getKey();
+      labels.add(e.getValue());
+    }
+
+    final Similarity.PreparedQuery preparedQuery = similarity.prepareQuery(query);
+    final double[] scores = new double[objectIds.length];
+    if (executorService == null) {
+      scoreRange(preparedQuery, labels, scores, 0, scores.length);
+    } else {
+      final List<Callable<Void>> tasks = new ArrayList<>();
+      for (int begin = 0; begin < scores.length; begin += CHUNK_SIZE) {
+        final int chunkBegin = begin;
+        final int chunkEnd = Math.min(begin + CHUNK_SIZE, scores.length);
+        tasks.add(() -> {
+          scoreRange(preparedQuery, labels, scores, chunkBegin, chunkEnd);
+          return null;
+        });
+      }
+      try {
+        for (Future<Void> future : executorService.invokeAll(tasks)) {
+          future.get();
+        }
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        throw new OntoLibRuntimeException("Interrupted while scoring objects", e);
+      } catch (ExecutionException e) {
+        throw new OntoLibRuntimeException("Problem scoring objects", e.getCause());
+      }
+    }
+
+    return new ObjectScores(objectIds, scores);
+  }
+
+  /**
+   * Score <code>query</code> against all <code>objects</code> and select the best ones.
+   *
+   * @param query Query collection of {@link TermId}s to use.
+   * @param objects {@link Map} from "world object" Id to a {@link Collection} of {@link TermId}
+   *        labels.
+   * @param k Maximal number of objects to return.
+   * @return {@link ObjectScores} with the (at most) <code>k</code> best scoring objects, see
+   *         {@link ObjectScores#topK(int)}.
+   * @throws OntoLibRuntimeException if scoring failed in a worker thread or was interrupted.
+   */
+  public ObjectScores scoreTopK(Collection<TermId> query,
+      Map<Integer, ? extends Collection<TermId>> objects, int k) {
+    return scoreAgainstAll(query, objects).topK(k);
+  }
+
+  /**
+   * Score a range of objects.
+   *
+   * @param preparedQuery The prepared query.
+   * @param labels Labels of all objects.
+   * @param scores Output array for all scores.
+   * @param begin First object to score.
+   * @param end Object after the last one to score.
+   */
+  private static void scoreRange(Similarity.PreparedQuery preparedQuery,
+      List<Collection<TermId>> labels, double[] scores, int begin, int end) {
+    for (int i = begin; i < end; ++i) {
+      scores[i] = preparedQuery.computeScore(labels.get(i));
+    }
+  }
+
+}
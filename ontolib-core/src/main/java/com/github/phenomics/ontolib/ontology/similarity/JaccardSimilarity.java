@@ -1,9 +1,11 @@
 package com.github.phenomics.ontolib.ontology.similarity;
 
+import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
 import com.github.phenomics.ontolib.ontology.data.Ontology;
 import com.github.phenomics.ontolib.ontology.data.Term;
 import com.github.phenomics.ontolib.ontology.data.TermId;
 import com.github.phenomics.ontolib.ontology.data.TermRelation;
+import com.github.phenomics.ontolib.utils.ImmutableSparseBitSet;
 import com.google.common.collect.Sets;
 
 import java.util.Collection;
@@ -77,15 +79,60 @@ public final class JaccardSimilarity<T extends Term, R extends TermRelation>
 
   @Override
   public double computeScore(Collection<TermId> query, Collection<TermId> target) {
-    final Set<TermId> termIdsQuery = ontology.getAllAncestorTermIds(query, false);
-    final Set<TermId> termIdsTarget = ontology.getAllAncestorTermIds(target, false);
+    return prepareQuery(query).computeScore(target);
+  }
+
+  @Override
+  public PreparedQuery prepareQuery(Collection<TermId> query) {
+    if (ontology instanceof ImmutableOntology) {
+      final ImmutableOntology<?, ?> immutableOntology = (ImmutableOntology<?, ?>) ontology;
+      final ImmutableSparseBitSet bitsQuery = immutableOntology.getAllAncestorBits(query, false);
+      return new PreparedQuery() {
+        @Override
+        public double computeScore(Collection<TermId> target) {
+          final ImmutableSparseBitSet bitsTarget =
+              immutableOntology.getAllAncestorBits(target, false);
 
-    double intersectionSize = Sets.intersection(termIdsQuery, termIdsTarget).size();
-    if (normalized) {
-      return intersectionSize / Sets.union(termIdsQuery, termIdsTarget).size();
-    } else {
-      return intersectionSize;
+          double intersectionSize = bitsQuery.andCardinality(bitsTarget);
+          if (normalized) {
+            return intersectionSize
+                / (bitsQuery.cardinality() + bitsTarget.cardinality() - intersectionSize);
+          } else {
+            return intersectionSize;
+          }
+        }
+
+        /**
+         * The intersection is at most as large as the smaller set and the union is at least as
+         * large as the larger one.
+         */
+        @Override
+        public double upperBound(Collection<TermId> target) {
+          final AncestorCountBounds bounds = new AncestorCountBounds(immutableOntology, target);
+          final long countQuery = bitsQuery.cardinality();
+          final double maxIntersectionSize = Math.min(countQuery, bounds.getUpper());
+          if (!normalized) {
+            return maxIntersectionSize;
+          } else if (countQuery == 0 && bounds.getLower() == 0) {
+            return Double.POSITIVE_INFINITY; // score might be NaN
+          } else {
+            return maxIntersectionSize / Math.max(countQuery, bounds.getLower());
+          }
+        }
+      };
     }
+
+    final Set<TermId> termIdsQuery = ontology.getAllAncestorTermIds(query, false);
+    return target -> {
+      final Set<TermId> termIdsTarget = ontology.getAllAncestorTermIds(target, false);
+
+      double intersectionSize = Sets.intersection(termIdsQuery, termIdsTarget).size();
+      if (normalized) {
+        return intersectionSize / Sets.union(termIdsQuery, termIdsTarget).size();
+      } else {
+        return intersectionSize;
+      }
+    };
   }
 
 
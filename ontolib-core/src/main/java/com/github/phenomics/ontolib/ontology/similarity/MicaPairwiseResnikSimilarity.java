@@ -0,0 +1,150 @@
+package com.github.phenomics.ontolib.ontology.similarity;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.github.phenomics.ontolib.ontology.algo.InformationContentTable;
+import com.github.phenomics.ontolib.ontology.data.Ontology;
+import com.github.phenomics.ontolib.ontology.data.Term;
+import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.data.TermRelation;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * Implementation of pairwise Resnik similarity based on the most informative common ancestor
+ * (MICA), without quadratic precomputation.
+ *
+ * <p>
+ * On construction, all terms are ranked by descending information content and, for each term, the
+ * ranks of its ancestors (including itself) are stored as a sorted <code>int</code> array. Terms
+ * with an information content of zero are left out as they never contribute to the score. The
+ * MICA of two terms then is the first common entry of their ancestor arrays and is found by a
+ * merge walk that stops at the first match, usually after few steps because the informative
+ * ancestors come first.
+ * </p>
+ *
+ * <h5>Performance Notes</h5>
+ *
+ * <p>
+ * Construction is linear in the total size of all ancestor sets and each query does neither
+ * boxing nor hashing beyond the lookup of the two terms. This makes computing scores on demand
+ * feasible for large ontologies such as GO and uPheno, where precomputing all pairs with
+ * {@link PrecomputingPairwiseResnikSimilarity} is prohibitively expensive.
+ * </p>
+ *
+ * @param <T> {@link Term} sub class to use in the contained classes
+ * @param <R> {@link TermRelation} sub class to use in the contained classes
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ *
+ * @see PairwiseResnikSimilarity
+ * @see PrecomputingPairwiseResnikSimilarity
+ */
+public final class MicaPairwiseResnikSimilarity<T extends Term, R extends TermRelation>
+    implements
+      PairwiseSimilarity,
+      Serializable {
+
+  /** Serial UID for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** {@link Ontology} to base computations on, used for resolving alternative term IDs. */
+  private final Ontology<T, R> ontology;
+
+  /** Information content by rank, descending. */
+  private final double[] icByRank;
+
+  /** Ranks of the informative ancestors (including the term itself) in ascending order. */
+  private final ImmutableMap<TermId, int[]> ancestorRanks;
+
+  /**
+   * Construct new {@link MicaPairwiseResnikSimilarity}.
+   *
+   * @param ontology {@link Ontology} to base computations on.
+   * @param termToIc {@link Map} from{@link TermId} to its information content.
+   */
+  public MicaPairwiseResnikSimilarity(Ontology<T, R> ontology, Map<TermId, Double> termToIc) {
+    this(ontology, InformationContentTable.copyOf(termToIc));
+  }
+
+  /**
+   * Construct new {@link MicaPairwiseResnikSimilarity}.
+   *
+   * @param ontology {@link Ontology} to base computations on.
+   * @param icTable {@link InformationContentTable} with the information content of each term.
+   */
+  public MicaPairwiseResnikSimilarity(Ontology<T, R> ontology, InformationContentTable icTable) {
+    this.ontology = ontology;
+
+    // Rank informative terms by descending information content, ties broken by term ID.
+    final List<TermId> informativeTermIds = new ArrayList<>();
+    for (TermId termId : ontology.getAllTermIds()) {
+      if (icTable.get(termId) > 0.0) {
+        informativeTermIds.add(termId);
+      }
+    }
+    informativeTermIds.sort((lhs, rhs) -> {
+      final int result = Double.compare(icTable.get(rhs), icTable.get(lhs));
+      return (result != 0) ? result : lhs.compareTo(rhs);
+    });
+    final Map<TermId, Integer> rank = new HashMap<>(informativeTermIds.size());
+    this.icByRank = new double[informativeTermIds.size()];
+    for (int i = 0; i < icByRank.length; ++i) {
+      rank.put(informativeTermIds.get(i), i);
+      icByRank[i] = icTable.get(informativeTermIds.get(i));
+    }
+
+    // Collect sorted ancestor ranks for each term.
+    final ImmutableMap.Builder<TermId, int[]> builder = ImmutableMap.builder();
+    for (TermId termId : ontology.getAllTermIds()) {
+      final int[] ranks = ontology.getAncestorTermIds(termId, true).stream()
+          .map(rank::get).filter(r -> r != null).mapToInt(Integer::intValue).toArray();
+      Arrays.sort(ranks);
+      builder.put(termId, ranks);
+    }
+    this.ancestorRanks = builder.build();
+  }
+
+  /**
+   * Query for informative ancestor ranks of a term.
+   *
+   * @param termId The {@link TermId} to query for, alternative IDs are resolved.
+   * @return Sorted ranks of the informative ancestors of <code>termId</code>, <code>null</code>
+   *         if the term is not known.
+   */
+  private int[] getAncestorRanks(TermId termId) {
+    final int[] result = ancestorRanks.get(termId);
+    if (result != null) {
+      return result;
+    }
+    final TermId primaryTermId = ontology.getPrimaryTermId(termId);
+    return (primaryTermId == null) ? null : ancestorRanks.get(primaryTermId);
+  }
+
+  @Override
+  public double computeScore(TermId query, TermId target) {
+    final int[] queryRanks = getAncestorRanks(query);
+    final int[] targetRanks = getAncestorRanks(target);
+    if (queryRanks == null || targetRanks == null) {
+      return 0.0;
+    }
+
+    int i = 0;
+    int j = 0;
+    while (i < queryRanks.length && j < targetRanks.length) {
+      if (queryRanks[i] < targetRanks[j]) {
+        ++i;
+      } else if (targetRanks[j] < queryRanks[i]) {
+        ++j;
+      } else {
+        return icByRank[queryRanks[i]];
+      }
+    }
+    return 0.0;
+  }
+
+}
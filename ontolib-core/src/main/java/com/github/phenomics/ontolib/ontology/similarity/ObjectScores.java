@@ -0,0 +1,105 @@
+package com.github.phenomics.ontolib.ontology.similarity;
+
+import java.util.Arrays;
+import java.util.stream.IntStream;
+
+/**
+ * Similarity scores of one query against a number of "world objects", identified by integer IDs.
+ *
+ * <p>
+ * Object IDs and scores are stored in parallel primitive arrays.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class ObjectScores {
+
+  /** The object IDs. */
+  private final int[] objectIds;
+
+  /** The scores, parallel to {@link #objectIds}. */
+  private final double[] scores;
+
+  /**
+   * Constructor, arrays are used without copying.
+   *
+   * @param objectIds The object IDs.
+   * @param scores The scores, parallel to <code>objectIds</code>.
+   */
+  ObjectScores(int[] objectIds, double[] scores) {
+    this.objectIds = objectIds;
+    this.scores = scores;
+  }
+
+  /**
+   * @return Number of scored objects.
+   */
+  public int size() {
+    return objectIds.length;
+  }
+
+  /**
+   * @param i Position of the object, in the range <code>[0, size())</code>.
+   * @return ID of the object at position <code>i</code>.
+   */
+  public int getObjectId(int i) {
+    return objectIds[i];
+  }
+
+  /**
+   * @param i Position of the object, in the range <code>[0, size())</code>.
+   * @return Score of the object at position <code>i</code>.
+   */
+  public double getScore(int i) {
+    return scores[i];
+  }
+
+  /**
+   * @return Copy of the object IDs.
+   */
+  public int[] getObjectIds() {
+    return Arrays.copyOf(objectIds, objectIds.length);
+  }
+
+  /**
+   * @return Copy of the scores, parallel to {@link #getObjectIds()}.
+   */
+  public double[] getScores() {
+    return Arrays.copyOf(scores, scores.length);
+  }
+
+  /**
+   * Select the best scoring objects.
+   *
+   * @param k Maximal number of objects to select.
+   * @return {@link ObjectScores} with the (at most) <code>k</code> best scoring objects in
+   *         descending order of score, ties broken by ascending object ID.
+   */
+  public ObjectScores topK(int k) {
+    final int[] order = IntStream.range(0, objectIds.length).boxed().sorted((lhs, rhs) -> {
+      final int result = Double.compare(scores[rhs], scores[lhs]);
+      return (result != 0) ? result : Integer.compare(objectIds[lhs], objectIds[rhs]);
+    }).limit(Math.max(0, k)).mapToInt(Integer::intValue).toArray();
+
+    final int[] topObjectIds = new int[order.length];
+    final double[] topScores = new double[order.length];
+    for (int i = 0; i < order.length; ++i) {
+      topObjectIds[i] = objectIds[order[i]];
+      topScores[i] = scores[order[i]];
+    }
+    return new ObjectScores(topObjectIds, topScores);
+  }
+
+  @Override
+  public String toString() {
+    final StringBuilder builder = new StringBuilder("ObjectScores [");
+    for (int i = 0; i < objectIds.length; ++i) {
+      if (i > 0) {
+        builder.append(", ");
+      }
+      builder.append(objectIds[i]).append('=').append(scores[i]);
+    }
+    return builder.append("]").toString();
+  }
+
+}
@@ -3,10 +3,15 @@ package com.github.phenomics.ontolib.ontology.similarity;
 import java.util.Map;
 import java.util.Set;
 
+import com.github.phenomics.ontolib.ontology.algo.InformationContentTable;
+import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
 import com.github.phenomics.ontolib.ontology.data.Ontology;
 import com.github.phenomics.ontolib.ontology.data.Term;
 import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.data.TermIdDictionary;
+import com.github.phenomics.ontolib.ontology.data.TermAncestorIndex;
 import com.github.phenomics.ontolib.ontology.data.TermRelation;
+import com.github.phenomics.ontolib.utils.ImmutableSparseBitSet;
 
 /**
  * Implementation of pairwise Resnik similarity without precomputation.
@@ -14,13 +19,15 @@ import com.github.phenomics.ontolib.ontology.data.TermRelation;
  * <p>
  * This lies at the core of most of of the more computationally expensive pairwise similarities'
  * computations. See {@link PrecomputingPairwiseResnikSimilarity} for a variant where the similarity
- * scores can be precomputed and serialized.
+ * scores can be precomputed and serialized and {@link MicaPairwiseResnikSimilarity} for a variant
+ * that is suited for computing scores on demand in large ontologies.
  * </p>
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  * @author <a href="mailto:sebastian.koehler@charite.de">Sebastian Koehler</a>
  *
  * @see PrecomputingPairwiseResnikSimilarity
+ * @see MicaPairwiseResnikSimilarity
  */
 public final class PairwiseResnikSimilarity<T extends Term, R extends TermRelation>
     implements
@@ -32,16 +39,30 @@ public final class PairwiseResnikSimilarity<T extends Term, R extends TermRelati
   private final Ontology<T, R> ontology;
 
   /**
-   * {@link Map} from {@link TermId} to its information content.
+   * {@link InformationContentTable} with the information content of each term.
    */
-  private final Map<TermId, Double> termToIc;
+  private final InformationContentTable icTable;
+
+  /**
+   * {@link ImmutableOntology} for bit set-based ancestor queries, <code>null</code> if
+   * {@link #ontology} is not an {@link ImmutableOntology}.
+   */
+  private final ImmutableOntology<?, ?> immutableOntology;
+
+  /**
+   * Information content by code in the {@link TermIdDictionary} of {@link #immutableOntology},
+   * which are the indices of its {@link TermAncestorIndex}.
+   */
+  private final double[] icByCode;
 
   /**
    * Required default constructor for serialization.
    */
   protected PairwiseResnikSimilarity() {
     this.ontology = null;
-    this.termToIc = null;
+    this.icTable = null;
+    this.immutableOntology = null;
+    this.icByCode = null;
   }
 
   /**
@@ -51,8 +72,25 @@ public final class PairwiseResnikSimilarity<T extends Term, R extends TermRelati
    * @param termToIc {@link Map} from{@link TermId} to its information content.
    */
   public PairwiseResnikSimilarity(Ontology<T, R> ontology, Map<TermId, Double> termToIc) {
+    this(ontology, InformationContentTable.copyOf(termToIc));
+  }
+
+  /**
+   * Construct new {@link PairwiseResnikSimilarity}.
+   *
+   * @param ontology {@link Ontology} to base computations on.
+   * @param icTable {@link InformationContentTable} with the information content of each term.
+   */
+  public PairwiseResnikSimilarity(Ontology<T, R> ontology, InformationContentTable icTable) {
     this.ontology = ontology;
-    this.termToIc = termToIc;
+    this.icTable = icTable;
+    if (ontology instanceof ImmutableOntology) {
+      this.immutableOntology = (ImmutableOntology<?, ?>) ontology;
+      this.icByCode = icTable.valuesByCode(immutableOntology.getTermIdDictionary());
+    } else {
+      this.immutableOntology = null;
+      this.icByCode = null;
+    }
   }
 
   /**
@@ -71,18 +109,39 @@ public final class PairwiseResnikSimilarity<T extends Term, R extends TermRelati
    * @return Precomputed pairwise Resnik similarity score.
    */
   public double computeScoreImpl(TermId query, TermId target) {
+    if (immutableOntology != null) {
+      return computeScoreImpl(immutableOntology.getAncestorBits(query, true),
+          immutableOntology.getAncestorBits(target, true));
+    }
+
     final Set<TermId> queryTerms = getOntology().getAncestorTermIds(query, true);
     final Set<TermId> targetTerms = getOntology().getAncestorTermIds(target, true);
 
     double maxValue = 0.0;
     for (TermId termId : queryTerms) {
       if (targetTerms.contains(termId)) {
-        maxValue = Double.max(maxValue, getTermToIc().get(termId));
+        maxValue = Double.max(maxValue, icTable.get(termId));
       }
     }
     return maxValue;
   }
 
+  /**
+   * Compute score from ancestor sets as obtained from {@link ImmutableOntology#getAncestorBits}.
+   *
+   * <p>
+   * Only available if the underlying ontology is an {@link ImmutableOntology}.
+   * </p>
+   *
+   * @param queryAncestors Ancestors of the query term, including the root.
+   * @param targetAncestors Ancestors of the target term, including the root.
+   * @return Pairwise Resnik similarity score.
+   */
+  double computeScoreImpl(ImmutableSparseBitSet queryAncestors,
+      ImmutableSparseBitSet targetAncestors) {
+    return queryAncestors.maxOfIntersection(targetAncestors, icByCode);
+  }
+
   @Override
   public double computeScore(TermId query, TermId target) {
     return computeScoreImpl(query, target);
@@ -96,10 +155,18 @@ public final class PairwiseResnikSimilarity<T extends Term, R extends TermRelati
   }
 
   /**
-   * @return {@link Map} from {@link TermId} to information content.
+   * @return {@link Map} from {@link TermId} to information content, a copy of
+   *         {@link #getInformationContentTable()}.
    */
   public Map<TermId, Double> getTermToIc() {
-    return termToIc;
+    return icTable.toMap();
+  }
+
+  /**
+   * @return {@link InformationContentTable} with the information content of each term.
+   */
+  public InformationContentTable getInformationContentTable() {
+    return icTable;
   }
 
 }
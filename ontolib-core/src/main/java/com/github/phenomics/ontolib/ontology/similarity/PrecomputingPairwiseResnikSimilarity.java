@@ -1,22 +1,45 @@
 package com.github.phenomics.ontolib.ontology.similarity;
 
+import com.github.phenomics.ontolib.ontology.algo.InformationContentTable;
+import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermId;
 import com.github.phenomics.ontolib.ontology.data.Ontology;
 import com.github.phenomics.ontolib.ontology.data.Term;
 import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.data.TermIdDictionary;
 import com.github.phenomics.ontolib.ontology.data.TermRelation;
+import com.github.phenomics.ontolib.ser.SerializationException;
+import com.github.phenomics.ontolib.utils.ImmutableSparseBitSet;
 import com.github.phenomics.ontolib.utils.ProgressReporter;
+import com.google.common.collect.ImmutableList;
 import com.google.common.collect.ImmutableSortedSet;
-import com.google.common.collect.Lists;
+import com.google.common.hash.Hasher;
+import com.google.common.hash.Hashing;
 
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
 import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
 import java.util.Collection;
-import java.util.HashMap;
-import java.util.List;
 import java.util.Map;
-import java.util.concurrent.LinkedBlockingQueue;
-import java.util.concurrent.ThreadPoolExecutor;
-import java.util.concurrent.TimeUnit;
-import java.util.function.Consumer;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -25,25 +48,36 @@ import org.slf4j.LoggerFactory;
  *
  * <p>
  * This lies at the core of most of of the more computationally expensive pairwise similarities'
- * computations. For this reason, the similarity is precomputed for all term pairs in the
- * {@link Ontology} which is computationally expensive.
+ * computations. For this reason, the similarity is precomputed for all pairs of non-obsolete terms
+ * in the {@link Ontology} which is computationally expensive.
  * </p>
  *
  * <h5>Performance Notes</h5>
  *
  * <p>
- * Note that there is a performance regression here in comparison to the old code. However, the
- * other implementation used integer arrays only which assumed the limitations to terms from the
- * same ontology and was more involved than the current one.
+ * As the similarity is symmetric, only the upper triangle of the score matrix (including the
+ * diagonal) is stored, row by row in one flat byte range that is split into segments of 1 GB
+ * for addressing more than 2 GB. Optionally, the scores can be quantized to
+ * 16 or 8 bit buckets of the range <code>[0, max IC]</code> (see {@link Quantization}), which
+ * reduces the memory usage by a factor of two or four at the cost of precision.
  * </p>
  *
  * <p>
- * For loading the HPO, this regression appears to be about two-fold, from 30 sec to 60 sec.
+ * The precomputation is parallelized with a {@link ForkJoinPool}. Blocks of rows are split
+ * recursively until they contain few enough pairs, such that idle threads can steal work and the
+ * long rows at the top of the triangle do not leave the other threads waiting. For
+ * {@link ImmutableOntology} objects, the ancestor sets are fetched once per term and the scores are
+ * computed with bit set intersection.
  * </p>
  *
+ * <h5>Persistence</h5>
+ *
  * <p>
- * In the future, this decision might be revoked and an implementation based on arrays might be
- * chosen as well for performance reasons.
+ * The scores can be written to a binary file using {@link #save(File)} and loaded again with
+ * {@link #open(File, Ontology, Map)}. The file is mapped into memory read-only instead of being
+ * read, such that loading takes constant time and multiple processes on the same host share the
+ * same page-cached copy. The file header records the ontology version and a hash of the
+ * information content values, such that stale files are rejected on loading.
  * </p>
  *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
@@ -55,7 +89,7 @@ public final class PrecomputingPairwiseResnikSimilarity<T extends Term, R extend
       Serializable {
 
   /** Serial UID for serialization. */
-  private static final long serialVersionUID = 1L;
+  private static final long serialVersionUID = 2L;
 
   /**
    * {@link Logger} object to use.
@@ -63,27 +97,106 @@ public final class PrecomputingPairwiseResnikSimilarity<T extends Term, R extend
   private static final Logger LOGGER =
       LoggerFactory.getLogger(PrecomputingPairwiseResnikSimilarity.class);
 
+  /** Magic number at the beginning of score files, <code>"OLRS"</code>. */
+  private static final int FILE_MAGIC = 0x4f4c5253;
+
+  /** Version of the score file format. */
+  private static final int FILE_FORMAT_VERSION = 1;
+
+  /** Blocks with at most this number of pairs are not split any further. */
+  private static final long MAX_PAIRS_PER_BLOCK = 1L << 16;
+
+  /**
+   * Storage type for precomputed scores.
+   */
+  public enum Quantization {
+    /** Store scores as 32 bit floating point numbers. */
+    FLOAT(4),
+    /** Store scores as 16 bit buckets of <code>[0, max IC]</code>. */
+    SHORT(2),
+    /** Store scores as 8 bit buckets of <code>[0, max IC]</code>. */
+    BYTE(1);
+
+    /** Number of bytes per stored score. */
+    private final int bytesPerScore;
+
+    /**
+     * Constructor.
+     *
+     * @param bytesPerScore Number of bytes per stored score.
+     */
+    Quantization(int bytesPerScore) {
+      this.bytesPerScore = bytesPerScore;
+    }
+
+    /**
+     * @return Number of bytes per stored score.
+     */
+    public int getBytesPerScore() {
+      return bytesPerScore;
+    }
+  }
+
   /** Precomputed data. */
   PrecomputedScores precomputedScores;
 
   /** Number of threads to use for precomputation. */
   private final int numThreads;
 
-  /** Number of genes to process for each chunk. */
-  private final int chunkSize = 100;
+  /**
+   * Construct new {@link PrecomputingPairwiseResnikSimilarity}.
+   *
+   * @param ontology {@link Ontology} to base computations on.
+   * @param termToIc {@link Map} from{@link TermId} to its information content.
+   * @param numThreads Number of threads to use for precomputation.
+   * @param quantization {@link Quantization} to use for storing the scores.
+   */
+  public PrecomputingPairwiseResnikSimilarity(Ontology<T, R> ontology, Map<TermId, Double> termToIc,
+      int numThreads, Quantization quantization) {
+    this(ontology, InformationContentTable.copyOf(termToIc), numThreads, quantization);
+  }
 
   /**
    * Construct new {@link PrecomputingPairwiseResnikSimilarity}.
    *
    * @param ontology {@link Ontology} to base computations on.
+   * @param icTable {@link InformationContentTable} with the information content of each term.
+   * @param numThreads Number of threads to use for precomputation.
+   * @param quantization {@link Quantization} to use for storing the scores.
+   */
+  public PrecomputingPairwiseResnikSimilarity(Ontology<T, R> ontology,
+      InformationContentTable icTable, int numThreads, Quantization quantization) {
+    this.precomputedScores = new PrecomputedScores(ontology.getNonObsoleteTermIds(),
+        getTermIdDictionary(ontology), quantization, icTable.max(), getOntologyVersion(ontology),
+        computeIcHash(icTable));
+    this.numThreads = numThreads;
+    precomputeScores(ontology, icTable);
+  }
+
+  /**
+   * Construct new {@link PrecomputingPairwiseResnikSimilarity}, storing scores as
+   * <code>float</code>.
+   *
+   * @param ontology {@link Ontology} to base computations on.
    * @param termToIc {@link Map} from{@link TermId} to its information content.
    * @param numThreads Number of threads to use for precomputation.
    */
   public PrecomputingPairwiseResnikSimilarity(Ontology<T, R> ontology, Map<TermId, Double> termToIc,
       int numThreads) {
-    this.precomputedScores = new PrecomputedScores(ontology.getAllTermIds());
-    this.numThreads = numThreads;
-    precomputeScores(ontology, termToIc);
+    this(ontology, termToIc, numThreads, Quantization.FLOAT);
+  }
+
+  /**
+   * Construct new {@link PrecomputingPairwiseResnikSimilarity}, storing scores as
+   * <code>float</code>.
+   *
+   * @param ontology {@link Ontology} to base computations on.
+   * @param icTable {@link InformationContentTable} with the information content of each term.
+   * @param numThreads Number of threads to use for precomputation.
+   */
+  public PrecomputingPairwiseResnikSimilarity(Ontology<T, R> ontology,
+      InformationContentTable icTable, int numThreads) {
+    this(ontology, icTable, numThreads, Quantization.FLOAT);
   }
 
   /**
@@ -97,65 +210,200 @@ public final class PrecomputingPairwiseResnikSimilarity<T extends Term, R extend
     this(ontology, termToIc, 1);
   }
 
+  /**
+   * Construct with thread count of one.
+   *
+   * @param ontology {@link Ontology} to base computations on.
+   * @param icTable {@link InformationContentTable} with the information content of each term.
+   */
+  public PrecomputingPairwiseResnikSimilarity(Ontology<T, R> ontology,
+      InformationContentTable icTable) {
+    this(ontology, icTable, 1);
+  }
+
+  /**
+   * Construct from already precomputed scores.
+   *
+   * @param precomputedScores The precomputed scores to use.
+   */
+  private PrecomputingPairwiseResnikSimilarity(PrecomputedScores precomputedScores) {
+    this.precomputedScores = precomputedScores;
+    this.numThreads = 1;
+  }
+
+  /**
+   * Load precomputed scores from file written by {@link #save(File)}.
+   *
+   * <p>
+   * The scores are mapped into memory and read from the mapped buffer in
+   * {@link #computeScore(TermId, TermId)}.
+   * </p>
+   *
+   * @param <T> {@link Term} sub class of the ontology.
+   * @param <R> {@link TermRelation} sub class of the ontology.
+   * @param file Path to the score file.
+   * @param ontology {@link Ontology} the scores are to be used with.
+   * @param termToIc {@link Map} from{@link TermId} to its information content.
+   * @return {@link PrecomputingPairwiseResnikSimilarity} backed by the file.
+   * @throws SerializationException if the file could not be read or was computed for a different
+   *         ontology version or information content.
+   */
+  public static <T extends Term, R extends TermRelation>
+      PrecomputingPairwiseResnikSimilarity<T, R> open(File file, Ontology<T, R> ontology,
+          Map<TermId, Double> termToIc) throws SerializationException {
+    return open(file, ontology, InformationContentTable.copyOf(termToIc));
+  }
+
+  /**
+   * Load precomputed scores from file written by {@link #save(File)}.
+   *
+   * @param <T> {@link Term} sub class of the ontology.
+   * @param <R> {@link TermRelation} sub class of the ontology.
+   * @param file Path to the score file.
+   * @param ontology {@link Ontology} the scores are to be used with.
+   * @param icTable {@link InformationContentTable} with the information content of each term.
+   * @return {@link PrecomputingPairwiseResnikSimilarity} backed by the file.
+   * @throws SerializationException if the file could not be read or was computed for a different
+   *         ontology version or information content.
+   *
+   * @see #open(File, Ontology, Map)
+   */
+  public static <T extends Term, R extends TermRelation>
+      PrecomputingPairwiseResnikSimilarity<T, R> open(File file, Ontology<T, R> ontology,
+          InformationContentTable icTable) throws SerializationException {
+    LOGGER.info("Mapping precomputed scores from {}", new Object[] {file});
+    final PrecomputedScores scores;
+    try {
+      scores = PrecomputedScores.open(file, getTermIdDictionary(ontology));
+    } catch (IOException | RuntimeException e) {
+      throw new SerializationException("Could not open precomputed scores file " + file, e);
+    }
+
+    final String ontologyVersion = getOntologyVersion(ontology);
+    if (!ontologyVersion.equals(scores.getOntologyVersion())) {
+      throw new SerializationException(
+          "Scores in " + file + " were computed for ontology version \""
+              + scores.getOntologyVersion() + "\" but got \"" + ontologyVersion + "\"");
+    }
+    if (computeIcHash(icTable) != scores.getIcHash()) {
+      throw new SerializationException(
+          "Scores in " + file + " were computed for different information content values");
+    }
+    return new PrecomputingPairwiseResnikSimilarity<>(scores);
+  }
+
+  /**
+   * Write precomputed scores to file, for loading with {@link #open(File, Ontology, Map)}.
+   *
+   * @param file Path to the file to write to.
+   * @throws SerializationException on problems with writing.
+   */
+  public void save(File file) throws SerializationException {
+    LOGGER.info("Writing {} precomputed scores to {}",
+        new Object[] {precomputedScores.getPairCount(), file});
+    try {
+      precomputedScores.write(file);
+    } catch (IOException e) {
+      throw new SerializationException("Could not write precomputed scores to " + file, e);
+    }
+  }
+
+  /**
+   * @return Version of <code>ontology</code> from its <code>data-version</code> or
+   *         <code>date</code> header, empty if neither is present.
+   */
+  private static String getOntologyVersion(Ontology<?, ?> ontology) {
+    final Map<String, String> metaInfo = ontology.getMetaInfo();
+    if (metaInfo.containsKey("data-version")) {
+      return metaInfo.get("data-version");
+    } else {
+      return metaInfo.getOrDefault("date", "");
+    }
+  }
+
+  /**
+   * @return The {@link TermIdDictionary} of <code>ontology</code> if it is an
+   *         {@link ImmutableOntology}, <code>null</code> otherwise.
+   */
+  private static TermIdDictionary getTermIdDictionary(Ontology<?, ?> ontology) {
+    if (ontology instanceof ImmutableOntology) {
+      return ((ImmutableOntology<?, ?>) ontology).getTermIdDictionary();
+    } else {
+      return null;
+    }
+  }
+
+  /**
+   * @return Hash of the term IDs and information content values of <code>icTable</code>.
+   */
+  private static long computeIcHash(InformationContentTable icTable) {
+    final Hasher hasher = Hashing.sipHash24().newHasher();
+    for (int i = 0; i < icTable.size(); ++i) {
+      hasher.putString(icTable.termIdAt(i).getIdWithPrefix(), StandardCharsets.UTF_8);
+      hasher.putDouble(icTable.get(i));
+    }
+    return hasher.hash().asLong();
+  }
+
   /**
    * Precompute similarity scores.
    */
-  private void precomputeScores(Ontology<T, R> ontology, Map<TermId, Double> termToIc) {
-    LOGGER.info("Precomputing pairwise scores for {} terms...",
-        new Object[] {ontology.countAllTerms()});
+  private void precomputeScores(Ontology<T, R> ontology, InformationContentTable icTable) {
+    final int termCount = precomputedScores.getTermCount();
+    final long pairCount = precomputedScores.getPairCount();
+    LOGGER.info("Precomputing {} pairwise scores for {} terms using {} thread(s)...",
+        new Object[] {pairCount, termCount, numThreads});
 
     // Setup PairwiseResnikSimilarity to use for computing scores.
     final PairwiseResnikSimilarity<T, R> pairwiseSimilarity =
-        new PairwiseResnikSimilarity<>(ontology, termToIc);
+        new PairwiseResnikSimilarity<>(ontology, icTable);
+
+    // Fetch ancestor sets once per term if available.
+    final ImmutableSparseBitSet[] ancestors;
+    if (ontology instanceof ImmutableOntology) {
+      final ImmutableOntology<T, R> immutableOntology = (ImmutableOntology<T, R>) ontology;
+      ancestors = new ImmutableSparseBitSet[termCount];
+      for (int i = 0; i < termCount; ++i) {
+        ancestors[i] = immutableOntology.getAncestorBits(precomputedScores.getTermId(i), true);
+      }
+    } else {
+      ancestors = null;
+    }
 
     // Setup progress reporting.
-    final ProgressReporter progressReport =
-        new ProgressReporter(LOGGER, "objects", ontology.countAllTerms());
+    final ProgressReporter progressReport = new ProgressReporter(LOGGER, "objects", termCount);
     progressReport.start();
 
-    // Setup the task to execute in parallel, with concurrent hash map for collecting results.
-    Consumer<List<TermId>> task = (List<TermId> chunk) -> {
-      try {
-        for (TermId queryId : chunk) {
-          for (TermId targetId : ontology.getNonObsoleteTermIds()) {
-            if (queryId.compareTo(targetId) <= 0) {
-              precomputedScores.put(queryId, targetId,
-                  pairwiseSimilarity.computeScore(queryId, targetId));
-            }
-          }
-          progressReport.incCurrent();
-        }
-      } catch (Exception e) {
-        System.err.print("An exception occured in parallel processing!");
-        e.printStackTrace();
-      }
-    };
-
-    // Execution of the task in a ThreadPoolExecutor. This is the only way in Java 8 to guarantee
-    // thread counts.
-    //
-    // It is a bit verbose but in the end, not that complicated.
-    //
-    // Setup thread pool executor and enforce that precicsely numThreads threads are present.
-    ThreadPoolExecutor threadPoolExecutor = new ThreadPoolExecutor(numThreads, numThreads, 5,
-        TimeUnit.MICROSECONDS, new LinkedBlockingQueue<Runnable>());
-    // Split the input into chunks to reduce task startup overhead
-    final List<List<TermId>> chunks =
-        Lists.partition(Lists.newArrayList(ontology.getNonObsoleteTermIds()), chunkSize);
-    // Submit all chunks into the executor.
-    for (List<TermId> chunk : chunks) {
-      threadPoolExecutor.submit(() -> task.accept(chunk));
-    }
-    // Shutdown executor and wait for all tasks being completed.
-    threadPoolExecutor.shutdown();
+    final long startTime = System.nanoTime();
+    final ForkJoinPool pool = new ForkJoinPool(numThreads);
     try {
-      threadPoolExecutor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
-    } catch (InterruptedException e) {
-      throw new RuntimeException("Could not wait for thread pool being done.", e);
+      pool.invoke(
+          new PrecomputeRowsTask(pairwiseSimilarity, ancestors, progressReport, 0, termCount));
+    } finally {
+      pool.shutdown();
     }
+    final double elapsedSeconds = (System.nanoTime() - startTime) / 1e9;
     progressReport.stop();
 
-    LOGGER.info("Done precomputing pairwise scores.");
+    LOGGER.info("Done precomputing {} pairwise scores in {} s ({} pairs/s).",
+        new Object[] {pairCount, String.format("%.2f", elapsedSeconds),
+            String.format("%.0f", pairCount / Math.max(elapsedSeconds, 1e-9))});
+    LOGGER.info("Score storage uses {} MB ({}), peak heap usage was {} MB.",
+        new Object[] {precomputedScores.countStoredBytes() / (1024 * 1024),
+            precomputedScores.getQuantization(), peakHeapUsage() / (1024 * 1024)});
+  }
+
+  /**
+   * @return Sum of the peak usages of all heap memory pools, in bytes.
+   */
+  private static long peakHeapUsage() {
+    long result = 0;
+    for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+      if (pool.getType() == MemoryType.HEAP && pool.getPeakUsage() != null) {
+        result += pool.getPeakUsage().getUsed();
+      }
+    }
+    return result;
   }
 
   @Override
@@ -163,54 +411,556 @@ public final class PrecomputingPairwiseResnikSimilarity<T extends Term, R extend
     return precomputedScores.get(query, target);
   }
 
+  /**
+   * Resolve {@link TermId}s to their indices in the precomputed scores.
+   *
+   * @param termIds The {@link TermId}s to resolve.
+   * @return Indices of <code>termIds</code> in iteration order, <code>-1</code> for unknown ones.
+   * @see PrecomputedScores#indexOf(TermId)
+   */
+  int[] indicesOf(Collection<TermId> termIds) {
+    final int[] result = new int[termIds.size()];
+    int i = 0;
+    for (TermId termId : termIds) {
+      result[i++] = precomputedScores.indexOf(termId);
+    }
+    return result;
+  }
+
+  /**
+   * Compute score by indices as obtained from {@link #indicesOf(Collection)}.
+   *
+   * @param query Index of the query term.
+   * @param target Index of the target term.
+   * @return Precomputed score, <code>0.0</code> if one of the indices is <code>-1</code>.
+   */
+  double computeScore(int query, int target) {
+    if (query == -1 || target == -1) {
+      return 0.0;
+    }
+    return precomputedScores.get(query, target);
+  }
+
+  /**
+   * @return {@link Quantization} used for storing the scores.
+   */
+  public Quantization getQuantization() {
+    return precomputedScores.getQuantization();
+  }
+
+  /**
+   * Task for computing the scores of a block of rows, splitting it if it is too large.
+   */
+  private final class PrecomputeRowsTask extends RecursiveAction {
+
+    /** Serial UID for serialization. */
+    private static final long serialVersionUID = 1L;
+
+    /** Similarity to use for computing scores. */
+    private final PairwiseResnikSimilarity<T, R> pairwiseSimilarity;
+
+    /** Ancestor sets by term index, <code>null</code> if not available. */
+    private final ImmutableSparseBitSet[] ancestors;
+
+    /** Progress reporting, one element per row. */
+    private final ProgressReporter progressReport;
+
+    /** First row of the block. */
+    private final int beginRow;
+
+    /** Row after the last one of the block. */
+    private final int endRow;
+
+    PrecomputeRowsTask(PairwiseResnikSimilarity<T, R> pairwiseSimilarity,
+        ImmutableSparseBitSet[] ancestors, ProgressReporter progressReport, int beginRow,
+        int endRow) {
+      this.pairwiseSimilarity = pairwiseSimilarity;
+      this.ancestors = ancestors;
+      this.progressReport = progressReport;
+      this.beginRow = beginRow;
+      this.endRow = endRow;
+    }
+
+    @Override
+    protected void compute() {
+      final int termCount = precomputedScores.getTermCount();
+      final long pairs = countPairs(termCount, beginRow, endRow);
+      if (endRow - beginRow > 1 && pairs > MAX_PAIRS_PER_BLOCK) {
+        // Split such that both halves have about the same number of pairs.
+        int midRow = beginRow;
+        long leftPairs = 0;
+        while (midRow + 1 < endRow && 2 * (leftPairs + termCount - midRow) <= pairs) {
+          leftPairs += termCount - midRow;
+          ++midRow;
+        }
+        midRow = Math.max(midRow, beginRow + 1);
+        invokeAll(
+            new PrecomputeRowsTask(pairwiseSimilarity, ancestors, progressReport, beginRow,
+                midRow),
+            new PrecomputeRowsTask(pairwiseSimilarity, ancestors, progressReport, midRow,
+                endRow));
+        return;
+      }
+
+      for (int i = beginRow; i < endRow; ++i) {
+        for (int j = i; j < termCount; ++j) {
+          final double score;
+          if (ancestors != null) {
+            score = pairwiseSimilarity.computeScoreImpl(ancestors[i], ancestors[j]);
+          } else {
+            score = pairwiseSimilarity.computeScore(precomputedScores.getTermId(i),
+                precomputedScores.getTermId(j));
+          }
+          precomputedScores.put(i, j, score);
+        }
+        progressReport.incCurrent();
+      }
+    }
+
+  }
+
+  /**
+   * Count pairs in the upper triangle for a block of rows.
+   *
+   * @param termCount Number of terms.
+   * @param beginRow First row.
+   * @param endRow Row after the last one.
+   * @return Number of pairs <code>(i, j)</code> with <code>beginRow &lt;= i &lt; endRow</code>
+   *         and <code>i &lt;= j &lt; termCount</code>.
+   */
+  static long countPairs(int termCount, int beginRow, int endRow) {
+    return rowOffset(termCount, endRow) - rowOffset(termCount, beginRow);
+  }
+
+  /**
+   * Compute offset of row in flat upper triangle storage.
+   *
+   * @param termCount Number of terms.
+   * @param row The row to compute the offset for, in the range <code>[0, termCount]</code>.
+   * @return Offset of the first entry of <code>row</code>.
+   */
+  static long rowOffset(int termCount, int row) {
+    return (long) row * termCount - ((long) row * (row - 1)) / 2;
+  }
+
   /**
    * Container class for storing precomputed scores efficiently.
    *
+   * <p>
+   * Scores are stored for the upper triangle in row-major order, i.e., the score of
+   * <code>(i, j)</code> with <code>i &lt;= j</code> is at position
+   * <code>rowOffset(i) + j - i</code>. The scores are stored in little-endian byte order in
+   * segments of <code>2^30</code> bytes, either on the heap or mapped read-only from a file, such
+   * that more than 2 GB can be addressed. The byte at offset <code>o</code> is found at position
+   * <code>o % segmentSize</code> of segment <code>o / segmentSize</code>. As the segment size is a
+   * power of two, scores never cross segment boundaries.
+   * </p>
+   *
+   * <p>
+   * The term indices are in ascending order of the {@link TermId}s, such that score files do not
+   * depend on the order of the ontology's terms. Term IDs are resolved to indices through the codes
+   * of a {@link TermIdDictionary}, by default the one of the {@link ImmutableOntology}, and an
+   * <code>int</code> array mapping codes to indices.
+   * </p>
+   *
    * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
    */
-  private static final class PrecomputedScores {
+  static final class PrecomputedScores implements Serializable {
+
+    /** Serial UID for serialization. */
+    private static final long serialVersionUID = 3L;
+
+    /** Default binary logarithm of the segment size in bytes. */
+    static final int DEFAULT_SEGMENT_BITS = 30;
+
+    /** Term IDs, by term index. */
+    private final ImmutableList<TermId> termIds;
+
+    /** Dictionary for resolving term IDs to codes. */
+    private final TermIdDictionary termIdDictionary;
+
+    /** Term index by code in {@link #termIdDictionary}, <code>-1</code> for other terms. */
+    private final int[] indexByCode;
+
+    /** The {@link Quantization} to use. */
+    private final Quantization quantization;
+
+    /** Largest score, the upper bound of the quantized range. */
+    private final double maxScore;
+
+    /** Version of the ontology the scores were computed for. */
+    private final String ontologyVersion;
+
+    /** Hash of the information content values the scores were computed from. */
+    private final long icHash;
+
+    /** Binary logarithm of the segment size in bytes. */
+    private transient int segmentBits;
+
+    /** Segments with the scores, all but the last one with <code>2^segmentBits</code> bytes. */
+    private transient ByteBuffer[] segments;
+
+    /**
+     * Constructor, allocates heap storage.
+     *
+     * @param termIds The term IDs to store the scores for.
+     * @param termIdDictionary {@link TermIdDictionary} for resolving term IDs, e.g., the one of
+     *        the ontology, <code>null</code> for building one from <code>termIds</code>.
+     * @param quantization The {@link Quantization} to use.
+     * @param maxScore Largest score to store.
+     * @param ontologyVersion Version of the ontology.
+     * @param icHash Hash of the information content values.
+     */
+    PrecomputedScores(Collection<TermId> termIds, TermIdDictionary termIdDictionary,
+        Quantization quantization, double maxScore, String ontologyVersion, long icHash) {
+      this(ImmutableList.copyOf(ImmutableSortedSet.copyOf(termIds)), termIdDictionary,
+          quantization, maxScore, ontologyVersion, icHash, DEFAULT_SEGMENT_BITS, null);
+    }
+
+    /**
+     * Constructor.
+     *
+     * @param termIds The term IDs to store the scores for, in the order of their indices.
+     * @param termIdDictionary {@link TermIdDictionary} for resolving term IDs, e.g., the one of
+     *        the ontology, <code>null</code> for building one from <code>termIds</code>; term IDs
+     *        that are not in the dictionary cannot be queried.
+     * @param quantization The {@link Quantization} to use.
+     * @param maxScore Largest score to store.
+     * @param ontologyVersion Version of the ontology.
+     * @param icHash Hash of the information content values.
+     * @param segmentBits Binary logarithm of the segment size in bytes, at least <code>2</code>.
+     * @param segments Segments with the scores, <code>null</code> for allocating heap storage.
+     */
+    PrecomputedScores(ImmutableList<TermId> termIds, TermIdDictionary termIdDictionary,
+        Quantization quantization, double maxScore, String ontologyVersion, long icHash,
+        int segmentBits, ByteBuffer[] segments) {
+      this.termIds = termIds;
+      if (termIdDictionary == null) {
+        termIdDictionary = new TermIdDictionary();
+        for (TermId termId : termIds) {
+          termIdDictionary.intern(termId);
+        }
+        termIdDictionary.freeze();
+      }
+      this.termIdDictionary = termIdDictionary;
+      this.indexByCode = new int[termIdDictionary.size()];
+      Arrays.fill(indexByCode, -1);
+      for (int i = 0; i < termIds.size(); ++i) {
+        final int code = termIdDictionary.codeOf(termIds.get(i));
+        if (code != -1 && code < indexByCode.length) {
+          indexByCode[code] = i;
+        }
+      }
+      this.quantization = quantization;
+      this.maxScore = maxScore;
+      this.ontologyVersion = ontologyVersion;
+      this.icHash = icHash;
+      initStorage(segmentBits, segments);
+    }
+
+    /**
+     * Initialize storage segments.
+     *
+     * @param segmentBits Binary logarithm of the segment size in bytes.
+     * @param segments Segments to use, <code>null</code> for allocating heap storage.
+     */
+    private void initStorage(int segmentBits, ByteBuffer[] segments) {
+      this.segmentBits = segmentBits;
+      if (segments != null) {
+        this.segments = segments;
+        return;
+      }
+
+      final long segmentSize = 1L << segmentBits;
+      final long storedBytes = countStoredBytes();
+      this.segments = new ByteBuffer[(int) ((storedBytes + segmentSize - 1) / segmentSize)];
+      for (int i = 0; i < this.segments.length; ++i) {
+        final int length = (int) Math.min(segmentSize, storedBytes - i * segmentSize);
+        this.segments[i] = ByteBuffer.allocate(length).order(ByteOrder.LITTLE_ENDIAN);
+      }
+    }
+
+    /** @return Number of terms. */
+    public int getTermCount() {
+      return termIds.size();
+    }
+
+    /** @return Number of stored pairs. */
+    public long getPairCount() {
+      return rowOffset(termIds.size(), termIds.size());
+    }
+
+    /** @return Index of the term ID, <code>-1</code> if unknown. */
+    public int indexOf(TermId termId) {
+      final int code = termIdDictionary.codeOf(termId);
+      return (code == -1 || code >= indexByCode.length) ? -1 : indexByCode[code];
+    }
+
+    /** @return Term ID with the given index. */
+    public TermId getTermId(int index) {
+      return termIds.get(index);
+    }
 
-    /** Mapping from term ID to term index. */
-    private final HashMap<TermId, Integer> termIdToIdx;
+    /** @return The {@link Quantization} used. */
+    public Quantization getQuantization() {
+      return quantization;
+    }
 
-    /** Internal storage of the similarity scores as array of floats. */
-    private final float[] data;
+    /** @return Number of bytes used for storing scores. */
+    public long countStoredBytes() {
+      return getPairCount() * quantization.getBytesPerScore();
+    }
+
+    /** Compute byte offset of pair in storage. */
+    private long offset(int lhs, int rhs) {
+      final int i = Math.min(lhs, rhs);
+      final int j = Math.max(lhs, rhs);
+      return (rowOffset(termIds.size(), i) + j - i) * quantization.getBytesPerScore();
+    }
 
-    /** Number of known termIds. */
-    private final int termIdCount;
+    /** @return Segment containing the byte at <code>offset</code>. */
+    private ByteBuffer segment(long offset) {
+      return segments[(int) (offset >>> segmentBits)];
+    }
 
-    PrecomputedScores(Collection<TermId> termIds) {
-      termIdCount = termIds.size();
-      data = new float[termIdCount * termIdCount];
-      termIdToIdx = new HashMap<>(termIdCount);
+    /** @return Position of the byte at <code>offset</code> in its segment. */
+    private int positionInSegment(long offset) {
+      return (int) (offset & ((1L << segmentBits) - 1));
+    }
 
-      int i = 0;
-      for (TermId termId : ImmutableSortedSet.copyOf(termIds)) {
-        termIdToIdx.put(termId, i++);
+    /** Compute quantized value for <code>levels</code> buckets. */
+    private int quantize(double value, int levels) {
+      if (maxScore <= 0.0) {
+        return 0;
       }
+      final long result = Math.round(value / maxScore * levels);
+      return (int) Math.max(0, Math.min(levels, result));
     }
 
-    /** Set score. */
-    public void put(TermId lhs, TermId rhs, double value) {
-      put(lhs, rhs, (float) value);
+    /** Set score by term indices. */
+    public void put(int lhs, int rhs, double value) {
+      final long offset = offset(lhs, rhs);
+      final ByteBuffer segment = segment(offset);
+      final int pos = positionInSegment(offset);
+      switch (quantization) {
+        case FLOAT:
+          segment.putFloat(pos, (float) value);
+          break;
+        case SHORT:
+          segment.putShort(pos, (short) quantize(value, 0xFFFF));
+          break;
+        case BYTE:
+          segment.put(pos, (byte) quantize(value, 0xFF));
+          break;
+        default:
+          throw new IllegalStateException("Unknown quantization " + quantization);
+      }
     }
 
-    /** Set score. */
-    public void put(TermId lhs, TermId rhs, float value) {
-      final int idxLhs = termIdToIdx.get(lhs);
-      final int idxRhs = termIdToIdx.get(rhs);
-      data[idxLhs * termIdCount + idxRhs] = (float) value;
-      data[idxRhs * termIdCount + idxLhs] = (float) value;
+    /** Get score by term indices. */
+    public double get(int lhs, int rhs) {
+      final long offset = offset(lhs, rhs);
+      final ByteBuffer segment = segment(offset);
+      final int pos = positionInSegment(offset);
+      switch (quantization) {
+        case FLOAT:
+          return segment.getFloat(pos);
+        case SHORT:
+          return (segment.getShort(pos) & 0xFFFF) * maxScore / 0xFFFF;
+        case BYTE:
+          return (segment.get(pos) & 0xFF) * maxScore / 0xFF;
+        default:
+          throw new IllegalStateException("Unknown quantization " + quantization);
+      }
     }
 
-    /** Get score. */
-    public float get(TermId lhs, TermId rhs) {
-      final Integer idxLhs = termIdToIdx.get(lhs);
-      final Integer idxRhs = termIdToIdx.get(rhs);
-      if (idxLhs == null || idxRhs == null) {
-        return 0.0f;
+    /** Get score, <code>0.0</code> for unknown terms. */
+    public double get(TermId lhs, TermId rhs) {
+      final int idxLhs = indexOf(lhs);
+      final int idxRhs = indexOf(rhs);
+      if (idxLhs == -1 || idxRhs == -1) {
+        return 0.0;
       } else {
-        return data[idxLhs.intValue() * termIdCount + idxRhs.intValue()];
+        return get(idxLhs, idxRhs);
+      }
+    }
+
+    /**
+     * Write scores to file.
+     *
+     * <p>
+     * The file starts with a header written through {@link DataOutputStream}: magic number, format
+     * version, offset of the score data, ontology version, information content hash, quantization,
+     * maximal score, and the term IDs in the order of their indices. The header is padded to a
+     * multiple of 8 bytes and followed by the scores in little-endian byte order.
+     * </p>
+     *
+     * @param file Path to the file to write to.
+     * @throws IOException on problems with writing.
+     */
+    void write(File file) throws IOException {
+      final ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+      try (DataOutputStream out = new DataOutputStream(headerBytes)) {
+        out.writeUTF(ontologyVersion);
+        out.writeLong(icHash);
+        out.writeUTF(quantization.name());
+        out.writeDouble(maxScore);
+        out.writeInt(termIds.size());
+        for (TermId termId : termIds) {
+          out.writeUTF(termId.getIdWithPrefix());
+        }
+      }
+      final int unpadded = 3 * Integer.BYTES + headerBytes.size();
+      final int dataOffset = (unpadded + 7) / 8 * 8;
+
+      try (RandomAccessFile raf = new RandomAccessFile(file, "rw");
+          FileChannel channel = raf.getChannel()) {
+        raf.setLength(0);
+        final DataOutputStream out = new DataOutputStream(Channels.newOutputStream(channel));
+        out.writeInt(FILE_MAGIC);
+        out.writeInt(FILE_FORMAT_VERSION);
+        out.writeInt(dataOffset);
+        headerBytes.writeTo(out);
+        out.write(new byte[dataOffset - unpadded]);
+        out.flush();
+
+        long segmentOffset = dataOffset;
+        for (ByteBuffer segment : segments) {
+          final ByteBuffer source = segment.duplicate();
+          source.clear();
+          final MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE,
+              segmentOffset, source.remaining());
+          buffer.put(source);
+          buffer.force();
+          segmentOffset += segment.capacity();
+        }
+      }
+    }
+
+    /**
+     * Open scores file written by {@link #write(File)}, mapping the scores into memory.
+     *
+     * @param file Path to the file to read from.
+     * @param termIdDictionary {@link TermIdDictionary} for resolving term IDs, <code>null</code>
+     *        for building one from the file's term IDs.
+     * @return {@link PrecomputedScores} backed by the mapped file.
+     * @throws IOException on problems with reading or if the file is not a valid scores file.
+     */
+    static PrecomputedScores open(File file, TermIdDictionary termIdDictionary)
+        throws IOException {
+      return open(file, termIdDictionary, DEFAULT_SEGMENT_BITS);
+    }
+
+    /**
+     * Open scores file written by {@link #write(File)}, mapping the scores into memory in
+     * segments of the given size.
+     *
+     * @param file Path to the file to read from.
+     * @param termIdDictionary {@link TermIdDictionary} for resolving term IDs, <code>null</code>
+     *        for building one from the file's term IDs.
+     * @param segmentBits Binary logarithm of the segment size in bytes, at least <code>2</code>.
+     * @return {@link PrecomputedScores} backed by the mapped file.
+     * @throws IOException on problems with reading or if the file is not a valid scores file.
+     */
+    static PrecomputedScores open(File file, TermIdDictionary termIdDictionary, int segmentBits)
+        throws IOException {
+      try (RandomAccessFile raf = new RandomAccessFile(file, "r");
+          FileChannel channel = raf.getChannel()) {
+        final DataInputStream in =
+            new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+        if (in.readInt() != FILE_MAGIC) {
+          throw new IOException(file + " is not a precomputed scores file, magic number incorrect");
+        }
+        final int formatVersion = in.readInt();
+        if (formatVersion != FILE_FORMAT_VERSION) {
+          throw new IOException("Unsupported format version " + formatVersion + " in " + file);
+        }
+        final int dataOffset = in.readInt();
+        final String ontologyVersion = in.readUTF();
+        final long icHash = in.readLong();
+        final Quantization quantization = Quantization.valueOf(in.readUTF());
+        final double maxScore = in.readDouble();
+        final int termCount = in.readInt();
+        final ImmutableList.Builder<TermId> termIds = ImmutableList.builder();
+        for (int i = 0; i < termCount; ++i) {
+          // Share the term ID objects with the dictionary where possible.
+          final String termIdString = in.readUTF();
+          final TermId known =
+              (termIdDictionary == null) ? null : termIdDictionary.get(termIdString);
+          termIds.add((known != null) ? known : ImmutableTermId.constructWithPrefix(termIdString));
+        }
+
+        final long dataSize = rowOffset(termCount, termCount) * quantization.getBytesPerScore();
+        if (channel.size() < dataOffset + dataSize) {
+          throw new IOException(file + " is truncated");
+        }
+        final long segmentSize = 1L << segmentBits;
+        final ByteBuffer[] segments =
+            new ByteBuffer[(int) ((dataSize + segmentSize - 1) / segmentSize)];
+        for (int i = 0; i < segments.length; ++i) {
+          final long start = i * segmentSize;
+          segments[i] = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset + start,
+              Math.min(segmentSize, dataSize - start)).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        return new PrecomputedScores(termIds.build(), termIdDictionary, quantization, maxScore,
+            ontologyVersion, icHash, segmentBits, segments);
+      }
+    }
+
+    /** @return Version of the ontology the scores were computed for. */
+    public String getOntologyVersion() {
+      return ontologyVersion;
+    }
+
+    /** @return Hash of the information content values the scores were computed from. */
+    public long getIcHash() {
+      return icHash;
+    }
+
+    /** Write out object, including the scores. */
+    private void writeObject(ObjectOutputStream out) throws IOException {
+      out.defaultWriteObject();
+      final long storedBytes = countStoredBytes();
+      for (long offset = 0; offset < storedBytes; offset += quantization.getBytesPerScore()) {
+        final ByteBuffer segment = segment(offset);
+        final int pos = positionInSegment(offset);
+        switch (quantization) {
+          case FLOAT:
+            out.writeFloat(segment.getFloat(pos));
+            break;
+          case SHORT:
+            out.writeShort(segment.getShort(pos));
+            break;
+          case BYTE:
+            out.writeByte(segment.get(pos));
+            break;
+          default:
+            throw new IllegalStateException("Unknown quantization " + quantization);
+        }
+      }
+    }
+
+    /** Read object, including the scores, into heap storage. */
+    private void readObject(ObjectInputStream in) throws IOException, ClassNotFoundException {
+      in.defaultReadObject();
+      initStorage(DEFAULT_SEGMENT_BITS, null);
+      final long storedBytes = countStoredBytes();
+      for (long offset = 0; offset < storedBytes; offset += quantization.getBytesPerScore()) {
+        final ByteBuffer segment = segment(offset);
+        final int pos = positionInSegment(offset);
+        switch (quantization) {
+          case FLOAT:
+            segment.putFloat(pos, in.readFloat());
+            break;
+          case SHORT:
+            segment.putShort(pos, in.readShort());
+            break;
+          case BYTE:
+            segment.put(pos, in.readByte());
+            break;
+          default:
+            throw new IllegalStateException("Unknown quantization " + quantization);
+        }
       }
     }
 
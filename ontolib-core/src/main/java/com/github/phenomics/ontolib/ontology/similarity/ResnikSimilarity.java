@@ -2,6 +2,7 @@ package com.github.phenomics.ontolib.ontology.similarity;
 
 import java.util.Map;
 
+import com.github.phenomics.ontolib.ontology.algo.InformationContentTable;
 import com.github.phenomics.ontolib.ontology.data.Ontology;
 import com.github.phenomics.ontolib.ontology.data.Term;
 import com.github.phenomics.ontolib.ontology.data.TermId;
@@ -39,6 +40,23 @@ public final class ResnikSimilarity<T extends Term, R extends TermRelation>
     super(new PrecomputingPairwiseResnikSimilarity<T, R>(ontology, termToIc), symmetric);
   }
 
+  /**
+   * Constructor.
+   *
+   * <p>
+   * The internally used {@link PrecomputingPairwiseResnikSimilarity} is constructed from the given
+   * {@link InformationContentTable}.
+   * </p>
+   *
+   * @param ontology {@link Ontology} to base computations on.
+   * @param icTable {@link InformationContentTable} with the information content of each term.
+   * @param symmetric Whether or not to compute score in symmetric fashion.
+   */
+  public ResnikSimilarity(Ontology<T, R> ontology, InformationContentTable icTable,
+      boolean symmetric) {
+    super(new PrecomputingPairwiseResnikSimilarity<T, R>(ontology, icTable), symmetric);
+  }
+
 
   /**
    * Constructor.
@@ -46,7 +64,8 @@ public final class ResnikSimilarity<T extends Term, R extends TermRelation>
    * <p>
    * By passing in the {@link PairwiseSimilarity} explicitely here, an implementation with
    * precomputation can be passed in explicitely, performing the precomputation explicitely earlier
-   * instead of implicitely on object construction.
+   * instead of implicitely on object construction. Precomputed scores can also be loaded from a
+   * file using {@link PrecomputingPairwiseResnikSimilarity#open}.
    * </p>
    *
    * @param pairwiseSimilarity {@link PairwiseSimilarity} to use internally.
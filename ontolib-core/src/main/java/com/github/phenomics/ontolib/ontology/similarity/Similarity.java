@@ -37,4 +37,60 @@ public interface Similarity {
    */
   double computeScore(Collection<TermId> query, Collection<TermId> target);
 
+  /**
+   * Prepare computing scores of one <code>query</code> against many targets.
+   *
+   * <p>
+   * Implementations can override this to preprocess <code>query</code> only once, e.g., for
+   * scoring one query against all objects of a corpus with {@link BatchSimilarityScorer}. The
+   * resulting scores must be identical to the ones from
+   * {@link #computeScore(Collection, Collection)}. The default implementation simply defers to
+   * {@link #computeScore(Collection, Collection)}.
+   * </p>
+   *
+   * @param query Query collection of {@link TermId}s to use
+   * @return {@link PreparedQuery} for computing scores of <code>query</code> against targets.
+   */
+  default PreparedQuery prepareQuery(Collection<TermId> query) {
+    return target -> computeScore(query, target);
+  }
+
+  /**
+   * Similarity computation for a fixed query, as obtained from
+   * {@link Similarity#prepareQuery(Collection)}.
+   *
+   * <p>
+   * Implementations must be safe to use from multiple threads.
+   * </p>
+   */
+  @FunctionalInterface
+  interface PreparedQuery {
+
+    /**
+     * Compute similarity score between the prepared query and <code>target</code>.
+     *
+     * @param target Target collection of {@link TermId}s to use
+     * @return similarity score, as {@link Similarity#computeScore(Collection, Collection)}
+     */
+    double computeScore(Collection<TermId> target);
+
+    /**
+     * Compute cheap upper bound of the score between the prepared query and <code>target</code>.
+     *
+     * <p>
+     * The bound must never be smaller than the result of {@link #computeScore(Collection)} and
+     * should be much cheaper to compute. It is used for skipping targets in
+     * {@link TopKSimilaritySearch}. The default implementation returns
+     * {@link Double#POSITIVE_INFINITY}, i.e., no target can be skipped.
+     * </p>
+     *
+     * @param target Target collection of {@link TermId}s to use
+     * @return upper bound of the similarity score
+     */
+    default double upperBound(Collection<TermId> target) {
+      return Double.POSITIVE_INFINITY;
+    }
+
+  }
+
 }
@@ -1,9 +1,11 @@
 package com.github.phenomics.ontolib.ontology.similarity;
 
+import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
 import com.github.phenomics.ontolib.ontology.data.Ontology;
 import com.github.phenomics.ontolib.ontology.data.Term;
 import com.github.phenomics.ontolib.ontology.data.TermId;
 import com.github.phenomics.ontolib.ontology.data.TermRelation;
+import com.github.phenomics.ontolib.utils.ImmutableSparseBitSet;
 import com.google.common.collect.Sets;
 
 import java.util.Collection;
@@ -78,15 +80,57 @@ public final class TermOverlapSimilarity<T extends Term, R extends TermRelation>
 
   @Override
   public double computeScore(Collection<TermId> query, Collection<TermId> target) {
-    final Set<TermId> termIdsQuery = ontology.getAllAncestorTermIds(query, false);
-    final Set<TermId> termIdsTarget = ontology.getAllAncestorTermIds(target, false);
+    return prepareQuery(query).computeScore(target);
+  }
+
+  @Override
+  public PreparedQuery prepareQuery(Collection<TermId> query) {
+    if (ontology instanceof ImmutableOntology) {
+      final ImmutableOntology<?, ?> immutableOntology = (ImmutableOntology<?, ?>) ontology;
+      final ImmutableSparseBitSet bitsQuery = immutableOntology.getAllAncestorBits(query, false);
+      return new PreparedQuery() {
+        @Override
+        public double computeScore(Collection<TermId> target) {
+          final ImmutableSparseBitSet bitsTarget =
+              immutableOntology.getAllAncestorBits(target, false);
 
-    double overlap = Sets.intersection(termIdsQuery, termIdsTarget).size();
-    if (!normalized) {
-      return overlap;
-    } else {
-      return overlap / Math.min(termIdsQuery.size(), termIdsTarget.size());
+          double overlap = bitsQuery.andCardinality(bitsTarget);
+          if (!normalized) {
+            return overlap;
+          } else {
+            return overlap / Math.min(bitsQuery.cardinality(), bitsTarget.cardinality());
+          }
+        }
+
+        /**
+         * The overlap is at most as large as the smaller set, thus the normalized score cannot be
+         * bounded below <code>1</code> without computing the overlap.
+         */
+        @Override
+        public double upperBound(Collection<TermId> target) {
+          final AncestorCountBounds bounds = new AncestorCountBounds(immutableOntology, target);
+          if (!normalized) {
+            return Math.min(bitsQuery.cardinality(), bounds.getUpper());
+          } else if (bitsQuery.isEmpty() || bounds.getLower() == 0) {
+            return Double.POSITIVE_INFINITY; // score might be NaN
+          } else {
+            return 1.0;
+          }
+        }
+      };
     }
+
+    final Set<TermId> termIdsQuery = ontology.getAllAncestorTermIds(query, false);
+    return target -> {
+      final Set<TermId> termIdsTarget = ontology.getAllAncestorTermIds(target, false);
+
+      double overlap = Sets.intersection(termIdsQuery, termIdsTarget).size();
+      if (!normalized) {
+        return overlap;
+      } else {
+        return overlap / Math.min(termIdsQuery.size(), termIdsTarget.size());
+      }
+    };
   }
 
 }
@@ -0,0 +1,187 @@
+package com.github.phenomics.ontolib.ontology.similarity;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.stream.IntStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.phenomics.ontolib.ontology.data.TermId;
+
+/**
+ * Search for the best scoring "world objects" of a corpus with upper-bound pruning.
+ *
+ * <p>
+ * For each query, a cheap upper bound of the score is computed for each object using
+ * {@link Similarity.PreparedQuery#upperBound(Collection)}. The objects are then scored in
+ * descending order of their bounds and the search stops as soon as the bound of the next object is
+ * below the score of the <code>k</code>-th best object found so far, as none of the remaining
+ * objects can make it into the result. The result is identical to scoring all objects and
+ * selecting the best ones with {@link ObjectScores#topK(int)}.
+ * </p>
+ *
+ * <p>
+ * The bounds are derived from the self-similarity of query and target terms for
+ * {@link ResnikSimilarity} and from the sizes of ancestor sets for {@link JaccardSimilarity} and
+ * {@link TermOverlapSimilarity}. Note that normalized term overlap can only be bounded by
+ * <code>1</code>, so there will be little pruning in this case.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class TopKSimilaritySearch {
+
+  /**
+   * {@link Logger} object to use.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(TopKSimilaritySearch.class);
+
+  /** The {@link Similarity} to use. */
+  private final Similarity similarity;
+
+  /** The object IDs of the corpus. */
+  private final int[] objectIds;
+
+  /** The labels of the corpus objects, parallel to {@link #objectIds}. */
+  private final List<Collection<TermId>> labels;
+
+  /**
+   * Constructor.
+   *
+   * @param similarity The {@link Similarity} to use.
+   * @param objects {@link Map} from "world object" Id to a {@link Collection} of {@link TermId}
+   *        labels.
+   */
+  public TopKSimilaritySearch(Similarity similarity,
+      Map<Integer, ? extends Collection<TermId>> objects) {
+    this.similarity = similarity;
+    this.objectIds = new int[objects.size()];
+    this.labels = new ArrayList<>(objects.size());
+    int i = 0;
+    for (Map.Entry<Integer, ? extends Collection<TermId>> e : objects.entrySet()) {
+      objectIds[i++] = e.getKey();
+      labels.add(e.getValue());
+    }
+  }
+
+  /**
+   * Search for the <code>k</code> best scoring objects.
+   *
+   * @param query Query collection of {@link TermId}s to use.
+   * @param k Maximal number of objects to return.
+   * @return {@link Result} with the best scoring objects in descending order of score, ties
+   *         broken by ascending object ID.
+   */
+  public Result search(Collection<TermId> query, int k) {
+    final int count = objectIds.length;
+    if (k <= 0) {
+      return new Result(new ObjectScores(new int[0], new double[0]), 0, count);
+    }
+
+    final Similarity.PreparedQuery preparedQuery = similarity.prepareQuery(query);
+    final double[] bounds = new double[count];
+    for (int i = 0; i < count; ++i) {
+      bounds[i] = preparedQuery.upperBound(labels.get(i));
+    }
+    final int[] order = IntStream.range(0, count).boxed().sorted((lhs, rhs) -> {
+      final int result = Double.compare(bounds[rhs], bounds[lhs]);
+      return (result != 0) ? result : Integer.compare(objectIds[lhs], objectIds[rhs]);
+    }).mapToInt(Integer::intValue).toArray();
+
+    // Min-heap of positions with the worst of the best k objects on top.
+    final double[] scores = new double[count];
+    final Comparator<Integer> worstFirst = (lhs, rhs) -> {
+      final int result = Double.compare(scores[lhs], scores[rhs]);
+      return (result != 0) ? result : Integer.compare(objectIds[rhs], objectIds[lhs]);
+    };
+    final PriorityQueue<Integer> best = new PriorityQueue<>(k + 1, worstFirst);
+
+    int numScored = 0;
+    for (int pos : order) {
+      if (best.size() == k && Double.compare(bounds[pos], scores[best.peek()]) < 0) {
+        break;
+      }
+      scores[pos] = preparedQuery.computeScore(labels.get(pos));
+      ++numScored;
+      best.add(pos);
+      if (best.size() > k) {
+        best.poll();
+      }
+    }
+
+    final int[] resultIds = new int[best.size()];
+    final double[] resultScores = new double[best.size()];
+    int i = 0;
+    for (int pos : best) {
+      resultIds[i] = objectIds[pos];
+      resultScores[i++] = scores[pos];
+    }
+    final Result result =
+        new Result(new ObjectScores(resultIds, resultScores).topK(k), numScored, count - numScored);
+    LOGGER.debug("Top-{} search scored {} and pruned {} of {} objects",
+        new Object[] {k, numScored, result.getNumPruned(), count});
+    return result;
+  }
+
+  /**
+   * Result of a {@link TopKSimilaritySearch}.
+   */
+  public static final class Result {
+
+    /** The best scoring objects. */
+    private final ObjectScores objectScores;
+
+    /** Number of objects that were scored. */
+    private final int numScored;
+
+    /** Number of objects that were skipped because of their upper bound. */
+    private final int numPruned;
+
+    /**
+     * Constructor.
+     *
+     * @param objectScores The best scoring objects.
+     * @param numScored Number of objects that were scored.
+     * @param numPruned Number of objects that were skipped.
+     */
+    Result(ObjectScores objectScores, int numScored, int numPruned) {
+      this.objectScores = objectScores;
+      this.numScored = numScored;
+      this.numPruned = numPruned;
+    }
+
+    /**
+     * @return The best scoring objects, in descending order of score.
+     */
+    public ObjectScores getObjectScores() {
+      return objectScores;
+    }
+
+    /**
+     * @return Number of objects that were scored.
+     */
+    public int getNumScored() {
+      return numScored;
+    }
+
+    /**
+     * @return Number of objects that were skipped because of their upper bound.
+     */
+    public int getNumPruned() {
+      return numPruned;
+    }
+
+    @Override
+    public String toString() {
+      return "Result [objectScores=" + objectScores + ", numScored=" + numScored + ", numPruned="
+          + numPruned + "]";
+    }
+
+  }
+
+}
@@ -0,0 +1,190 @@
+package com.github.phenomics.ontolib.ser;
+
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.zip.CRC32;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * {@link InputStream} for reading data written by {@link BlockCompressionOutputStream}.
+ *
+ * <p>
+ * The CRC32 checksum of the uncompressed data is verified when reaching the end of the stream, so
+ * callers must read to the end (i.e., until <code>-1</code> is returned) for corruption to be
+ * detected.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class BlockCompressionInputStream extends InputStream {
+
+  /** Largest accepted block size, protects against huge allocations for corrupt files. */
+  private static final int MAX_BLOCK_SIZE = 64 * 1024 * 1024;
+
+  /** The stream to read the blocks from. */
+  private final DataInputStream in;
+
+  /** The compression method. */
+  private final Compression.Method method;
+
+  /** Checksum of all uncompressed data. */
+  private final CRC32 checksum = new CRC32();
+
+  /** The {@link Inflater} to use, <code>null</code> if not inflating. */
+  private final Inflater inflater;
+
+  /** Buffer for the current block. */
+  private byte[] block = new byte[0];
+
+  /** Buffer for the compressed block. */
+  private byte[] compressed = new byte[0];
+
+  /** Number of bytes in {@link #block}. */
+  private int count = 0;
+
+  /** Read position in {@link #block}. */
+  private int pos = 0;
+
+  /** Number of uncompressed bytes read so far. */
+  private long rawByteCount = 0;
+
+  /** Whether or not the end of the stream has been reached. */
+  private boolean eof = false;
+
+  /**
+   * Constructor.
+   *
+   * @param in The {@link InputStream} to read from.
+   * @param method The compression method the data was written with.
+   */
+  BlockCompressionInputStream(InputStream in, Compression.Method method) {
+    this.in = new DataInputStream(in);
+    this.method = method;
+    this.inflater = (method == Compression.Method.DEFLATE) ? new Inflater() : null;
+  }
+
+  @Override
+  public int read() throws IOException {
+    if (pos == count && !readBlock()) {
+      return -1;
+    }
+    return block[pos++] & 0xff;
+  }
+
+  @Override
+  public int read(byte[] b, int off, int len) throws IOException {
+    if (len == 0) {
+      return 0;
+    }
+    if (pos == count && !readBlock()) {
+      return -1;
+    }
+    final int n = Math.min(len, count - pos);
+    System.arraycopy(block, pos, b, off, n);
+    pos += n;
+    return n;
+  }
+
+  @Override
+  public int available() {
+    return count - pos;
+  }
+
+  /**
+   * Read the next block.
+   *
+   * @return <code>false</code> if the end of the stream has been reached.
+   * @throws IOException on problems with reading, corrupt data, or checksum mismatch.
+   */
+  private boolean readBlock() throws IOException {
+    if (eof) {
+      return false;
+    }
+    final int rawLength = in.readInt();
+    if (rawLength == 0) {
+      final int expected = in.readInt();
+      if (expected != (int) checksum.getValue()) {
+        throw new IOException("Checksum mismatch, data is corrupt");
+      }
+      eof = true;
+      if (inflater != null) {
+        inflater.end();
+      }
+      return false;
+    }
+    final int storedLength = in.readInt();
+    if (rawLength < 0 || rawLength > MAX_BLOCK_SIZE || storedLength <= 0
+        || storedLength > rawLength) {
+      throw new IOException("Invalid block header, data is corrupt");
+    }
+    if (block.length < rawLength) {
+      block = new byte[rawLength];
+    }
+
+    if (storedLength == rawLength) {
+      in.readFully(block, 0, rawLength);
+    } else {
+      if (compressed.length < storedLength) {
+        compressed = new byte[storedLength];
+      }
+      in.readFully(compressed, 0, storedLength);
+      decompressBlock(storedLength, rawLength);
+    }
+
+    checksum.update(block, 0, rawLength);
+    rawByteCount += rawLength;
+    count = rawLength;
+    pos = 0;
+    return true;
+  }
+
+  /**
+   * Decompress {@link #compressed} into {@link #block}.
+   */
+  private void decompressBlock(int storedLength, int rawLength) throws IOException {
+    switch (method) {
+      case DEFLATE:
+        inflater.reset();
+        inflater.setInput(compressed, 0, storedLength);
+        try {
+          int length = 0;
+          while (length < rawLength && !inflater.finished()) {
+            final int n = inflater.inflate(block, length, rawLength - length);
+            if (n == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+              break;
+            }
+            length += n;
+          }
+          if (length != rawLength || !inflater.finished()) {
+            throw new IOException("Corrupt deflate block");
+          }
+        } catch (DataFormatException e) {
+          throw new IOException("Corrupt deflate block", e);
+        }
+        break;
+      case LZ:
+        LzCompressor.decompress(compressed, storedLength, block, rawLength);
+        break;
+      default:
+        throw new IOException("Compressed block in uncompressed data");
+    }
+  }
+
+  /**
+   * @return Number of uncompressed bytes read so far.
+   */
+  public long getRawByteCount() {
+    return rawByteCount;
+  }
+
+  @Override
+  public void close() throws IOException {
+    if (inflater != null && !eof) {
+      inflater.end();
+    }
+    in.close();
+  }
+
+}
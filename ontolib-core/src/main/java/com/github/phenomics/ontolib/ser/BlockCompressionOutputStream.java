@@ -0,0 +1,194 @@
+package com.github.phenomics.ontolib.ser;
+
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+
+/**
+ * {@link OutputStream} that buffers data in blocks and writes each block compressed.
+ *
+ * <p>
+ * Each block is written as its uncompressed length, its stored length, and the stored bytes. Blocks
+ * that do not become smaller by compression are stored as-is, which is indicated by equal lengths.
+ * The stream is terminated by a length of <code>0</code> followed by the CRC32 checksum of all
+ * uncompressed data, which is verified by {@link BlockCompressionInputStream}.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class BlockCompressionOutputStream extends OutputStream {
+
+  /** Default number of uncompressed bytes per block. */
+  static final int DEFAULT_BLOCK_SIZE = 1024 * 1024;
+
+  /** The stream to write the blocks to. */
+  private final DataOutputStream out;
+
+  /** The compression setting. */
+  private final Compression compression;
+
+  /** Buffer for the current block. */
+  private final byte[] block;
+
+  /** Buffer for the compressed block. */
+  private final byte[] compressed;
+
+  /** Checksum of all uncompressed data. */
+  private final CRC32 checksum = new CRC32();
+
+  /** The {@link Deflater} to use, <code>null</code> if not deflating. */
+  private final Deflater deflater;
+
+  /** The {@link LzCompressor} to use, <code>null</code> if not using LZ compression. */
+  private final LzCompressor lzCompressor;
+
+  /** Number of bytes in {@link #block}. */
+  private int count = 0;
+
+  /** Number of uncompressed bytes written so far. */
+  private long rawByteCount = 0;
+
+  /** Whether or not {@link #finish()} has been called. */
+  private boolean finished = false;
+
+  /**
+   * Constructor.
+   *
+   * @param out The {@link OutputStream} to write to.
+   * @param compression The compression setting.
+   * @param blockSize Number of uncompressed bytes per block.
+   */
+  BlockCompressionOutputStream(OutputStream out, Compression compression, int blockSize) {
+    this.out = new DataOutputStream(out);
+    this.compression = compression;
+    this.block = new byte[blockSize];
+    switch (compression.getMethod()) {
+      case DEFLATE:
+        this.deflater = new Deflater(compression.getLevel());
+        this.lzCompressor = null;
+        this.compressed = new byte[blockSize];
+        break;
+      case LZ:
+        this.deflater = null;
+        this.lzCompressor = new LzCompressor();
+        this.compressed = new byte[LzCompressor.maxCompressedLength(blockSize)];
+        break;
+      default:
+        this.deflater = null;
+        this.lzCompressor = null;
+        this.compressed = null;
+    }
+  }
+
+  @Override
+  public void write(int b) throws IOException {
+    if (count == block.length) {
+      writeBlock();
+    }
+    block[count++] = (byte) b;
+  }
+
+  @Override
+  public void write(byte[] b, int off, int len) throws IOException {
+    while (len > 0) {
+      if (count == block.length) {
+        writeBlock();
+      }
+      final int n = Math.min(len, block.length - count);
+      System.arraycopy(b, off, block, count, n);
+      count += n;
+      off += n;
+      len -= n;
+    }
+  }
+
+  /**
+   * Write out the current block, if any.
+   *
+   * @throws IOException on problems with writing.
+   */
+  private void writeBlock() throws IOException {
+    if (count == 0) {
+      return;
+    }
+    checksum.update(block, 0, count);
+    rawByteCount += count;
+
+    final int compressedLength = compressBlock();
+    out.writeInt(count);
+    if (compressedLength < 0) {
+      out.writeInt(count);
+      out.write(block, 0, count);
+    } else {
+      out.writeInt(compressedLength);
+      out.write(compressed, 0, compressedLength);
+    }
+    count = 0;
+  }
+
+  /**
+   * Compress the current block into {@link #compressed}.
+   *
+   * @return Compressed length, <code>-1</code> if the block is to be stored uncompressed.
+   */
+  private int compressBlock() {
+    switch (compression.getMethod()) {
+      case DEFLATE:
+        // Only accept output that is strictly smaller than the input.
+        final int limit = count - 1;
+        deflater.reset();
+        deflater.setInput(block, 0, count);
+        deflater.finish();
+        int length = 0;
+        while (!deflater.finished() && length < limit) {
+          length += deflater.deflate(compressed, length, limit - length);
+        }
+        return deflater.finished() ? length : -1;
+      case LZ:
+        final int lzLength = lzCompressor.compress(block, count, compressed);
+        return (lzLength < count) ? lzLength : -1;
+      default:
+        return -1;
+    }
+  }
+
+  /**
+   * Write out the last block and the terminating checksum, without closing the underlying stream.
+   *
+   * @throws IOException on problems with writing.
+   */
+  public void finish() throws IOException {
+    if (finished) {
+      return;
+    }
+    writeBlock();
+    out.writeInt(0);
+    out.writeInt((int) checksum.getValue());
+    out.flush();
+    if (deflater != null) {
+      deflater.end();
+    }
+    finished = true;
+  }
+
+  @Override
+  public void flush() throws IOException {
+    out.flush();
+  }
+
+  @Override
+  public void close() throws IOException {
+    finish();
+    out.close();
+  }
+
+  /**
+   * @return Number of uncompressed bytes written to completed blocks.
+   */
+  public long getRawByteCount() {
+    return rawByteCount;
+  }
+
+}
@@ -0,0 +1,88 @@
+package com.github.phenomics.ontolib.ser;
+
+import java.util.zip.Deflater;
+
+/**
+ * Compression setting for {@link DataSerializer}.
+ *
+ * <p>
+ * Data is compressed in independent blocks (see {@link BlockCompressionOutputStream}), either not
+ * at all, with {@link Deflater} at a given level, or with the in-tree LZ codec, which is several
+ * times faster than deflate at a lower compression ratio.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class Compression {
+
+  /**
+   * Enumeration of compression methods; the ordinal is stored in files, only append.
+   */
+  public enum Method {
+    /** Store blocks uncompressed. */
+    NONE,
+    /** Compress blocks with {@link Deflater}. */
+    DEFLATE,
+    /** Compress blocks with the in-tree LZ codec. */
+    LZ;
+  }
+
+  /** No compression. */
+  public static final Compression NONE = new Compression(Method.NONE, 0);
+
+  /** Fast LZ compression. */
+  public static final Compression LZ = new Compression(Method.LZ, 0);
+
+  /** Compression method. */
+  private final Method method;
+
+  /** Compression level, only used for {@link Method#DEFLATE}. */
+  private final int level;
+
+  /**
+   * Constructor.
+   *
+   * @param method Compression method.
+   * @param level Compression level.
+   */
+  private Compression(Method method, int level) {
+    this.method = method;
+    this.level = level;
+  }
+
+  /**
+   * Construct deflate compression setting.
+   *
+   * @param level Compression level from <code>1</code> (fastest) to <code>9</code> (best), or
+   *        {@link Deflater#DEFAULT_COMPRESSION}.
+   * @return {@link Compression} using {@link Deflater} with the given <code>level</code>.
+   * @throws IllegalArgumentException if <code>level</code> is invalid.
+   */
+  public static Compression deflate(int level) {
+    if ((level < Deflater.BEST_SPEED || level > Deflater.BEST_COMPRESSION)
+        && level != Deflater.DEFAULT_COMPRESSION) {
+      throw new IllegalArgumentException("Invalid deflate level " + level);
+    }
+    return new Compression(Method.DEFLATE, level);
+  }
+
+  /**
+   * @return The compression method.
+   */
+  public Method getMethod() {
+    return method;
+  }
+
+  /**
+   * @return The compression level, only meaningful for {@link Method#DEFLATE}.
+   */
+  public int getLevel() {
+    return level;
+  }
+
+  @Override
+  public String toString() {
+    return "Compression [method=" + method + ", level=" + level + "]";
+  }
+
+}
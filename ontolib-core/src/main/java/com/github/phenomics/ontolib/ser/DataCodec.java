@@ -0,0 +1,54 @@
+package com.github.phenomics.ontolib.ser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+/**
+ * Interface for encoding objects to and decoding them from a binary stream in
+ * {@link DataSerializer}.
+ *
+ * <p>
+ * The name of the codec is stored in the file header, so it must not change once files have been
+ * written with it. On saving, {@link DataSerializer} uses the first codec that can encode the
+ * object.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public interface DataCodec {
+
+  /**
+   * @return Name of the codec, stored in the file header.
+   */
+  String getName();
+
+  /**
+   * Query whether this codec can encode an object.
+   *
+   * @param data The object to check.
+   * @return <code>true</code> if <code>data</code> can be passed to
+   *         {@link #encode(Object, DataOutputStream)}.
+   */
+  boolean canEncode(Object data);
+
+  /**
+   * Encode object.
+   *
+   * @param data The object to encode, {@link #canEncode(Object)} must be <code>true</code>.
+   * @param out The {@link DataOutputStream} to write to.
+   * @throws IOException on problems with writing.
+   */
+  void encode(Object data, DataOutputStream out) throws IOException;
+
+  /**
+   * Decode object.
+   *
+   * @param in The {@link DataInputStream} to read from.
+   * @return The decoded object.
+   * @throws IOException on problems with reading.
+   * @throws SerializationException if the data is invalid.
+   */
+  Object decode(DataInputStream in) throws IOException, SerializationException;
+
+}
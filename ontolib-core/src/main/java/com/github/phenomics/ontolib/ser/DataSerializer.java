@@ -1,21 +1,37 @@
 package com.github.phenomics.ontolib.ser;
 
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.ObjectInputStream;
-import java.io.ObjectOutputStream;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Properties;
 import java.util.zip.GZIPInputStream;
-import java.util.zip.GZIPOutputStream;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import com.google.common.collect.ImmutableList;
+
 /**
  * Manager for serializing and deserializing objects.
  *
+ * <p>
+ * Files start with the magic bytes, followed by a header with the library version, the name of
+ * the {@link DataCodec} and the {@link Compression.Method} used. The codec's output is written in
+ * compressed blocks terminated by a CRC32 checksum (see {@link BlockCompressionOutputStream}). By
+ * default, the library's own types are written with hand-written binary codecs and all other
+ * objects with Java serialization. Files written by earlier versions (GZIP-compressed Java
+ * serialization) can still be loaded.
+ * </p>
+ *
  * @author <a href="mailto:manuel.holtgrewe@charite.de">Manuel Holtgrewe</a>
  */
 public final class DataSerializer {
@@ -23,6 +39,15 @@ public final class DataSerializer {
   /** Logger object to use */
   private final Logger LOGGER = LoggerFactory.getLogger(this.getClass());
 
+  /** Marker after the magic bytes identifying the codec-based file format ("OLDS"). */
+  private static final int FORMAT_MARKER = 0x4f4c4453;
+
+  /** Version of the codec-based file format. */
+  private static final int FORMAT_VERSION = 1;
+
+  /** Size of the file I/O buffers. */
+  private static final int BUFFER_SIZE = 64 * 1024;
+
   /** Path to file to serialize to or deserialize from */
   private final String filename;
 
@@ -32,6 +57,12 @@ public final class DataSerializer {
   /** Minimal supported version of Jannovar in this version */
   private final String minVersion;
 
+  /** Compression to use for saving. */
+  private final Compression compression;
+
+  /** Codecs to use, the first one that can encode an object is used for saving. */
+  private final ImmutableList<DataCodec> codecs;
+
   /**
    * @return Version string loaded from {@code /project.properties}.
    */
@@ -49,14 +80,56 @@ public final class DataSerializer {
   /**
    * Initialize the (de)serializer with the path to the file to load/save.
    *
+   * <p>
+   * Uses {@link Compression#LZ} and the {@link #defaultCodecs()}.
+   * </p>
+   *
    * @param filename path to the file to deserialize from or serialize to
    * @param magicBytes magic bytes to expect at beginning of file
    * @param minVersion String with minimal
    */
   public DataSerializer(byte[] magicBytes, String minVersion, String filename) {
+    this(magicBytes, minVersion, filename, Compression.LZ);
+  }
+
+  /**
+   * Initialize the (de)serializer with the path to the file to load/save and compression.
+   *
+   * @param filename path to the file to deserialize from or serialize to
+   * @param magicBytes magic bytes to expect at beginning of file
+   * @param minVersion String with minimal
+   * @param compression {@link Compression} to use for saving
+   */
+  public DataSerializer(byte[] magicBytes, String minVersion, String filename,
+      Compression compression) {
+    this(magicBytes, minVersion, filename, compression, defaultCodecs());
+  }
+
+  /**
+   * Initialize the (de)serializer with the path to the file to load/save, compression, and codecs.
+   *
+   * @param filename path to the file to deserialize from or serialize to
+   * @param magicBytes magic bytes to expect at beginning of file
+   * @param minVersion String with minimal
+   * @param compression {@link Compression} to use for saving
+   * @param codecs {@link DataCodec}s to use, in order of preference for saving
+   */
+  public DataSerializer(byte[] magicBytes, String minVersion, String filename,
+      Compression compression, List<? extends DataCodec> codecs) {
     this.magicBytes = magicBytes;
     this.minVersion = minVersion;
     this.filename = filename;
+    this.compression = compression;
+    this.codecs = ImmutableList.copyOf(codecs);
+  }
+
+  /**
+   * @return The default {@link DataCodec}s: binary codecs for ontologies, information content
+   *         tables, and score distributions, followed by Java serialization for all other objects.
+   */
+  public static List<DataCodec> defaultCodecs() {
+    return ImmutableList.of(new OntologySnapshotCodec(), new InformationContentTableCodec(),
+        new ScoreDistributionCodec(), new JavaSerializationCodec());
   }
 
   /**
@@ -66,31 +139,54 @@ public final class DataSerializer {
    * @throws SerializationException on problems with the serialization
    */
   public void save(Object data) throws SerializationException {
-    LOGGER.info("Attempting serialization to {}", new Object[] {filename});
+    final DataCodec codec = codecFor(data);
+    LOGGER.info("Attempting serialization to {} using codec {} and {}",
+        new Object[] {filename, codec.getName(), compression});
     final long startTime = System.nanoTime();
 
+    final long rawByteCount;
     try (FileOutputStream fos = new FileOutputStream(filename)) {
-      // write magic bytes at top of file (before compression)
-      fos.write(magicBytes);
-      fos.flush();
-      try (GZIPOutputStream gzos = new GZIPOutputStream(fos);
-          ObjectOutputStream oos = new ObjectOutputStream(gzos)) {
-        // Write version
-        final String version = getVersion();
-        oos.writeObject(version);
-        // Write actual data
-        oos.writeObject(data);
-        // Make sure everything is written out.
-        oos.flush();
-        gzos.flush();
-        fos.flush();
-      }
-    } catch (Exception e) {
+      final DataOutputStream out =
+          new DataOutputStream(new BufferedOutputStream(fos, BUFFER_SIZE));
+      // write magic bytes and header at top of file (before compression)
+      out.write(magicBytes);
+      out.writeInt(FORMAT_MARKER);
+      out.writeInt(FORMAT_VERSION);
+      out.writeUTF(getVersion());
+      out.writeUTF(codec.getName());
+      out.writeByte(compression.getMethod().ordinal());
+
+      // Write actual data
+      final BlockCompressionOutputStream blockOut = new BlockCompressionOutputStream(out,
+          compression, BlockCompressionOutputStream.DEFAULT_BLOCK_SIZE);
+      final DataOutputStream dataOut = new DataOutputStream(blockOut);
+      codec.encode(data, dataOut);
+      dataOut.flush();
+      // Make sure everything is written out.
+      blockOut.finish();
+      rawByteCount = blockOut.getRawByteCount();
+    } catch (IOException e) {
       throw new SerializationException("Could not serialize data file.", e);
     }
 
-    LOGGER.info("Serialization took {} sec.",
-        new Object[] {(System.nanoTime() - startTime) / 1_000_000_000.0});
+    logThroughput("Serialization", rawByteCount, startTime);
+  }
+
+  /**
+   * Select codec for saving.
+   *
+   * @param data The object to save.
+   * @return The first {@link DataCodec} that can encode <code>data</code>.
+   * @throws SerializationException if there is no such codec.
+   */
+  private DataCodec codecFor(Object data) throws SerializationException {
+    for (DataCodec codec : codecs) {
+      if (codec.canEncode(data)) {
+        return codec;
+      }
+    }
+    throw new SerializationException("No codec for serializing "
+        + ((data == null) ? "null" : data.getClass().getName()));
   }
 
   /**
@@ -103,32 +199,151 @@ public final class DataSerializer {
     LOGGER.info("Attempting deserialization from {}", new Object[] {filename});
     final long startTime = System.nanoTime();
     final Object result;
+    long rawByteCount = -1;
 
-    try (FileInputStream fileIn = new FileInputStream(filename)) {
+    try (InputStream fileIn = new BufferedInputStream(new FileInputStream(filename), BUFFER_SIZE)) {
       // Check magic bytes at top of file
+      final DataInputStream in = new DataInputStream(fileIn);
       final byte[] word = new byte[magicBytes.length];
-      fileIn.read(word);
+      in.readFully(word);
       if (!Arrays.equals(word, magicBytes)) {
         throw new SerializationException(
             filename + " does not look like a data file, magic number incorrect!");
       }
-      try (GZIPInputStream gzIn = new GZIPInputStream(fileIn);
-          ObjectInputStream in = new ObjectInputStream(gzIn)) {
-        final String dbVersion = (String) in.readObject();
-        final VersionComparator comp = new VersionComparator();
-        if (comp.compare(dbVersion, minVersion) < 0) {
-          throw new SerializationException(
-              filename + " was created by " + dbVersion + " but we need at least " + minVersion);
+
+      // Files written before the introduction of codecs directly continue with GZIP data.
+      fileIn.mark(Short.BYTES);
+      final boolean isGzip = (fileIn.read() == 0x1f && fileIn.read() == 0x8b);
+      fileIn.reset();
+      if (isGzip) {
+        LOGGER.info("Reading file with Java serialization and GZIP compression");
+        result = loadLegacy(fileIn);
+      } else {
+        checkHeader(in);
+        final DataCodec codec = codecNamed(in.readUTF());
+        final Compression.Method method = readCompressionMethod(in);
+        LOGGER.info("Reading file with codec {} and compression {}",
+            new Object[] {codec.getName(), method});
+        final BlockCompressionInputStream blockIn = new BlockCompressionInputStream(in, method);
+        result = codec.decode(new DataInputStream(blockIn));
+        // Read to the end for verifying the checksum.
+        if (blockIn.read() != -1) {
+          throw new SerializationException(filename + " has trailing data after the object");
         }
-        result = in.readObject();
+        rawByteCount = blockIn.getRawByteCount();
       }
-    } catch (Exception e) {
+    } catch (IOException e) {
       throw new SerializationException("Could not deserialize data from file", e);
     }
 
-    LOGGER.info("Done with deserialization, took {} sec.",
-        new Object[] {(System.nanoTime() - startTime) / 1_000_000_000.0});
+    logThroughput("Deserialization", rawByteCount, startTime);
     return result;
   }
 
+  /**
+   * Check format marker and version of file written with codecs.
+   *
+   * @param in The {@link DataInputStream} to read from, positioned after the magic bytes.
+   * @throws IOException on problems with reading.
+   * @throws SerializationException if the header is invalid or the version too old.
+   */
+  private void checkHeader(DataInputStream in) throws IOException, SerializationException {
+    if (in.readInt() != FORMAT_MARKER) {
+      throw new SerializationException(filename + " has an unknown file format");
+    }
+    final int formatVersion = in.readInt();
+    if (formatVersion != FORMAT_VERSION) {
+      throw new SerializationException(
+          filename + " has unsupported file format version " + formatVersion);
+    }
+    checkVersion(in.readUTF());
+  }
+
+  /**
+   * Load file written before the introduction of codecs, with Java serialization and GZIP.
+   *
+   * @param in The {@link InputStream} to read from, positioned after the magic bytes.
+   * @return object yielded by deserialization
+   * @throws IOException on problems with reading.
+   * @throws SerializationException if the version is too old or the class cannot be found.
+   */
+  private Object loadLegacy(InputStream in) throws IOException, SerializationException {
+    try (GZIPInputStream gzIn = new GZIPInputStream(in, BUFFER_SIZE);
+        ObjectInputStream objIn = new ObjectInputStream(new BufferedInputStream(gzIn))) {
+      checkVersion((String) objIn.readObject());
+      return objIn.readObject();
+    } catch (ClassNotFoundException e) {
+      throw new SerializationException("Could not find class of serialized object", e);
+    }
+  }
+
+  /**
+   * Check version the file was created by.
+   *
+   * @param dbVersion The version the file was created by.
+   * @throws SerializationException if <code>dbVersion</code> is smaller than the minimal version.
+   */
+  private void checkVersion(String dbVersion) throws SerializationException {
+    final VersionComparator comp = new VersionComparator();
+    if (comp.compare(dbVersion, minVersion) < 0) {
+      throw new SerializationException(
+          filename + " was created by " + dbVersion + " but we need at least " + minVersion);
+    }
+  }
+
+  /**
+   * Select codec for loading.
+   *
+   * @param name Name of the codec from the file header.
+   * @return The {@link DataCodec} with the given <code>name</code>.
+   * @throws SerializationException if there is no such codec.
+   */
+  private DataCodec codecNamed(String name) throws SerializationException {
+    for (DataCodec codec : codecs) {
+      if (codec.getName().equals(name)) {
+        return codec;
+      }
+    }
+    throw new SerializationException(filename + " was written with unknown codec " + name);
+  }
+
+  /**
+   * Read compression method from file header.
+   *
+   * @param in The {@link DataInputStream} to read from.
+   * @return The {@link Compression.Method} used in the file.
+   * @throws IOException on problems with reading.
+   * @throws SerializationException if the method is unknown.
+   */
+  private Compression.Method readCompressionMethod(DataInputStream in)
+      throws IOException, SerializationException {
+    final int ordinal = in.readUnsignedByte();
+    if (ordinal >= Compression.Method.values().length) {
+      throw new SerializationException(filename + " uses unknown compression method " + ordinal);
+    }
+    return Compression.Method.values()[ordinal];
+  }
+
+  /**
+   * Log elapsed time and throughput.
+   *
+   * @param what Description of the operation.
+   * @param rawByteCount Number of uncompressed bytes processed, <code>-1</code> if unknown.
+   * @param startTime Start time, as returned by {@link System#nanoTime()}.
+   */
+  private void logThroughput(String what, long rawByteCount, long startTime) {
+    final double seconds = (System.nanoTime() - startTime) / 1_000_000_000.0;
+    final double fileMegabytes = new File(filename).length() / (1024.0 * 1024.0);
+    if (rawByteCount < 0) {
+      LOGGER.info("{} took {} sec ({} MB/s of file data).", new Object[] {what,
+          String.format("%.3f", seconds), String.format("%.1f", fileMegabytes / seconds)});
+    } else {
+      final double rawMegabytes = rawByteCount / (1024.0 * 1024.0);
+      LOGGER.info("{} of {} MB ({} MB in file) took {} sec ({} MB/s).",
+          new Object[] {what, String.format("%.1f", rawMegabytes),
+              String.format("%.1f", fileMegabytes), String.format("%.3f", seconds),
+              String.format("%.1f", rawMegabytes / seconds)});
+    }
+  }
+
 }
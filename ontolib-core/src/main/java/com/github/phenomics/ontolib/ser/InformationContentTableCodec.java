@@ -0,0 +1,59 @@
+package com.github.phenomics.ontolib.ser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.github.phenomics.ontolib.ontology.algo.InformationContentTable;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermId;
+import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.google.common.collect.ImmutableMap;
+
+/**
+ * {@link DataCodec} for {@link InformationContentTable} objects.
+ *
+ * <p>
+ * Writes the number of terms followed by term ID and information content of each term.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class InformationContentTableCodec implements DataCodec {
+
+  /** Name of the codec. */
+  public static final String NAME = "information-content-table";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public boolean canEncode(Object data) {
+    return data instanceof InformationContentTable;
+  }
+
+  @Override
+  public void encode(Object data, DataOutputStream out) throws IOException {
+    final InformationContentTable table = (InformationContentTable) data;
+    out.writeInt(table.size());
+    for (int i = 0; i < table.size(); ++i) {
+      out.writeUTF(table.termIdAt(i).getIdWithPrefix());
+      out.writeDouble(table.get(i));
+    }
+  }
+
+  @Override
+  public Object decode(DataInputStream in) throws IOException, SerializationException {
+    final int size = in.readInt();
+    if (size < 0) {
+      throw new SerializationException("Invalid information content table size " + size);
+    }
+    final ImmutableMap.Builder<TermId, Double> builder = ImmutableMap.builder();
+    for (int i = 0; i < size; ++i) {
+      builder.put(ImmutableTermId.constructWithPrefix(in.readUTF()), in.readDouble());
+    }
+    return InformationContentTable.copyOf(builder.build());
+  }
+
+}
@@ -0,0 +1,46 @@
+package com.github.phenomics.ontolib.ser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+
+/**
+ * {@link DataCodec} using Java serialization, the fallback for all {@link Serializable} objects.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class JavaSerializationCodec implements DataCodec {
+
+  /** Name of the codec. */
+  public static final String NAME = "java";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public boolean canEncode(Object data) {
+    return data instanceof Serializable;
+  }
+
+  @Override
+  public void encode(Object data, DataOutputStream out) throws IOException {
+    final ObjectOutputStream oos = new ObjectOutputStream(out);
+    oos.writeObject(data);
+    oos.flush();
+  }
+
+  @Override
+  public Object decode(DataInputStream in) throws IOException, SerializationException {
+    try {
+      return new ObjectInputStream(in).readObject();
+    } catch (ClassNotFoundException e) {
+      throw new SerializationException("Could not find class of serialized object", e);
+    }
+  }
+
+}
@@ -0,0 +1,178 @@
+package com.github.phenomics.ontolib.ser;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Fast LZ77-style block compression, for {@link Compression#LZ}.
+ *
+ * <p>
+ * The format follows the LZ4 block format: a sequence consists of a token byte with the literal
+ * length in the upper and the match length minus four in the lower four bits, optional extension
+ * bytes for lengths of 15 and more, the literals, and the little-endian 16 bit offset of the match,
+ * followed by optional extension bytes of the match length. The last sequence only consists of
+ * literals. Matches are found using a hash table of 4 byte prefixes without chaining, which trades
+ * compression ratio for speed.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class LzCompressor {
+
+  /** Minimal length of a match. */
+  private static final int MIN_MATCH = 4;
+
+  /** Maximal offset of a match. */
+  private static final int MAX_OFFSET = 0xffff;
+
+  /** Number of bits in the hash value. */
+  private static final int HASH_BITS = 14;
+
+  /** Hash table with last positions of 4 byte prefixes, reused between calls. */
+  private final int[] table = new int[1 << HASH_BITS];
+
+  /**
+   * Compute maximal size of compressed data.
+   *
+   * @param length Length of the uncompressed data.
+   * @return Size that the output buffer of {@link #compress(byte[], int, byte[])} must have.
+   */
+  static int maxCompressedLength(int length) {
+    return length + length / 255 + 16;
+  }
+
+  /**
+   * Compress data.
+   *
+   * @param src Buffer with the data to compress.
+   * @param srcLength Number of bytes to compress, starting at offset <code>0</code>.
+   * @param dst Output buffer, must have at least {@link #maxCompressedLength(int)} bytes.
+   * @return Number of bytes written to <code>dst</code>.
+   */
+  int compress(byte[] src, int srcLength, byte[] dst) {
+    Arrays.fill(table, -1);
+    int anchor = 0;
+    int pos = 0;
+    int out = 0;
+    while (pos + MIN_MATCH <= srcLength) {
+      final int prefix = readInt(src, pos);
+      final int hash = (prefix * -1640531535) >>> (32 - HASH_BITS);
+      final int ref = table[hash];
+      table[hash] = pos;
+      if (ref < 0 || pos - ref > MAX_OFFSET || readInt(src, ref) != prefix) {
+        ++pos;
+        continue;
+      }
+
+      int matchLength = MIN_MATCH;
+      while (pos + matchLength < srcLength && src[ref + matchLength] == src[pos + matchLength]) {
+        ++matchLength;
+      }
+      out = writeLiterals(src, anchor, pos - anchor, matchLength - MIN_MATCH, dst, out);
+      dst[out++] = (byte) (pos - ref);
+      dst[out++] = (byte) ((pos - ref) >>> 8);
+      if (matchLength - MIN_MATCH >= 15) {
+        out = writeLength(matchLength - MIN_MATCH - 15, dst, out);
+      }
+      pos += matchLength;
+      anchor = pos;
+    }
+    return writeLiterals(src, anchor, srcLength - anchor, 0, dst, out);
+  }
+
+  /**
+   * Decompress data.
+   *
+   * @param src Buffer with the compressed data.
+   * @param srcLength Number of compressed bytes, starting at offset <code>0</code>.
+   * @param dst Output buffer.
+   * @param dstLength Expected number of uncompressed bytes.
+   * @throws IOException if the data is corrupt or does not decompress to <code>dstLength</code>
+   *         bytes.
+   */
+  static void decompress(byte[] src, int srcLength, byte[] dst, int dstLength)
+      throws IOException {
+    int in = 0;
+    int out = 0;
+    try {
+      while (in < srcLength) {
+        final int token = src[in++] & 0xff;
+        int literalLength = token >>> 4;
+        if (literalLength == 15) {
+          int b;
+          do {
+            b = src[in++] & 0xff;
+            literalLength += b;
+          } while (b == 255);
+        }
+        if (in + literalLength > srcLength || out + literalLength > dstLength) {
+          throw new IOException("Corrupt LZ block, literals out of bounds");
+        }
+        System.arraycopy(src, in, dst, out, literalLength);
+        in += literalLength;
+        out += literalLength;
+        if (in == srcLength) {
+          break;
+        }
+
+        final int offset = (src[in] & 0xff) | ((src[in + 1] & 0xff) << 8);
+        in += 2;
+        int matchLength = token & 0x0f;
+        if (matchLength == 15) {
+          int b;
+          do {
+            b = src[in++] & 0xff;
+            matchLength += b;
+          } while (b == 255);
+        }
+        matchLength += MIN_MATCH;
+        if (offset == 0 || offset > out || out + matchLength > dstLength) {
+          throw new IOException("Corrupt LZ block, match out of bounds");
+        }
+        // Byte-wise copy as the match may overlap with its own output.
+        for (int i = 0; i < matchLength; ++i, ++out) {
+          dst[out] = dst[out - offset];
+        }
+      }
+    } catch (IndexOutOfBoundsException e) {
+      throw new IOException("Corrupt LZ block, truncated sequence", e);
+    }
+    if (out != dstLength) {
+      throw new IOException("Corrupt LZ block, got " + out + " instead of " + dstLength + " bytes");
+    }
+  }
+
+  /**
+   * Write token and literals of a sequence.
+   */
+  private static int writeLiterals(byte[] src, int begin, int literalLength, int matchCode,
+      byte[] dst, int out) {
+    dst[out++] = (byte) ((Math.min(literalLength, 15) << 4) | Math.min(matchCode, 15));
+    if (literalLength >= 15) {
+      out = writeLength(literalLength - 15, dst, out);
+    }
+    System.arraycopy(src, begin, dst, out, literalLength);
+    return out + literalLength;
+  }
+
+  /**
+   * Write length extension bytes.
+   */
+  private static int writeLength(int length, byte[] dst, int out) {
+    while (length >= 255) {
+      dst[out++] = (byte) 255;
+      length -= 255;
+    }
+    dst[out++] = (byte) length;
+    return out;
+  }
+
+  /**
+   * Read 4 bytes as little-endian <code>int</code>.
+   */
+  private static int readInt(byte[] buf, int pos) {
+    return (buf[pos] & 0xff) | ((buf[pos + 1] & 0xff) << 8) | ((buf[pos + 2] & 0xff) << 16)
+        | ((buf[pos + 3] & 0xff) << 24);
+  }
+
+}
@@ -0,0 +1,42 @@
+package com.github.phenomics.ontolib.ser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+
+import com.github.phenomics.ontolib.formats.go.GoOntology;
+import com.github.phenomics.ontolib.formats.hpo.HpoOntology;
+import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
+
+/**
+ * {@link DataCodec} for {@link HpoOntology} and {@link GoOntology} objects, using the snapshot
+ * format of {@link OntologySnapshotWriter}.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class OntologySnapshotCodec implements DataCodec {
+
+  /** Name of the codec. */
+  public static final String NAME = "ontology-snapshot";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public boolean canEncode(Object data) {
+    return data instanceof HpoOntology || data instanceof GoOntology;
+  }
+
+  @Override
+  public void encode(Object data, DataOutputStream out) throws IOException {
+    new OntologySnapshotWriter().write((ImmutableOntology<?, ?>) data, out);
+  }
+
+  @Override
+  public Object decode(DataInputStream in) throws IOException, SerializationException {
+    return new OntologySnapshotReader().read(in);
+  }
+
+}
@@ -0,0 +1,90 @@
+package com.github.phenomics.ontolib.ser;
+
+import com.github.phenomics.ontolib.formats.go.GoOntology;
+import com.github.phenomics.ontolib.formats.hpo.HpoOntology;
+import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
+
+/**
+ * Constants shared by {@link OntologySnapshotWriter} and {@link OntologySnapshotReader}.
+ *
+ * <p>
+ * A snapshot file consists of the following sections, all numbers are written in big-endian byte
+ * order as by {@link java.io.DataOutputStream}:
+ * </p>
+ *
+ * <ol>
+ * <li>magic number, format version, and {@link OntologyKind} ordinal,</li>
+ * <li>the string table: count, followed by length and UTF-8 bytes of each string,</li>
+ * <li>the term ID table: count and number of entries of the ontology's
+ * {@link com.github.phenomics.ontolib.ontology.data.TermIdDictionary}, followed by prefix and local
+ * ID of each term ID as string codes; the first entries are the dictionary in code order, such
+ * that table position and dictionary code coincide, and thus start with the graph's vertices in
+ * the order of the ontology's {@link com.github.phenomics.ontolib.ontology.data.TermAncestorIndex};
+ * further term IDs, e.g., of cross-references, follow,</li>
+ * <li>the meta information, root term, and non-obsolete and obsolete term IDs,</li>
+ * <li>the graph as compressed sparse row (CSR) adjacency: offsets by source vertex, followed by
+ * destination vertex codes and edge IDs,</li>
+ * <li>the precomputed ancestor sets as words of
+ * {@link com.github.phenomics.ontolib.utils.ImmutableSparseBitSet}s,</li>
+ * <li>the distinct terms with their metadata, the term map referring to them, and the term
+ * relations.</li>
+ * </ol>
+ *
+ * <p>
+ * Absent strings and lists are written as {@link #NULL}.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class OntologySnapshotFormat {
+
+  /** Magic number at the beginning of snapshot files ("OLOS"). */
+  static final int MAGIC = 0x4f4c4f53;
+
+  /** Current version of the file format, increase on incompatible changes. */
+  static final int FORMAT_VERSION = 2;
+
+  /** Code for absent string, list, or enum value. */
+  static final int NULL = -1;
+
+  /** Date value written for absent creation dates. */
+  static final long NULL_DATE = Long.MIN_VALUE;
+
+  /** Private constructor, no instantiation. */
+  private OntologySnapshotFormat() {}
+
+  /**
+   * The supported ontology types.
+   */
+  enum OntologyKind {
+    /** {@link HpoOntology}. */
+    HPO,
+    /** {@link GoOntology}. */
+    GO,
+    /**
+     * Plain {@link ImmutableOntology}, read back with
+     * {@link com.github.phenomics.ontolib.ontology.data.ImmutableTerm} and
+     * {@link com.github.phenomics.ontolib.ontology.data.ImmutableTermRelation} objects.
+     */
+    IMMUTABLE;
+
+    /**
+     * @param ontology The ontology to get the kind of.
+     * @return {@link OntologyKind} of <code>ontology</code>.
+     * @throws IllegalArgumentException if the ontology type is not supported.
+     */
+    static OntologyKind of(ImmutableOntology<?, ?> ontology) {
+      if (ontology instanceof HpoOntology) {
+        return HPO;
+      } else if (ontology instanceof GoOntology) {
+        return GO;
+      } else if (ontology.getClass() == ImmutableOntology.class) {
+        return IMMUTABLE;
+      } else {
+        throw new IllegalArgumentException(
+            "Snapshots not supported for " + ontology.getClass().getSimpleName());
+      }
+    }
+  }
+
+}
@@ -0,0 +1,537 @@
+package com.github.phenomics.ontolib.ser;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.phenomics.ontolib.formats.go.GoOntology;
+import com.github.phenomics.ontolib.formats.go.GoRelationQualifier;
+import com.github.phenomics.ontolib.formats.go.GoTerm;
+import com.github.phenomics.ontolib.formats.go.GoTermRelation;
+import com.github.phenomics.ontolib.formats.hpo.HpoOntology;
+import com.github.phenomics.ontolib.formats.hpo.HpoRelationQualifier;
+import com.github.phenomics.ontolib.formats.hpo.HpoTerm;
+import com.github.phenomics.ontolib.formats.hpo.HpoTermRelation;
+import com.github.phenomics.ontolib.graph.data.ImmutableEdge;
+import com.github.phenomics.ontolib.graph.data.ImmutableIndexedDirectedGraph;
+import com.github.phenomics.ontolib.ontology.data.Dbxref;
+import com.github.phenomics.ontolib.ontology.data.ImmutableDbxref;
+import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTerm;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermRelation;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermSynonym;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermXref;
+import com.github.phenomics.ontolib.ontology.data.Term;
+import com.github.phenomics.ontolib.ontology.data.TermAncestorIndex;
+import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.data.TermIdDictionary;
+import com.github.phenomics.ontolib.ontology.data.TermRelation;
+import com.github.phenomics.ontolib.ontology.data.TermSynonym;
+import com.github.phenomics.ontolib.ontology.data.TermSynonymScope;
+import com.github.phenomics.ontolib.ontology.data.TermXref;
+import com.github.phenomics.ontolib.ser.OntologySnapshotFormat.OntologyKind;
+import com.github.phenomics.ontolib.utils.ImmutableSparseBitSet;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+import com.google.common.io.ByteStreams;
+
+/**
+ * Read {@link ImmutableOntology} objects from snapshot files written by
+ * {@link OntologySnapshotWriter}.
+ *
+ * <p>
+ * Files are memory-mapped by {@link #open(File)}, such that the operating system's page cache is
+ * used directly, and all data is decoded in a single sequential pass. The ancestor sets are taken
+ * from the file instead of being recomputed from the graph, the graph is built directly from the
+ * stored CSR arrays, and the term IDs are interned into the ontology's frozen
+ * {@link TermIdDictionary} with the codes they had when writing.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class OntologySnapshotReader {
+
+  /** The {@link Logger} object to use for logging. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(OntologySnapshotReader.class);
+
+  /**
+   * Open snapshot file by mapping it into memory.
+   *
+   * @param file Path to the snapshot file.
+   * @return The {@link ImmutableOntology} from the file, an {@link HpoOntology},
+   *         {@link GoOntology}, or plain {@link ImmutableOntology}.
+   * @throws SerializationException on problems with reading or if the file is not a valid
+   *         snapshot.
+   */
+  public ImmutableOntology<?, ?> open(File file) throws SerializationException {
+    LOGGER.info("Reading ontology snapshot from {}...", new Object[] {file});
+    final ImmutableOntology<?, ?> result;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      if (channel.size() > Integer.MAX_VALUE) {
+        throw new SerializationException(file + " is too large for an ontology snapshot");
+      }
+      result = decode(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()),
+          file.toString());
+    } catch (IOException e) {
+      throw new SerializationException("Could not read ontology snapshot from " + file, e);
+    }
+    LOGGER.info("Done reading ontology snapshot.");
+    return result;
+  }
+
+  /**
+   * Open snapshot file with an {@link HpoOntology}.
+   *
+   * @param file Path to the snapshot file.
+   * @return The {@link HpoOntology} from the file.
+   * @throws SerializationException on problems with reading or if the file does not contain an
+   *         {@link HpoOntology}.
+   */
+  public HpoOntology openHpoOntology(File file) throws SerializationException {
+    return checkType(open(file), HpoOntology.class, file);
+  }
+
+  /**
+   * Open snapshot file with a {@link GoOntology}.
+   *
+   * @param file Path to the snapshot file.
+   * @return The {@link GoOntology} from the file.
+   * @throws SerializationException on problems with reading or if the file does not contain a
+   *         {@link GoOntology}.
+   */
+  public GoOntology openGoOntology(File file) throws SerializationException {
+    return checkType(open(file), GoOntology.class, file);
+  }
+
+  /**
+   * Read snapshot from stream.
+   *
+   * @param inputStream The {@link InputStream} to read the snapshot from, is read to the end but
+   *        not closed.
+   * @return The {@link ImmutableOntology} from the stream, an {@link HpoOntology},
+   *         {@link GoOntology}, or plain {@link ImmutableOntology}.
+   * @throws SerializationException on problems with reading or if the stream does not contain a
+   *         valid snapshot.
+   */
+  public ImmutableOntology<?, ?> read(InputStream inputStream) throws SerializationException {
+    try {
+      return decode(ByteBuffer.wrap(ByteStreams.toByteArray(inputStream)), "stream");
+    } catch (IOException e) {
+      throw new SerializationException("Could not read ontology snapshot from stream", e);
+    }
+  }
+
+  /**
+   * Check type of ontology.
+   */
+  private static <O extends ImmutableOntology<?, ?>> O checkType(ImmutableOntology<?, ?> ontology,
+      Class<O> clazz, File file) throws SerializationException {
+    if (!clazz.isInstance(ontology)) {
+      throw new SerializationException(file + " contains " + ontology.getClass().getSimpleName()
+          + " instead of " + clazz.getSimpleName());
+    }
+    return clazz.cast(ontology);
+  }
+
+  /**
+   * Decode snapshot from buffer.
+   *
+   * @param buffer The {@link ByteBuffer} with the snapshot, in big-endian byte order.
+   * @param source Description of the source, for error messages.
+   * @return The decoded {@link ImmutableOntology}.
+   * @throws SerializationException if the buffer does not contain a valid snapshot.
+   */
+  private static ImmutableOntology<?, ?> decode(ByteBuffer buffer, String source)
+      throws SerializationException {
+    if (buffer.remaining() < 3 * Integer.BYTES
+        || buffer.getInt() != OntologySnapshotFormat.MAGIC) {
+      throw new SerializationException(source + " is not an ontology snapshot");
+    }
+    final int formatVersion = buffer.getInt();
+    if (formatVersion != OntologySnapshotFormat.FORMAT_VERSION) {
+      throw new SerializationException(
+          "Unsupported snapshot format version " + formatVersion + " in " + source);
+    }
+    try {
+      final int kindOrdinal = buffer.getInt();
+      if (kindOrdinal < 0 || kindOrdinal >= OntologyKind.values().length) {
+        throw new SerializationException("Unknown ontology kind " + kindOrdinal + " in " + source);
+      }
+      return new Decoder(buffer, OntologyKind.values()[kindOrdinal]).decode();
+    } catch (BufferUnderflowException e) {
+      throw new SerializationException("Ontology snapshot in " + source + " is truncated", e);
+    } catch (IndexOutOfBoundsException | IllegalArgumentException e) {
+      throw new SerializationException("Invalid ontology snapshot in " + source, e);
+    }
+  }
+
+  /**
+   * Decoding of the snapshot after the file header.
+   */
+  private static final class Decoder {
+
+    /** The buffer to read from. */
+    private final ByteBuffer buffer;
+
+    /** The kind of ontology to decode. */
+    private final OntologyKind kind;
+
+    /** The string table. */
+    private String[] strings;
+
+    /** The term ID table. */
+    private TermId[] termIds;
+
+    /** Dictionary with the first entries of the term ID table, frozen after reading it. */
+    private TermIdDictionary termIdDictionary;
+
+    /**
+     * Constructor.
+     *
+     * @param buffer The buffer to read from, positioned after the file header.
+     * @param kind The kind of ontology to decode.
+     */
+    Decoder(ByteBuffer buffer, OntologyKind kind) {
+      this.buffer = buffer;
+      this.kind = kind;
+    }
+
+    /**
+     * @return The decoded {@link ImmutableOntology}.
+     */
+    ImmutableOntology<?, ?> decode() {
+      readStringTable();
+      readTermIdTable();
+
+      final ImmutableSortedMap.Builder<String, String> metaInfo =
+          ImmutableSortedMap.naturalOrder();
+      final int numMetaInfos = buffer.getInt();
+      for (int i = 0; i < numMetaInfos; ++i) {
+        metaInfo.put(readString(), readString());
+      }
+      final TermId rootTermId = readTermId();
+      final List<TermId> nonObsoleteTermIds = readTermIds();
+      final List<TermId> obsoleteTermIds = readTermIds();
+
+      final int numVertices = buffer.getInt();
+      if (numVertices > termIdDictionary.size()) {
+        throw new IllegalArgumentException("Got " + numVertices + " vertices but only "
+            + termIdDictionary.size() + " term IDs in dictionary");
+      }
+      // The vertices have the first codes, in the order of the ancestor index.
+      final ImmutableIndexedDirectedGraph<TermId, ImmutableEdge<TermId>> graph =
+          readGraph(Arrays.asList(termIds).subList(0, numVertices));
+      final List<ImmutableSparseBitSet> ancestors = new ArrayList<>(numVertices);
+      for (int v = 0; v < numVertices; ++v) {
+        ancestors.add(readAncestors());
+      }
+      final TermAncestorIndex ancestorIndex = new TermAncestorIndex(termIdDictionary, ancestors);
+
+      final Term[] terms = new Term[buffer.getInt()];
+      for (int i = 0; i < terms.length; ++i) {
+        terms[i] = readTerm();
+      }
+      final ImmutableMap.Builder<TermId, Term> termMap = ImmutableMap.builder();
+      final int numTermMapEntries = buffer.getInt();
+      for (int i = 0; i < numTermMapEntries; ++i) {
+        termMap.put(readTermId(), terms[buffer.getInt()]);
+      }
+
+      final ImmutableMap.Builder<Integer, TermRelation> relationMap = ImmutableMap.builder();
+      final int numRelations = buffer.getInt();
+      for (int i = 0; i < numRelations; ++i) {
+        relationMap.put(buffer.getInt(), readRelation());
+      }
+
+      return buildOntology(metaInfo.build(), graph, rootTermId, nonObsoleteTermIds,
+          obsoleteTermIds, termMap.build(), relationMap.build(), ancestorIndex);
+    }
+
+    /**
+     * Construct the ontology object of the right type.
+     */
+    @SuppressWarnings("unchecked")
+    private ImmutableOntology<?, ?> buildOntology(ImmutableSortedMap<String, String> metaInfo,
+        ImmutableIndexedDirectedGraph<TermId, ImmutableEdge<TermId>> graph, TermId rootTermId,
+        List<TermId> nonObsoleteTermIds, List<TermId> obsoleteTermIds,
+        ImmutableMap<TermId, ? extends Term> termMap,
+        ImmutableMap<Integer, ? extends TermRelation> relationMap,
+        TermAncestorIndex ancestorIndex) {
+      switch (kind) {
+        case HPO:
+          return new HpoOntology(metaInfo, graph, rootTermId, nonObsoleteTermIds,
+              obsoleteTermIds, (ImmutableMap<TermId, HpoTerm>) termMap,
+              (ImmutableMap<Integer, HpoTermRelation>) relationMap, ancestorIndex);
+        case GO:
+          return new GoOntology(metaInfo, graph, rootTermId, nonObsoleteTermIds, obsoleteTermIds,
+              (ImmutableMap<TermId, GoTerm>) termMap,
+              (ImmutableMap<Integer, GoTermRelation>) relationMap, ancestorIndex);
+        case IMMUTABLE:
+          return new ImmutableOntology<Term, TermRelation>(metaInfo, graph, rootTermId,
+              nonObsoleteTermIds, obsoleteTermIds, (ImmutableMap<TermId, Term>) termMap,
+              (ImmutableMap<Integer, TermRelation>) relationMap, ancestorIndex);
+        default:
+          throw new IllegalStateException("Unknown ontology kind " + kind);
+      }
+    }
+
+    /**
+     * Read string table.
+     */
+    private void readStringTable() {
+      strings = new String[buffer.getInt()];
+      byte[] bytes = new byte[256];
+      for (int i = 0; i < strings.length; ++i) {
+        final int length = buffer.getInt();
+        if (length > bytes.length) {
+          bytes = new byte[Math.max(length, 2 * bytes.length)];
+        }
+        buffer.get(bytes, 0, length);
+        strings[i] = new String(bytes, 0, length, StandardCharsets.UTF_8);
+      }
+    }
+
+    /**
+     * Read term ID table, interning the dictionary part into {@link #termIdDictionary} and the
+     * remaining term IDs into a child dictionary.
+     */
+    private void readTermIdTable() {
+      termIds = new TermId[buffer.getInt()];
+      final int dictionarySize = buffer.getInt();
+      if (dictionarySize < 0 || dictionarySize > termIds.length) {
+        throw new IllegalArgumentException("Invalid term ID dictionary size " + dictionarySize);
+      }
+      termIdDictionary = new TermIdDictionary();
+      TermIdDictionary dictionary = termIdDictionary;
+      for (int i = 0; i < termIds.length; ++i) {
+        if (i == dictionarySize) {
+          dictionary = new TermIdDictionary(termIdDictionary.freeze());
+        }
+        final String prefix = strings[buffer.getInt()];
+        termIds[i] = dictionary.intern(prefix, strings[buffer.getInt()]);
+        if (dictionary.size() != i + 1) {
+          throw new IllegalArgumentException("Duplicate term ID " + termIds[i]);
+        }
+      }
+      termIdDictionary.freeze();
+    }
+
+    /**
+     * Read graph from CSR adjacency, the vertex codes are the vertex indices.
+     */
+    private ImmutableIndexedDirectedGraph<TermId, ImmutableEdge<TermId>> readGraph(
+        List<TermId> vertices) {
+      final int numEdges = buffer.getInt();
+      final int[] offsets = new int[vertices.size() + 1];
+      for (int v = 0; v < offsets.length; ++v) {
+        offsets[v] = buffer.getInt();
+      }
+      if (offsets[vertices.size()] != numEdges) {
+        throw new IllegalArgumentException("Inconsistent edge count " + numEdges);
+      }
+      final int[] targets = new int[numEdges];
+      final int[] edgeIds = new int[numEdges];
+      for (int i = 0; i < numEdges; ++i) {
+        targets[i] = buffer.getInt();
+        edgeIds[i] = buffer.getInt();
+      }
+      return ImmutableIndexedDirectedGraph.constructFromCsr(vertices, offsets, targets, edgeIds);
+    }
+
+    /**
+     * Read ancestor set from its words.
+     */
+    private ImmutableSparseBitSet readAncestors() {
+      final int numWords = buffer.getInt();
+      final int[] wordIndices = new int[numWords];
+      for (int i = 0; i < numWords; ++i) {
+        wordIndices[i] = buffer.getInt();
+      }
+      final long[] words = new long[numWords];
+      for (int i = 0; i < numWords; ++i) {
+        words[i] = buffer.getLong();
+      }
+      return ImmutableSparseBitSet.ofWords(wordIndices, words);
+    }
+
+    /**
+     * Read a single term with its metadata.
+     */
+    private Term readTerm() {
+      final TermId id = readTermId();
+      final List<TermId> altTermIds = readNullableTermIds();
+      final String name = readString();
+      final String definition = readString();
+      final String comment = readString();
+      final List<String> subsets = readStrings();
+      final List<TermSynonym> synonyms = readSynonyms();
+      final boolean obsolete = (buffer.get() != 0);
+      final String createdBy = readString();
+      final long time = buffer.getLong();
+      final Date creationDate = (time == OntologySnapshotFormat.NULL_DATE) ? null : new Date(time);
+      final List<Dbxref> xrefs = readXrefs();
+
+      switch (kind) {
+        case HPO:
+          return new HpoTerm(id, altTermIds, name, definition, comment, subsets, synonyms,
+              obsolete, createdBy, creationDate, xrefs);
+        case GO:
+          return new GoTerm(id, altTermIds, name, definition, comment, subsets, synonyms,
+              obsolete, createdBy, creationDate, xrefs);
+        case IMMUTABLE:
+          return new ImmutableTerm(id, altTermIds, name, definition, comment, subsets, synonyms,
+              obsolete, createdBy, creationDate, xrefs);
+        default:
+          throw new IllegalStateException("Unknown ontology kind " + kind);
+      }
+    }
+
+    /**
+     * Read term synonyms.
+     */
+    private List<TermSynonym> readSynonyms() {
+      final int count = buffer.getInt();
+      if (count == OntologySnapshotFormat.NULL) {
+        return null;
+      }
+      final List<TermSynonym> result = new ArrayList<>(count);
+      for (int i = 0; i < count; ++i) {
+        final String value = readString();
+        final int scope = buffer.getInt();
+        final String synonymTypeName = readString();
+        final int numXrefs = buffer.getInt();
+        List<TermXref> termXrefs = null;
+        if (numXrefs != OntologySnapshotFormat.NULL) {
+          termXrefs = new ArrayList<>(numXrefs);
+          for (int j = 0; j < numXrefs; ++j) {
+            termXrefs.add(new ImmutableTermXref(readTermId(), readString()));
+          }
+        }
+        result.add(new ImmutableTermSynonym(value,
+            (scope == OntologySnapshotFormat.NULL) ? null : TermSynonymScope.values()[scope],
+            synonymTypeName, termXrefs));
+      }
+      return result;
+    }
+
+    /**
+     * Read term cross-references.
+     */
+    private List<Dbxref> readXrefs() {
+      final int count = buffer.getInt();
+      if (count == OntologySnapshotFormat.NULL) {
+        return null;
+      }
+      final List<Dbxref> result = new ArrayList<>(count);
+      for (int i = 0; i < count; ++i) {
+        final String name = readString();
+        final String description = readString();
+        final int numModifiers = buffer.getInt();
+        ImmutableMap<String, String> modifiers = null;
+        if (numModifiers != OntologySnapshotFormat.NULL) {
+          final ImmutableMap.Builder<String, String> builder = ImmutableMap.builder();
+          for (int j = 0; j < numModifiers; ++j) {
+            builder.put(readString(), readString());
+          }
+          modifiers = builder.build();
+        }
+        result.add(new ImmutableDbxref(name, description, modifiers));
+      }
+      return result;
+    }
+
+    /**
+     * Read term relation, the relation ID has already been read.
+     */
+    private TermRelation readRelation() {
+      final TermId source = readTermId();
+      final TermId dest = readTermId();
+      final int id = buffer.getInt();
+      final int qualifier = buffer.getInt();
+      final boolean isNull = (qualifier == OntologySnapshotFormat.NULL);
+      switch (kind) {
+        case HPO:
+          return new HpoTermRelation(source, dest, id,
+              isNull ? null : HpoRelationQualifier.values()[qualifier]);
+        case GO:
+          return new GoTermRelation(source, dest, id,
+              isNull ? null : GoRelationQualifier.values()[qualifier]);
+        case IMMUTABLE:
+          return new ImmutableTermRelation(source, dest, id);
+        default:
+          throw new IllegalStateException("Unknown ontology kind " + kind);
+      }
+    }
+
+    /**
+     * @return List of strings with leading count, <code>null</code> if absent.
+     */
+    private List<String> readStrings() {
+      final int count = buffer.getInt();
+      if (count == OntologySnapshotFormat.NULL) {
+        return null;
+      }
+      final List<String> result = new ArrayList<>(count);
+      for (int i = 0; i < count; ++i) {
+        result.add(readString());
+      }
+      return result;
+    }
+
+    /**
+     * @return List of term IDs with leading count, <code>null</code> if absent.
+     */
+    private List<TermId> readNullableTermIds() {
+      final int count = buffer.getInt();
+      if (count == OntologySnapshotFormat.NULL) {
+        return null;
+      }
+      final List<TermId> result = new ArrayList<>(count);
+      for (int i = 0; i < count; ++i) {
+        result.add(readTermId());
+      }
+      return result;
+    }
+
+    /**
+     * @return List of term IDs with leading count.
+     */
+    private List<TermId> readTermIds() {
+      final List<TermId> result = readNullableTermIds();
+      if (result == null) {
+        throw new IllegalArgumentException("Unexpected absent term ID list");
+      }
+      return result;
+    }
+
+    /**
+     * @return String from string table, <code>null</code> if absent.
+     */
+    private String readString() {
+      final int code = buffer.getInt();
+      return (code == OntologySnapshotFormat.NULL) ? null : strings[code];
+    }
+
+    /**
+     * @return Term ID from term ID table, <code>null</code> if absent.
+     */
+    private TermId readTermId() {
+      final int code = buffer.getInt();
+      return (code == OntologySnapshotFormat.NULL) ? null : termIds[code];
+    }
+
+  }
+
+}
@@ -0,0 +1,425 @@
+package com.github.phenomics.ontolib.ser;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import com.github.phenomics.ontolib.formats.go.GoTermRelation;
+import com.github.phenomics.ontolib.formats.hpo.HpoTermRelation;
+import com.github.phenomics.ontolib.graph.data.DirectedGraph;
+import com.github.phenomics.ontolib.graph.data.Edge;
+import com.github.phenomics.ontolib.ontology.data.Dbxref;
+import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
+import com.github.phenomics.ontolib.ontology.data.Term;
+import com.github.phenomics.ontolib.ontology.data.TermAncestorIndex;
+import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.data.TermIdDictionary;
+import com.github.phenomics.ontolib.ontology.data.TermRelation;
+import com.github.phenomics.ontolib.ontology.data.TermSynonym;
+import com.github.phenomics.ontolib.ontology.data.TermXref;
+import com.github.phenomics.ontolib.ser.OntologySnapshotFormat.OntologyKind;
+import com.github.phenomics.ontolib.utils.ImmutableSparseBitSet;
+
+/**
+ * Write {@link ImmutableOntology} objects to compact binary snapshot files.
+ *
+ * <p>
+ * In contrast to Java serialization through {@link DataSerializer}, the snapshot stores all
+ * strings and term IDs once in tables and refers to them by integer code, the graph as CSR
+ * adjacency arrays, and the precomputed ancestor sets of the ontology's {@link TermAncestorIndex}.
+ * Thus, loading a snapshot with {@link OntologySnapshotReader} neither needs to parse OBO nor to
+ * recompute the transitive closure. See {@link OntologySnapshotFormat} for the layout.
+ * </p>
+ *
+ * <p>
+ * Currently, {@link com.github.phenomics.ontolib.formats.hpo.HpoOntology},
+ * {@link com.github.phenomics.ontolib.formats.go.GoOntology}, and plain {@link ImmutableOntology}
+ * objects are supported. The terms and relations of the latter are read back as
+ * {@link com.github.phenomics.ontolib.ontology.data.ImmutableTerm} and
+ * {@link com.github.phenomics.ontolib.ontology.data.ImmutableTermRelation} objects.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class OntologySnapshotWriter {
+
+  /** The {@link Logger} object to use for logging. */
+  private static final Logger LOGGER = LoggerFactory.getLogger(OntologySnapshotWriter.class);
+
+  /**
+   * Write snapshot of <code>ontology</code> to file.
+   *
+   * @param ontology The {@link ImmutableOntology} to write.
+   * @param file Path to the file to write to.
+   * @throws SerializationException on problems with writing.
+   * @throws IllegalArgumentException if the type of <code>ontology</code> is not supported.
+   */
+  public void save(ImmutableOntology<?, ?> ontology, File file) throws SerializationException {
+    LOGGER.info("Writing ontology snapshot to {}...", new Object[] {file});
+    try (OutputStream out = new BufferedOutputStream(new FileOutputStream(file))) {
+      write(ontology, out);
+    } catch (IOException e) {
+      throw new SerializationException("Could not write ontology snapshot to " + file, e);
+    }
+    LOGGER.info("Done writing ontology snapshot.");
+  }
+
+  /**
+   * Write snapshot of <code>ontology</code> to stream.
+   *
+   * @param ontology The {@link ImmutableOntology} to write.
+   * @param outputStream The {@link OutputStream} to write to, is flushed but not closed.
+   * @throws IOException on problems with writing.
+   * @throws IllegalArgumentException if the type of <code>ontology</code> is not supported.
+   */
+  public void write(ImmutableOntology<?, ?> ontology, OutputStream outputStream)
+      throws IOException {
+    final OntologyKind kind = OntologyKind.of(ontology);
+    // The tables are filled while encoding the body, so they are written afterwards.
+    final Encoder encoder = new Encoder(kind);
+    final byte[] body = encoder.encodeBody(ontology);
+
+    final DataOutputStream out = new DataOutputStream(outputStream);
+    out.writeInt(OntologySnapshotFormat.MAGIC);
+    out.writeInt(OntologySnapshotFormat.FORMAT_VERSION);
+    out.writeInt(kind.ordinal());
+    encoder.writeTables(out);
+    out.write(body);
+    out.flush();
+  }
+
+  /**
+   * Encoding of the snapshot body, collecting strings and term IDs in tables.
+   */
+  private static final class Encoder {
+
+    /** The kind of ontology to encode. */
+    private final OntologyKind kind;
+
+    /** Mapping from string to code, in order of first occurrence. */
+    private final Map<String, Integer> stringCodes = new LinkedHashMap<>();
+
+    /** Mapping from term ID to code, in order of first occurrence. */
+    private final Map<TermId, Integer> termIdCodes = new LinkedHashMap<>();
+
+    /** Number of term IDs from the ontology's {@link TermIdDictionary}. */
+    private int dictionarySize;
+
+    /**
+     * Constructor.
+     *
+     * @param kind The kind of ontology to encode.
+     */
+    Encoder(OntologyKind kind) {
+      this.kind = kind;
+    }
+
+    /**
+     * Encode everything after the tables.
+     *
+     * @param ontology The {@link ImmutableOntology} to encode.
+     * @return Encoded body.
+     * @throws IOException on problems with writing.
+     */
+    byte[] encodeBody(ImmutableOntology<?, ?> ontology) throws IOException {
+      final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+      final DataOutputStream out = new DataOutputStream(bytes);
+
+      // The dictionary gets the first codes, such that they are the dictionary codes. This starts
+      // with the vertices in the order of the ancestor index.
+      final TermIdDictionary termIdDictionary = ontology.getTermIdDictionary();
+      for (int code = 0; code < termIdDictionary.size(); ++code) {
+        termIdCode(termIdDictionary.termIdOf(code));
+      }
+      dictionarySize = termIdCodes.size();
+      final TermAncestorIndex ancestorIndex = ontology.getAncestorIndex();
+
+      out.writeInt(ontology.getMetaInfo().size());
+      for (Map.Entry<String, String> e : ontology.getMetaInfo().entrySet()) {
+        writeString(out, e.getKey());
+        writeString(out, e.getValue());
+      }
+      out.writeInt(termIdCode(ontology.getRootTermId()));
+      writeTermIds(out, ontology.getNonObsoleteTermIds());
+      writeTermIds(out, ontology.getObsoleteTermIds());
+
+      writeGraph(out, ontology.getGraph(), ancestorIndex);
+      writeAncestors(out, ancestorIndex);
+      writeTerms(out, ontology.getTermMap());
+      writeRelations(out, ontology.getRelationMap());
+
+      out.flush();
+      return bytes.toByteArray();
+    }
+
+    /**
+     * Write graph as CSR adjacency, by vertex code.
+     */
+    private void writeGraph(DataOutputStream out,
+        DirectedGraph<TermId, ? extends Edge<TermId>> graph, TermAncestorIndex ancestorIndex)
+        throws IOException {
+      final int numVertices = ancestorIndex.size();
+      out.writeInt(numVertices);
+      out.writeInt(graph.countEdges());
+      int offset = 0;
+      out.writeInt(offset);
+      for (int v = 0; v < numVertices; ++v) {
+        offset += graph.outDegree(ancestorIndex.termIdAt(v));
+        out.writeInt(offset);
+      }
+      for (int v = 0; v < numVertices; ++v) {
+        final Iterator<? extends Edge<TermId>> it =
+            graph.outEdgeIterator(ancestorIndex.termIdAt(v));
+        while (it.hasNext()) {
+          final Edge<TermId> edge = it.next();
+          out.writeInt(termIdCode(edge.getDest()));
+          out.writeInt(edge.getId());
+        }
+      }
+    }
+
+    /**
+     * Write ancestor sets as words, by vertex code.
+     */
+    private void writeAncestors(DataOutputStream out, TermAncestorIndex ancestorIndex)
+        throws IOException {
+      for (int v = 0; v < ancestorIndex.size(); ++v) {
+        final ImmutableSparseBitSet bits = ancestorIndex.getAncestors(v);
+        out.writeInt(bits.countWords());
+        for (int i = 0; i < bits.countWords(); ++i) {
+          out.writeInt(bits.wordIndexAt(i));
+        }
+        for (int i = 0; i < bits.countWords(); ++i) {
+          out.writeLong(bits.wordAt(i));
+        }
+      }
+    }
+
+    /**
+     * Write distinct terms, followed by term map referring to them.
+     */
+    private void writeTerms(DataOutputStream out, Map<TermId, ? extends Term> termMap)
+        throws IOException {
+      final Map<TermId, Integer> termIndices = new LinkedHashMap<>();
+      final List<Term> terms = new ArrayList<>();
+      for (Term term : termMap.values()) {
+        if (!termIndices.containsKey(term.getId())) {
+          termIndices.put(term.getId(), terms.size());
+          terms.add(term);
+        }
+      }
+
+      out.writeInt(terms.size());
+      for (Term term : terms) {
+        writeTerm(out, term);
+      }
+      out.writeInt(termMap.size());
+      for (Map.Entry<TermId, ? extends Term> e : termMap.entrySet()) {
+        out.writeInt(termIdCode(e.getKey()));
+        out.writeInt(termIndices.get(e.getValue().getId()));
+      }
+    }
+
+    /**
+     * Write a single term with its metadata.
+     */
+    private void writeTerm(DataOutputStream out, Term term) throws IOException {
+      out.writeInt(termIdCode(term.getId()));
+      if (term.getAltTermIds() == null) {
+        out.writeInt(OntologySnapshotFormat.NULL);
+      } else {
+        writeTermIds(out, term.getAltTermIds());
+      }
+      writeString(out, term.getName());
+      writeString(out, term.getDefinition());
+      writeString(out, term.getComment());
+      if (term.getSubsets() == null) {
+        out.writeInt(OntologySnapshotFormat.NULL);
+      } else {
+        out.writeInt(term.getSubsets().size());
+        for (String subset : term.getSubsets()) {
+          writeString(out, subset);
+        }
+      }
+      writeSynonyms(out, term.getSynonyms());
+      out.writeBoolean(term.isObsolete());
+      writeString(out, term.getCreatedBy());
+      final Date creationDate = term.getCreationDate();
+      out.writeLong(
+          (creationDate == null) ? OntologySnapshotFormat.NULL_DATE : creationDate.getTime());
+      writeXrefs(out, term.getXrefs());
+    }
+
+    /**
+     * Write term synonyms.
+     */
+    private void writeSynonyms(DataOutputStream out, List<TermSynonym> synonyms)
+        throws IOException {
+      if (synonyms == null) {
+        out.writeInt(OntologySnapshotFormat.NULL);
+        return;
+      }
+      out.writeInt(synonyms.size());
+      for (TermSynonym synonym : synonyms) {
+        writeString(out, synonym.getValue());
+        out.writeInt((synonym.getScope() == null) ? OntologySnapshotFormat.NULL
+            : synonym.getScope().ordinal());
+        writeString(out, synonym.getSynonymTypeName());
+        if (synonym.getTermXrefs() == null) {
+          out.writeInt(OntologySnapshotFormat.NULL);
+          continue;
+        }
+        out.writeInt(synonym.getTermXrefs().size());
+        for (TermXref xref : synonym.getTermXrefs()) {
+          out.writeInt(termIdCode(xref.getId()));
+          writeString(out, xref.getDescription());
+        }
+      }
+    }
+
+    /**
+     * Write term cross-references.
+     */
+    private void writeXrefs(DataOutputStream out, List<Dbxref> xrefs) throws IOException {
+      if (xrefs == null) {
+        out.writeInt(OntologySnapshotFormat.NULL);
+        return;
+      }
+      out.writeInt(xrefs.size());
+      for (Dbxref xref : xrefs) {
+        writeString(out, xref.getName());
+        writeString(out, xref.getDescription());
+        final Map<String, String> modifiers = xref.getTrailingModifiers();
+        if (modifiers == null) {
+          out.writeInt(OntologySnapshotFormat.NULL);
+          continue;
+        }
+        out.writeInt(modifiers.size());
+        for (Map.Entry<String, String> e : modifiers.entrySet()) {
+          writeString(out, e.getKey());
+          writeString(out, e.getValue());
+        }
+      }
+    }
+
+    /**
+     * Write term relations, in the order of the relation map.
+     */
+    private void writeRelations(DataOutputStream out,
+        Map<Integer, ? extends TermRelation> relations) throws IOException {
+      out.writeInt(relations.size());
+      for (Map.Entry<Integer, ? extends TermRelation> e : relations.entrySet()) {
+        final TermRelation relation = e.getValue();
+        out.writeInt(e.getKey());
+        out.writeInt(termIdCode(relation.getSource()));
+        out.writeInt(termIdCode(relation.getDest()));
+        out.writeInt(relation.getId());
+        final Enum<?> qualifier;
+        switch (kind) {
+          case HPO:
+            qualifier = ((HpoTermRelation) relation).getRelationQualifier();
+            break;
+          case GO:
+            qualifier = ((GoTermRelation) relation).getRelationQualifier();
+            break;
+          case IMMUTABLE:
+            qualifier = null;
+            break;
+          default:
+            throw new IllegalStateException("Unknown ontology kind " + kind);
+        }
+        out.writeInt((qualifier == null) ? OntologySnapshotFormat.NULL : qualifier.ordinal());
+      }
+    }
+
+    /**
+     * Write string and term ID tables.
+     *
+     * @param out The {@link DataOutputStream} to write to.
+     * @throws IOException on problems with writing.
+     */
+    void writeTables(DataOutputStream out) throws IOException {
+      out.writeInt(stringCodes.size());
+      for (String s : stringCodes.keySet()) {
+        final byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+      }
+      out.writeInt(termIdCodes.size());
+      out.writeInt(dictionarySize);
+      for (TermId termId : termIdCodes.keySet()) {
+        out.writeInt(stringCodes.get(termId.getPrefix().getValue()));
+        out.writeInt(stringCodes.get(termId.getId()));
+      }
+    }
+
+    /**
+     * Write collection of term IDs with leading count.
+     */
+    private void writeTermIds(DataOutputStream out, Collection<? extends TermId> termIds)
+        throws IOException {
+      out.writeInt(termIds.size());
+      for (TermId termId : termIds) {
+        out.writeInt(termIdCode(termId));
+      }
+    }
+
+    /**
+     * Write string as code into the string table.
+     */
+    private void writeString(DataOutputStream out, String s) throws IOException {
+      out.writeInt(stringCode(s));
+    }
+
+    /**
+     * @return Code of <code>s</code> in the string table, {@link OntologySnapshotFormat#NULL} for
+     *         <code>null</code>.
+     */
+    private int stringCode(String s) {
+      if (s == null) {
+        return OntologySnapshotFormat.NULL;
+      }
+      final Integer code = stringCodes.get(s);
+      if (code != null) {
+        return code;
+      }
+      stringCodes.put(s, stringCodes.size());
+      return stringCodes.size() - 1;
+    }
+
+    /**
+     * @return Code of <code>termId</code> in the term ID table, {@link OntologySnapshotFormat#NULL}
+     *         for <code>null</code>.
+     */
+    private int termIdCode(TermId termId) {
+      if (termId == null) {
+        return OntologySnapshotFormat.NULL;
+      }
+      final Integer code = termIdCodes.get(termId);
+      if (code != null) {
+        return code;
+      }
+      stringCode(termId.getPrefix().getValue());
+      stringCode(termId.getId());
+      termIdCodes.put(termId, termIdCodes.size());
+      return termIdCodes.size() - 1;
+    }
+
+  }
+
+}
@@ -0,0 +1,87 @@
+package com.github.phenomics.ontolib.ser;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
+import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistribution;
+
+/**
+ * {@link DataCodec} for {@link ScoreDistribution} objects.
+ *
+ * <p>
+ * Writes the number of terms and objects, followed by object ID, number of terms, sample size, and
+ * the (score, cumulative frequency) pairs of each {@link ObjectScoreDistribution}.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class ScoreDistributionCodec implements DataCodec {
+
+  /** Name of the codec. */
+  public static final String NAME = "score-distribution";
+
+  @Override
+  public String getName() {
+    return NAME;
+  }
+
+  @Override
+  public boolean canEncode(Object data) {
+    return data instanceof ScoreDistribution;
+  }
+
+  @Override
+  public void encode(Object data, DataOutputStream out) throws IOException {
+    final ScoreDistribution scoreDistribution = (ScoreDistribution) data;
+    out.writeInt(scoreDistribution.getNumTerms());
+    out.writeInt(scoreDistribution.getObjectIds().size());
+    for (int objectId : scoreDistribution.getObjectIds()) {
+      final ObjectScoreDistribution dist = scoreDistribution.getObjectScoreDistribution(objectId);
+      out.writeInt(dist.getObjectId());
+      out.writeInt(dist.getNumTerms());
+      out.writeInt(dist.getSampleSize());
+      out.writeInt(dist.countScores());
+      for (int j = 0; j < dist.countScores(); ++j) {
+        out.writeDouble(dist.scoreAt(j));
+        out.writeDouble(dist.cumulativeFrequencyAt(j));
+      }
+    }
+  }
+
+  @Override
+  public Object decode(DataInputStream in) throws IOException, SerializationException {
+    final int numTerms = in.readInt();
+    final int numObjects = in.readInt();
+    if (numObjects < 0) {
+      throw new SerializationException("Invalid object count " + numObjects);
+    }
+    final Map<Integer, ObjectScoreDistribution> dists = new HashMap<>();
+    for (int i = 0; i < numObjects; ++i) {
+      final int objectId = in.readInt();
+      final int objectNumTerms = in.readInt();
+      final int sampleSize = in.readInt();
+      final int numScores = in.readInt();
+      if (numScores < 0) {
+        throw new SerializationException("Invalid score count " + numScores);
+      }
+      final double[] scores = new double[numScores];
+      final double[] frequencies = new double[numScores];
+      for (int j = 0; j < numScores; ++j) {
+        scores[j] = in.readDouble();
+        frequencies[j] = in.readDouble();
+      }
+      try {
+        dists.put(objectId, new ObjectScoreDistribution(objectId, objectNumTerms, sampleSize,
+            scores, frequencies));
+      } catch (IllegalArgumentException e) {
+        throw new SerializationException("Invalid score distribution for object " + objectId, e);
+      }
+    }
+    return new ScoreDistribution(numTerms, dists);
+  }
+
+}
@@ -0,0 +1,486 @@
+package com.github.phenomics.ontolib.utils;
+
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Immutable sorted list of distinct non-negative <code>int</code> values, e.g., the IDs of the
+ * objects annotated with a term.
+ *
+ * <p>
+ * Values are held in a plain <code>int</code> array in ascending order. Unions are computed by
+ * merging, intersections by merging or by galloping search through the longer list if the lengths
+ * differ a lot. For storage, the lists are compressed by writing the gaps between consecutive
+ * values as variable-length integers, see {@link #toCompressedBytes()}; Java serialization uses
+ * this compressed form as well.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class ImmutablePostingList implements Serializable {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** Length ratio above which intersection uses galloping search instead of merging. */
+  private static final int GALLOP_RATIO = 16;
+
+  /** The empty list. */
+  private static final ImmutablePostingList EMPTY = new ImmutablePostingList(new int[0]);
+
+  /** The values, sorted ascendingly and without duplicates. */
+  private final int[] values;
+
+  /**
+   * Constructor, array is used directly without copying.
+   *
+   * @param values Sorted values without duplicates.
+   */
+  private ImmutablePostingList(int[] values) {
+    this.values = values;
+  }
+
+  /**
+   * @return The empty {@link ImmutablePostingList}.
+   */
+  public static ImmutablePostingList of() {
+    return EMPTY;
+  }
+
+  /**
+   * Construct {@link ImmutablePostingList} with the given values.
+   *
+   * @param values Non-negative values, in any order and possibly with duplicates.
+   * @return Freshly constructed {@link ImmutablePostingList}.
+   * @throws IllegalArgumentException if one of the <code>values</code> is negative.
+   */
+  public static ImmutablePostingList of(int... values) {
+    if (values.length == 0) {
+      return EMPTY;
+    }
+    final int[] sorted = Arrays.copyOf(values, values.length);
+    Arrays.sort(sorted);
+    if (sorted[0] < 0) {
+      throw new IllegalArgumentException("Value must not be negative but was " + sorted[0]);
+    }
+    int count = 1;
+    for (int i = 1; i < sorted.length; ++i) {
+      if (sorted[i] != sorted[count - 1]) {
+        sorted[count++] = sorted[i];
+      }
+    }
+    return new ImmutablePostingList(Arrays.copyOf(sorted, count));
+  }
+
+  /**
+   * Construct {@link ImmutablePostingList} from a prefix of an array with strictly ascending
+   * values, avoiding the sorting step of {@link #of(int...)}.
+   *
+   * @param values Array with the values, only the first <code>length</code> ones are used.
+   * @param length Number of values to use.
+   * @return Freshly constructed {@link ImmutablePostingList}.
+   * @throws IllegalArgumentException if the values are negative or not strictly ascending.
+   */
+  public static ImmutablePostingList copyOfSorted(int[] values, int length) {
+    for (int i = 0; i < length; ++i) {
+      if ((i == 0 && values[i] < 0) || (i > 0 && values[i] <= values[i - 1])) {
+        throw new IllegalArgumentException(
+            "Values must be non-negative and strictly ascending but got " + values[i]);
+      }
+    }
+    return wrapSorted(Arrays.copyOf(values, length));
+  }
+
+  /**
+   * Construct from values that are already sorted and free of duplicates, without copying.
+   *
+   * @param values Sorted non-negative values without duplicates; must not be modified afterwards.
+   * @return {@link ImmutablePostingList} backed by <code>values</code>.
+   */
+  private static ImmutablePostingList wrapSorted(int[] values) {
+    return (values.length == 0) ? EMPTY : new ImmutablePostingList(values);
+  }
+
+  /**
+   * Compute union of all given lists.
+   *
+   * <p>
+   * Lists are merged pairwise in a balanced fashion such that each value is copied a logarithmic
+   * number of times only.
+   * </p>
+   *
+   * @param lists The {@link ImmutablePostingList}s to compute the union of.
+   * @return Union of all <code>lists</code>.
+   */
+  public static ImmutablePostingList union(Collection<ImmutablePostingList> lists) {
+    List<ImmutablePostingList> current = new ArrayList<>(lists);
+    if (current.isEmpty()) {
+      return EMPTY;
+    }
+    while (current.size() > 1) {
+      final List<ImmutablePostingList> next = new ArrayList<>((current.size() + 1) / 2);
+      for (int i = 0; i + 1 < current.size(); i += 2) {
+        next.add(current.get(i).or(current.get(i + 1)));
+      }
+      if (current.size() % 2 == 1) {
+        next.add(current.get(current.size() - 1));
+      }
+      current = next;
+    }
+    return current.get(0);
+  }
+
+  /**
+   * Compute intersection of all given lists.
+   *
+   * <p>
+   * The lists are intersected in ascending order of their length, such that intermediate results
+   * stay small.
+   * </p>
+   *
+   * @param lists The {@link ImmutablePostingList}s to compute the intersection of.
+   * @return Intersection of all <code>lists</code>, empty if <code>lists</code> is empty.
+   */
+  public static ImmutablePostingList intersection(Collection<ImmutablePostingList> lists) {
+    if (lists.isEmpty()) {
+      return EMPTY;
+    }
+    final List<ImmutablePostingList> sorted = new ArrayList<>(lists);
+    sorted.sort((lhs, rhs) -> Integer.compare(lhs.size(), rhs.size()));
+    ImmutablePostingList result = sorted.get(0);
+    for (int i = 1; i < sorted.size() && !result.isEmpty(); ++i) {
+      result = result.and(sorted.get(i));
+    }
+    return result;
+  }
+
+  /**
+   * @return Number of values in the list.
+   */
+  public int size() {
+    return values.length;
+  }
+
+  /**
+   * @return <code>true</code> if the list is empty.
+   */
+  public boolean isEmpty() {
+    return values.length == 0;
+  }
+
+  /**
+   * @param i Position in the list, in the range <code>[0, size())</code>.
+   * @return Value at position <code>i</code>.
+   */
+  public int get(int i) {
+    return values[i];
+  }
+
+  /**
+   * Query whether a value is contained in the list.
+   *
+   * @param value The value to search for.
+   * @return <code>true</code> if <code>value</code> is contained.
+   */
+  public boolean contains(int value) {
+    return Arrays.binarySearch(values, value) >= 0;
+  }
+
+  /**
+   * Compute union with <code>other</code>.
+   *
+   * @param other The {@link ImmutablePostingList} to compute the union with.
+   * @return Union of <code>this</code> and <code>other</code>.
+   */
+  public ImmutablePostingList or(ImmutablePostingList other) {
+    if (other.isEmpty()) {
+      return this;
+    } else if (isEmpty()) {
+      return other;
+    }
+
+    final int[] tmp = new int[values.length + other.values.length];
+    int i = 0;
+    int j = 0;
+    int count = 0;
+    while (i < values.length && j < other.values.length) {
+      if (values[i] < other.values[j]) {
+        tmp[count++] = values[i++];
+      } else if (other.values[j] < values[i]) {
+        tmp[count++] = other.values[j++];
+      } else {
+        tmp[count++] = values[i++];
+        ++j;
+      }
+    }
+    while (i < values.length) {
+      tmp[count++] = values[i++];
+    }
+    while (j < other.values.length) {
+      tmp[count++] = other.values[j++];
+    }
+    return new ImmutablePostingList((count == tmp.length) ? tmp : Arrays.copyOf(tmp, count));
+  }
+
+  /**
+   * Compute intersection with <code>other</code>.
+   *
+   * @param other The {@link ImmutablePostingList} to compute the intersection with.
+   * @return Intersection of <code>this</code> and <code>other</code>.
+   */
+  public ImmutablePostingList and(ImmutablePostingList other) {
+    final int[] shorter = (values.length <= other.values.length) ? values : other.values;
+    final int[] longer = (values.length <= other.values.length) ? other.values : values;
+    if (shorter.length == 0) {
+      return EMPTY;
+    }
+
+    final int[] tmp = new int[shorter.length];
+    int count = 0;
+    if ((long) shorter.length * GALLOP_RATIO < longer.length) {
+      int lo = 0;
+      for (int value : shorter) {
+        lo = gallop(longer, lo, value);
+        if (lo == longer.length) {
+          break;
+        } else if (longer[lo] == value) {
+          tmp[count++] = value;
+        }
+      }
+    } else {
+      int i = 0;
+      int j = 0;
+      while (i < shorter.length && j < longer.length) {
+        if (shorter[i] < longer[j]) {
+          ++i;
+        } else if (longer[j] < shorter[i]) {
+          ++j;
+        } else {
+          tmp[count++] = shorter[i++];
+          ++j;
+        }
+      }
+    }
+    return wrapSorted(Arrays.copyOf(tmp, count));
+  }
+
+  /**
+   * Compute size of intersection with <code>other</code> without materializing it.
+   *
+   * @param other The {@link ImmutablePostingList} to compute intersection size with.
+   * @return Number of values contained in both <code>this</code> and <code>other</code>.
+   */
+  public int andCardinality(ImmutablePostingList other) {
+    int result = 0;
+    int i = 0;
+    int j = 0;
+    while (i < values.length && j < other.values.length) {
+      if (values[i] < other.values[j]) {
+        ++i;
+      } else if (other.values[j] < values[i]) {
+        ++j;
+      } else {
+        ++result;
+        ++i;
+        ++j;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Find the first position in <code>arr</code> at or after <code>lo</code> with a value that is
+   * not smaller than <code>value</code>, using exponential followed by binary search.
+   *
+   * @param arr Sorted array to search in.
+   * @param lo Position to start the search at.
+   * @param value The value to search for.
+   * @return First position with a value <code>&gt;= value</code>, <code>arr.length</code> if
+   *         there is none.
+   */
+  private static int gallop(int[] arr, int lo, int value) {
+    int step = 1;
+    int hi = lo;
+    while (hi < arr.length && arr[hi] < value) {
+      lo = hi + 1;
+      hi += step;
+      step <<= 1;
+    }
+    hi = Math.min(hi + 1, arr.length);
+    final int pos = Arrays.binarySearch(arr, lo, hi, value);
+    return (pos >= 0) ? pos : -(pos + 1);
+  }
+
+  /**
+   * @return Copy of the values, in ascending order.
+   */
+  public int[] toArray() {
+    return Arrays.copyOf(values, values.length);
+  }
+
+  /**
+   * Compress list by writing the number of values followed by the gaps between consecutive values
+   * as variable-length integers with seven bits per byte.
+   *
+   * @return Compressed representation, to be read with {@link #fromCompressedBytes(byte[])}.
+   */
+  public byte[] toCompressedBytes() {
+    final byte[] tmp = new byte[5 * (values.length + 1)];
+    int pos = writeVarInt(tmp, 0, values.length);
+    int prev = 0;
+    for (int value : values) {
+      pos = writeVarInt(tmp, pos, value - prev);
+      prev = value;
+    }
+    return Arrays.copyOf(tmp, pos);
+  }
+
+  /**
+   * Decompress list written by {@link #toCompressedBytes()}.
+   *
+   * @param bytes The compressed representation.
+   * @return Decompressed {@link ImmutablePostingList}.
+   * @throws IllegalArgumentException if <code>bytes</code> is not a valid compressed list.
+   */
+  public static ImmutablePostingList fromCompressedBytes(byte[] bytes) {
+    final int[] pos = new int[] {0};
+    final int count = readVarInt(bytes, pos);
+    final int[] values = new int[count];
+    int prev = 0;
+    for (int i = 0; i < count; ++i) {
+      final int gap = readVarInt(bytes, pos);
+      if (i > 0 && gap <= 0) {
+        throw new IllegalArgumentException("Values of compressed list are not increasing");
+      }
+      values[i] = prev + gap;
+      prev = values[i];
+    }
+    if (pos[0] != bytes.length) {
+      throw new IllegalArgumentException("Trailing bytes after compressed list");
+    }
+    return wrapSorted(values);
+  }
+
+  /**
+   * Write variable-length integer.
+   *
+   * @param buf Buffer to write to.
+   * @param pos Position to write at.
+   * @param value Non-negative value to write.
+   * @return Position after the written bytes.
+   */
+  private static int writeVarInt(byte[] buf, int pos, int value) {
+    while ((value & ~0x7f) != 0) {
+      buf[pos++] = (byte) ((value & 0x7f) | 0x80);
+      value >>>= 7;
+    }
+    buf[pos++] = (byte) value;
+    return pos;
+  }
+
+  /**
+   * Read variable-length integer.
+   *
+   * @param buf Buffer to read from.
+   * @param pos One-element array with the position to read at, advanced by the read bytes.
+   * @return The read value.
+   * @throws IllegalArgumentException if the buffer ends prematurely or the value is too large.
+   */
+  private static int readVarInt(byte[] buf, int[] pos) {
+    int result = 0;
+    for (int shift = 0; shift < 32; shift += 7) {
+      if (pos[0] >= buf.length) {
+        throw new IllegalArgumentException("Compressed list ends prematurely");
+      }
+      final byte b = buf[pos[0]++];
+      result |= (b & 0x7f) << shift;
+      if ((b & 0x80) == 0) {
+        if (result < 0) {
+          throw new IllegalArgumentException("Negative value in compressed list");
+        }
+        return result;
+      }
+    }
+    throw new IllegalArgumentException("Variable-length integer too long in compressed list");
+  }
+
+  /**
+   * Replace by compressed form for serialization.
+   *
+   * @return The {@link SerializedForm} of this list.
+   */
+  private Object writeReplace() {
+    return new SerializedForm(toCompressedBytes());
+  }
+
+  /**
+   * Prevent deserialization without going through {@link SerializedForm}.
+   *
+   * @param in The stream to read from.
+   * @throws InvalidObjectException always.
+   */
+  private void readObject(ObjectInputStream in) throws InvalidObjectException {
+    throw new InvalidObjectException("Serialized form required");
+  }
+
+  @Override
+  public int hashCode() {
+    return Arrays.hashCode(values);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    return Arrays.equals(values, ((ImmutablePostingList) obj).values);
+  }
+
+  @Override
+  public String toString() {
+    return "ImmutablePostingList " + Arrays.toString(values);
+  }
+
+  /**
+   * Compressed serialized form of {@link ImmutablePostingList}.
+   */
+  private static final class SerializedForm implements Serializable {
+
+    /** Serial UId for serialization. */
+    private static final long serialVersionUID = 1L;
+
+    /** The compressed list. */
+    private final byte[] bytes;
+
+    /**
+     * Constructor.
+     *
+     * @param bytes The compressed list.
+     */
+    SerializedForm(byte[] bytes) {
+      this.bytes = bytes;
+    }
+
+    /**
+     * @return The decompressed {@link ImmutablePostingList}.
+     * @throws InvalidObjectException if the compressed list is invalid.
+     */
+    private Object readResolve() throws InvalidObjectException {
+      try {
+        return fromCompressedBytes(bytes);
+      } catch (IllegalArgumentException e) {
+        throw new InvalidObjectException(e.getMessage());
+      }
+    }
+
+  }
+
+}
@@ -0,0 +1,437 @@
+package com.github.phenomics.ontolib.utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+
+/**
+ * Immutable bit set that only stores its non-zero 64 bit words.
+ *
+ * <p>
+ * The set is represented by two parallel arrays, one with the indices of non-zero words in
+ * ascending order and one with the words themselves. This keeps the memory usage proportional to
+ * the number of occupied words instead of the largest set bit, which makes it suitable for storing
+ * many small sets over a large universe, e.g., the ancestor sets of all terms in an ontology.
+ * Intersections and unions are computed with word-wise <code>AND</code>/<code>OR</code> and
+ * {@link Long#bitCount(long)}.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class ImmutableSparseBitSet implements Serializable {
+
+  /** Serial UId for serialization. */
+  private static final long serialVersionUID = 1L;
+
+  /** Shift for converting bit index to word index. */
+  private static final int ADDRESS_BITS_PER_WORD = 6;
+
+  /** The empty set. */
+  private static final ImmutableSparseBitSet EMPTY =
+      new ImmutableSparseBitSet(new int[0], new long[0]);
+
+  /** Indices of the non-zero words, sorted ascendingly. */
+  private final int[] wordIndices;
+
+  /** Non-zero words, parallel to {@link #wordIndices}. */
+  private final long[] words;
+
+  /** Number of set bits. */
+  private final int cardinality;
+
+  /**
+   * Constructor, arrays are used directly without copying.
+   *
+   * @param wordIndices Indices of non-zero words.
+   * @param words Non-zero words.
+   */
+  private ImmutableSparseBitSet(int[] wordIndices, long[] words) {
+    this.wordIndices = wordIndices;
+    this.words = words;
+    int count = 0;
+    for (long word : words) {
+      count += Long.bitCount(word);
+    }
+    this.cardinality = count;
+  }
+
+  /**
+   * @return The empty {@link ImmutableSparseBitSet}.
+   */
+  public static ImmutableSparseBitSet of() {
+    return EMPTY;
+  }
+
+  /**
+   * Construct {@link ImmutableSparseBitSet} with the given bits set.
+   *
+   * @param bits Non-negative indices of the bits to set, in any order.
+   * @return Freshly constructed {@link ImmutableSparseBitSet}.
+   * @throws IllegalArgumentException if one of the <code>bits</code> is negative.
+   */
+  public static ImmutableSparseBitSet of(int... bits) {
+    if (bits.length == 0) {
+      return EMPTY;
+    }
+    final int[] sorted = Arrays.copyOf(bits, bits.length);
+    Arrays.sort(sorted);
+    if (sorted[0] < 0) {
+      throw new IllegalArgumentException("Bit index must not be negative but was " + sorted[0]);
+    }
+
+    final int[] tmpIndices = new int[sorted.length];
+    final long[] tmpWords = new long[sorted.length];
+    int count = 0;
+    for (int bit : sorted) {
+      final int wordIndex = bit >>> ADDRESS_BITS_PER_WORD;
+      if (count == 0 || tmpIndices[count - 1] != wordIndex) {
+        tmpIndices[count++] = wordIndex;
+      }
+      tmpWords[count - 1] |= (1L << bit);
+    }
+    return new ImmutableSparseBitSet(Arrays.copyOf(tmpIndices, count),
+        Arrays.copyOf(tmpWords, count));
+  }
+
+  /**
+   * Construct {@link ImmutableSparseBitSet} from its word representation, e.g., when reading it
+   * back from a file written using {@link #countWords()}, {@link #wordIndexAt(int)}, and
+   * {@link #wordAt(int)}.
+   *
+   * @param wordIndices Indices of the non-zero words, sorted ascendingly; used without copying.
+   * @param words Non-zero words, parallel to <code>wordIndices</code>; used without copying.
+   * @return {@link ImmutableSparseBitSet} backed by the given arrays.
+   * @throws IllegalArgumentException if the arrays have different lengths, the indices are not
+   *         strictly ascending and non-negative, or one of the words is zero.
+   */
+  public static ImmutableSparseBitSet ofWords(int[] wordIndices, long[] words) {
+    if (wordIndices.length != words.length) {
+      throw new IllegalArgumentException("Got " + wordIndices.length + " word indices but "
+          + words.length + " words");
+    }
+    if (words.length == 0) {
+      return EMPTY;
+    }
+    for (int i = 0; i < words.length; ++i) {
+      if (words[i] == 0) {
+        throw new IllegalArgumentException("Word " + i + " must not be zero");
+      } else if (wordIndices[i] < 0 || (i > 0 && wordIndices[i] <= wordIndices[i - 1])) {
+        throw new IllegalArgumentException("Word indices must be ascending and non-negative");
+      }
+    }
+    return new ImmutableSparseBitSet(wordIndices, words);
+  }
+
+  /**
+   * Compute union of all given sets.
+   *
+   * @param sets The {@link ImmutableSparseBitSet}s to compute the union of.
+   * @return Union of all <code>sets</code>.
+   */
+  public static ImmutableSparseBitSet union(Collection<ImmutableSparseBitSet> sets) {
+    ImmutableSparseBitSet result = EMPTY;
+    for (ImmutableSparseBitSet set : sets) {
+      result = result.or(set);
+    }
+    return result;
+  }
+
+  /**
+   * Query whether a bit is set.
+   *
+   * @param bit Index of the bit to query.
+   * @return <code>true</code> if the bit with index <code>bit</code> is set.
+   */
+  public boolean get(int bit) {
+    if (bit < 0) {
+      return false;
+    }
+    final int pos = Arrays.binarySearch(wordIndices, bit >>> ADDRESS_BITS_PER_WORD);
+    return pos >= 0 && (words[pos] & (1L << bit)) != 0;
+  }
+
+  /**
+   * @return Number of set bits.
+   */
+  public int cardinality() {
+    return cardinality;
+  }
+
+  /**
+   * @return Whether or not no bit is set.
+   */
+  public boolean isEmpty() {
+    return cardinality == 0;
+  }
+
+  /**
+   * Compute set with the given bit added.
+   *
+   * @param bit Non-negative index of the bit to set.
+   * @return {@link ImmutableSparseBitSet} with <code>bit</code> set, <code>this</code> if it was
+   *         already set.
+   */
+  public ImmutableSparseBitSet with(int bit) {
+    if (get(bit)) {
+      return this;
+    }
+    return or(of(bit));
+  }
+
+  /**
+   * Compute set with the given bit removed.
+   *
+   * @param bit Index of the bit to clear.
+   * @return {@link ImmutableSparseBitSet} with <code>bit</code> cleared, <code>this</code> if it
+   *         was not set.
+   */
+  public ImmutableSparseBitSet without(int bit) {
+    if (!get(bit)) {
+      return this;
+    }
+    final int pos = Arrays.binarySearch(wordIndices, bit >>> ADDRESS_BITS_PER_WORD);
+    final long word = words[pos] & ~(1L << bit);
+    if (word != 0) {
+      final long[] newWords = Arrays.copyOf(words, words.length);
+      newWords[pos] = word;
+      return new ImmutableSparseBitSet(wordIndices, newWords);
+    } else {
+      final int[] newIndices = new int[wordIndices.length - 1];
+      final long[] newWords = new long[words.length - 1];
+      System.arraycopy(wordIndices, 0, newIndices, 0, pos);
+      System.arraycopy(wordIndices, pos + 1, newIndices, pos, newIndices.length - pos);
+      System.arraycopy(words, 0, newWords, 0, pos);
+      System.arraycopy(words, pos + 1, newWords, pos, newWords.length - pos);
+      return new ImmutableSparseBitSet(newIndices, newWords);
+    }
+  }
+
+  /**
+   * Compute union with <code>other</code>.
+   *
+   * @param other The {@link ImmutableSparseBitSet} to compute the union with.
+   * @return Union of <code>this</code> and <code>other</code>.
+   */
+  public ImmutableSparseBitSet or(ImmutableSparseBitSet other) {
+    if (other.isEmpty()) {
+      return this;
+    } else if (isEmpty()) {
+      return other;
+    }
+
+    final int[] tmpIndices = new int[wordIndices.length + other.wordIndices.length];
+    final long[] tmpWords = new long[tmpIndices.length];
+    int i = 0;
+    int j = 0;
+    int count = 0;
+    while (i < wordIndices.length || j < other.wordIndices.length) {
+      if (j == other.wordIndices.length
+          || (i < wordIndices.length && wordIndices[i] < other.wordIndices[j])) {
+        tmpIndices[count] = wordIndices[i];
+        tmpWords[count++] = words[i++];
+      } else if (i == wordIndices.length || other.wordIndices[j] < wordIndices[i]) {
+        tmpIndices[count] = other.wordIndices[j];
+        tmpWords[count++] = other.words[j++];
+      } else {
+        tmpIndices[count] = wordIndices[i];
+        tmpWords[count++] = words[i++] | other.words[j++];
+      }
+    }
+    return new ImmutableSparseBitSet(Arrays.copyOf(tmpIndices, count),
+        Arrays.copyOf(tmpWords, count));
+  }
+
+  /**
+   * Compute intersection with <code>other</code>.
+   *
+   * @param other The {@link ImmutableSparseBitSet} to compute the intersection with.
+   * @return Intersection of <code>this</code> and <code>other</code>.
+   */
+  public ImmutableSparseBitSet and(ImmutableSparseBitSet other) {
+    final int[] tmpIndices = new int[Math.min(wordIndices.length, other.wordIndices.length)];
+    final long[] tmpWords = new long[tmpIndices.length];
+    int i = 0;
+    int j = 0;
+    int count = 0;
+    while (i < wordIndices.length && j < other.wordIndices.length) {
+      if (wordIndices[i] < other.wordIndices[j]) {
+        ++i;
+      } else if (other.wordIndices[j] < wordIndices[i]) {
+        ++j;
+      } else {
+        final long word = words[i++] & other.words[j++];
+        if (word != 0) {
+          tmpIndices[count] = wordIndices[i - 1];
+          tmpWords[count++] = word;
+        }
+      }
+    }
+    if (count == 0) {
+      return EMPTY;
+    }
+    return new ImmutableSparseBitSet(Arrays.copyOf(tmpIndices, count),
+        Arrays.copyOf(tmpWords, count));
+  }
+
+  /**
+   * Compute size of intersection with <code>other</code> without materializing it.
+   *
+   * @param other The {@link ImmutableSparseBitSet} to intersect with.
+   * @return Number of bits set in both <code>this</code> and <code>other</code>.
+   */
+  public int andCardinality(ImmutableSparseBitSet other) {
+    int result = 0;
+    int i = 0;
+    int j = 0;
+    while (i < wordIndices.length && j < other.wordIndices.length) {
+      if (wordIndices[i] < other.wordIndices[j]) {
+        ++i;
+      } else if (other.wordIndices[j] < wordIndices[i]) {
+        ++j;
+      } else {
+        result += Long.bitCount(words[i++] & other.words[j++]);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Compute maximum of <code>values</code> over the intersection with <code>other</code> without
+   * materializing it.
+   *
+   * @param other The {@link ImmutableSparseBitSet} to intersect with.
+   * @param values Non-negative values, indexed by bit index.
+   * @return Largest <code>values[k]</code> for all bits <code>k</code> set in both
+   *         <code>this</code> and <code>other</code>, <code>0.0</code> if there is none.
+   */
+  public double maxOfIntersection(ImmutableSparseBitSet other, double[] values) {
+    double result = 0.0;
+    int i = 0;
+    int j = 0;
+    while (i < wordIndices.length && j < other.wordIndices.length) {
+      if (wordIndices[i] < other.wordIndices[j]) {
+        ++i;
+      } else if (other.wordIndices[j] < wordIndices[i]) {
+        ++j;
+      } else {
+        long word = words[i] & other.words[j];
+        final int offset = wordIndices[i] << ADDRESS_BITS_PER_WORD;
+        while (word != 0) {
+          result = Math.max(result, values[offset + Long.numberOfTrailingZeros(word)]);
+          word &= word - 1;
+        }
+        ++i;
+        ++j;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Compute size of union with <code>other</code> without materializing it.
+   *
+   * @param other The {@link ImmutableSparseBitSet} to compute union size with.
+   * @return Number of bits set in <code>this</code> or <code>other</code>.
+   */
+  public int orCardinality(ImmutableSparseBitSet other) {
+    return cardinality + other.cardinality - andCardinality(other);
+  }
+
+  /**
+   * @return Number of non-zero 64 bit words stored for this set.
+   */
+  public int countWords() {
+    return words.length;
+  }
+
+  /**
+   * @param pos Position of the word, in the range <code>[0, countWords())</code>.
+   * @return Index of the <code>pos</code>-th non-zero word, i.e., its first bit divided by 64.
+   */
+  public int wordIndexAt(int pos) {
+    return wordIndices[pos];
+  }
+
+  /**
+   * @param pos Position of the word, in the range <code>[0, countWords())</code>.
+   * @return The <code>pos</code>-th non-zero word.
+   */
+  public long wordAt(int pos) {
+    return words[pos];
+  }
+
+  /**
+   * @return {@link PrimitiveIterator.OfInt} over the indices of set bits, in ascending order.
+   */
+  public PrimitiveIterator.OfInt iterator() {
+    return new SetBitIterator();
+  }
+
+  /**
+   * @return Indices of set bits, in ascending order.
+   */
+  public int[] toArray() {
+    final int[] result = new int[cardinality];
+    final PrimitiveIterator.OfInt it = iterator();
+    for (int i = 0; i < result.length; ++i) {
+      result[i] = it.nextInt();
+    }
+    return result;
+  }
+
+  @Override
+  public int hashCode() {
+    return 31 * Arrays.hashCode(wordIndices) + Arrays.hashCode(words);
+  }
+
+  @Override
+  public boolean equals(Object obj) {
+    if (this == obj) {
+      return true;
+    }
+    if (obj == null || getClass() != obj.getClass()) {
+      return false;
+    }
+    final ImmutableSparseBitSet other = (ImmutableSparseBitSet) obj;
+    return Arrays.equals(wordIndices, other.wordIndices) && Arrays.equals(words, other.words);
+  }
+
+  @Override
+  public String toString() {
+    return "ImmutableSparseBitSet " + Arrays.toString(toArray());
+  }
+
+  /**
+   * Iterator over the set bits.
+   */
+  private final class SetBitIterator implements PrimitiveIterator.OfInt {
+
+    /** Position in {@link ImmutableSparseBitSet#words}. */
+    private int pos = 0;
+
+    /** Remaining bits of the current word. */
+    private long word = (words.length == 0) ? 0 : words[0];
+
+    @Override
+    public boolean hasNext() {
+      while (word == 0 && pos + 1 < words.length) {
+        word = words[++pos];
+      }
+      return word != 0;
+    }
+
+    @Override
+    public int nextInt() {
+      if (!hasNext()) {
+        throw new NoSuchElementException();
+      }
+      final int bit = Long.numberOfTrailingZeros(word);
+      word &= word - 1;
+      return (wordIndices[pos] << ADDRESS_BITS_PER_WORD) + bit;
+    }
+
+  }
+
+}
@@ -0,0 +1,86 @@
+package com.github.phenomics.ontolib.graph.algo;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.phenomics.ontolib.graph.data.DirectedGraph;
+import com.github.phenomics.ontolib.graph.data.ImmutableEdge;
+import com.github.phenomics.ontolib.graph.data.ImmutableIndexedDirectedGraph;
+
+/**
+ * Check that the traversal algorithms yield the same results on indexed graphs.
+ */
+public class IndexedGraphAlgoTest extends GraphAlgoTestBase {
+
+  @Override
+  @Before
+  public void setUp() {
+    super.setUp();
+    simpleDag = ImmutableIndexedDirectedGraph.copyOf(simpleDag);
+    simpleLine = ImmutableIndexedDirectedGraph.copyOf(simpleLine);
+  }
+
+  private VertexVisitor<Integer, ImmutableEdge<Integer>> collectInto(List<Integer> visited) {
+    return new VertexVisitor<Integer, ImmutableEdge<Integer>>() {
+      @Override
+      public boolean visit(DirectedGraph<Integer, ImmutableEdge<Integer>> g, Integer v) {
+        visited.add(v);
+        return true;
+      }
+    };
+  }
+
+  @Test
+  public void testSimpleDagBfs() {
+    List<Integer> visited = new ArrayList<>();
+    BreadthFirstSearch<Integer, ImmutableEdge<Integer>> bfs = new BreadthFirstSearch<>();
+    bfs.startFromForward(simpleDag, 1, collectInto(visited));
+    assertEquals("[1, 2, 3, 4]", visited.toString());
+
+    visited.clear();
+    bfs.startFromReverse(simpleDag, 4, collectInto(visited));
+    assertEquals("[4, 2, 3, 1]", visited.toString());
+  }
+
+  @Test
+  public void testSimpleDagDfs() {
+    List<Integer> visited = new ArrayList<>();
+    DepthFirstSearch<Integer, ImmutableEdge<Integer>> dfs = new DepthFirstSearch<>();
+    dfs.startFromForward(simpleDag, 1, collectInto(visited));
+    assertEquals("[1, 3, 4, 2]", visited.toString());
+
+    visited.clear();
+    dfs.startFromReverse(simpleDag, 4, collectInto(visited));
+    assertEquals("[4, 3, 1, 2]", visited.toString());
+  }
+
+  @Test
+  public void testSimpleLineBfs() {
+    List<Integer> visited = new ArrayList<>();
+    BreadthFirstSearch<Integer, ImmutableEdge<Integer>> bfs = new BreadthFirstSearch<>();
+    bfs.startFromForward(simpleLine, 1, collectInto(visited));
+    assertEquals("[1, 2, 3, 4, 5]", visited.toString());
+
+    visited.clear();
+    bfs.startFromReverse(simpleLine, 5, collectInto(visited));
+    assertEquals("[5, 4, 3, 2, 1]", visited.toString());
+  }
+
+  @Test
+  public void testSimpleDagTopsort() {
+    List<Integer> visited = new ArrayList<>();
+    TopologicalSorting<Integer, ImmutableEdge<Integer>,
+        DirectedGraph<Integer, ImmutableEdge<Integer>>> topSort = new TopologicalSorting<>();
+    topSort.startForward(simpleDag, collectInto(visited));
+    assertEquals("[4, 2, 3, 1]", visited.toString());
+
+    visited.clear();
+    topSort.startReverse(simpleDag, collectInto(visited));
+    assertEquals("[1, 2, 3, 4]", visited.toString());
+  }
+
+}
@@ -0,0 +1,188 @@
+package com.github.phenomics.ontolib.graph.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.PrimitiveIterator;
+import org.junit.Before;
+import org.junit.Test;
+
+public class ImmutableIndexedDirectedGraphTest {
+
+  private ImmutableList<Integer> vertices;
+  private ImmutableList<ImmutableEdge<Integer>> edges;
+  private ImmutableIndexedDirectedGraph<Integer, ImmutableEdge<Integer>> graph;
+
+  @Before
+  public void setUp() {
+    vertices = ImmutableList.of(1, 2, 3, 4, 5);
+    edges = ImmutableList.of(ImmutableEdge.construct(1, 2, 1), ImmutableEdge.construct(1, 3, 2),
+        ImmutableEdge.construct(1, 4, 3), ImmutableEdge.construct(2, 5, 4),
+        ImmutableEdge.construct(3, 5, 5), ImmutableEdge.construct(4, 5, 6));
+    graph = ImmutableIndexedDirectedGraph.construct(vertices, edges, true);
+  }
+
+  @Test
+  public void testToString() {
+    assertEquals("ImmutableIndexedDirectedGraph [vertices=[1, 2, 3, 4, 5], "
+        + "edges=[ImmutableEdge [source=1, dest=2, id=1], ImmutableEdge [source=1, dest=3, id=2], "
+        + "ImmutableEdge [source=1, dest=4, id=3], ImmutableEdge [source=2, dest=5, id=4], "
+        + "ImmutableEdge [source=3, dest=5, id=5], ImmutableEdge [source=4, dest=5, id=6]]]",
+        graph.toString());
+  }
+
+  @Test
+  public void testCopyOf() {
+    ImmutableIndexedDirectedGraph<Integer, ImmutableEdge<Integer>> copy =
+        ImmutableIndexedDirectedGraph.copyOf(ImmutableDirectedGraph.construct(edges));
+    assertEquals(graph.toString(), copy.toString());
+  }
+
+  @Test
+  public void testConstructFromCsr() {
+    // Vertex indices follow the given order: 5, 1, 2.
+    ImmutableIndexedDirectedGraph<Integer, ImmutableEdge<Integer>> csrGraph =
+        ImmutableIndexedDirectedGraph.constructFromCsr(ImmutableList.of(5, 1, 2),
+            new int[] {0, 0, 2, 3}, new int[] {2, 0, 0}, new int[] {1, 2, 3});
+
+    assertEquals(0, csrGraph.getVertexIndex(5));
+    assertEquals(2, csrGraph.getVertexIndex(2));
+    assertEquals("ImmutableIndexedDirectedGraph [vertices=[5, 1, 2], "
+        + "edges=[ImmutableEdge [source=1, dest=2, id=1], ImmutableEdge [source=1, dest=5, id=2], "
+        + "ImmutableEdge [source=2, dest=5, id=3]]]", csrGraph.toString());
+    assertEquals(2, csrGraph.inDegree(5));
+    assertEquals("ImmutableEdge [source=2, dest=5, id=3]", csrGraph.getEdge(2, 5).toString());
+    List<Integer> sources = new ArrayList<>();
+    csrGraph.viaInEdgeIterator(5).forEachRemaining(sources::add);
+    assertEquals("[1, 2]", sources.toString());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructFromCsrInvalidTarget() {
+    ImmutableIndexedDirectedGraph.constructFromCsr(ImmutableList.of(1, 2), new int[] {0, 1, 1},
+        new int[] {2}, new int[] {1});
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testConstructFromCsrDuplicateVertex() {
+    ImmutableIndexedDirectedGraph.constructFromCsr(ImmutableList.of(1, 1), new int[] {0, 0, 0},
+        new int[0], new int[0]);
+  }
+
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testSerialization() throws IOException, ClassNotFoundException {
+    final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+      oos.writeObject(graph);
+    }
+    final ImmutableIndexedDirectedGraph<Integer, ImmutableEdge<Integer>> copy;
+    try (ObjectInputStream ois =
+        new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+      copy = (ImmutableIndexedDirectedGraph<Integer, ImmutableEdge<Integer>>) ois.readObject();
+    }
+
+    assertEquals(graph.toString(), copy.toString());
+    assertEquals(3, copy.getVertexIndex(4));
+    assertEquals(-1, copy.getVertexIndex(6));
+    assertEquals("ImmutableEdge [source=3, dest=5, id=5]", copy.getEdge(3, 5).toString());
+  }
+
+  @Test
+  public void testSimpleQueryInterface() {
+    assertTrue(graph.containsVertex(1));
+    assertFalse(graph.containsVertex(6));
+    assertEquals(5, graph.countVertices());
+    assertEquals("[1, 2, 3, 4, 5]", graph.getVertices().toString());
+
+    assertEquals(6, graph.countEdges());
+    assertTrue(graph.containsEdgeFromTo(1, 2));
+    assertFalse(graph.containsEdgeFromTo(1, 5));
+    assertFalse(graph.containsEdgeFromTo(1, 6));
+
+    assertEquals("ImmutableEdge [source=1, dest=3, id=2]", graph.getEdge(1, 3).toString());
+    assertEquals(3, graph.inDegree(5));
+    assertEquals(3, graph.outDegree(1));
+  }
+
+  @Test
+  public void testIndexQueryInterface() {
+    assertEquals(0, graph.getVertexIndex(1));
+    assertEquals(4, graph.getVertexIndex(5));
+    assertEquals(-1, graph.getVertexIndex(6));
+    assertEquals(Integer.valueOf(3), graph.getVertexAt(2));
+
+    assertEquals(3, graph.outDegreeAt(0));
+    assertEquals(0, graph.inDegreeAt(0));
+    assertEquals(3, graph.inDegreeAt(4));
+    assertEquals(1, graph.getOutNeighborIndex(0, 0));
+    assertEquals(3, graph.getInNeighborIndex(4, 2));
+
+    List<Integer> indices = new ArrayList<>();
+    PrimitiveIterator.OfInt it = graph.viaOutEdgeIndexIterator(0);
+    while (it.hasNext()) {
+      indices.add(it.nextInt());
+    }
+    assertEquals("[1, 2, 3]", indices.toString());
+
+    indices.clear();
+    it = graph.viaInEdgeIndexIterator(4);
+    while (it.hasNext()) {
+      indices.add(it.nextInt());
+    }
+    assertEquals("[1, 2, 3]", indices.toString());
+  }
+
+  @Test
+  public void testOutEdgeIterator() {
+    Iterator<ImmutableEdge<Integer>> it = graph.outEdgeIterator(1);
+    List<ImmutableEdge<Integer>> edges = new ArrayList<>();
+    while (it.hasNext()) {
+      edges.add(it.next());
+    }
+    assertEquals("[ImmutableEdge [source=1, dest=2, id=1], ImmutableEdge [source=1, dest=3, id=2], "
+        + "ImmutableEdge [source=1, dest=4, id=3]]", edges.toString());
+  }
+
+  @Test
+  public void testInEdgeIterator() {
+    Iterator<ImmutableEdge<Integer>> it = graph.inEdgeIterator(5);
+    List<ImmutableEdge<Integer>> edges = new ArrayList<>();
+    while (it.hasNext()) {
+      edges.add(it.next());
+    }
+    assertEquals("[ImmutableEdge [source=2, dest=5, id=4], ImmutableEdge [source=3, dest=5, id=5], "
+        + "ImmutableEdge [source=4, dest=5, id=6]]", edges.toString());
+  }
+
+  @Test
+  public void testViaInEdgeIterator() {
+    Iterator<Integer> it = graph.viaInEdgeIterator(5);
+    List<Integer> vertices = new ArrayList<>();
+    while (it.hasNext()) {
+      vertices.add(it.next());
+    }
+    assertEquals("[2, 3, 4]", vertices.toString());
+  }
+
+  @Test
+  public void testSubGraph() {
+    DirectedGraph<Integer, ImmutableEdge<Integer>> subGraph =
+        graph.subGraph(ImmutableList.of(1, 2, 5));
+    assertEquals("ImmutableIndexedDirectedGraph [vertices=[1, 2, 5], "
+        + "edges=[ImmutableEdge [source=1, dest=2, id=1], "
+        + "ImmutableEdge [source=2, dest=5, id=4]]]", subGraph.toString());
+  }
+
+}
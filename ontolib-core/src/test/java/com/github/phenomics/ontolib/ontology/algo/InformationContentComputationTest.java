@@ -8,6 +8,7 @@ import org.junit.Before;
 import org.junit.Test;
 
 import com.github.phenomics.ontolib.ontology.algo.InformationContentComputation;
+import com.github.phenomics.ontolib.ontology.data.TermAnnotationIndex;
 import com.github.phenomics.ontolib.ontology.data.TermAnnotations;
 import com.github.phenomics.ontolib.ontology.data.TermId;
 import com.github.phenomics.ontolib.ontology.testdata.vegetables.VegetableOntologyTestBase;
@@ -41,4 +42,27 @@ public class InformationContentComputationTest extends VegetableOntologyTestBase
     assertEquals(1.099, informationContent.get(idBlueCarrot).doubleValue(), 0.01);
   }
 
+  @Test
+  public void testTable() {
+    Map<TermId, Collection<String>> termLabels =
+        TermAnnotations.constructTermAnnotationToLabelsMap(ontology, recipeAnnotations);
+    InformationContentTable table = computation.computeInformationContentTable(termLabels);
+
+    assertEquals(7, table.size());
+    assertEquals(0.0, table.get(idVegetable), 0.001);
+    assertEquals(0.405, table.get(idCarrot), 0.001);
+    assertEquals(1.099, table.get(idBlueCarrot), 0.01);
+    assertEquals(table.toMap(), computation.computeInformationContent(termLabels));
+  }
+
+  @Test
+  public void testTableFromIndex() {
+    Map<TermId, Collection<String>> termLabels =
+        TermAnnotations.constructTermAnnotationToLabelsMap(ontology, recipeAnnotations);
+    TermAnnotationIndex index = TermAnnotationIndex.construct(ontology, recipeAnnotations);
+
+    assertEquals(computation.computeInformationContentTable(termLabels),
+        computation.computeInformationContentTable(index));
+  }
+
 }
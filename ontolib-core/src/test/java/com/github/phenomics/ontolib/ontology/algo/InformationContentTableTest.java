@@ -0,0 +1,92 @@
+package com.github.phenomics.ontolib.ontology.algo;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermId;
+import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.data.TermIdDictionary;
+import com.google.common.collect.ImmutableList;
+
+public class InformationContentTableTest {
+
+  TermId id1;
+  TermId id2;
+  TermId id3;
+
+  InformationContentTable table;
+
+  @Before
+  public void setUp() {
+    id1 = ImmutableTermId.constructWithPrefix("HP:0000001");
+    id2 = ImmutableTermId.constructWithPrefix("HP:0000002");
+    id3 = ImmutableTermId.constructWithPrefix("HP:0000003");
+
+    final Map<TermId, Double> termToIc = new HashMap<>();
+    termToIc.put(id3, 2.0);
+    termToIc.put(id1, 0.0);
+    termToIc.put(id2, 1.5);
+    table = InformationContentTable.copyOf(termToIc);
+  }
+
+  @Test
+  public void testQueries() {
+    assertEquals(3, table.size());
+    assertEquals(0, table.indexOf(id1));
+    assertEquals(2, table.indexOf(id3));
+    assertEquals(-1, table.indexOf(ImmutableTermId.constructWithPrefix("HP:0000004")));
+    assertEquals(id2, table.termIdAt(1));
+    assertEquals(1.5, table.get(1), 0.0);
+    assertEquals(2.0, table.get(id3), 0.0);
+    assertEquals(0.0, table.get(ImmutableTermId.constructWithPrefix("HP:0000004")), 0.0);
+    assertEquals(2.0, table.max(), 0.0);
+  }
+
+  @Test
+  public void testValuesByCode() {
+    final TermIdDictionary dictionary = new TermIdDictionary();
+    dictionary.intern(id3);
+    dictionary.intern("HP:0000004");
+    dictionary.intern(id2);
+    assertArrayEquals(new double[] {2.0, 0.0, 1.5}, table.valuesByCode(dictionary), 0.0);
+  }
+
+  @Test
+  public void testToMap() {
+    final Map<TermId, Double> map = table.toMap();
+    assertEquals(3, map.size());
+    assertEquals(1.5, map.get(id2), 0.0);
+    assertEquals(table, InformationContentTable.copyOf(map));
+  }
+
+  @Test
+  public void testFromFrequencies() {
+    final InformationContentTable fromFrequencies = InformationContentTable
+        .fromFrequencies(ImmutableList.of(id1, id2, id3), new int[] {4, 2, 1}, 4);
+
+    assertEquals(0.0, fromFrequencies.get(id1), 1e-9);
+    assertEquals(Math.log(2), fromFrequencies.get(id2), 1e-9);
+    assertEquals(Math.log(4), fromFrequencies.get(id3), 1e-9);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromFrequenciesLengthMismatch() {
+    InformationContentTable.fromFrequencies(ImmutableList.of(id1, id2), new int[] {1}, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromFrequenciesUnsorted() {
+    InformationContentTable.fromFrequencies(ImmutableList.of(id2, id1), new int[] {1, 1}, 1);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testFromFrequenciesDuplicate() {
+    InformationContentTable.fromFrequencies(ImmutableList.of(id1, id1), new int[] {1, 1}, 1);
+  }
+
+}
@@ -0,0 +1,95 @@
+package com.github.phenomics.ontolib.ontology.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import com.github.phenomics.ontolib.base.OntoLibRuntimeException;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableSet;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TermAncestorIndexTest extends ImmutableOntologyTestBase {
+
+  TermAncestorIndex index;
+
+  @Override
+  @Before
+  public void setUp() {
+    super.setUp();
+    index = new TermAncestorIndex(graph);
+  }
+
+  @Test
+  public void testIndices() {
+    assertEquals(5, index.size());
+    // The root comes first, the leaf last.
+    assertEquals(0, index.indexOf(id5));
+    assertEquals(4, index.indexOf(id1));
+    assertEquals(-1, index.indexOf(ImmutableTermId.constructWithPrefix("HP:0000006")));
+    for (int i = 0; i < index.size(); ++i) {
+      assertEquals(i, index.indexOf(index.termIdAt(i)));
+    }
+    assertTrue(index.getTermIdDictionary().isFrozen());
+  }
+
+  @Test
+  public void testDictionaryWithFurtherTermIds() {
+    final TermIdDictionary dictionary = new TermIdDictionary();
+    index = new TermAncestorIndex(graph, dictionary);
+    final TermId altId = dictionary.intern("HP:0000006");
+
+    assertEquals(5, index.size());
+    assertEquals(5, dictionary.codeOf(altId));
+    assertEquals(-1, index.indexOf(altId));
+    assertTrue(index.getAncestors(altId).isEmpty());
+  }
+
+  @Test
+  public void testAncestors() {
+    assertEquals(ImmutableSet.of(id1, id2, id3, id4, id5),
+        index.asTermIdSet(index.getAncestors(id1)));
+    assertEquals(ImmutableSet.of(id2, id5), index.asTermIdSet(index.getAncestors(id2)));
+    assertEquals(ImmutableSet.of(id5), index.asTermIdSet(index.getAncestors(id5)));
+    assertTrue(index.getAncestors(ImmutableTermId.constructWithPrefix("HP:0000006")).isEmpty());
+  }
+
+  @Test
+  public void testOntologyTermIdDictionary() {
+    final TermIdDictionary dictionary = ontology.getTermIdDictionary();
+    assertEquals(5, dictionary.size());
+    assertTrue(dictionary.isFrozen());
+    assertSame(id3, dictionary.intern("HP:0000003"));
+
+    // The dictionary codes are the ancestor indices.
+    final TermAncestorIndex ontologyIndex = ontology.getAncestorIndex();
+    assertSame(dictionary, ontologyIndex.getTermIdDictionary());
+    for (int i = 0; i < ontologyIndex.size(); ++i) {
+      assertEquals(i, dictionary.codeOf(ontologyIndex.termIdAt(i)));
+    }
+    assertEquals(0, dictionary.codeOf(id5));
+  }
+
+  @Test(expected = OntoLibRuntimeException.class)
+  public void testOntologyTermIdDictionaryFrozen() {
+    ontology.getTermIdDictionary().intern("HP:0000006");
+  }
+
+  @Test
+  public void testOntologyQueries() {
+    assertEquals(ImmutableSet.of(id2, id5), ontology.getAncestorTermIds(id2));
+    assertEquals(ImmutableSet.of(id2), ontology.getAncestorTermIds(id2, false));
+    assertTrue(ontology.getAncestorTermIds(id2).contains(id5));
+    assertFalse(ontology.getAncestorTermIds(id2).contains(id3));
+    assertEquals(ImmutableSet.of(id2, id3, id5),
+        ontology.getAllAncestorTermIds(ImmutableList.of(id2, id3)));
+    assertEquals(ImmutableSet.of(id2, id3),
+        ontology.getAllAncestorTermIds(ImmutableList.of(id2, id3), false));
+    assertTrue(
+        ontology.getAncestorTermIds(ImmutableTermId.constructWithPrefix("HP:0000006")).isEmpty());
+  }
+
+}
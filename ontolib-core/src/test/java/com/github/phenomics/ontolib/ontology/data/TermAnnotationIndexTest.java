@@ -0,0 +1,88 @@
+package com.github.phenomics.ontolib.ontology.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.Lists;
+
+public class TermAnnotationIndexTest extends ImmutableOntologyTestBase {
+
+  List<TestTermAnnotation> annotations;
+
+  TermAnnotationIndex index;
+
+  @Before
+  public void setUp() {
+    super.setUp();
+    annotations = Lists.newArrayList(new TestTermAnnotation(id1, "one"),
+        new TestTermAnnotation(id1, "two"), new TestTermAnnotation(id2, "one"),
+        new TestTermAnnotation(id2, "three"));
+    index = TermAnnotationIndex.construct(ontology, annotations);
+  }
+
+  @Test
+  public void testConstructFromAnnotations() {
+    assertEquals(5, index.countTerms());
+    assertEquals(3, index.countObjects());
+    assertEquals("one", index.getObjectLabel(0));
+    assertEquals("three", index.getObjectLabel(1));
+    assertEquals("two", index.getObjectLabel(2));
+
+    assertEquals("ImmutablePostingList [0, 2]", index.getPostings(id1).toString());
+    assertEquals("ImmutablePostingList [0, 1, 2]", index.getPostings(id2).toString());
+    assertEquals("ImmutablePostingList [0, 2]", index.getPostings(id3).toString());
+    assertEquals("ImmutablePostingList [0, 1, 2]", index.getPostings(id5).toString());
+    assertEquals(3, index.countObjects(rootTermId));
+    assertEquals(0, index.countObjects(ImmutableTermId.constructWithPrefix("HP:0000042")));
+    assertEquals(-1, index.indexOf(ImmutableTermId.constructWithPrefix("HP:0000042")));
+    assertEquals(id2, index.termIdAt(index.indexOf(id2)));
+  }
+
+  @Test
+  public void testConsistentWithLabelsMap() {
+    Map<TermId, Collection<String>> labels =
+        TermAnnotations.constructTermAnnotationToLabelsMap(ontology, annotations);
+    for (TermId termId : ontology.getAllTermIds()) {
+      final int expected = labels.containsKey(termId) ? labels.get(termId).size() : 0;
+      assertEquals(expected, index.countObjects(termId));
+    }
+  }
+
+  @Test
+  public void testConstructFromMap() {
+    Map<Integer, List<TermId>> objects = ImmutableMap.of(10, ImmutableList.of(id3), 7,
+        ImmutableList.of(id2, id4), 3, ImmutableList.of());
+    TermAnnotationIndex mapIndex = TermAnnotationIndex.construct(ontology, objects);
+
+    assertEquals(3, mapIndex.countObjects());
+    assertNull(mapIndex.getObjectLabel(7));
+    assertEquals("ImmutablePostingList [3, 7, 10]", mapIndex.getObjectIds().toString());
+    assertEquals("ImmutablePostingList [7, 10]", mapIndex.getPostings(id5).toString());
+    assertEquals("ImmutablePostingList [7]", mapIndex.getPostings(id4).toString());
+  }
+
+  @Test
+  public void testQueries() {
+    assertEquals("ImmutablePostingList [0, 2]",
+        index.getObjectsAnnotatedWithAll(ImmutableList.of(id1, id2)).toString());
+    assertEquals("ImmutablePostingList [0, 1, 2]",
+        index.getObjectsAnnotatedWithAll(ImmutableList.of()).toString());
+
+    assertEquals("ImmutablePostingList [0, 2]",
+        index.getObjectsSharingAncestors(ImmutableList.of(id3), false).toString());
+    assertEquals("ImmutablePostingList [0, 1, 2]",
+        index.getObjectsSharingAncestors(ImmutableList.of(id3), true).toString());
+    assertEquals("ImmutablePostingList []",
+        index.getObjectsSharingAncestors(ImmutableList.of(id5), false).toString());
+  }
+
+}
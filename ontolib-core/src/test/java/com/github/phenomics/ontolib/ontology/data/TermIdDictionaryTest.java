@@ -0,0 +1,140 @@
+package com.github.phenomics.ontolib.ontology.data;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+
+import com.github.phenomics.ontolib.base.OntoLibRuntimeException;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class TermIdDictionaryTest {
+
+  TermIdDictionary dictionary;
+
+  @Before
+  public void setUp() {
+    dictionary = new TermIdDictionary();
+  }
+
+  @Test
+  public void testInternString() {
+    ImmutableTermId id1 = dictionary.intern("HP:0000001");
+    ImmutableTermId id2 = dictionary.intern("HP:0000002");
+
+    assertEquals(ImmutableTermId.constructWithPrefix("HP:0000001"), id1);
+    assertSame(id1, dictionary.intern("HP:0000001"));
+    assertSame(id1.getPrefix(), id2.getPrefix());
+    assertEquals(2, dictionary.size());
+
+    assertSame(id2, dictionary.get("HP:0000002"));
+    assertNull(dictionary.get("HP:0000003"));
+  }
+
+  @Test
+  public void testInternPrefixAndId() {
+    ImmutableTermId id1 = dictionary.intern("HP", "0000001");
+
+    assertEquals(ImmutableTermId.constructWithPrefix("HP:0000001"), id1);
+    assertSame(id1, dictionary.intern("HP:0000001"));
+    assertSame(id1.getPrefix(), dictionary.intern("HP", "0000002").getPrefix());
+    assertEquals(2, dictionary.size());
+  }
+
+  @Test
+  public void testCodes() {
+    ImmutableTermId id1 = dictionary.intern("HP:0000001");
+    ImmutableTermId id2 = dictionary.intern("HP:0000002");
+    dictionary.intern("HP:0000001");
+
+    assertEquals(0, dictionary.codeOf(id1));
+    assertEquals(1, dictionary.codeOf(ImmutableTermId.constructWithPrefix("HP:0000002")));
+    assertEquals(-1, dictionary.codeOf(ImmutableTermId.constructWithPrefix("HP:0000003")));
+    assertSame(id1, dictionary.termIdOf(0));
+    assertSame(id2, dictionary.termIdOf(1));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testTermIdOfUnknownCode() {
+    dictionary.intern("HP:0000001");
+    dictionary.termIdOf(1);
+  }
+
+  @Test
+  public void testInternTermId() {
+    ImmutableTermId id1 = dictionary.intern("HP:0000001");
+    ImmutableTermId other = ImmutableTermId.constructWithPrefix("HP:0000002");
+
+    assertSame(id1, dictionary.intern(ImmutableTermId.constructWithPrefix("HP:0000001")));
+    assertSame(other, dictionary.intern(other));
+    assertSame(other, dictionary.intern("HP:0000002"));
+    assertEquals(2, dictionary.size());
+  }
+
+  @Test
+  public void testManyTermIds() {
+    for (int i = 0; i < 5000; ++i) {
+      dictionary.intern("GO:" + i);
+    }
+    assertEquals(5000, dictionary.size());
+    assertEquals("GO:4711", dictionary.get("GO:4711").getIdWithPrefix());
+    assertEquals(4711, dictionary.codeOf(dictionary.get("GO:4711")));
+    assertEquals("GO:4999", dictionary.termIdOf(4999).getIdWithPrefix());
+  }
+
+  @Test(expected = OntoLibRuntimeException.class)
+  public void testInternWithoutPrefix() {
+    dictionary.intern("0000001");
+  }
+
+  @Test
+  public void testFrozenKnownTermId() {
+    ImmutableTermId id1 = dictionary.intern("HP:0000001");
+    dictionary.freeze();
+
+    assertSame(id1, dictionary.intern("HP:0000001"));
+    assertSame(id1, dictionary.intern(ImmutableTermId.constructWithPrefix("HP:0000001")));
+    assertSame(id1.getPrefix(), dictionary.internPrefix("HP"));
+  }
+
+  @Test(expected = OntoLibRuntimeException.class)
+  public void testFrozenUnknownTermId() {
+    dictionary.intern("HP:0000001");
+    dictionary.freeze().intern("HP:0000002");
+  }
+
+  @Test(expected = OntoLibRuntimeException.class)
+  public void testFrozenUnknownPrefix() {
+    dictionary.freeze().internPrefix("GO");
+  }
+
+  @Test
+  public void testChild() {
+    ImmutableTermId id1 = dictionary.intern("HP:0000001");
+    dictionary.freeze();
+    TermIdDictionary child = new TermIdDictionary(dictionary);
+
+    assertSame(id1, child.intern("HP:0000001"));
+    ImmutableTermId id2 = child.intern("HP:0000002");
+    assertSame(id1.getPrefix(), id2.getPrefix());
+    assertSame(id2, child.intern("HP:0000002"));
+    assertEquals(2, child.size());
+
+    assertEquals(1, dictionary.size());
+    assertNull(dictionary.get("HP:0000002"));
+
+    // The child's codes follow the parent's.
+    assertEquals(0, child.codeOf(id1));
+    assertEquals(1, child.codeOf(id2));
+    assertSame(id1, child.termIdOf(0));
+    assertSame(id2, child.termIdOf(1));
+    assertEquals(-1, dictionary.codeOf(id2));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testChildOfNonFrozen() {
+    new TermIdDictionary(dictionary);
+  }
+
+}
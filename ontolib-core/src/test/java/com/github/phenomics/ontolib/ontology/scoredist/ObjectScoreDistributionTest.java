@@ -1,14 +1,35 @@
 package com.github.phenomics.ontolib.ontology.scoredist;
 
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
 
 import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
 import com.google.common.collect.ImmutableSortedMap;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Base64;
 import org.junit.Before;
 import org.junit.Test;
 
 public class ObjectScoreDistributionTest {
 
+  /**
+   * Serialized form of <code>ObjectScoreDistribution(7, 2, 100, {0.5=0.25, 1.0=0.75,
+   * 2.0=1.0})</code> as written by the {@link java.util.SortedMap}-based version.
+   */
+  private static final String SERIALIZED_V1 =
+      "rO0ABXNyAEdjb20uZ2l0aHViLnBoZW5vbWljcy5vbnRvbGliLm9udG9sb2d5LnNjb3JlZGlzdC5P"
+          + "YmplY3RTY29yZURpc3RyaWJ1dGlvbgAAAAAAAAABAgAESQAIbnVtVGVybXNJAAhvYmplY3RJZEkA"
+          + "CnNhbXBsZVNpemVMABVjdW11bGF0aXZlRnJlcXVlbmNpZXN0ABVMamF2YS91dGlsL1NvcnRlZE1h"
+          + "cDt4cAAAAAIAAAAHAAAAZHNyABFqYXZhLnV0aWwuVHJlZU1hcAzB9j4tJWrmAwABTAAKY29tcGFy"
+          + "YXRvcnQAFkxqYXZhL3V0aWwvQ29tcGFyYXRvcjt4cHB3BAAAAANzcgAQamF2YS5sYW5nLkRvdWJs"
+          + "ZYCzwkopa/sEAgABRAAFdmFsdWV4cgAQamF2YS5sYW5nLk51bWJlcoaslR0LlOCLAgAAeHA/4AAA"
+          + "AAAAAHNxAH4ABj/QAAAAAAAAc3EAfgAGP/AAAAAAAABzcQB+AAY/6AAAAAAAAHNxAH4ABkAAAAAA"
+          + "AAAAc3EAfgAGP/AAAAAAAAB4";
+
   ObjectScoreDistribution objDist;
 
   @Before
@@ -34,4 +55,64 @@ public class ObjectScoreDistributionTest {
     assertEquals(0.0, objDist.estimatePValue(0.99), 0.01);
   }
 
+  @Test
+  public void testEstimatePValues() {
+    final double[] scores = new double[] {0.0, 0.2, 0.4, 0.6, 0.8, 0.9, 0.99};
+    final double[] expected = new double[] {1.0, 0.82, 0.82, 0.42, 0.42, 0.0, 0.0};
+    assertArrayEquals(expected, objDist.estimatePValues(scores), 0.01);
+  }
+
+  @Test
+  public void testArrayConstructor() {
+    final ObjectScoreDistribution fromArrays = new ObjectScoreDistribution(1, 2, 10,
+        new double[] {0.1, 0.5, 0.5, 0.9}, new double[] {0.1, 0.3, 0.5, 0.9});
+    assertEquals(objDist.toString(), fromArrays.toString());
+    assertEquals(3, fromArrays.countScores());
+    assertEquals(0.5, fromArrays.scoreAt(1), 0.0);
+    assertEquals(0.5, fromArrays.cumulativeFrequencyAt(1), 0.0);
+    for (double score = 0.0; score < 1.0; score += 0.05) {
+      assertEquals(objDist.estimatePValue(score), fromArrays.estimatePValue(score), 1e-12);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testArrayConstructorUnsorted() {
+    new ObjectScoreDistribution(1, 2, 10, new double[] {0.5, 0.1}, new double[] {0.5, 1.0});
+  }
+
+  @Test
+  public void testDeserializeV1() throws IOException, ClassNotFoundException {
+    final ObjectScoreDistribution dist =
+        (ObjectScoreDistribution) deserialize(Base64.getDecoder().decode(SERIALIZED_V1));
+
+    assertEquals(7, dist.getObjectId());
+    assertEquals(2, dist.getNumTerms());
+    assertEquals(100, dist.getSampleSize());
+    assertArrayEquals(new double[] {0.5, 1.0, 2.0}, dist.getScores(), 0.0);
+    assertArrayEquals(new double[] {0.25, 0.75, 1.0}, dist.getCumulativeFrequencyValues(), 0.0);
+  }
+
+  @Test
+  public void testSerializationRoundTrip() throws IOException, ClassNotFoundException {
+    final ObjectScoreDistribution copy =
+        (ObjectScoreDistribution) deserialize(serialize(objDist));
+
+    assertEquals(objDist.toString(), copy.toString());
+    assertArrayEquals(objDist.getScores(), copy.getScores(), 0.0);
+  }
+
+  private static byte[] serialize(Object obj) throws IOException {
+    final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (ObjectOutputStream out = new ObjectOutputStream(bos)) {
+      out.writeObject(obj);
+    }
+    return bos.toByteArray();
+  }
+
+  private static Object deserialize(byte[] bytes) throws IOException, ClassNotFoundException {
+    try (ObjectInputStream in = new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+      return in.readObject();
+    }
+  }
+
 }
@@ -0,0 +1,60 @@
+package com.github.phenomics.ontolib.ontology.scoredist;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermId;
+import com.github.phenomics.ontolib.ontology.data.TermId;
+
+public class RandomTermSetTest {
+
+  private static TermId[] newTermIds(int count) {
+    final TermId[] result = new TermId[count];
+    for (int i = 0; i < count; ++i) {
+      result[i] = ImmutableTermId.constructWithPrefix(String.format("HP:%07d", i));
+    }
+    return result;
+  }
+
+  @Test
+  public void testDrawDistinctAndReproducible() {
+    final TermId[] termIds = newTermIds(20);
+    final RandomTermSet first = new RandomTermSet(termIds, 5);
+    final RandomTermSet second = new RandomTermSet(termIds, 5);
+    final Random firstRng = new Random(42);
+    final Random secondRng = new Random(42);
+
+    final List<List<TermId>> firstDraws = new ArrayList<>();
+    final List<List<TermId>> secondDraws = new ArrayList<>();
+    for (int i = 0; i < 100; ++i) {
+      first.draw(firstRng);
+      second.draw(secondRng);
+      assertEquals(5, first.size());
+      assertEquals(5, new HashSet<>(first).size());
+      firstDraws.add(new ArrayList<>(first));
+      secondDraws.add(new ArrayList<>(second));
+    }
+    assertEquals(firstDraws, secondDraws);
+  }
+
+  @Test
+  public void testDrawAll() {
+    final TermId[] termIds = newTermIds(3);
+    final RandomTermSet set = new RandomTermSet(termIds, 10);
+    set.draw(new Random(1));
+    assertEquals(3, set.size());
+    assertEquals(3, new HashSet<>(set).size());
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOutOfBounds() {
+    new RandomTermSet(newTermIds(3), 2).get(2);
+  }
+
+}
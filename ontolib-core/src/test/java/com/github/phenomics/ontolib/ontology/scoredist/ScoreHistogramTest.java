@@ -0,0 +1,86 @@
+package com.github.phenomics.ontolib.ontology.scoredist;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class ScoreHistogramTest {
+
+  @Test
+  public void testToObjectScoreDistribution() {
+    final ScoreHistogram histogram = new ScoreHistogram();
+    histogram.add(0.5);
+    histogram.add(0.5004);
+    histogram.add(2.25);
+    histogram.add(1500.0);
+    assertEquals(4, histogram.getTotalCount());
+
+    final ObjectScoreDistribution dist = histogram.toObjectScoreDistribution(7, 3);
+    assertEquals(7, dist.getObjectId());
+    assertEquals(3, dist.getNumTerms());
+    assertEquals(4, dist.getSampleSize());
+    assertEquals("{0.0=0.0, 0.5=0.5, 2.25=0.75, 1500.0=1.0}",
+        dist.getCumulativeFrequencies().toString());
+  }
+
+  @Test
+  public void testNegativeScores() {
+    final ScoreHistogram histogram = new ScoreHistogram();
+    histogram.add(1.0);
+    histogram.add(-3000.0);
+    histogram.add(-0.001);
+    assertEquals("{-3000.0=0.3333333333333333, -0.001=0.6666666666666666, "
+        + "0.0=0.6666666666666666, 1.0=1.0}",
+        histogram.toObjectScoreDistribution(1, 1).getCumulativeFrequencies().toString());
+  }
+
+  @Test
+  public void testAddAll() {
+    final ScoreHistogram first = new ScoreHistogram();
+    first.add(0.1);
+    first.add(0.2);
+    final ScoreHistogram second = new ScoreHistogram();
+    second.add(-1.0);
+    second.add(0.2);
+    second.add(9.0);
+    first.addAll(second);
+    first.addAll(new ScoreHistogram());
+
+    assertEquals(5, first.getTotalCount());
+    assertEquals("{-1.0=0.2, 0.0=0.2, 0.1=0.4, 0.2=0.8, 9.0=1.0}",
+        first.toObjectScoreDistribution(1, 1).getCumulativeFrequencies().toString());
+  }
+
+  @Test
+  public void testOfObjectScoreDistribution() {
+    final ScoreHistogram histogram = new ScoreHistogram();
+    for (double score : new double[] {0.1, 0.1, 0.3, 2.0, 2.0, 2.0, 7.5}) {
+      histogram.add(score);
+    }
+    final ObjectScoreDistribution dist = histogram.toObjectScoreDistribution(1, 2);
+
+    final ScoreHistogram reconstructed = ScoreHistogram.of(dist);
+    assertEquals(7, reconstructed.getTotalCount());
+    reconstructed.add(0.3, 3);
+    assertEquals(10, reconstructed.getTotalCount());
+    assertEquals("{0.0=0.0, 0.1=0.2, 0.3=0.6, 2.0=0.9, 7.5=1.0}",
+        reconstructed.toObjectScoreDistribution(1, 2).getCumulativeFrequencies().toString());
+  }
+
+  @Test
+  public void testQuantiles() {
+    final ScoreHistogram histogram = new ScoreHistogram();
+    final double[] result = new double[3];
+    histogram.quantiles(new double[] {0.5, 0.9, 1.0}, result);
+    assertArrayEquals(new double[] {Double.NaN, Double.NaN, Double.NaN}, result, 0.0);
+
+    for (int i = 1; i <= 100; ++i) {
+      histogram.add(i / 10.0);
+    }
+    final double[] quantiles = new double[5];
+    histogram.quantiles(new double[] {0.01, 0.5, 0.95, 0.951, 1.0}, quantiles);
+    assertArrayEquals(new double[] {0.1, 5.0, 9.5, 9.6, 10.0}, quantiles, 1e-9);
+  }
+
+}
@@ -13,7 +13,9 @@ public class ScoreSamplingOptionsTest {
     samplingOptions = new ScoreSamplingOptions();
 
     assertEquals(
-        "ScoreSamplingOptions [numThreads=1, minObjectId=null, maxObjectId=null, minNumTerms=1, maxNumTerms=20, numIterations=100000, seed=42]",
+        "ScoreSamplingOptions [numThreads=1, minObjectId=null, maxObjectId=null, minNumTerms=1, "
+            + "maxNumTerms=20, numIterations=100000, seed=42, sharedSamples=false, "
+            + "convergenceTolerance=0.0, convergenceCheckInterval=1000]",
         samplingOptions.toString());
   }
 
@@ -21,8 +23,22 @@ public class ScoreSamplingOptionsTest {
   public void testFullConstruction() {
     samplingOptions = new ScoreSamplingOptions(1, 1, 2, 3, 4, 5, 6);
     assertEquals(
-        "ScoreSamplingOptions [numThreads=1, minObjectId=1, maxObjectId=2, minNumTerms=3, maxNumTerms=4, numIterations=6, seed=5]",
+        "ScoreSamplingOptions [numThreads=1, minObjectId=1, maxObjectId=2, minNumTerms=3, "
+            + "maxNumTerms=4, numIterations=6, seed=5, sharedSamples=false, "
+            + "convergenceTolerance=0.0, convergenceCheckInterval=1000]",
         samplingOptions.toString());
   }
 
+  @Test
+  public void testClone() throws CloneNotSupportedException {
+    samplingOptions = new ScoreSamplingOptions();
+    samplingOptions.setSharedSamples(true);
+    samplingOptions.setConvergenceTolerance(0.01);
+    samplingOptions.setConvergenceCheckInterval(500);
+    final ScoreSamplingOptions clone = (ScoreSamplingOptions) samplingOptions.clone();
+    assertEquals(true, clone.isSharedSamples());
+    assertEquals(0.01, clone.getConvergenceTolerance(), 0.0);
+    assertEquals(500, clone.getConvergenceCheckInterval());
+  }
+
 }
@@ -1,6 +1,7 @@
 package com.github.phenomics.ontolib.ontology.scoredist;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
 
 import java.util.Collection;
 import java.util.HashMap;
@@ -46,8 +47,7 @@ public class SimilarityScoreSamplingTest extends VegetableOntologyTestBase {
         resnikSimilarity, options);
   }
 
-  @Test
-  public void test() {
+  private Map<Integer, Set<TermId>> buildLabels() {
     // TODO: this logic should be moved into the library
     Map<String, Integer> recipeToId = new HashMap<>();
     Map<Integer, Set<TermId>> labels = new HashMap<>();
@@ -63,8 +63,13 @@ public class SimilarityScoreSamplingTest extends VegetableOntologyTestBase {
       final Set<TermId> termIds = labels.get(recipeId);
       termIds.add(a.getTermId());
     }
+    return labels;
+  }
 
-    Map<Integer, ScoreDistribution> samplingResult = scoreSampling.performSampling(labels);
+  @Test
+  public void test() {
+    Map<Integer, ScoreDistribution> samplingResult =
+        scoreSampling.performSampling(buildLabels());
     assertEquals(1, samplingResult.size());
     ScoreDistribution dist = samplingResult.get(2);
     assertEquals(0.50, dist.getObjectScoreDistribution(1).estimatePValue(0.2), 0.3);
@@ -73,4 +78,91 @@ public class SimilarityScoreSamplingTest extends VegetableOntologyTestBase {
     assertEquals(0.0, dist.getObjectScoreDistribution(1).estimatePValue(0.8), 0.01);
   }
 
+  @Test
+  public void testReproducibleWithSeed() {
+    final Map<Integer, Set<TermId>> labels = buildLabels();
+    final ScoreDistribution expected = scoreSampling.performSamplingForTermCount(labels, 2);
+    assertEquals(42, expected.getObjectScoreDistribution(1).getSampleSize());
+
+    ScoreSamplingOptions options = new ScoreSamplingOptions(3, null, null, 2, 2, 10_000, 42);
+    final ScoreDistribution actual = new SimilarityScoreSampling<>(ontology, resnikSimilarity,
+        options).performSamplingForTermCount(labels, 2);
+    for (int objectId : labels.keySet()) {
+      assertEquals(expected.getObjectScoreDistribution(objectId).toString(),
+          actual.getObjectScoreDistribution(objectId).toString());
+    }
+  }
+
+  @Test
+  public void testSharedSamples() {
+    final Map<Integer, Set<TermId>> labels = buildLabels();
+    ScoreSamplingOptions options = new ScoreSamplingOptions(1, null, null, 2, 2, 10_000, 2_000);
+    final ScoreDistribution perObject =
+        new SimilarityScoreSampling<>(ontology, resnikSimilarity, options)
+            .performSamplingForTermCount(labels, 2);
+    options.setSharedSamples(true);
+    final ScoreDistribution shared =
+        new SimilarityScoreSampling<>(ontology, resnikSimilarity, options)
+            .performSamplingForTermCount(labels, 2);
+    options.setNumThreads(3);
+    final ScoreDistribution sharedParallel =
+        new SimilarityScoreSampling<>(ontology, resnikSimilarity, options)
+            .performSamplingForTermCount(labels, 2);
+
+    assertEquals(labels.keySet(), new HashSet<>(shared.getObjectIds()));
+    for (int objectId : labels.keySet()) {
+      final ObjectScoreDistribution expected = perObject.getObjectScoreDistribution(objectId);
+      final ObjectScoreDistribution actual = shared.getObjectScoreDistribution(objectId);
+      assertEquals(2_000, actual.getSampleSize());
+      assertEquals(actual.toString(),
+          sharedParallel.getObjectScoreDistribution(objectId).toString());
+      // Both modes estimate the same null distribution.
+      for (double score = 0.0; score < 1.0; score += 0.1) {
+        assertEquals(expected.estimatePValue(score), actual.estimatePValue(score), 0.05);
+      }
+    }
+  }
+
+  @Test
+  public void testExtendSampling() {
+    final Map<Integer, Set<TermId>> labels = buildLabels();
+    for (boolean sharedSamples : new boolean[] {false, true}) {
+      ScoreSamplingOptions options = new ScoreSamplingOptions(2, null, null, 2, 2, 10_000, 20);
+      options.setSharedSamples(sharedSamples);
+      final Map<Integer, ScoreDistribution> previous =
+          new SimilarityScoreSampling<>(ontology, resnikSimilarity, options)
+              .performSampling(labels);
+
+      options.setNumIterations(42);
+      final SimilarityScoreSampling<VegetableTerm, VegetableTermRelation> sampling =
+          new SimilarityScoreSampling<>(ontology, resnikSimilarity, options);
+      final ScoreDistribution expected = sampling.performSamplingForTermCount(labels, 2);
+      final ScoreDistribution extended = sampling.extendSampling(labels, previous).get(2);
+      assertEquals(expected.getObjectIds(), extended.getObjectIds());
+      for (int objectId : labels.keySet()) {
+        assertEquals(42, extended.getObjectScoreDistribution(objectId).getSampleSize());
+        assertEquals(expected.getObjectScoreDistribution(objectId).toString(),
+            extended.getObjectScoreDistribution(objectId).toString());
+      }
+    }
+  }
+
+  @Test
+  public void testEarlyStopping() {
+    final Map<Integer, Set<TermId>> labels = buildLabels();
+    for (boolean sharedSamples : new boolean[] {false, true}) {
+      ScoreSamplingOptions options = new ScoreSamplingOptions(2, null, null, 2, 2, 10_000, 50_000);
+      options.setSharedSamples(sharedSamples);
+      options.setConvergenceTolerance(0.01);
+      options.setConvergenceCheckInterval(1_000);
+      final ScoreDistribution dist = new SimilarityScoreSampling<>(ontology, resnikSimilarity,
+          options).performSamplingForTermCount(labels, 2);
+      for (int objectId : labels.keySet()) {
+        final int sampleSize = dist.getObjectScoreDistribution(objectId).getSampleSize();
+        assertTrue("sample size " + sampleSize, sampleSize >= 10_000 && sampleSize < 50_000);
+        assertEquals(0, sampleSize % 1_000);
+      }
+    }
+  }
+
 }
@@ -0,0 +1,114 @@
+package com.github.phenomics.ontolib.ontology.similarity;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.phenomics.ontolib.ontology.algo.InformationContentComputation;
+import com.github.phenomics.ontolib.ontology.data.TermAnnotations;
+import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.testdata.vegetables.VegetableOntologyTestBase;
+import com.github.phenomics.ontolib.ontology.testdata.vegetables.VegetableTerm;
+import com.github.phenomics.ontolib.ontology.testdata.vegetables.VegetableTermRelation;
+import com.google.common.collect.Lists;
+
+public class BatchSimilarityScorerTest extends VegetableOntologyTestBase {
+
+  Map<Integer, List<TermId>> objects;
+
+  List<TermId> query;
+
+  ResnikSimilarity<VegetableTerm, VegetableTermRelation> resnikSimilarity;
+
+  ExecutorService executorService;
+
+  @Before
+  public void setUp() {
+    super.setUp();
+
+    InformationContentComputation<VegetableTerm, VegetableTermRelation> computation =
+        new InformationContentComputation<>(ontology);
+    Map<TermId, Collection<String>> termLabels =
+        TermAnnotations.constructTermAnnotationToLabelsMap(ontology, recipeAnnotations);
+    Map<TermId, Double> informationContent = computation.computeInformationContent(termLabels);
+    resnikSimilarity = new ResnikSimilarity<>(ontology, informationContent, true);
+
+    objects = new LinkedHashMap<>();
+    objects.put(1, Lists.newArrayList(idBeet, idPumpkin));
+    objects.put(2, Lists.newArrayList(idCarrot));
+    objects.put(3, Lists.newArrayList(idBlueCarrot, idLeafVegetable));
+    objects.put(4, Lists.newArrayList(idLeafVegetable));
+    query = Lists.newArrayList(idBlueCarrot, idBeet);
+
+    executorService = Executors.newFixedThreadPool(2);
+  }
+
+  @After
+  public void tearDown() {
+    executorService.shutdown();
+  }
+
+  private void assertSameAsPairwise(Similarity similarity, ObjectScores scores) {
+    assertEquals(objects.size(), scores.size());
+    int i = 0;
+    for (Map.Entry<Integer, List<TermId>> e : objects.entrySet()) {
+      assertEquals(e.getKey().intValue(), scores.getObjectId(i));
+      assertEquals(similarity.computeScore(query, e.getValue()), scores.getScore(i), 0.0);
+      ++i;
+    }
+  }
+
+  @Test
+  public void testResnikSequential() {
+    final ObjectScores scores =
+        new BatchSimilarityScorer(resnikSimilarity).scoreAgainstAll(query, objects);
+    assertSameAsPairwise(resnikSimilarity, scores);
+  }
+
+  @Test
+  public void testResnikParallel() {
+    final ObjectScores scores = new BatchSimilarityScorer(resnikSimilarity, executorService)
+        .scoreAgainstAll(query, objects);
+    assertSameAsPairwise(resnikSimilarity, scores);
+  }
+
+  @Test
+  public void testJaccard() {
+    final Similarity similarity = new JaccardSimilarity<>(ontology);
+    assertSameAsPairwise(similarity,
+        new BatchSimilarityScorer(similarity, executorService).scoreAgainstAll(query, objects));
+  }
+
+  @Test
+  public void testTermOverlap() {
+    final Similarity similarity = new TermOverlapSimilarity<>(ontology);
+    assertSameAsPairwise(similarity,
+        new BatchSimilarityScorer(similarity).scoreAgainstAll(query, objects));
+  }
+
+  @Test
+  public void testTopK() {
+    final ObjectScores all =
+        new BatchSimilarityScorer(resnikSimilarity).scoreAgainstAll(query, objects);
+    final ObjectScores top =
+        new BatchSimilarityScorer(resnikSimilarity).scoreTopK(query, objects, 2);
+
+    assertEquals(2, top.size());
+    final double[] sorted = all.getScores();
+    Arrays.sort(sorted);
+    assertArrayEquals(new double[] {sorted[sorted.length - 1], sorted[sorted.length - 2]},
+        top.getScores(), 0.0);
+    assertEquals(objects.size(), all.topK(10).size());
+  }
+
+}
@@ -0,0 +1,64 @@
+package com.github.phenomics.ontolib.ontology.similarity;
+
+import static org.junit.Assert.assertEquals;
+
+import java.util.Collection;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.phenomics.ontolib.ontology.algo.InformationContentComputation;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermId;
+import com.github.phenomics.ontolib.ontology.data.TermAnnotations;
+import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.testdata.vegetables.VegetableOntologyTestBase;
+import com.github.phenomics.ontolib.ontology.testdata.vegetables.VegetableTerm;
+import com.github.phenomics.ontolib.ontology.testdata.vegetables.VegetableTermRelation;
+
+public class MicaPairwiseResnikSimilarityTest extends VegetableOntologyTestBase {
+
+  Map<TermId, Double> informationContent;
+
+  MicaPairwiseResnikSimilarity<VegetableTerm, VegetableTermRelation> similarity;
+
+  @Before
+  public void setUp() {
+    super.setUp();
+
+    InformationContentComputation<VegetableTerm, VegetableTermRelation> computation =
+        new InformationContentComputation<>(ontology);
+    Map<TermId, Collection<String>> termLabels =
+        TermAnnotations.constructTermAnnotationToLabelsMap(ontology, recipeAnnotations);
+    informationContent = computation.computeInformationContent(termLabels);
+
+    similarity = new MicaPairwiseResnikSimilarity<>(ontology, informationContent);
+  }
+
+  @Test
+  public void testComputeSimilarities() {
+    assertEquals(0.0, similarity.computeScore(idBeet, idCarrot), 0.01);
+    assertEquals(0.405, similarity.computeScore(idBlueCarrot, idCarrot), 0.01);
+    assertEquals(0.0, similarity.computeScore(idPumpkin, idCarrot), 0.01);
+    assertEquals(0.0, similarity.computeScore(idLeafVegetable, idCarrot), 0.01);
+  }
+
+  @Test
+  public void testUnknownTerm() {
+    assertEquals(0.0,
+        similarity.computeScore(ImmutableTermId.constructWithPrefix("VO:9999999"), idCarrot),
+        0.0);
+  }
+
+  @Test
+  public void testSameAsPairwiseResnikSimilarity() {
+    final PairwiseResnikSimilarity<VegetableTerm, VegetableTermRelation> expected =
+        new PairwiseResnikSimilarity<>(ontology, informationContent);
+    for (TermId query : ontology.getAllTermIds()) {
+      for (TermId target : ontology.getAllTermIds()) {
+        assertEquals(expected.computeScore(query, target), similarity.computeScore(query, target),
+            1e-9);
+      }
+    }
+  }
+
+}
@@ -2,21 +2,40 @@ package com.github.phenomics.ontolib.ontology.similarity;
 
 import static org.junit.Assert.assertEquals;
 
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 import com.github.phenomics.ontolib.ontology.algo.InformationContentComputation;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermId;
 import com.github.phenomics.ontolib.ontology.data.TermAnnotations;
 import com.github.phenomics.ontolib.ontology.data.TermId;
 import com.github.phenomics.ontolib.ontology.similarity.PrecomputingPairwiseResnikSimilarity;
+import com.github.phenomics.ontolib.ontology.similarity.PrecomputingPairwiseResnikSimilarity.PrecomputedScores;
+import com.github.phenomics.ontolib.ontology.similarity.PrecomputingPairwiseResnikSimilarity.Quantization;
+import com.github.phenomics.ontolib.ser.SerializationException;
+import com.google.common.collect.ImmutableList;
 import com.github.phenomics.ontolib.ontology.testdata.vegetables.VegetableOntologyTestBase;
 import com.github.phenomics.ontolib.ontology.testdata.vegetables.VegetableTerm;
 import com.github.phenomics.ontolib.ontology.testdata.vegetables.VegetableTermRelation;
 
 public class PrecomputingPairwiseResnikSimilarityTest extends VegetableOntologyTestBase {
 
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  Map<TermId, Double> informationContent;
+
   PrecomputingPairwiseResnikSimilarity<VegetableTerm, VegetableTermRelation> similarity;
 
   @Before
@@ -27,7 +46,7 @@ public class PrecomputingPairwiseResnikSimilarityTest extends VegetableOntologyT
         new InformationContentComputation<>(ontology);
     Map<TermId, Collection<String>> termLabels =
         TermAnnotations.constructTermAnnotationToLabelsMap(ontology, recipeAnnotations);
-    Map<TermId, Double> informationContent = computation.computeInformationContent(termLabels);
+    informationContent = computation.computeInformationContent(termLabels);
 
     similarity = new PrecomputingPairwiseResnikSimilarity<>(ontology, informationContent);
   }
@@ -40,4 +59,136 @@ public class PrecomputingPairwiseResnikSimilarityTest extends VegetableOntologyT
     assertEquals(0.0, similarity.computeScore(idLeafVegetable, idCarrot), 0.01);
   }
 
+  @Test
+  public void testComputeSimilaritiesMultipleThreads() {
+    similarity = new PrecomputingPairwiseResnikSimilarity<>(ontology, informationContent, 4);
+
+    assertEquals(0.0, similarity.computeScore(idBeet, idCarrot), 0.01);
+    assertEquals(0.405, similarity.computeScore(idBlueCarrot, idCarrot), 0.01);
+    assertEquals(0.405, similarity.computeScore(idCarrot, idBlueCarrot), 0.01);
+  }
+
+  @Test
+  public void testComputeSimilaritiesShortQuantization() {
+    similarity = new PrecomputingPairwiseResnikSimilarity<>(ontology, informationContent, 1,
+        Quantization.SHORT);
+
+    assertEquals(Quantization.SHORT, similarity.getQuantization());
+    assertEquals(0.0, similarity.computeScore(idBeet, idCarrot), 0.01);
+    assertEquals(0.405, similarity.computeScore(idBlueCarrot, idCarrot), 0.01);
+    assertEquals(0.0, similarity.computeScore(idPumpkin, idCarrot), 0.01);
+  }
+
+  @Test
+  public void testComputeSimilaritiesByteQuantization() {
+    similarity = new PrecomputingPairwiseResnikSimilarity<>(ontology, informationContent, 1,
+        Quantization.BYTE);
+
+    assertEquals(Quantization.BYTE, similarity.getQuantization());
+    assertEquals(0.0, similarity.computeScore(idBeet, idCarrot), 0.02);
+    assertEquals(0.405, similarity.computeScore(idBlueCarrot, idCarrot), 0.02);
+    assertEquals(0.0, similarity.computeScore(idPumpkin, idCarrot), 0.02);
+  }
+
+  @Test
+  public void testCountPairs() {
+    assertEquals(10, PrecomputingPairwiseResnikSimilarity.countPairs(4, 0, 4));
+    assertEquals(4, PrecomputingPairwiseResnikSimilarity.countPairs(4, 0, 1));
+    assertEquals(3, PrecomputingPairwiseResnikSimilarity.countPairs(4, 2, 4));
+  }
+
+  @Test
+  public void testSaveAndOpen() throws IOException, SerializationException {
+    final File file = tmpFolder.newFile("scores.bin");
+    similarity.save(file);
+
+    final PrecomputingPairwiseResnikSimilarity<VegetableTerm, VegetableTermRelation> loaded =
+        PrecomputingPairwiseResnikSimilarity.open(file, ontology, informationContent);
+
+    assertEquals(Quantization.FLOAT, loaded.getQuantization());
+    assertEquals(0.0, loaded.computeScore(idBeet, idCarrot), 0.01);
+    assertEquals(0.405, loaded.computeScore(idBlueCarrot, idCarrot), 0.01);
+    assertEquals(0.405, loaded.computeScore(idCarrot, idBlueCarrot), 0.01);
+  }
+
+  @Test
+  public void testSaveAndOpenQuantized() throws IOException, SerializationException {
+    similarity = new PrecomputingPairwiseResnikSimilarity<>(ontology, informationContent, 1,
+        Quantization.SHORT);
+    final File file = tmpFolder.newFile("scores.bin");
+    similarity.save(file);
+
+    final PrecomputingPairwiseResnikSimilarity<VegetableTerm, VegetableTermRelation> loaded =
+        PrecomputingPairwiseResnikSimilarity.open(file, ontology, informationContent);
+
+    assertEquals(Quantization.SHORT, loaded.getQuantization());
+    assertEquals(0.405, loaded.computeScore(idBlueCarrot, idCarrot), 0.01);
+  }
+
+  @Test(expected = SerializationException.class)
+  public void testOpenWithDifferentInformationContent() throws IOException, SerializationException {
+    final File file = tmpFolder.newFile("scores.bin");
+    similarity.save(file);
+
+    final Map<TermId, Double> otherInformationContent = new HashMap<>(informationContent);
+    otherInformationContent.put(idCarrot, 42.0);
+    PrecomputingPairwiseResnikSimilarity.open(file, ontology, otherInformationContent);
+  }
+
+  @Test(expected = SerializationException.class)
+  public void testOpenInvalidFile() throws IOException, SerializationException {
+    PrecomputingPairwiseResnikSimilarity.open(tmpFolder.newFile("empty.bin"), ontology,
+        informationContent);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testJavaSerialization() throws IOException, ClassNotFoundException {
+    final ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+      oos.writeObject(similarity);
+    }
+    try (ObjectInputStream ois =
+        new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+      similarity =
+          (PrecomputingPairwiseResnikSimilarity<VegetableTerm, VegetableTermRelation>) ois
+              .readObject();
+    }
+
+    assertEquals(0.405, similarity.computeScore(idBlueCarrot, idCarrot), 0.01);
+  }
+
+  @Test
+  public void testSegmentedStorage() throws IOException {
+    final ImmutableList.Builder<TermId> builder = ImmutableList.builder();
+    for (int i = 0; i < 20; ++i) {
+      builder.add(ImmutableTermId.constructWithPrefix(String.format("HP:%07d", i)));
+    }
+    final ImmutableList<TermId> termIds = builder.build();
+
+    for (Quantization quantization : Quantization.values()) {
+      // Segments of 8 bytes, such that the 210 pairs are spread over many segments.
+      final PrecomputedScores scores =
+          new PrecomputedScores(termIds, null, quantization, 210.0, "", 0L, 3, null);
+      for (int i = 0; i < 20; ++i) {
+        for (int j = i; j < 20; ++j) {
+          scores.put(i, j, i * 10 + j);
+        }
+      }
+      final File file = tmpFolder.newFile("scores-" + quantization + ".bin");
+      scores.write(file);
+
+      for (int segmentBits : new int[] {2, 5, PrecomputedScores.DEFAULT_SEGMENT_BITS}) {
+        final PrecomputedScores loaded = PrecomputedScores.open(file, null, segmentBits);
+        for (int i = 0; i < 20; ++i) {
+          for (int j = i; j < 20; ++j) {
+            assertEquals(quantization + " " + segmentBits, scores.get(i, j), loaded.get(j, i),
+                0.0);
+            assertEquals(i * 10 + j, loaded.get(i, j), 1.0);
+          }
+        }
+      }
+    }
+  }
+
 }
@@ -0,0 +1,115 @@
+package com.github.phenomics.ontolib.ontology.similarity;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.Before;
+import org.junit.Test;
+
+import com.github.phenomics.ontolib.ontology.algo.InformationContentComputation;
+import com.github.phenomics.ontolib.ontology.data.TermAnnotations;
+import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.testdata.vegetables.VegetableOntologyTestBase;
+import com.github.phenomics.ontolib.ontology.testdata.vegetables.VegetableTerm;
+import com.github.phenomics.ontolib.ontology.testdata.vegetables.VegetableTermRelation;
+import com.google.common.collect.Lists;
+
+public class TopKSimilaritySearchTest extends VegetableOntologyTestBase {
+
+  Map<Integer, List<TermId>> objects;
+
+  Map<TermId, Double> informationContent;
+
+  @Before
+  public void setUp() {
+    super.setUp();
+
+    InformationContentComputation<VegetableTerm, VegetableTermRelation> computation =
+        new InformationContentComputation<>(ontology);
+    Map<TermId, Collection<String>> termLabels =
+        TermAnnotations.constructTermAnnotationToLabelsMap(ontology, recipeAnnotations);
+    informationContent = computation.computeInformationContent(termLabels);
+
+    objects = new LinkedHashMap<>();
+    objects.put(1, Lists.newArrayList(idBeet, idPumpkin));
+    objects.put(2, Lists.newArrayList(idCarrot));
+    objects.put(3, Lists.newArrayList(idBlueCarrot, idLeafVegetable));
+    objects.put(4, Lists.newArrayList(idLeafVegetable));
+    objects.put(5, Lists.newArrayList(idRootVegetable));
+    objects.put(6, Lists.newArrayList(idBlueCarrot));
+  }
+
+  private void assertSameAsExhaustive(Similarity similarity, List<TermId> query, int k) {
+    final TopKSimilaritySearch.Result result =
+        new TopKSimilaritySearch(similarity, objects).search(query, k);
+    final ObjectScores expected =
+        new BatchSimilarityScorer(similarity).scoreTopK(query, objects, k);
+
+    assertArrayEquals(expected.getObjectIds(), result.getObjectScores().getObjectIds());
+    assertArrayEquals(expected.getScores(), result.getObjectScores().getScores(), 0.0);
+    assertEquals(objects.size(), result.getNumScored() + result.getNumPruned());
+  }
+
+  private void assertBoundsValid(Similarity similarity, List<TermId> query) {
+    final Similarity.PreparedQuery preparedQuery = similarity.prepareQuery(query);
+    for (List<TermId> target : objects.values()) {
+      assertTrue(preparedQuery.upperBound(target) >= preparedQuery.computeScore(target));
+    }
+  }
+
+  @Test
+  public void testResnik() {
+    final ResnikSimilarity<VegetableTerm, VegetableTermRelation> similarity =
+        new ResnikSimilarity<>(ontology, informationContent, true);
+    final List<TermId> query = Lists.newArrayList(idBlueCarrot);
+
+    assertBoundsValid(similarity, query);
+    for (int k = 0; k <= objects.size() + 1; ++k) {
+      assertSameAsExhaustive(similarity, query, k);
+    }
+    assertTrue(new TopKSimilaritySearch(similarity, objects).search(query, 1).getNumPruned() > 0);
+  }
+
+  @Test
+  public void testResnikWithoutPrecomputation() {
+    final ResnikSimilarity<VegetableTerm, VegetableTermRelation> similarity =
+        new ResnikSimilarity<>(new PairwiseResnikSimilarity<>(ontology, informationContent),
+            false);
+    final List<TermId> query = Lists.newArrayList(idCarrot, idPumpkin);
+
+    assertBoundsValid(similarity, query);
+    for (int k = 0; k <= objects.size(); ++k) {
+      assertSameAsExhaustive(similarity, query, k);
+    }
+  }
+
+  @Test
+  public void testJaccard() {
+    final Similarity similarity = new JaccardSimilarity<>(ontology);
+    final List<TermId> query = Lists.newArrayList(idBlueCarrot);
+
+    assertBoundsValid(similarity, query);
+    for (int k = 0; k <= objects.size(); ++k) {
+      assertSameAsExhaustive(similarity, query, k);
+    }
+  }
+
+  @Test
+  public void testTermOverlap() {
+    final List<TermId> query = Lists.newArrayList(idBeet);
+    for (Similarity similarity : Lists.<Similarity>newArrayList(
+        new TermOverlapSimilarity<>(ontology, true),
+        new TermOverlapSimilarity<>(ontology, false))) {
+      assertBoundsValid(similarity, query);
+      for (int k = 0; k <= objects.size(); ++k) {
+        assertSameAsExhaustive(similarity, query, k);
+      }
+    }
+  }
+
+}
@@ -0,0 +1,123 @@
+package com.github.phenomics.ontolib.ser;
+
+import static org.junit.Assert.assertEquals;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.RandomAccessFile;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.zip.GZIPOutputStream;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.phenomics.ontolib.ontology.algo.InformationContentTable;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermId;
+import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
+import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistribution;
+import com.google.common.collect.ImmutableMap;
+
+public class DataSerializerTest {
+
+  private static final byte[] MAGIC = "TEST".getBytes();
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private ArrayList<String> newList() {
+    final ArrayList<String> list = new ArrayList<>();
+    for (int i = 0; i < 100000; ++i) {
+      list.add("element " + (i % 1000));
+    }
+    return list;
+  }
+
+  @Test
+  public void testRoundTripAllCompressions() throws SerializationException, IOException {
+    final ArrayList<String> list = newList();
+    for (Compression compression : Arrays.asList(Compression.NONE, Compression.deflate(1),
+        Compression.deflate(9), Compression.LZ)) {
+      final String path = tmpFolder.newFile().getPath();
+      new DataSerializer(MAGIC, "0.1", path, compression).save(list);
+      assertEquals(compression.toString(), list, new DataSerializer(MAGIC, "0.1", path).load());
+    }
+  }
+
+  @Test
+  public void testRoundTripInformationContentTable() throws SerializationException, IOException {
+    final Map<TermId, Double> values = new HashMap<>();
+    values.put(ImmutableTermId.constructWithPrefix("HP:0000001"), 0.0);
+    values.put(ImmutableTermId.constructWithPrefix("HP:0000118"), 0.5);
+    final InformationContentTable table = InformationContentTable.copyOf(values);
+
+    final String path = tmpFolder.newFile().getPath();
+    new DataSerializer(MAGIC, "0.1", path).save(table);
+    assertEquals(table, new DataSerializer(MAGIC, "0.1", path).load());
+  }
+
+  @Test
+  public void testRoundTripScoreDistribution() throws SerializationException, IOException {
+    final TreeMap<Double, Double> frequencies = new TreeMap<>();
+    frequencies.put(0.5, 0.25);
+    frequencies.put(1.5, 1.0);
+    final ScoreDistribution dist = new ScoreDistribution(2,
+        ImmutableMap.of(7, new ObjectScoreDistribution(7, 2, 100, frequencies)));
+
+    final String path = tmpFolder.newFile().getPath();
+    new DataSerializer(MAGIC, "0.1", path).save(dist);
+    assertEquals(dist.toString(), new DataSerializer(MAGIC, "0.1", path).load().toString());
+  }
+
+  @Test
+  public void testLoadLegacyFile() throws SerializationException, IOException {
+    final List<String> list = newList();
+    final File file = tmpFolder.newFile();
+    try (FileOutputStream fos = new FileOutputStream(file)) {
+      fos.write(MAGIC);
+      try (ObjectOutputStream oos = new ObjectOutputStream(new GZIPOutputStream(fos))) {
+        oos.writeObject("0.3");
+        oos.writeObject(list);
+      }
+    }
+    assertEquals(list, new DataSerializer(MAGIC, "0.1", file.getPath()).load());
+  }
+
+  @Test(expected = SerializationException.class)
+  public void testChecksumMismatch() throws SerializationException, IOException {
+    final File file = tmpFolder.newFile();
+    new DataSerializer(MAGIC, "0.1", file.getPath(), Compression.NONE).save(newList());
+    try (RandomAccessFile raf = new RandomAccessFile(file, "rw")) {
+      // Flip a bit in the last element, just before the end marker and checksum.
+      final long pos = raf.length() - 10;
+      raf.seek(pos);
+      final int b = raf.read();
+      raf.seek(pos);
+      raf.write(b ^ 1);
+    }
+    new DataSerializer(MAGIC, "0.1", file.getPath()).load();
+  }
+
+  @Test(expected = SerializationException.class)
+  public void testVersionTooOld() throws SerializationException, IOException {
+    final String path = tmpFolder.newFile().getPath();
+    new DataSerializer(MAGIC, "0.1", path).save(newList());
+    new DataSerializer(MAGIC, "99.0", path).load();
+  }
+
+  @Test(expected = SerializationException.class)
+  public void testWrongMagic() throws SerializationException, IOException {
+    final String path = tmpFolder.newFile().getPath();
+    new DataSerializer(MAGIC, "0.1", path).save(newList());
+    new DataSerializer("ABCD".getBytes(), "0.1", path).load();
+  }
+
+}
@@ -0,0 +1,65 @@
+package com.github.phenomics.ontolib.ser;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+public class LzCompressorTest {
+
+  private final LzCompressor compressor = new LzCompressor();
+
+  @Test
+  public void testRoundTripText() throws IOException {
+    final StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 1000; ++i) {
+      builder.append("HP:000").append(i % 97).append("\tsome term name\n");
+    }
+    final byte[] data = builder.toString().getBytes(StandardCharsets.UTF_8);
+    final int length = assertRoundTrip(data);
+    assertTrue("compressed length " + length, length < data.length / 4);
+  }
+
+  @Test
+  public void testRoundTripLongRun() throws IOException {
+    final byte[] data = new byte[100000];
+    Arrays.fill(data, (byte) 'x');
+    assertTrue(assertRoundTrip(data) < 1000);
+  }
+
+  @Test
+  public void testRoundTripRandom() throws IOException {
+    final Random random = new Random(42);
+    for (int length : new int[] {0, 1, 3, 4, 15, 16, 300, 70000}) {
+      final byte[] data = new byte[length];
+      random.nextBytes(data);
+      assertRoundTrip(data);
+    }
+  }
+
+  @Test(expected = IOException.class)
+  public void testDecompressCorrupt() throws IOException {
+    final byte[] data = new byte[1000];
+    Arrays.fill(data, (byte) 'x');
+    final byte[] compressed = new byte[LzCompressor.maxCompressedLength(data.length)];
+    final int length = compressor.compress(data, data.length, compressed);
+    // Point the first match before the beginning of the output.
+    compressed[2] = (byte) 0xff;
+    LzCompressor.decompress(compressed, length, new byte[data.length], data.length);
+  }
+
+  private int assertRoundTrip(byte[] data) throws IOException {
+    final byte[] compressed = new byte[LzCompressor.maxCompressedLength(data.length)];
+    final int length = compressor.compress(data, data.length, compressed);
+    final byte[] decompressed = new byte[data.length];
+    LzCompressor.decompress(compressed, length, decompressed, data.length);
+    assertArrayEquals(data, decompressed);
+    return length;
+  }
+
+}
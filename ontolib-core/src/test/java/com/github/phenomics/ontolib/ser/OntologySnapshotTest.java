@@ -0,0 +1,265 @@
+package com.github.phenomics.ontolib.ser;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.Map;
+
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.phenomics.ontolib.formats.go.GoOntology;
+import com.github.phenomics.ontolib.formats.go.GoRelationQualifier;
+import com.github.phenomics.ontolib.formats.go.GoTerm;
+import com.github.phenomics.ontolib.formats.go.GoTermRelation;
+import com.github.phenomics.ontolib.formats.hpo.HpoOntology;
+import com.github.phenomics.ontolib.formats.hpo.HpoRelationQualifier;
+import com.github.phenomics.ontolib.formats.hpo.HpoTerm;
+import com.github.phenomics.ontolib.formats.hpo.HpoTermRelation;
+import com.github.phenomics.ontolib.graph.data.ImmutableDirectedGraph;
+import com.github.phenomics.ontolib.graph.data.ImmutableEdge;
+import com.github.phenomics.ontolib.ontology.data.Dbxref;
+import com.github.phenomics.ontolib.ontology.data.ImmutableDbxref;
+import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTerm;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermId;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermRelation;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermSynonym;
+import com.github.phenomics.ontolib.ontology.data.ImmutableTermXref;
+import com.github.phenomics.ontolib.ontology.data.TermAncestorIndex;
+import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.data.TermIdDictionary;
+import com.github.phenomics.ontolib.ontology.data.TermRelation;
+import com.github.phenomics.ontolib.ontology.data.TermSynonym;
+import com.github.phenomics.ontolib.ontology.data.TermSynonymScope;
+import com.github.phenomics.ontolib.ontology.data.TermXref;
+import com.google.common.collect.ImmutableList;
+import com.google.common.collect.ImmutableMap;
+import com.google.common.collect.ImmutableSortedMap;
+
+public class OntologySnapshotTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private final OntologySnapshotWriter writer = new OntologySnapshotWriter();
+
+  private final OntologySnapshotReader reader = new OntologySnapshotReader();
+
+  private GoOntology goOntology;
+
+  private HpoOntology hpoOntology;
+
+  private ImmutableOntology<ImmutableTerm, TermRelation> immutableOntology;
+
+  @Before
+  public void setUp() {
+    final ImmutableTermId root = ImmutableTermId.constructWithPrefix("GO:0000001");
+    final ImmutableTermId child1 = ImmutableTermId.constructWithPrefix("GO:0000002");
+    final ImmutableTermId child2 = ImmutableTermId.constructWithPrefix("GO:0000003");
+    final ImmutableTermId grandChild = ImmutableTermId.constructWithPrefix("GO:0000004");
+    final ImmutableTermId altId = ImmutableTermId.constructWithPrefix("GO:0000005");
+    final ImmutableTermId obsolete = ImmutableTermId.constructWithPrefix("GO:0000006");
+
+    final ImmutableList<ImmutableEdge<TermId>> edges = ImmutableList.of(
+        ImmutableEdge.construct(child1, root, 1), ImmutableEdge.construct(child2, root, 2),
+        ImmutableEdge.construct(grandChild, child1, 3),
+        ImmutableEdge.construct(grandChild, child2, 4));
+    final ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>> graph =
+        ImmutableDirectedGraph.construct(edges);
+
+    final ArrayList<TermXref> termXrefs = new ArrayList<>();
+    termXrefs.add(new ImmutableTermXref(ImmutableTermId.constructWithPrefix("UMLS:C1234"),
+        "description"));
+    final ArrayList<TermSynonym> synonyms = new ArrayList<>();
+    synonyms.add(new ImmutableTermSynonym("synonym \u00e4", TermSynonymScope.EXACT, null,
+        termXrefs));
+    final ArrayList<Dbxref> xrefs = new ArrayList<>();
+    xrefs.add(new ImmutableDbxref("Wikipedia:Example", null, ImmutableMap.of("key", "value")));
+    xrefs.add(new ImmutableDbxref("PMID:1", "paper", null));
+
+    final GoTerm grandChildTerm = new GoTerm(grandChild, new ArrayList<>(Arrays.asList(altId)),
+        "grand child", "definition", "comment", new ArrayList<>(Arrays.asList("goslim")),
+        synonyms, false, "someone", new Date(1000000L), xrefs);
+    final ImmutableMap<TermId, GoTerm> termMap = ImmutableMap.<TermId, GoTerm>builder()
+        .put(root, newGoTerm(root, "root", false)).put(child1, newGoTerm(child1, "child 1", false))
+        .put(child2, newGoTerm(child2, "child 2", false)).put(grandChild, grandChildTerm)
+        .put(altId, grandChildTerm).put(obsolete, newGoTerm(obsolete, "obsolete", true)).build();
+
+    final ImmutableMap.Builder<Integer, GoTermRelation> relationMap = ImmutableMap.builder();
+    for (ImmutableEdge<TermId> edge : edges) {
+      relationMap.put(edge.getId(), new GoTermRelation(edge.getSource(), edge.getDest(),
+          edge.getId(), GoRelationQualifier.IS_A));
+    }
+
+    goOntology = new GoOntology(ImmutableSortedMap.of("data-version", "2017-06-10"), graph, root,
+        Arrays.asList(root, child1, child2, grandChild), Arrays.asList(obsolete), termMap,
+        relationMap.build());
+
+    final ImmutableTermId hpoRoot = ImmutableTermId.constructWithPrefix("HP:0000001");
+    final ImmutableTermId abnormality = ImmutableTermId.constructWithPrefix("HP:0000118");
+    final ImmutableTermId phenotype = ImmutableTermId.constructWithPrefix("HP:0000002");
+    final ImmutableEdge<TermId> edge1 = ImmutableEdge.construct(abnormality, hpoRoot, 1);
+    final ImmutableEdge<TermId> edge2 = ImmutableEdge.construct(phenotype, abnormality, 2);
+    final ImmutableMap.Builder<TermId, HpoTerm> hpoTermMap = ImmutableMap.builder();
+    for (ImmutableTermId termId : Arrays.asList(hpoRoot, abnormality, phenotype)) {
+      hpoTermMap.put(termId, new HpoTerm(termId, new ArrayList<>(), termId.toString(), null, null,
+          new ArrayList<>(), new ArrayList<>(), false, null, null, new ArrayList<>()));
+    }
+    hpoOntology = new HpoOntology(ImmutableSortedMap.of(),
+        ImmutableDirectedGraph.construct(ImmutableList.of(edge1, edge2)), hpoRoot,
+        Arrays.asList(hpoRoot, abnormality, phenotype), new ArrayList<>(), hpoTermMap.build(),
+        ImmutableMap.of(1,
+            new HpoTermRelation(abnormality, hpoRoot, 1, HpoRelationQualifier.IS_A), 2,
+            new HpoTermRelation(phenotype, abnormality, 2, HpoRelationQualifier.IS_A)));
+
+    // Plain ontology with the same structure as the GO one but generic terms and relations.
+    final ImmutableMap.Builder<TermId, ImmutableTerm> immutableTermMap = ImmutableMap.builder();
+    for (Map.Entry<TermId, GoTerm> e : termMap.entrySet()) {
+      final GoTerm t = e.getValue();
+      immutableTermMap.put(e.getKey(),
+          new ImmutableTerm(t.getId(), t.getAltTermIds(), t.getName(), t.getDefinition(),
+              t.getComment(), t.getSubsets(), t.getSynonyms(), t.isObsolete(), t.getCreatedBy(),
+              t.getCreationDate(), t.getXrefs()));
+    }
+    final ImmutableMap.Builder<Integer, TermRelation> immutableRelationMap =
+        ImmutableMap.builder();
+    for (ImmutableEdge<TermId> edge : edges) {
+      immutableRelationMap.put(edge.getId(),
+          new ImmutableTermRelation(edge.getSource(), edge.getDest(), edge.getId()));
+    }
+    immutableOntology = new ImmutableOntology<>(ImmutableSortedMap.of(), graph, root,
+        Arrays.asList(root, child1, child2, grandChild), Arrays.asList(obsolete),
+        immutableTermMap.build(), immutableRelationMap.build());
+  }
+
+  private static GoTerm newGoTerm(TermId termId, String name, boolean obsolete) {
+    return new GoTerm(termId, new ArrayList<>(), name, null, null, new ArrayList<>(),
+        new ArrayList<>(), obsolete, null, null, new ArrayList<>());
+  }
+
+  @Test
+  public void testRoundTripGoFile() throws SerializationException, IOException {
+    final File file = tmpFolder.newFile("go.bin");
+    writer.save(goOntology, file);
+
+    final GoOntology loaded = reader.openGoOntology(file);
+    assertSameOntology(goOntology, loaded);
+    final TermId altId = ImmutableTermId.constructWithPrefix("GO:0000005");
+    assertEquals(goOntology.getTermMap().get(altId).toString(),
+        loaded.getTermMap().get(altId).toString());
+    assertEquals("synonym \u00e4",
+        loaded.getTermMap().get(altId).getSynonyms().get(0).getValue());
+    assertEquals(new Date(1000000L), loaded.getTermMap().get(altId).getCreationDate());
+  }
+
+  @Test
+  public void testRoundTripHpoStream() throws SerializationException, IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.write(hpoOntology, out);
+
+    final ImmutableOntology<?, ?> loaded =
+        reader.read(new ByteArrayInputStream(out.toByteArray()));
+    assertTrue(loaded instanceof HpoOntology);
+    assertSameOntology(hpoOntology, loaded);
+    assertEquals(hpoOntology.getPhenotypicAbnormalitySubOntology().getAllTermIds(),
+        ((HpoOntology) loaded).getPhenotypicAbnormalitySubOntology().getAllTermIds());
+  }
+
+  @Test
+  public void testRoundTripImmutableStream() throws SerializationException, IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.write(immutableOntology, out);
+
+    final ImmutableOntology<?, ?> loaded =
+        reader.read(new ByteArrayInputStream(out.toByteArray()));
+    assertEquals(ImmutableOntology.class, loaded.getClass());
+    assertSameOntology(immutableOntology, loaded);
+
+    // The vertex indices are the dictionary codes and the term ID objects are shared.
+    final TermIdDictionary dictionary = loaded.getTermIdDictionary();
+    assertTrue(dictionary.isFrozen());
+    for (int code = 0; code < loaded.getGraph().countVertices(); ++code) {
+      assertSame(dictionary.termIdOf(code), loaded.getGraph().getVertexAt(code));
+    }
+    final TermId grandChild = ImmutableTermId.constructWithPrefix("GO:0000004");
+    assertSame(dictionary.termIdOf(dictionary.codeOf(grandChild)),
+        loaded.getTermMap().get(grandChild).getId());
+    // Term IDs of cross-references are not part of the ontology's dictionary.
+    assertEquals(-1, dictionary.codeOf(ImmutableTermId.constructWithPrefix("UMLS:C1234")));
+  }
+
+  @Test
+  public void testOpenWrongType() throws SerializationException, IOException {
+    final File file = tmpFolder.newFile("go.bin");
+    writer.save(goOntology, file);
+    try {
+      reader.openHpoOntology(file);
+      fail("Expected SerializationException");
+    } catch (SerializationException e) {
+      assertTrue(e.getMessage(), e.getMessage().contains("instead of HpoOntology"));
+    }
+  }
+
+  @Test(expected = SerializationException.class)
+  public void testOpenInvalidMagic() throws SerializationException, IOException {
+    final File file = tmpFolder.newFile("invalid.bin");
+    Files.write(file.toPath(), "format-version: 1.2\n".getBytes("UTF-8"));
+    reader.open(file);
+  }
+
+  @Test(expected = SerializationException.class)
+  public void testReadTruncated() throws SerializationException, IOException {
+    final ByteArrayOutputStream out = new ByteArrayOutputStream();
+    writer.write(goOntology, out);
+    final byte[] bytes = Arrays.copyOf(out.toByteArray(), out.size() - 10);
+    reader.read(new ByteArrayInputStream(bytes));
+  }
+
+  private static void assertSameOntology(ImmutableOntology<?, ?> expected,
+      ImmutableOntology<?, ?> actual) {
+    assertEquals(expected.getMetaInfo(), actual.getMetaInfo());
+    assertEquals(expected.getRootTermId(), actual.getRootTermId());
+    assertEquals(expected.getNonObsoleteTermIds(), actual.getNonObsoleteTermIds());
+    assertEquals(expected.getObsoleteTermIds(), actual.getObsoleteTermIds());
+    assertEquals(expected.getTermMap().toString(), actual.getTermMap().toString());
+    assertEquals(expected.getRelationMap().toString(), actual.getRelationMap().toString());
+    assertEquals(new HashSet<>(expected.getGraph().getVertices()),
+        new HashSet<>(actual.getGraph().getVertices()));
+    assertEquals(new HashSet<>(expected.getGraph().getEdges()),
+        new HashSet<>(actual.getGraph().getEdges()));
+
+    final TermAncestorIndex expectedIndex = expected.getAncestorIndex();
+    final TermAncestorIndex actualIndex = actual.getAncestorIndex();
+    assertEquals(expectedIndex.size(), actualIndex.size());
+    for (int i = 0; i < expectedIndex.size(); ++i) {
+      assertEquals(expectedIndex.termIdAt(i), actualIndex.termIdAt(i));
+      assertEquals(expectedIndex.getAncestors(i), actualIndex.getAncestors(i));
+    }
+
+    final TermIdDictionary expectedDictionary = expected.getTermIdDictionary();
+    final TermIdDictionary actualDictionary = actual.getTermIdDictionary();
+    assertEquals(expectedDictionary.size(), actualDictionary.size());
+    for (int code = 0; code < expectedDictionary.size(); ++code) {
+      assertEquals(expectedDictionary.termIdOf(code), actualDictionary.termIdOf(code));
+    }
+    for (TermId termId : expected.getTermMap().keySet()) {
+      assertEquals(expected.getAncestorTermIds(termId, false),
+          actual.getAncestorTermIds(termId, false));
+    }
+  }
+
+}
@@ -0,0 +1,110 @@
+package com.github.phenomics.ontolib.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.Arrays;
+import java.util.Random;
+import java.util.TreeSet;
+
+import org.junit.Test;
+
+import com.google.common.collect.ImmutableList;
+
+public class ImmutablePostingListTest {
+
+  @Test
+  public void testConstructAndQuery() {
+    ImmutablePostingList list = ImmutablePostingList.of(200, 3, 64, 3, 1000);
+    assertEquals(4, list.size());
+    assertFalse(list.isEmpty());
+    assertEquals(3, list.get(0));
+    assertEquals(1000, list.get(3));
+    assertTrue(list.contains(64));
+    assertFalse(list.contains(65));
+    assertEquals("ImmutablePostingList [3, 64, 200, 1000]", list.toString());
+
+    assertTrue(ImmutablePostingList.of().isEmpty());
+    assertEquals(list, ImmutablePostingList.copyOfSorted(new int[] {3, 64, 200, 1000, 7}, 4));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCopyOfSortedUnsorted() {
+    ImmutablePostingList.copyOfSorted(new int[] {3, 3}, 2);
+  }
+
+  @Test
+  public void testAndOr() {
+    ImmutablePostingList lhs = ImmutablePostingList.of(0, 5, 64, 130, 500);
+    ImmutablePostingList rhs = ImmutablePostingList.of(5, 65, 130, 700);
+
+    assertEquals("ImmutablePostingList [5, 130]", lhs.and(rhs).toString());
+    assertEquals("ImmutablePostingList [0, 5, 64, 65, 130, 500, 700]", lhs.or(rhs).toString());
+    assertEquals(2, lhs.andCardinality(rhs));
+    assertTrue(lhs.and(ImmutablePostingList.of(1, 66)).isEmpty());
+
+    assertEquals(lhs.or(rhs),
+        ImmutablePostingList.union(ImmutableList.of(lhs, rhs, ImmutablePostingList.of())));
+    assertEquals(lhs.and(rhs), ImmutablePostingList.intersection(ImmutableList.of(lhs, rhs)));
+  }
+
+  @Test
+  public void testAndGalloping() {
+    Random rng = new Random(42);
+    TreeSet<Integer> longSet = new TreeSet<>();
+    while (longSet.size() < 5000) {
+      longSet.add(rng.nextInt(20000));
+    }
+    int[] shortValues = new int[] {0, 17, 4711, 9999, 19999, 25000};
+    ImmutablePostingList longList =
+        ImmutablePostingList.of(longSet.stream().mapToInt(Integer::intValue).toArray());
+    ImmutablePostingList shortList = ImmutablePostingList.of(shortValues);
+
+    int[] expected = Arrays.stream(shortValues).filter(longSet::contains).toArray();
+    assertEquals(ImmutablePostingList.of(expected), shortList.and(longList));
+    assertEquals(ImmutablePostingList.of(expected), longList.and(shortList));
+    assertEquals(expected.length, shortList.andCardinality(longList));
+  }
+
+  @Test
+  public void testCompression() {
+    ImmutablePostingList list = ImmutablePostingList.of(0, 1, 127, 128, 100000, Integer.MAX_VALUE);
+    byte[] bytes = list.toCompressedBytes();
+    assertEquals(list, ImmutablePostingList.fromCompressedBytes(bytes));
+    assertEquals(ImmutablePostingList.of(),
+        ImmutablePostingList.fromCompressedBytes(ImmutablePostingList.of().toCompressedBytes()));
+
+    // Dense lists take one byte per value.
+    int[] dense = new int[1000];
+    for (int i = 0; i < dense.length; ++i) {
+      dense[i] = 1000 + i;
+    }
+    assertTrue(ImmutablePostingList.of(dense).toCompressedBytes().length < 1010);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testCompressionTruncated() {
+    byte[] bytes = ImmutablePostingList.of(1, 1000).toCompressedBytes();
+    ImmutablePostingList.fromCompressedBytes(Arrays.copyOf(bytes, bytes.length - 1));
+  }
+
+  @Test
+  public void testSerialization() throws IOException, ClassNotFoundException {
+    ImmutablePostingList list = ImmutablePostingList.of(5, 65, 130, 700);
+    ByteArrayOutputStream bos = new ByteArrayOutputStream();
+    try (ObjectOutputStream oos = new ObjectOutputStream(bos)) {
+      oos.writeObject(list);
+    }
+    try (ObjectInputStream ois =
+        new ObjectInputStream(new ByteArrayInputStream(bos.toByteArray()))) {
+      assertEquals(list, ois.readObject());
+    }
+  }
+
+}
@@ -0,0 +1,82 @@
+package com.github.phenomics.ontolib.utils;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import com.google.common.collect.ImmutableList;
+
+import java.util.Arrays;
+import org.junit.Test;
+
+public class ImmutableSparseBitSetTest {
+
+  @Test
+  public void testConstructAndQuery() {
+    ImmutableSparseBitSet bits = ImmutableSparseBitSet.of(200, 3, 64, 3, 1000);
+    assertEquals(4, bits.cardinality());
+    assertFalse(bits.isEmpty());
+    assertTrue(bits.get(3));
+    assertTrue(bits.get(64));
+    assertTrue(bits.get(200));
+    assertTrue(bits.get(1000));
+    assertFalse(bits.get(4));
+    assertFalse(bits.get(-1));
+    assertFalse(bits.get(100000));
+    assertEquals("ImmutableSparseBitSet [3, 64, 200, 1000]", bits.toString());
+
+    assertTrue(ImmutableSparseBitSet.of().isEmpty());
+    assertEquals(ImmutableSparseBitSet.of(), ImmutableSparseBitSet.of(new int[0]));
+  }
+
+  @Test
+  public void testWithWithout() {
+    ImmutableSparseBitSet bits = ImmutableSparseBitSet.of(1, 70);
+    assertEquals("ImmutableSparseBitSet [1, 2, 70]", bits.with(2).toString());
+    assertEquals("ImmutableSparseBitSet [1]", bits.without(70).toString());
+    assertEquals("ImmutableSparseBitSet [70]", bits.without(1).toString());
+    assertEquals(bits, bits.with(1));
+    assertEquals(bits, bits.without(5));
+    assertEquals(bits, bits.without(70).with(70));
+  }
+
+  @Test
+  public void testAndOr() {
+    ImmutableSparseBitSet lhs = ImmutableSparseBitSet.of(0, 5, 64, 130, 500);
+    ImmutableSparseBitSet rhs = ImmutableSparseBitSet.of(5, 65, 130, 700);
+
+    assertEquals("ImmutableSparseBitSet [5, 130]", lhs.and(rhs).toString());
+    assertEquals("ImmutableSparseBitSet [0, 5, 64, 65, 130, 500, 700]", lhs.or(rhs).toString());
+    assertEquals(2, lhs.andCardinality(rhs));
+    assertEquals(7, lhs.orCardinality(rhs));
+    assertTrue(lhs.and(ImmutableSparseBitSet.of(1, 66)).isEmpty());
+
+    assertEquals(lhs.or(rhs), ImmutableSparseBitSet.union(ImmutableList.of(lhs, rhs)));
+  }
+
+  @Test
+  public void testToArray() {
+    assertEquals("[0, 63, 64, 127, 128]",
+        Arrays.toString(ImmutableSparseBitSet.of(128, 127, 64, 63, 0).toArray()));
+  }
+
+  @Test
+  public void testWordsRoundTrip() {
+    ImmutableSparseBitSet bits = ImmutableSparseBitSet.of(1, 70, 71, 1000);
+    assertEquals(3, bits.countWords());
+    int[] wordIndices = new int[bits.countWords()];
+    long[] words = new long[bits.countWords()];
+    for (int i = 0; i < bits.countWords(); ++i) {
+      wordIndices[i] = bits.wordIndexAt(i);
+      words[i] = bits.wordAt(i);
+    }
+    assertEquals("[0, 1, 15]", Arrays.toString(wordIndices));
+    assertEquals(bits, ImmutableSparseBitSet.ofWords(wordIndices, words));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testOfWordsRejectsUnsortedIndices() {
+    ImmutableSparseBitSet.ofWords(new int[] {2, 1}, new long[] {1L, 1L});
+  }
+
+}
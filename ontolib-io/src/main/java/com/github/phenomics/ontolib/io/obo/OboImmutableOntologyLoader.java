@@ -15,14 +15,14 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 import com.github.phenomics.ontolib.base.OntoLibRuntimeException;
-import com.github.phenomics.ontolib.graph.data.ImmutableDirectedGraph;
 import com.github.phenomics.ontolib.graph.data.ImmutableEdge;
+import com.github.phenomics.ontolib.graph.data.ImmutableIndexedDirectedGraph;
 import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
 import com.github.phenomics.ontolib.ontology.data.ImmutableTermId;
-import com.github.phenomics.ontolib.ontology.data.ImmutableTermPrefix;
 import com.github.phenomics.ontolib.ontology.data.Ontology;
 import com.github.phenomics.ontolib.ontology.data.Term;
 import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.data.TermIdDictionary;
 import com.github.phenomics.ontolib.ontology.data.TermPrefix;
 import com.github.phenomics.ontolib.ontology.data.TermRelation;
 import com.google.common.collect.ImmutableMap;
@@ -74,8 +74,25 @@ public final class OboImmutableOntologyLoader<T extends Term, R extends TermRela
    * @param debug Whether or not to allow debugging.
    */
   public OboImmutableOntologyLoader(File file, boolean debug) {
+    this(file, debug, 1);
+  }
+
+  /**
+   * Constructor.
+   *
+   * <p>
+   * With more than one thread, the stanzas are parsed in parallel, see
+   * {@link OboParser#OboParser(boolean, OboParser.Implementation, int)}. The terms and relations
+   * are still constructed in file order, so the resulting ontology is the same.
+   * </p>
+   *
+   * @param file The {@link File} to load from.
+   * @param debug Whether or not to allow debugging.
+   * @param numThreads Number of threads to use for parsing.
+   */
+  public OboImmutableOntologyLoader(File file, boolean debug, int numThreads) {
     this.file = file;
-    this.parser = new OboParser(debug);
+    this.parser = new OboParser(debug, OboParser.Implementation.STREAMING, numThreads);
   }
 
   /**
@@ -128,8 +145,8 @@ public final class OboImmutableOntologyLoader<T extends Term, R extends TermRela
       }
     }
 
-    ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>> graph =
-        ImmutableDirectedGraph.construct(helper.getAllTermIds(), edges, true);
+    ImmutableIndexedDirectedGraph<TermId, ImmutableEdge<TermId>> graph =
+        ImmutableIndexedDirectedGraph.construct(helper.getAllTermIds(), edges, true);
     return new ImmutableOntology<T, R>(ImmutableSortedMap.copyOf(helper.getMetaInfo()), graph,
         rootTermId, helper.getTerms().keySet(), helper.getObsoleteTerms().keySet(),
         ImmutableMap.copyOf(helper.getTerms()), ImmutableMap.copyOf(relationMap));
@@ -162,7 +179,8 @@ public final class OboImmutableOntologyLoader<T extends Term, R extends TermRela
     } else {
       final TermPrefix rootPrefix = helper.getFirstTermId().getPrefix();
       final String rootLocalId = "0000000"; // assumption: no term ID value "0"*7
-      final ImmutableTermId rootId = new ImmutableTermId(rootPrefix, rootLocalId);
+      final String rootIdString = rootPrefix.getValue() + ":" + rootLocalId;
+      final ImmutableTermId rootId = helper.getTermIdDictionary().intern(rootIdString);
       if (helper.getAllTermIds().contains(rootId)) {
         throw new OntoLibRuntimeException(
             "Tried to guess artificial root as " + rootId + " but is already taken.");
@@ -172,7 +190,6 @@ public final class OboImmutableOntologyLoader<T extends Term, R extends TermRela
           new Object[] {rootCandidates.size(), rootCandidates, rootId});
 
       // Register term Id.
-      final String rootIdString = rootPrefix.getValue() + ":" + rootLocalId;
       helper.getTermIds().put(rootIdString, rootId);
       helper.getAllTermIds().add(rootId);
 
@@ -215,9 +232,9 @@ public final class OboImmutableOntologyLoader<T extends Term, R extends TermRela
   private class HelperListener implements OboParseResultListener {
 
     /**
-     * Term prefix value to {@link ImmutableTermPrefix}.
+     * Dictionary for interning term IDs and prefixes.
      */
-    private final Map<String, ImmutableTermPrefix> prefixes = new HashMap<>();
+    private final TermIdDictionary termIdDictionary = new TermIdDictionary();
 
     /** First seen term Id, we will construct the artificial root term if necessary. */
     private ImmutableTermId firstTermId = null;
@@ -380,7 +397,7 @@ public final class OboImmutableOntologyLoader<T extends Term, R extends TermRela
     }
 
     /**
-     * If necessary, insert term Id into {@link #termIds} {@link #prefixes}.
+     * If necessary, insert term Id into {@link #termIds} and {@link #termIdDictionary}.
      *
      * @param termIdStr String representation of term Id.
      * @return {@link TermId} present in {@link #termIds}.
@@ -391,20 +408,11 @@ public final class OboImmutableOntologyLoader<T extends Term, R extends TermRela
         return tmpId;
       }
 
-      final int pos = termIdStr.lastIndexOf(':');
-      if (pos == -1) {
+      if (termIdStr.lastIndexOf(':') == -1) {
         throw new OntoLibRuntimeException("Term Id does not contain colon! " + termIdStr);
       }
 
-      final String prefixStr = termIdStr.substring(0, pos);
-      final String localIdStr = termIdStr.substring(pos + 1);
-      ImmutableTermPrefix tmpPrefix = prefixes.get(prefixStr);
-      if (!prefixes.containsKey(tmpPrefix)) {
-        tmpPrefix = new ImmutableTermPrefix(prefixStr);
-        prefixes.put(prefixStr, tmpPrefix);
-      }
-
-      tmpId = new ImmutableTermId(tmpPrefix, localIdStr);
+      tmpId = termIdDictionary.intern(termIdStr);
       termIds.put(termIdStr, tmpId);
 
       // Make sure to record the first term Id.
@@ -446,6 +454,13 @@ public final class OboImmutableOntologyLoader<T extends Term, R extends TermRela
       return allTermIds;
     }
 
+    /**
+     * @return Dictionary used for interning term Ids.
+     */
+    public TermIdDictionary getTermIdDictionary() {
+      return termIdDictionary;
+    }
+
     /**
      * @return Mapping from string term Id to term Id.
      */
@@ -4,6 +4,7 @@ import com.google.common.collect.Lists;
 import de.charite.compbio.ontolib.io.obo.parser.Antlr4OboParser;
 import java.io.File;
 import java.io.IOException;
+import java.nio.channels.ReadableByteChannel;
 import java.util.List;
 import org.antlr.v4.runtime.BaseErrorListener;
 import org.antlr.v4.runtime.CharStream;
@@ -18,6 +19,12 @@ import org.slf4j.LoggerFactory;
 /**
  * Driver code for parsing OBO files.
  *
+ * <p>
+ * By default, the hand-written {@link Implementation#STREAMING} parser is used that processes the
+ * input line by line. The ANTLR-based {@link Implementation#ANTLR} parser that strictly follows the
+ * grammar can still be selected, e.g., for validating files or comparing results.
+ * </p>
+ *
  * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
  */
 public final class OboParser {
@@ -30,18 +37,69 @@ public final class OboParser {
   /** Flag whether debugging is enabled or not. */
   private boolean debug;
 
+  /** The parser {@link Implementation} to use. */
+  private final Implementation implementation;
+
+  /** Number of threads to use for parsing files. */
+  private final int numThreads;
+
   /** Default constructor, disables debugging. */
   public OboParser() {
     this(false);
   }
 
   /**
-   * Constructor.
+   * Constructor, uses the {@link Implementation#STREAMING} parser.
    *
    * @param debug Whether or not to enable debugging.
    */
   public OboParser(boolean debug) {
+    this(debug, Implementation.STREAMING);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param debug Whether or not to enable debugging, only used by {@link Implementation#ANTLR}.
+   * @param implementation The parser {@link Implementation} to use.
+   */
+  public OboParser(boolean debug, Implementation implementation) {
+    this(debug, implementation, 1);
+  }
+
+  /**
+   * Constructor.
+   *
+   * <p>
+   * With more than one thread, files are split into chunks at stanza boundaries that are parsed in
+   * parallel with the {@link Implementation#STREAMING} parser. The listener is still called from
+   * the calling thread and in file order, such that the result is the same as for sequential
+   * parsing. Strings and channels are always parsed sequentially, as is everything with the
+   * {@link Implementation#ANTLR} parser.
+   * </p>
+   *
+   * @param debug Whether or not to enable debugging, only used by {@link Implementation#ANTLR}.
+   * @param implementation The parser {@link Implementation} to use.
+   * @param numThreads Number of threads to use for parsing files.
+   */
+  public OboParser(boolean debug, Implementation implementation, int numThreads) {
     this.debug = debug;
+    this.implementation = implementation;
+    this.numThreads = numThreads;
+  }
+
+  /**
+   * @return The parser {@link Implementation} used.
+   */
+  public Implementation getImplementation() {
+    return implementation;
+  }
+
+  /**
+   * @return Number of threads to use for parsing files.
+   */
+  public int getNumThreads() {
+    return numThreads;
   }
 
   /**
@@ -68,10 +126,38 @@ public final class OboParser {
    */
   public void parseFile(File file, OboParseResultListener listener) throws IOException {
     LOGGER.info("Parsing OBO file {}...", new Object[] {file.getAbsolutePath()});
-    parseInputStream(CharStreams.fromFileName(file.getAbsolutePath()), listener);
+    if (implementation == Implementation.ANTLR) {
+      parseInputStream(CharStreams.fromFileName(file.getAbsolutePath()), listener);
+    } else if (numThreads > 1) {
+      new ParallelOboParser(numThreads).parseFile(file, listener);
+    } else {
+      new StreamingOboParser(listener).parseFile(file);
+    }
     LOGGER.info("Done parsing OBO file.");
   }
 
+  /**
+   * Parse OBO file from {@link ReadableByteChannel}, report complete parsing of header and stanzas
+   * via <code>listener</code>.
+   *
+   * <p>
+   * The <code>channel</code> is not closed by this method.
+   * </p>
+   *
+   * @param channel {@link ReadableByteChannel} with UTF-8 encoded OBO file contents.
+   * @param listener Listener for parsing.
+   *
+   * @throws IOException In case of problems with I/O.
+   */
+  public void parseChannel(ReadableByteChannel channel, OboParseResultListener listener)
+      throws IOException {
+    if (implementation == Implementation.ANTLR) {
+      parseInputStream(CharStreams.fromChannel(channel), listener);
+    } else {
+      new StreamingOboParser(listener).parseChannel(channel);
+    }
+  }
+
   /**
    * Parse OBO file in one go.
    *
@@ -95,7 +181,11 @@ public final class OboParser {
    * @throws IOException In case of problems with file I/O.
    */
   public void parseString(String oboString, OboParseResultListener listener) {
-    parseInputStream(CharStreams.fromString(oboString), listener);
+    if (implementation == Implementation.ANTLR) {
+      parseInputStream(CharStreams.fromString(oboString), listener);
+    } else {
+      new StreamingOboParser(listener).parseString(oboString);
+    }
   }
 
   private void parseInputStream(CharStream inputStream, OboParseResultListener listener) {
@@ -117,6 +207,17 @@ public final class OboParser {
     p.addParseListener(new OboParserListener(listener));
 
     p.oboFile();
+    listener.parsedFile();
+  }
+
+  /**
+   * The available parser implementations.
+   */
+  public enum Implementation {
+    /** ANTLR-based parser, reads the whole input and strictly follows the grammar. */
+    ANTLR,
+    /** Hand-written parser, processes the input line by line. */
+    STREAMING;
   }
 
   /**
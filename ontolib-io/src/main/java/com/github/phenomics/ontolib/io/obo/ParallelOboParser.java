@@ -0,0 +1,161 @@
+package com.github.phenomics.ontolib.io.obo;
+
+import com.github.phenomics.ontolib.base.OntoLibRuntimeException;
+import com.github.phenomics.ontolib.io.utils.LineAlignedChunks;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Parallel parsing of OBO files with the {@link StreamingOboParser}.
+ *
+ * <p>
+ * The file is split into chunks at lines starting with <code>[</code>, i.e., at stanza headers such
+ * as <code>[Term]</code> or <code>[Typedef]</code>, using {@link LineAlignedChunks}. The chunks are
+ * parsed independently on a thread pool and the resulting header and stanzas are then reported to
+ * the {@link OboParseResultListener} in file order from the calling thread. Thus, the listener sees
+ * exactly the same sequence of events as with sequential parsing, at the cost of keeping all
+ * {@link Stanza} objects in memory until all chunks have been parsed.
+ * </p>
+ *
+ * <p>
+ * In case of a parse error, the file is parsed again sequentially such that the error is reported
+ * with the correct line number.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class ParallelOboParser {
+
+  /**
+   * The {@link Logger} object to use for logging.
+   */
+  private static final Logger LOGGER = LoggerFactory.getLogger(ParallelOboParser.class);
+
+  /** Number of threads to use. */
+  private final int numThreads;
+
+  /** Minimal number of bytes in a chunk. */
+  private final long minChunkSize;
+
+  /**
+   * Constructor.
+   *
+   * @param numThreads Number of threads to use.
+   */
+  public ParallelOboParser(int numThreads) {
+    this(numThreads, LineAlignedChunks.DEFAULT_MIN_CHUNK_SIZE);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param numThreads Number of threads to use.
+   * @param minChunkSize Minimal number of bytes in a chunk.
+   */
+  ParallelOboParser(int numThreads, long minChunkSize) {
+    this.numThreads = numThreads;
+    this.minChunkSize = minChunkSize;
+  }
+
+  /**
+   * Parse OBO file, report complete parsing of header and stanzas via <code>listener</code>.
+   *
+   * @param file Path to OBO file.
+   * @param listener Listener for parsing.
+   * @throws IOException In case of problems with file I/O.
+   */
+  public void parseFile(File file, OboParseResultListener listener) throws IOException {
+    final List<ChunkResult> results;
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final List<Long> bounds = LineAlignedChunks.computeBounds(channel, 0, numThreads,
+          minChunkSize, firstByte -> firstByte == '[');
+      LOGGER.info("Parsing {} chunks with {} threads...",
+          new Object[] {bounds.size() - 1, numThreads});
+      results = parseChunks(channel, bounds);
+    }
+    if (results == null) {
+      LOGGER.info("Parallel parsing failed, parsing sequentially for reporting the error.");
+      new StreamingOboParser(listener).parseFile(file);
+      return;
+    }
+
+    listener.parsedHeader(results.get(0).getHeader());
+    for (ChunkResult result : results) {
+      for (Stanza stanza : result.getStanzas()) {
+        listener.parsedStanza(stanza);
+      }
+    }
+    listener.parsedFile();
+  }
+
+  /**
+   * Parse chunks in parallel.
+   *
+   * @param channel {@link FileChannel} of the OBO file.
+   * @param bounds Chunk boundaries, the first chunk contains the header.
+   * @return {@link ChunkResult}s in the order of the chunks, <code>null</code> if there was a
+   *         parse error.
+   * @throws IOException In case of problems with file I/O.
+   */
+  private List<ChunkResult> parseChunks(FileChannel channel, List<Long> bounds)
+      throws IOException {
+    try {
+      return LineAlignedChunks.process(bounds, numThreads, (begin, end, chunkIndex) -> {
+        final ChunkResult result = new ChunkResult();
+        new StreamingOboParser(result, chunkIndex != 0).parseFileRange(channel, begin, end);
+        return result;
+      });
+    } catch (OntoLibRuntimeException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Collects the header and stanzas of one chunk.
+   */
+  private static final class ChunkResult implements OboParseResultListener {
+
+    /** The header, only reported for the first chunk. */
+    private Header header = null;
+
+    /** The stanzas of the chunk. */
+    private final List<Stanza> stanzas = new ArrayList<>();
+
+    @Override
+    public void parsedHeader(Header header) {
+      this.header = header;
+    }
+
+    @Override
+    public void parsedStanza(Stanza stanza) {
+      stanzas.add(stanza);
+    }
+
+    @Override
+    public void parsedFile() {
+      // nop
+    }
+
+    /**
+     * @return The header, <code>null</code> for all but the first chunk.
+     */
+    public Header getHeader() {
+      return header;
+    }
+
+    /**
+     * @return The stanzas of the chunk.
+     */
+    public List<Stanza> getStanzas() {
+      return stanzas;
+    }
+
+  }
+
+}
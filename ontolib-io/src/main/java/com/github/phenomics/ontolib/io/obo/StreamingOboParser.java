@@ -0,0 +1,878 @@
+package com.github.phenomics.ontolib.io.obo;
+
+import com.github.phenomics.ontolib.base.OntoLibRuntimeException;
+import com.github.phenomics.ontolib.ontology.data.TermSynonymScope;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Hand-written streaming parser for OBO files.
+ *
+ * <p>
+ * In contrast to the ANTLR-based parser, the input is not read into memory as a whole and no tokens
+ * are materialized. Instead, the input is decoded in chunks from a {@link ReadableByteChannel} or
+ * from segments of a memory-mapped file and processed line by line, reusing the same character
+ * buffers. Only the resulting {@link StanzaEntry} objects are allocated and reported stanza by
+ * stanza to the {@link OboParseResultListener}, in the same way as the ANTLR-based parser does.
+ * </p>
+ *
+ * <p>
+ * The parser is slightly more lenient than the grammar: blank and comment lines are allowed
+ * anywhere, entries are interpreted by their tag regardless of the stanza type, and runs of spaces
+ * are accepted where the grammar requires a single one. Also, the entries of <code>[Typedef]</code>
+ * and <code>[Instance]</code> stanzas are kept, while the grammar does not accept any.
+ * </p>
+ *
+ * <p>
+ * Instances keep the state of one parse and are not reusable.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class StreamingOboParser {
+
+  /** Number of bytes to read from a channel at once. */
+  private static final int BYTE_BUFFER_SIZE = 64 * 1024;
+
+  /** Number of characters to decode at once. */
+  private static final int CHAR_BUFFER_SIZE = 64 * 1024;
+
+  /** Maximal number of bytes to memory-map at once. */
+  private static final long MAX_SEGMENT_SIZE = 1L << 30;
+
+  /** Listener to report the parsed header and stanzas to. */
+  private final OboParseResultListener listener;
+
+  /** Decoder for the UTF-8 input, malformed input is replaced as by ANTLR's CharStreams. */
+  private final CharsetDecoder decoder = StandardCharsets.UTF_8.newDecoder()
+      .onMalformedInput(CodingErrorAction.REPLACE)
+      .onUnmappableCharacter(CodingErrorAction.REPLACE);
+
+  /** Buffer for the decoded characters. */
+  private final CharBuffer charBuffer = CharBuffer.allocate(CHAR_BUFFER_SIZE);
+
+  /** Buffer for the current line, grown as needed. */
+  private char[] line = new char[1024];
+
+  /** Length of the current line in {@link #line}. */
+  private int lineLength = 0;
+
+  /** Number of the current line, 1-based. */
+  private int lineNo = 0;
+
+  /** Current position in the value of the current entry. */
+  private int pos;
+
+  /** End of the value of the current entry, excluding trailing spaces and comment. */
+  private int end;
+
+  /** Comment of the current entry, <code>null</code> if none. */
+  private String comment;
+
+  /** Whether or not the header has been reported already. */
+  private boolean headerDone;
+
+  /** Type of the current stanza, <code>null</code> while in the header. */
+  private StanzaType stanzaType = null;
+
+  /** Entries of the header or the current stanza. */
+  private List<StanzaEntry> entries = new ArrayList<>();
+
+  /**
+   * Constructor.
+   *
+   * @param listener {@link OboParseResultListener} to report the parse results to.
+   */
+  public StreamingOboParser(OboParseResultListener listener) {
+    this(listener, false);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param listener {@link OboParseResultListener} to report the parse results to.
+   * @param startsInStanzas Whether or not the input starts after the header, in which case no
+   *        header is reported; used for parsing chunks of a file.
+   */
+  StreamingOboParser(OboParseResultListener listener, boolean startsInStanzas) {
+    this.listener = listener;
+    this.headerDone = startsInStanzas;
+  }
+
+  /**
+   * Parse OBO file by memory-mapping it in segments.
+   *
+   * @param file Path to OBO file.
+   * @throws IOException In case of problems with file I/O.
+   */
+  public void parseFile(File file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      parseFileRange(channel, 0, channel.size());
+    }
+  }
+
+  /**
+   * Parse range of an OBO file by memory-mapping it in segments.
+   *
+   * <p>
+   * The <code>channel</code> is not closed by this method.
+   * </p>
+   *
+   * @param channel {@link FileChannel} of the OBO file.
+   * @param beginOffset Offset of the first byte to parse.
+   * @param endOffset Offset after the last byte to parse.
+   * @throws IOException In case of problems with file I/O.
+   */
+  void parseFileRange(FileChannel channel, long beginOffset, long endOffset) throws IOException {
+    long offset = beginOffset;
+    do {
+      final long segmentSize = Math.min(MAX_SEGMENT_SIZE, endOffset - offset);
+      final ByteBuffer bytes = channel.map(FileChannel.MapMode.READ_ONLY, offset, segmentSize);
+      final boolean endOfInput = (offset + segmentSize == endOffset);
+      decode(bytes, endOfInput);
+      // Bytes of a character split between two segments are mapped again.
+      offset += bytes.position();
+      if (endOfInput) {
+        break;
+      }
+    } while (true);
+    finish();
+  }
+
+  /**
+   * Parse OBO file from {@link ReadableByteChannel}.
+   *
+   * <p>
+   * The <code>channel</code> is not closed by this method.
+   * </p>
+   *
+   * @param channel The {@link ReadableByteChannel} to read from.
+   * @throws IOException In case of problems with I/O.
+   */
+  public void parseChannel(ReadableByteChannel channel) throws IOException {
+    final ByteBuffer bytes = ByteBuffer.allocate(BYTE_BUFFER_SIZE);
+    while (channel.read(bytes) != -1) {
+      bytes.flip();
+      decode(bytes, false);
+      bytes.compact();
+    }
+    bytes.flip();
+    decode(bytes, true);
+    finish();
+  }
+
+  /**
+   * Parse OBO file contents from {@link String}.
+   *
+   * @param oboString String with OBO file contents.
+   */
+  public void parseString(String oboString) {
+    final int length = oboString.length();
+    int begin = 0;
+    while (begin < length) {
+      final int chunkEnd = Math.min(length, begin + CHAR_BUFFER_SIZE);
+      charBuffer.clear();
+      charBuffer.put(oboString, begin, chunkEnd);
+      charBuffer.flip();
+      consumeChars();
+      begin = chunkEnd;
+    }
+    finish();
+  }
+
+  /**
+   * Decode bytes and process the resulting characters.
+   *
+   * @param bytes The bytes to decode; undecoded bytes of an incomplete character remain.
+   * @param endOfInput Whether or not there is no further input.
+   */
+  private void decode(ByteBuffer bytes, boolean endOfInput) {
+    while (true) {
+      final CoderResult result = decoder.decode(bytes, charBuffer, endOfInput);
+      charBuffer.flip();
+      consumeChars();
+      if (result.isUnderflow()) {
+        break;
+      }
+    }
+    if (endOfInput) {
+      decoder.flush(charBuffer);
+      charBuffer.flip();
+      consumeChars();
+    }
+  }
+
+  /**
+   * Split the characters in {@link #charBuffer} into lines and process complete lines.
+   */
+  private void consumeChars() {
+    final char[] chars = charBuffer.array();
+    final int limit = charBuffer.limit();
+    int begin = charBuffer.position();
+    for (int i = begin; i < limit; ++i) {
+      if (chars[i] == '\n') {
+        appendToLine(chars, begin, i);
+        processLine();
+        begin = i + 1;
+      }
+    }
+    appendToLine(chars, begin, limit);
+    charBuffer.clear();
+  }
+
+  /**
+   * Append characters to {@link #line}.
+   *
+   * @param chars Characters to append from.
+   * @param begin First character to append.
+   * @param stop Character after the last one to append.
+   */
+  private void appendToLine(char[] chars, int begin, int stop) {
+    final int count = stop - begin;
+    if (lineLength + count > line.length) {
+      line = Arrays.copyOf(line, Math.max(2 * line.length, lineLength + count));
+    }
+    System.arraycopy(chars, begin, line, lineLength, count);
+    lineLength += count;
+  }
+
+  /**
+   * Process last line, report last stanza and end of file.
+   */
+  private void finish() {
+    if (lineLength > 0) {
+      processLine();
+    }
+    flushEntries();
+    listener.parsedFile();
+  }
+
+  /**
+   * Report header or current stanza to {@link #listener}.
+   */
+  private void flushEntries() {
+    if (!headerDone) {
+      listener.parsedHeader(Header.create(entries));
+      headerDone = true;
+    } else if (stanzaType != null) {
+      listener.parsedStanza(Stanza.create(stanzaType, entries));
+    }
+    entries = new ArrayList<>();
+  }
+
+  /**
+   * Process the line in {@link #line}.
+   */
+  private void processLine() {
+    ++lineNo;
+    int length = lineLength;
+    lineLength = 0;
+    if (length > 0 && line[length - 1] == '\r') {
+      --length;
+    }
+
+    int begin = (lineNo == 1 && length > 0 && line[0] == '\uFEFF') ? 1 : 0; // skip BOM
+    while (begin < length && line[begin] == ' ') {
+      ++begin;
+    }
+    if (begin == length || line[begin] == '!') {
+      return; // blank or comment line
+    } else if (line[begin] == '[') {
+      processStanzaHeader(begin, length);
+    } else {
+      processEntry(begin, length);
+    }
+  }
+
+  /**
+   * Process stanza header line, e.g., <code>[Term]</code>.
+   *
+   * @param begin Position of the opening square brace.
+   * @param length Length of the line.
+   */
+  private void processStanzaHeader(int begin, int length) {
+    final StanzaType type;
+    if (matches(begin, length, "[Term]")) {
+      type = StanzaType.TERM;
+    } else if (matches(begin, length, "[Typedef]")) {
+      type = StanzaType.TYPEDEF;
+    } else if (matches(begin, length, "[Instance]")) {
+      type = StanzaType.INSTANCE;
+    } else {
+      throw error("unknown stanza header " + new String(line, begin, length - begin));
+    }
+    flushEntries();
+    stanzaType = type;
+  }
+
+  /**
+   * @return Whether or not {@link #line} contains <code>str</code> at <code>begin</code>.
+   */
+  private boolean matches(int begin, int length, String str) {
+    if (length - begin < str.length()) {
+      return false;
+    }
+    for (int i = 0; i < str.length(); ++i) {
+      if (line[begin + i] != str.charAt(i)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Process tag/value line.
+   *
+   * @param begin Position of the first character of the tag.
+   * @param length Length of the line.
+   */
+  private void processEntry(int begin, int length) {
+    int colon = begin;
+    while (colon < length && line[colon] != ':' && line[colon] != ' ') {
+      colon += isEscape(colon, length) ? 2 : 1;
+    }
+    if (colon >= length || line[colon] != ':') {
+      throw error("missing colon after tag");
+    }
+    final String tag = new String(line, begin, colon - begin);
+
+    pos = colon + 1;
+    skipSpaces(length);
+    splitComment(length);
+    if (pos >= end) {
+      throw error("missing value for tag " + tag);
+    }
+
+    entries.add(parseEntry(tag));
+  }
+
+  /**
+   * Set {@link #end} and {@link #comment} for the value starting at {@link #pos}.
+   *
+   * <p>
+   * A comment starts with an exclamation mark after a space that is not in a quoted string.
+   * </p>
+   *
+   * @param length Length of the line.
+   */
+  private void splitComment(int length) {
+    end = length;
+    comment = null;
+    boolean inQuotes = false;
+    for (int i = pos; i < length; ++i) {
+      if (isEscape(i, length)) {
+        ++i;
+      } else if (line[i] == '"') {
+        inQuotes = !inQuotes;
+      } else if (!inQuotes && line[i] == '!' && i > pos && line[i - 1] == ' ') {
+        end = i;
+        comment = new String(line, i + 1, length - i - 1).trim();
+        if (comment.isEmpty()) {
+          comment = null;
+        }
+        break;
+      }
+    }
+    while (end > pos && line[end - 1] == ' ') {
+      --end;
+    }
+  }
+
+  /**
+   * Parse the value of the current line into a {@link StanzaEntry}.
+   *
+   * @param tag The tag of the entry.
+   * @return The parsed {@link StanzaEntry}.
+   */
+  private StanzaEntry parseEntry(String tag) {
+    switch (tag) {
+      case "format-version":
+        return new StanzaEntryFormatVersion(parseRawStringValue(), parseTrailingModifierAtEnd(),
+            comment);
+      case "data-version":
+        return new StanzaEntryDataVersion(parseStringValue(), parseTrailingModifierAtEnd(),
+            comment);
+      case "date":
+        return new StanzaEntryDate(parseStringValue(), parseTrailingModifierAtEnd(), comment);
+      case "saved-by":
+        return new StanzaEntrySavedBy(parseStringValue(), parseTrailingModifierAtEnd(), comment);
+      case "auto-generated-by":
+        return new StanzaEntryAutoGeneratedBy(parseStringValue(), parseTrailingModifierAtEnd(),
+            comment);
+      case "import":
+        return new StanzaEntryImport(parseStringValue(), parseTrailingModifierAtEnd(), comment);
+      case "remark":
+        return new StanzaEntryRemark(parseStringValue(), parseTrailingModifierAtEnd(), comment);
+      case "id":
+        return new StanzaEntryId(parseStringValue(), parseTrailingModifierAtEnd(), comment);
+      case "name":
+        return new StanzaEntryName(parseStringValue(), parseTrailingModifierAtEnd(), comment);
+      case "alt_id":
+        return new StanzaEntryAltId(parseStringValue(), parseTrailingModifierAtEnd(), comment);
+      case "comment":
+        return new StanzaEntryComment(parseStringValue(), parseTrailingModifierAtEnd(), comment);
+      case "subset":
+        return new StanzaEntrySubset(parseStringValue(), parseTrailingModifierAtEnd(), comment);
+      case "replaced_by":
+        return new StanzaEntryReplacedBy(parseStringValue(), parseTrailingModifierAtEnd(),
+            comment);
+      case "consider":
+        return new StanzaEntryConsider(parseStringValue(), parseTrailingModifierAtEnd(), comment);
+      case "created_by":
+        return new StanzaEntryCreatedBy(parseStringValue(), parseTrailingModifierAtEnd(),
+            comment);
+      case "creation_date":
+        return new StanzaEntryCreationDate(parseStringValue(), parseTrailingModifierAtEnd(),
+            comment);
+      case "domain":
+        return new StanzaEntryDomain(parseStringValue(), parseTrailingModifierAtEnd(), comment);
+      case "range":
+        return new StanzaEntryRange(parseStringValue(), parseTrailingModifierAtEnd(), comment);
+      case "inverse_of":
+        return new StanzaEntryInverseOf(parseStringValue(), parseTrailingModifierAtEnd(),
+            comment);
+      case "transitive_over":
+        return new StanzaEntryTransitiveOver(parseStringValue(), parseTrailingModifierAtEnd(),
+            comment);
+      case "instance_of":
+        return new StanzaEntryInstanceOf(parseStringValue(), parseTrailingModifierAtEnd(),
+            comment);
+      case "is_anonymous":
+        return new StanzaEntryIsAnonymous(parseBoolean(), parseTrailingModifierAtEnd(), comment);
+      case "is_obsolete":
+        return new StanzaEntryIsObsolete(parseBoolean(), parseTrailingModifierAtEnd(), comment);
+      case "is_cyclic":
+        return new StanzaEntryIsCyclic(parseBoolean(), parseTrailingModifierAtEnd(), comment);
+      case "is_reflexive":
+        return new StanzaEntryIsReflexive(parseBoolean(), parseTrailingModifierAtEnd(), comment);
+      case "is_symmetric":
+        return new StanzaEntryIsSymmetric(parseBoolean(), parseTrailingModifierAtEnd(), comment);
+      case "is_antisymmetric":
+        return new StanzaEntryIsAntisymmetric(parseBoolean(), parseTrailingModifierAtEnd(),
+            comment);
+      case "is_transitive":
+        return new StanzaEntryIsTransitive(parseBoolean(), parseTrailingModifierAtEnd(),
+            comment);
+      case "is_metadata":
+        return new StanzaEntryIsMetadata(parseBoolean(), parseTrailingModifierAtEnd(), comment);
+      case "is_a":
+        return new StanzaEntryIsA(parseWord(), parseTrailingModifierAtEnd(), comment);
+      case "union_of":
+        return new StanzaEntryUnionOf(parseWord(), parseTrailingModifierAtEnd(), comment);
+      case "disjoint_from":
+        return new StanzaEntryDisjointFrom(parseWord(), parseTrailingModifierAtEnd(), comment);
+      case "default-relationship-id-prefix":
+        return new StanzaEntryDefaultRelationshipIdPrefix(parseWord(),
+            parseTrailingModifierAtEnd(), comment);
+      case "intersection_of":
+        return parseIntersectionOf();
+      case "relationship":
+        return parseRelationship();
+      case "id-mapping":
+        return new StanzaEntryIdMapping(parseWord(), parseWord(), parseTrailingModifierAtEnd(),
+            comment);
+      case "subsetdef":
+        return new StanzaEntrySubsetdef(parseWord(), parseQuotedString(),
+            parseTrailingModifierAtEnd(), comment);
+      case "synonymtypedef":
+        return parseSynonymtypedef();
+      case "idspace":
+        return parseIdspace();
+      case "def":
+        return parseDef();
+      case "synonym":
+        return parseSynonym();
+      case "xref":
+        return parseXref();
+      default:
+        return new StanzaEntryGeneric(OboEscapeUtils.unescape(tag), parseStringValue(),
+            parseTrailingModifierAtEnd(), comment);
+    }
+  }
+
+  /** @return Parsed <code>intersection_of</code> entry. */
+  private StanzaEntry parseIntersectionOf() {
+    final String first = parseWord();
+    if (pos < end && line[pos] != '{') {
+      final String second = parseWord();
+      return new StanzaEntryIntersectionOf(first, second, parseTrailingModifierAtEnd(), comment);
+    } else {
+      return new StanzaEntryIntersectionOf(null, first, parseTrailingModifierAtEnd(), comment);
+    }
+  }
+
+  /** @return Parsed <code>relationship</code> entry. */
+  private StanzaEntry parseRelationship() {
+    final String relationshipType = parseWord();
+    final List<String> ids = new ArrayList<>();
+    do {
+      ids.add(parseWord());
+    } while (pos < end && line[pos] != '{');
+    return new StanzaEntryRelationship(relationshipType, ids, parseTrailingModifierAtEnd(),
+        comment);
+  }
+
+  /** @return Parsed <code>synonymtypedef</code> entry. */
+  private StanzaEntry parseSynonymtypedef() {
+    final String name = parseWord();
+    final String description = parseQuotedString();
+    final TermSynonymScope scope = (pos < end && line[pos] != '{') ? parseScope() : null;
+    return new StanzaEntrySynonymtypedef(name, description, scope, parseTrailingModifierAtEnd(),
+        comment);
+  }
+
+  /** @return Parsed <code>idspace</code> entry. */
+  private StanzaEntry parseIdspace() {
+    final String localIdSpace = parseWord();
+    final String remoteIdSpace = parseWord();
+    final String description = (pos < end && line[pos] == '"') ? parseQuotedString() : null;
+    return new StanzaEntryIdspace(localIdSpace, remoteIdSpace, description,
+        parseTrailingModifierAtEnd(), comment);
+  }
+
+  /** @return Parsed <code>def</code> entry. */
+  private StanzaEntry parseDef() {
+    final String text = parseQuotedString();
+    final DbXrefList dbXrefList = parseDbXrefList();
+    return new StanzaEntryDef(text, dbXrefList, parseTrailingModifierAtEnd(), comment);
+  }
+
+  /** @return Parsed <code>synonym</code> entry. */
+  private StanzaEntry parseSynonym() {
+    final String text = parseQuotedString();
+    final TermSynonymScope scope = parseScope();
+    String typeName = null;
+    if (pos < end && line[pos] != '[' && line[pos] != '{') {
+      typeName = parseWord();
+    }
+    DbXrefList dbXrefList = null;
+    if (pos < end && line[pos] == '[') {
+      dbXrefList = parseDbXrefList();
+    }
+    return new StanzaEntrySynonym(text, scope, typeName, dbXrefList,
+        parseTrailingModifierAtEnd(), comment);
+  }
+
+  /** @return Parsed <code>xref</code> entry. */
+  private StanzaEntry parseXref() {
+    final DbXref dbXref = parseDbXref(false);
+    skipSpaces(end);
+    expectEnd();
+    return new StanzaEntryXref(dbXref, dbXref.getTrailingModifier(), comment);
+  }
+
+  /**
+   * Parse unescaped string value up to an optional trailing modifier.
+   *
+   * @return The unescaped value.
+   */
+  private String parseStringValue() {
+    return OboEscapeUtils.unescape(parseRawStringValue());
+  }
+
+  /**
+   * Parse string value up to an optional trailing modifier, leaves {@link #pos} at its start.
+   *
+   * @return The raw value.
+   */
+  private String parseRawStringValue() {
+    final int begin = pos;
+    boolean inQuotes = false;
+    int i = pos;
+    for (; i < end; ++i) {
+      if (isEscape(i, end)) {
+        ++i;
+      } else if (line[i] == '"') {
+        inQuotes = !inQuotes;
+      } else if (!inQuotes && line[i] == '{' && i > begin && line[i - 1] == ' ') {
+        break;
+      }
+    }
+    pos = i;
+    int stop = i;
+    while (stop > begin && line[stop - 1] == ' ') {
+      --stop;
+    }
+    return new String(line, begin, stop - begin);
+  }
+
+  /**
+   * Parse word and skip following spaces.
+   *
+   * @return The unescaped word.
+   */
+  private String parseWord() {
+    final int begin = pos;
+    while (pos < end && line[pos] != ' ') {
+      pos += isEscape(pos, end) ? 2 : 1;
+    }
+    if (pos == begin) {
+      throw error("expected word");
+    }
+    final String word = OboEscapeUtils.unescape(new String(line, begin, pos - begin));
+    skipSpaces(end);
+    return word;
+  }
+
+  /**
+   * Parse boolean value and skip following spaces.
+   *
+   * @return The parsed value.
+   */
+  private boolean parseBoolean() {
+    final String word = parseWord();
+    if (word.equals("true")) {
+      return true;
+    } else if (word.equals("false")) {
+      return false;
+    } else {
+      throw error("expected true or false but found " + word);
+    }
+  }
+
+  /**
+   * Parse synonym scope and skip following spaces.
+   *
+   * @return The parsed {@link TermSynonymScope}.
+   */
+  private TermSynonymScope parseScope() {
+    final String word = parseWord();
+    try {
+      return TermSynonymScope.valueOf(word);
+    } catch (IllegalArgumentException e) {
+      throw error("invalid synonym scope " + word);
+    }
+  }
+
+  /**
+   * Parse quoted string and skip following spaces.
+   *
+   * @return The unescaped string without the quotes.
+   */
+  private String parseQuotedString() {
+    if (pos >= end || line[pos] != '"') {
+      throw error("expected quoted string");
+    }
+    final int begin = pos;
+    ++pos;
+    while (pos < end && line[pos] != '"') {
+      pos += (line[pos] == '\\') ? 2 : 1;
+    }
+    if (pos >= end) {
+      throw error("unterminated quoted string");
+    }
+    ++pos;
+    final String str = OboEscapeUtils.unescape(new String(line, begin, pos - begin));
+    skipSpaces(end);
+    return str;
+  }
+
+  /**
+   * Parse optional trailing modifier, which must be the last part of the value.
+   *
+   * @return The parsed {@link TrailingModifier}, <code>null</code> if there is none.
+   */
+  private TrailingModifier parseTrailingModifierAtEnd() {
+    final TrailingModifier trailingModifier = parseOptionalTrailingModifier();
+    skipSpaces(end);
+    expectEnd();
+    return trailingModifier;
+  }
+
+  /**
+   * Parse trailing modifier at {@link #pos}, if any.
+   *
+   * @return The parsed {@link TrailingModifier}, <code>null</code> if there is none.
+   */
+  private TrailingModifier parseOptionalTrailingModifier() {
+    if (pos >= end || line[pos] != '{') {
+      return null;
+    }
+    ++pos;
+    final TrailingModifierBuilder builder = new TrailingModifierBuilder();
+    skipSpaces(end);
+    if (pos < end && line[pos] == '}') {
+      ++pos;
+      return builder.build();
+    }
+    while (true) {
+      final int keyBegin = pos;
+      while (pos < end && line[pos] != '=' && line[pos] != ',' && line[pos] != '}') {
+        pos += isEscape(pos, end) ? 2 : 1;
+      }
+      if (pos >= end || line[pos] != '=') {
+        throw error("expected '=' in trailing modifier");
+      }
+      final String key = OboEscapeUtils.unescape(new String(line, keyBegin, pos - keyBegin).trim());
+      ++pos;
+
+      final String value;
+      if (pos < end && line[pos] == '"') {
+        value = parseQuotedString();
+      } else {
+        final int valueBegin = pos;
+        while (pos < end && line[pos] != ',' && line[pos] != '}') {
+          pos += isEscape(pos, end) ? 2 : 1;
+        }
+        value = OboEscapeUtils.unescape(new String(line, valueBegin, pos - valueBegin).trim());
+      }
+      builder.addKeyValue(key, value);
+
+      skipSpaces(end);
+      if (pos < end && line[pos] == ',') {
+        ++pos;
+        skipSpaces(end);
+      } else if (pos < end && line[pos] == '}') {
+        ++pos;
+        return builder.build();
+      } else {
+        throw error("unterminated trailing modifier");
+      }
+    }
+  }
+
+  /**
+   * Parse list of database cross-references, e.g., <code>[PMID:123, ISBN:456]</code>, and skip
+   * following spaces.
+   *
+   * @return The parsed {@link DbXrefList}.
+   */
+  private DbXrefList parseDbXrefList() {
+    if (pos >= end || line[pos] != '[') {
+      throw error("expected '['");
+    }
+    ++pos;
+    final DbXrefList dbXrefList = new DbXrefList();
+    skipSpaces(end);
+    if (pos < end && line[pos] == ']') {
+      ++pos;
+      skipSpaces(end);
+      return dbXrefList;
+    }
+    while (true) {
+      dbXrefList.addDbXref(parseDbXref(true));
+      skipSpaces(end);
+      if (pos < end && (line[pos] == ',' || line[pos] == ';')) {
+        ++pos;
+        skipSpaces(end);
+      } else if (pos < end && line[pos] == ']') {
+        ++pos;
+        skipSpaces(end);
+        return dbXrefList;
+      } else {
+        throw error("unterminated database cross-reference list");
+      }
+    }
+  }
+
+  /**
+   * Parse database cross-reference with optional description and trailing modifier.
+   *
+   * @param inList Whether or not the cross-reference is part of a list.
+   * @return The parsed {@link DbXref}.
+   */
+  private DbXref parseDbXref(boolean inList) {
+    final int begin = pos;
+    while (pos < end) {
+      final char c = line[pos];
+      if (isEscape(pos, end)) {
+        pos += 2;
+      } else if (c == '"' || c == '{' || (inList && (c == ',' || c == ']'))) {
+        break;
+      } else if (c == ' ') {
+        // Spaces are part of the name unless followed by description or trailing modifier.
+        int next = pos;
+        while (next < end && line[next] == ' ') {
+          ++next;
+        }
+        if (next == end || line[next] == '"' || line[next] == '{'
+            || (inList && (line[next] == ',' || line[next] == ']'))) {
+          break;
+        }
+        pos = next;
+      } else {
+        ++pos;
+      }
+    }
+    if (pos == begin) {
+      throw error("expected database cross-reference");
+    }
+    final String name = OboEscapeUtils.unescape(new String(line, begin, pos - begin));
+
+    skipSpaces(end);
+    String description = null;
+    if (pos < end && line[pos] == '"') {
+      description = parseQuotedString();
+    }
+    final TrailingModifier trailingModifier = parseOptionalTrailingModifier();
+    return new DbXref(name, description, trailingModifier);
+  }
+
+  /**
+   * @return Whether or not there is an escape sequence at position <code>i</code> of
+   *         {@link #line}, ending before <code>limit</code>.
+   */
+  private boolean isEscape(int i, int limit) {
+    if (line[i] != '\\' || i + 1 >= limit) {
+      return false;
+    }
+    switch (line[i + 1]) {
+      case 'n':
+      case 'W':
+      case 't':
+      case ':':
+      case ',':
+      case '"':
+      case '[':
+      case ']':
+      case '{':
+      case '}':
+        return true;
+      default:
+        return false;
+    }
+  }
+
+  /**
+   * Advance {@link #pos} over spaces.
+   *
+   * @param limit Position to stop at.
+   */
+  private void skipSpaces(int limit) {
+    while (pos < limit && line[pos] == ' ') {
+      ++pos;
+    }
+  }
+
+  /**
+   * Ensure that the complete value has been consumed.
+   */
+  private void expectEnd() {
+    if (pos < end) {
+      throw error("unexpected input " + new String(line, pos, end - pos));
+    }
+  }
+
+  /**
+   * Construct exception for parse error in the current line.
+   *
+   * @param msg Description of the problem.
+   * @return {@link OntoLibRuntimeException} to throw.
+   */
+  private OntoLibRuntimeException error(String msg) {
+    return new OntoLibRuntimeException("Failed to parse at line " + lineNo + " due to " + msg);
+  }
+
+}
@@ -13,6 +13,7 @@ import com.github.phenomics.ontolib.formats.go.GoGaf21Annotation;
 import com.github.phenomics.ontolib.io.base.TermAnnotationParser;
 import com.github.phenomics.ontolib.io.base.TermAnnotationParserException;
 import com.github.phenomics.ontolib.ontology.data.ImmutableTermId;
+import com.github.phenomics.ontolib.ontology.data.TermIdDictionary;
 import com.google.common.collect.ImmutableList;
 
 /**
@@ -51,6 +52,9 @@ public final class GoGeneAnnotationParser implements TermAnnotationParser<GoGaf2
    */
   private final BufferedReader reader;
 
+  /** Dictionary for interning the parsed term IDs. */
+  private final TermIdDictionary termIdDictionary;
+
   /** The next line. */
   private String nextLine;
 
@@ -63,7 +67,25 @@ public final class GoGeneAnnotationParser implements TermAnnotationParser<GoGaf2
    * @throws TermAnnotationParserException If there are problems with the file's header.
    */
   public GoGeneAnnotationParser(File file) throws IOException, TermAnnotationParserException {
+    this(file, null);
+  }
+
+  /**
+   * Create new parser for GO gene annotation file, interning term IDs through the given
+   * dictionary.
+   *
+   * @param file The file to read from.
+   * @param termIdDictionary Frozen {@link TermIdDictionary} to share term IDs with, e.g., the one
+   *        of the annotated ontology, or <code>null</code>. It is not modified, term IDs not
+   *        contained in it are interned in a child dictionary.
+   *
+   * @throws IOException In case of problems with opening and reading from <code>file</code>.
+   * @throws TermAnnotationParserException If there are problems with the file's header.
+   */
+  public GoGeneAnnotationParser(File file, TermIdDictionary termIdDictionary)
+      throws IOException, TermAnnotationParserException {
     this.file = file;
+    this.termIdDictionary = new TermIdDictionary(termIdDictionary);
     this.reader = new BufferedReader(new FileReader(file));
     this.nextLine = reader.readLine();
     skipHeaderAndCheckFirst();
@@ -107,7 +129,7 @@ public final class GoGeneAnnotationParser implements TermAnnotationParser<GoGaf2
     final String dbObjectId = arr[1];
     final String dbObjectSymbol = arr[2];
     final String qualifier = arr[3];
-    final ImmutableTermId goId = ImmutableTermId.constructWithPrefix(arr[4]);
+    final ImmutableTermId goId = termIdDictionary.intern(arr[4]);
     final String dbReference = arr[5];
     final String evidenceCode = arr[6];
     final String with = arr[7];
@@ -7,8 +7,6 @@ import com.github.phenomics.ontolib.formats.go.GoOntology;
 import com.github.phenomics.ontolib.formats.go.GoTerm;
 import com.github.phenomics.ontolib.formats.go.GoTermRelation;
 import com.github.phenomics.ontolib.formats.hpo.HpoOntology;
-import com.github.phenomics.ontolib.graph.data.ImmutableDirectedGraph;
-import com.github.phenomics.ontolib.graph.data.ImmutableEdge;
 import com.github.phenomics.ontolib.io.base.OntologyOboParser;
 import com.github.phenomics.ontolib.io.obo.OboImmutableOntologyLoader;
 import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
@@ -49,6 +47,9 @@ public final class GoOboParser implements OntologyOboParser<GoOntology> {
   /** Whether debugging is enabled or not. */
   private final boolean debug;
 
+  /** Number of threads to use for parsing. */
+  private final int numThreads;
+
   /**
    * Constructor.
    *
@@ -56,8 +57,20 @@ public final class GoOboParser implements OntologyOboParser<GoOntology> {
    * @param debug Whether or not to enable debugging.
    */
   public GoOboParser(File oboFile, boolean debug) {
+    this(oboFile, debug, 1);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param oboFile The OBO file to read.
+   * @param debug Whether or not to enable debugging.
+   * @param numThreads Number of threads to use for parsing.
+   */
+  public GoOboParser(File oboFile, boolean debug, int numThreads) {
     this.oboFile = oboFile;
     this.debug = debug;
+    this.numThreads = numThreads;
   }
 
   /**
@@ -78,14 +91,14 @@ public final class GoOboParser implements OntologyOboParser<GoOntology> {
   @SuppressWarnings("unchecked")
   public GoOntology parse() throws IOException {
     final OboImmutableOntologyLoader<GoTerm, GoTermRelation> loader =
-        new OboImmutableOntologyLoader<>(oboFile, debug);
+        new OboImmutableOntologyLoader<>(oboFile, debug, numThreads);
     final GoOboFactory factory = new GoOboFactory();
     final ImmutableOntology<GoTerm, GoTermRelation> o = loader.load(factory);
 
     // Convert ImmutableOntology into GoOntology. The casts here are ugly and require the
     // @SuppressWarnings above but this saves us one factory layer of indirection.
     return new GoOntology((ImmutableSortedMap<String, String>) o.getMetaInfo(),
-        (ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>>) o.getGraph(), o.getRootTermId(),
+        o.getGraph(), o.getRootTermId(),
         o.getNonObsoleteTermIds(), o.getObsoleteTermIds(),
         (ImmutableMap<TermId, GoTerm>) o.getTermMap(),
         (ImmutableMap<Integer, GoTermRelation>) o.getRelationMap());
@@ -13,6 +13,7 @@ import com.github.phenomics.ontolib.formats.hpo.HpoDiseaseAnnotation;
 import com.github.phenomics.ontolib.io.base.TermAnnotationParser;
 import com.github.phenomics.ontolib.io.base.TermAnnotationParserException;
 import com.github.phenomics.ontolib.ontology.data.ImmutableTermId;
+import com.github.phenomics.ontolib.ontology.data.TermIdDictionary;
 import com.google.common.base.Enums;
 import com.google.common.collect.ImmutableList;
 
@@ -52,6 +53,9 @@ public class HpoDiseaseAnnotationParser implements TermAnnotationParser<HpoDisea
    */
   private final BufferedReader reader;
 
+  /** Dictionary for interning the parsed term IDs. */
+  private final TermIdDictionary termIdDictionary;
+
   /** The next line. */
   private String nextLine;
 
@@ -65,7 +69,26 @@ public class HpoDiseaseAnnotationParser implements TermAnnotationParser<HpoDisea
    * @throws TermAnnotationParserException If there are problems with the file's first line.
    */
   public HpoDiseaseAnnotationParser(File file) throws IOException, TermAnnotationParserException {
+    this(file, null);
+  }
+
+  /**
+   * Create new parser for HPO gene annotation files, interning term IDs through the given
+   * dictionary.
+   *
+   * @param file The file to read from.
+   * @param termIdDictionary Frozen {@link TermIdDictionary} to share term IDs with, e.g., the one
+   *        of the annotated ontology, or <code>null</code>. It is not modified, term IDs not
+   *        contained in it are interned in a child dictionary.
+   *
+   * @throws IOException In case of problems with opening and reading first line from
+   *         <code>file</code>.
+   * @throws TermAnnotationParserException If there are problems with the file's first line.
+   */
+  public HpoDiseaseAnnotationParser(File file, TermIdDictionary termIdDictionary)
+      throws IOException, TermAnnotationParserException {
     this.file = file;
+    this.termIdDictionary = new TermIdDictionary(termIdDictionary);
     this.reader = new BufferedReader(new FileReader(file));
     this.nextLine = reader.readLine();
     checkFirstLine();
@@ -109,7 +132,7 @@ public class HpoDiseaseAnnotationParser implements TermAnnotationParser<HpoDisea
     final String dbObjectId = arr[1];
     final String dbName = arr[2];
     final String qualifier = arr[3];
-    final ImmutableTermId hpoId = ImmutableTermId.constructWithPrefix(arr[4]);
+    final ImmutableTermId hpoId = termIdDictionary.intern(arr[4]);
     final String dbReference = arr[5];
     final String evidenceCode = arr[6];
     final String onsetModifier = arr[7];
@@ -3,8 +3,8 @@ package com.github.phenomics.ontolib.io.obo.hpo;
 import com.github.phenomics.ontolib.formats.hpo.HpoGeneAnnotation;
 import com.github.phenomics.ontolib.io.base.TermAnnotationParser;
 import com.github.phenomics.ontolib.io.base.TermAnnotationParserException;
-import com.github.phenomics.ontolib.ontology.data.ImmutableTermId;
 import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.data.TermIdDictionary;
 import java.io.BufferedReader;
 import java.io.File;
 import java.io.FileReader;
@@ -52,6 +52,9 @@ public class HpoGeneAnnotationParser implements TermAnnotationParser<HpoGeneAnno
    */
   private final BufferedReader reader;
 
+  /** Dictionary for interning the parsed term IDs. */
+  private final TermIdDictionary termIdDictionary;
+
   /** The next line. */
   private String nextLine;
 
@@ -64,7 +67,25 @@ public class HpoGeneAnnotationParser implements TermAnnotationParser<HpoGeneAnno
    * @throws TermAnnotationParserException If there are problems with the file's header.
    */
   public HpoGeneAnnotationParser(File file) throws IOException, TermAnnotationParserException {
+    this(file, null);
+  }
+
+  /**
+   * Create new parser for HPO gene annotation files, interning term IDs through the given
+   * dictionary.
+   *
+   * @param file The file to read from.
+   * @param termIdDictionary Frozen {@link TermIdDictionary} to share term IDs with, e.g., the one
+   *        of the annotated ontology, or <code>null</code>. It is not modified, term IDs not
+   *        contained in it are interned in a child dictionary.
+   *
+   * @throws IOException In case of problems with opening and reading from <code>file</code>.
+   * @throws TermAnnotationParserException If there are problems with the file's header.
+   */
+  public HpoGeneAnnotationParser(File file, TermIdDictionary termIdDictionary)
+      throws IOException, TermAnnotationParserException {
     this.file = file;
+    this.termIdDictionary = new TermIdDictionary(termIdDictionary);
     this.reader = new BufferedReader(new FileReader(file));
     this.nextLine = reader.readLine();
     checkHeader();
@@ -95,7 +116,7 @@ public class HpoGeneAnnotationParser implements TermAnnotationParser<HpoGeneAnno
     final int geneId = Integer.parseInt(arr[0]);
     final String geneSymbol = arr[1];
     final String hpoTermName = arr[2];
-    final TermId hpoTermId = ImmutableTermId.constructWithPrefix(arr[3]);
+    final TermId hpoTermId = termIdDictionary.intern(arr[3]);
 
     nextLine = reader.readLine();
 
@@ -6,8 +6,6 @@ import java.io.IOException;
 import com.github.phenomics.ontolib.formats.hpo.HpoOntology;
 import com.github.phenomics.ontolib.formats.hpo.HpoTerm;
 import com.github.phenomics.ontolib.formats.hpo.HpoTermRelation;
-import com.github.phenomics.ontolib.graph.data.ImmutableDirectedGraph;
-import com.github.phenomics.ontolib.graph.data.ImmutableEdge;
 import com.github.phenomics.ontolib.io.base.OntologyOboParser;
 import com.github.phenomics.ontolib.io.obo.OboImmutableOntologyLoader;
 import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
@@ -41,6 +39,9 @@ public final class HpoOboParser implements OntologyOboParser<HpoOntology> {
   /** Whether debugging is enabled or not. */
   private final boolean debug;
 
+  /** Number of threads to use for parsing. */
+  private final int numThreads;
+
   /**
    * Constructor.
    *
@@ -48,8 +49,20 @@ public final class HpoOboParser implements OntologyOboParser<HpoOntology> {
    * @param debug Whether or not to enable debugging.
    */
   public HpoOboParser(File oboFile, boolean debug) {
+    this(oboFile, debug, 1);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param oboFile The OBO file to read.
+   * @param debug Whether or not to enable debugging.
+   * @param numThreads Number of threads to use for parsing.
+   */
+  public HpoOboParser(File oboFile, boolean debug, int numThreads) {
     this.oboFile = oboFile;
     this.debug = debug;
+    this.numThreads = numThreads;
   }
 
   /**
@@ -70,14 +83,14 @@ public final class HpoOboParser implements OntologyOboParser<HpoOntology> {
   @SuppressWarnings("unchecked")
   public HpoOntology parse() throws IOException {
     final OboImmutableOntologyLoader<HpoTerm, HpoTermRelation> loader =
-        new OboImmutableOntologyLoader<>(oboFile, debug);
+        new OboImmutableOntologyLoader<>(oboFile, debug, numThreads);
     final HpoOboFactory factory = new HpoOboFactory();
     final ImmutableOntology<HpoTerm, HpoTermRelation> o = loader.load(factory);
 
     // Convert ImmutableOntology into HPOntology. The casts here are ugly and require the
     // @SuppressWarnings above but this saves us one factory layer of indirection.
     return new HpoOntology((ImmutableSortedMap<String, String>) o.getMetaInfo(),
-        (ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>>) o.getGraph(), o.getRootTermId(),
+        o.getGraph(), o.getRootTermId(),
         o.getNonObsoleteTermIds(), o.getObsoleteTermIds(),
         (ImmutableMap<TermId, HpoTerm>) o.getTermMap(),
         (ImmutableMap<Integer, HpoTermRelation>) o.getRelationMap());
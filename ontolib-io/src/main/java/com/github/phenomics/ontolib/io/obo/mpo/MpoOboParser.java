@@ -6,8 +6,6 @@ import java.io.IOException;
 import com.github.phenomics.ontolib.formats.mpo.MpoOntology;
 import com.github.phenomics.ontolib.formats.mpo.MpoTerm;
 import com.github.phenomics.ontolib.formats.mpo.MpoTermRelation;
-import com.github.phenomics.ontolib.graph.data.ImmutableDirectedGraph;
-import com.github.phenomics.ontolib.graph.data.ImmutableEdge;
 import com.github.phenomics.ontolib.io.base.OntologyOboParser;
 import com.github.phenomics.ontolib.io.obo.OboImmutableOntologyLoader;
 import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
@@ -41,6 +39,9 @@ public final class MpoOboParser implements OntologyOboParser<MpoOntology> {
   /** Whether debugging is enabled or not. */
   private final boolean debug;
 
+  /** Number of threads to use for parsing. */
+  private final int numThreads;
+
   /**
    * Constructor.
    *
@@ -48,8 +49,20 @@ public final class MpoOboParser implements OntologyOboParser<MpoOntology> {
    * @param debug Whether or not to enable debugging.
    */
   public MpoOboParser(File oboFile, boolean debug) {
+    this(oboFile, debug, 1);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param oboFile The OBO file to read.
+   * @param debug Whether or not to enable debugging.
+   * @param numThreads Number of threads to use for parsing.
+   */
+  public MpoOboParser(File oboFile, boolean debug, int numThreads) {
     this.oboFile = oboFile;
     this.debug = debug;
+    this.numThreads = numThreads;
   }
 
   /**
@@ -70,14 +83,14 @@ public final class MpoOboParser implements OntologyOboParser<MpoOntology> {
   @SuppressWarnings("unchecked")
   public MpoOntology parse() throws IOException {
     final OboImmutableOntologyLoader<MpoTerm, MpoTermRelation> loader =
-        new OboImmutableOntologyLoader<>(oboFile, debug);
+        new OboImmutableOntologyLoader<>(oboFile, debug, numThreads);
     final MpoOboFactory factory = new MpoOboFactory();
     final ImmutableOntology<MpoTerm, MpoTermRelation> o = loader.load(factory);
 
     // Convert ImmutableOntology into Mpontology. The casts here are ugly and require the
     // @SuppressWarnings above but this saves us one factory layer of indirection.
     return new MpoOntology((ImmutableSortedMap<String, String>) o.getMetaInfo(),
-        (ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>>) o.getGraph(), o.getRootTermId(),
+        o.getGraph(), o.getRootTermId(),
         o.getNonObsoleteTermIds(), o.getObsoleteTermIds(),
         (ImmutableMap<TermId, MpoTerm>) o.getTermMap(),
         (ImmutableMap<Integer, MpoTermRelation>) o.getRelationMap());
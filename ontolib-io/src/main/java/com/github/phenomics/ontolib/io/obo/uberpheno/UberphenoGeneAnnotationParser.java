@@ -8,8 +8,8 @@ import java.io.IOException;
 import com.github.phenomics.ontolib.formats.uberpheno.UberphenoGeneAnnotation;
 import com.github.phenomics.ontolib.io.base.TermAnnotationParser;
 import com.github.phenomics.ontolib.io.base.TermAnnotationParserException;
-import com.github.phenomics.ontolib.ontology.data.ImmutableTermId;
 import com.github.phenomics.ontolib.ontology.data.TermId;
+import com.github.phenomics.ontolib.ontology.data.TermIdDictionary;
 
 /**
  * Parser for "genes to phenotype annotation" files.
@@ -63,6 +63,9 @@ public class UberphenoGeneAnnotationParser
    */
   private final BufferedReader reader;
 
+  /** Dictionary for interning the parsed term IDs. */
+  private final TermIdDictionary termIdDictionary;
+
   /** The next line. */
   private String nextLine;
 
@@ -76,7 +79,25 @@ public class UberphenoGeneAnnotationParser
    */
   public UberphenoGeneAnnotationParser(File file)
       throws IOException, TermAnnotationParserException {
+    this(file, null);
+  }
+
+  /**
+   * Create new parser for Uberpheno gene annotation files, interning term IDs through the given
+   * dictionary.
+   *
+   * @param file The file to read from.
+   * @param termIdDictionary Frozen {@link TermIdDictionary} to share term IDs with, e.g., the one
+   *        of the annotated ontology, or <code>null</code>. It is not modified, term IDs not
+   *        contained in it are interned in a child dictionary.
+   *
+   * @throws IOException In case of problems with opening and reading from <code>file</code>.
+   * @throws TermAnnotationParserException If there are problems with the file's header.
+   */
+  public UberphenoGeneAnnotationParser(File file, TermIdDictionary termIdDictionary)
+      throws IOException, TermAnnotationParserException {
     this.file = file;
+    this.termIdDictionary = new TermIdDictionary(termIdDictionary);
     this.reader = new BufferedReader(new FileReader(file));
     this.nextLine = reader.readLine();
     checkHeader();
@@ -133,7 +154,7 @@ public class UberphenoGeneAnnotationParser
     }
     final String termDescription = pair[0];
     final TermId termId =
-        ImmutableTermId.constructWithPrefix(pair[1].substring(0, pair[1].length() - 1));
+        termIdDictionary.intern(pair[1].substring(0, pair[1].length() - 1));
 
     nextLine = reader.readLine();
 
@@ -6,8 +6,6 @@ import java.io.IOException;
 import com.github.phenomics.ontolib.formats.uberpheno.UberphenoOntology;
 import com.github.phenomics.ontolib.formats.uberpheno.UberphenoTerm;
 import com.github.phenomics.ontolib.formats.uberpheno.UberphenoTermRelation;
-import com.github.phenomics.ontolib.graph.data.ImmutableDirectedGraph;
-import com.github.phenomics.ontolib.graph.data.ImmutableEdge;
 import com.github.phenomics.ontolib.io.base.OntologyOboParser;
 import com.github.phenomics.ontolib.io.obo.OboImmutableOntologyLoader;
 import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
@@ -41,6 +39,9 @@ public final class UberphenoOboParser implements OntologyOboParser<UberphenoOnto
   /** Whether debugging is enabled or not. */
   private final boolean debug;
 
+  /** Number of threads to use for parsing. */
+  private final int numThreads;
+
   /**
    * Constructor.
    *
@@ -48,8 +49,20 @@ public final class UberphenoOboParser implements OntologyOboParser<UberphenoOnto
    * @param debug Whether or not to enable debugging.
    */
   public UberphenoOboParser(File oboFile, boolean debug) {
+    this(oboFile, debug, 1);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param oboFile The OBO file to read.
+   * @param debug Whether or not to enable debugging.
+   * @param numThreads Number of threads to use for parsing.
+   */
+  public UberphenoOboParser(File oboFile, boolean debug, int numThreads) {
     this.oboFile = oboFile;
     this.debug = debug;
+    this.numThreads = numThreads;
   }
 
   /**
@@ -71,14 +84,14 @@ public final class UberphenoOboParser implements OntologyOboParser<UberphenoOnto
   @Override
   public UberphenoOntology parse() throws IOException {
     final OboImmutableOntologyLoader<UberphenoTerm, UberphenoTermRelation> loader =
-        new OboImmutableOntologyLoader<>(oboFile, debug);
+        new OboImmutableOntologyLoader<>(oboFile, debug, numThreads);
     final UberphenoOboFactory factory = new UberphenoOboFactory();
     final ImmutableOntology<UberphenoTerm, UberphenoTermRelation> o = loader.load(factory);
 
     // Convert ImmutableOntology into Uberphenontology. The casts here are ugly and require the
     // @SuppressWarnings above but this saves us one factory layer of indirection.
     return new UberphenoOntology((ImmutableSortedMap<String, String>) o.getMetaInfo(),
-        (ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>>) o.getGraph(), o.getRootTermId(),
+        o.getGraph(), o.getRootTermId(),
         o.getNonObsoleteTermIds(), o.getObsoleteTermIds(),
         (ImmutableMap<TermId, UberphenoTerm>) o.getTermMap(),
         (ImmutableMap<Integer, UberphenoTermRelation>) o.getRelationMap());
@@ -6,8 +6,6 @@ import java.io.IOException;
 import com.github.phenomics.ontolib.formats.upheno.UphenoOntology;
 import com.github.phenomics.ontolib.formats.upheno.UphenoTerm;
 import com.github.phenomics.ontolib.formats.upheno.UphenoTermRelation;
-import com.github.phenomics.ontolib.graph.data.ImmutableDirectedGraph;
-import com.github.phenomics.ontolib.graph.data.ImmutableEdge;
 import com.github.phenomics.ontolib.io.base.OntologyOboParser;
 import com.github.phenomics.ontolib.io.obo.OboImmutableOntologyLoader;
 import com.github.phenomics.ontolib.ontology.data.ImmutableOntology;
@@ -41,6 +39,9 @@ public final class UphenoOboParser implements OntologyOboParser<UphenoOntology>
   /** Whether debugging is enabled or not. */
   private final boolean debug;
 
+  /** Number of threads to use for parsing. */
+  private final int numThreads;
+
   /**
    * Constructor.
    *
@@ -48,8 +49,20 @@ public final class UphenoOboParser implements OntologyOboParser<UphenoOntology>
    * @param debug Whether or not to enable debugging.
    */
   public UphenoOboParser(File oboFile, boolean debug) {
+    this(oboFile, debug, 1);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param oboFile The OBO file to read.
+   * @param debug Whether or not to enable debugging.
+   * @param numThreads Number of threads to use for parsing.
+   */
+  public UphenoOboParser(File oboFile, boolean debug, int numThreads) {
     this.oboFile = oboFile;
     this.debug = debug;
+    this.numThreads = numThreads;
   }
 
   /**
@@ -70,14 +83,14 @@ public final class UphenoOboParser implements OntologyOboParser<UphenoOntology>
   @SuppressWarnings("unchecked")
   public UphenoOntology parse() throws IOException {
     final OboImmutableOntologyLoader<UphenoTerm, UphenoTermRelation> loader =
-        new OboImmutableOntologyLoader<>(oboFile, debug);
+        new OboImmutableOntologyLoader<>(oboFile, debug, numThreads);
     final UphenoOboFactory factory = new UphenoOboFactory();
     final ImmutableOntology<UphenoTerm, UphenoTermRelation> o = loader.load(factory);
 
     // Convert ImmutableOntology into UberphenoOntology. The casts here are ugly and require the
     // @SuppressWarnings above but this saves us one factory layer of indirection.
     return new UphenoOntology((ImmutableSortedMap<String, String>) o.getMetaInfo(),
-        (ImmutableDirectedGraph<TermId, ImmutableEdge<TermId>>) o.getGraph(), o.getRootTermId(),
+        o.getGraph(), o.getRootTermId(),
         o.getNonObsoleteTermIds(), o.getObsoleteTermIds(),
         (ImmutableMap<TermId, UphenoTerm>) o.getTermMap(),
         (ImmutableMap<Integer, UphenoTermRelation>) o.getRelationMap());
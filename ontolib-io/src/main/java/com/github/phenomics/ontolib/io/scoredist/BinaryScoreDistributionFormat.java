@@ -0,0 +1,61 @@
+package com.github.phenomics.ontolib.io.scoredist;
+
+/**
+ * Constants shared by {@link BinaryScoreDistributionWriter} and
+ * {@link BinaryScoreDistributionReader}.
+ *
+ * <p>
+ * A binary score distribution file consists of the following sections, all numbers are written
+ * in little-endian byte order:
+ * </p>
+ *
+ * <ol>
+ * <li>the header of {@link #HEADER_SIZE} bytes: magic number, format version, number of index
+ * entries, a reserved <code>int</code>, and the <code>long</code> offset of the index,</li>
+ * <li>the records, each consisting of the scores as <code>float</code>s followed by the cumulative
+ * frequencies as <code>float</code>s,</li>
+ * <li>the index with one entry of {@link #INDEX_ENTRY_SIZE} bytes per record, sorted by term count
+ * and object ID: term count, object ID, sample size, number of points, and the <code>long</code>
+ * offset of the record.</li>
+ * </ol>
+ *
+ * <p>
+ * The index is written after the records such that the writer does not need to know the number
+ * of records in advance.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class BinaryScoreDistributionFormat {
+
+  /** Magic number at the beginning of binary score distribution files ("OLSB"). */
+  static final int MAGIC = 0x4f4c5342;
+
+  /** Current version of the file format, increase on incompatible changes. */
+  static final int FORMAT_VERSION = 1;
+
+  /** Size of the header in bytes. */
+  static final int HEADER_SIZE = 4 * Integer.BYTES + Long.BYTES;
+
+  /** Size of one index entry in bytes. */
+  static final int INDEX_ENTRY_SIZE = 4 * Integer.BYTES + Long.BYTES;
+
+  /** Offset of the term count in an index entry. */
+  static final int ENTRY_NUM_TERMS = 0;
+
+  /** Offset of the object ID in an index entry. */
+  static final int ENTRY_OBJECT_ID = 4;
+
+  /** Offset of the sample size in an index entry. */
+  static final int ENTRY_SAMPLE_SIZE = 8;
+
+  /** Offset of the number of points in an index entry. */
+  static final int ENTRY_NUM_POINTS = 12;
+
+  /** Offset of the record offset in an index entry. */
+  static final int ENTRY_OFFSET = 16;
+
+  /** Private constructor, no instantiation. */
+  private BinaryScoreDistributionFormat() {}
+
+}
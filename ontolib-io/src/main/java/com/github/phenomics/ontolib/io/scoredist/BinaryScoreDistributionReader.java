@@ -0,0 +1,245 @@
+package com.github.phenomics.ontolib.io.scoredist;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
+import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistribution;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Class for reading {@link ScoreDistribution} objects from indexed binary files written by
+ * {@link BinaryScoreDistributionWriter}.
+ *
+ * <p>
+ * The file is mapped into memory on construction. Looking up the distribution of one object is a
+ * binary search in the index followed by decoding of its points, without reading the remaining
+ * file. Files larger than 2 GB are mapped in overlapping segments such that each record is
+ * contained in one segment. The reader only performs absolute reads on the mapped buffers and can
+ * thus be used concurrently from multiple threads.
+ * </p>
+ *
+ * @see BinaryScoreDistributionWriter
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class BinaryScoreDistributionReader implements ScoreDistributionReader {
+
+  /** Size of the record segments to map. */
+  private static final long SEGMENT_SIZE = 1L << 30;
+
+  /** Path to the file read from. */
+  private final File inputFile;
+
+  /** Number of index entries. */
+  private final int numEntries;
+
+  /** The mapped index. */
+  private final ByteBuffer index;
+
+  /** The mapped record segments, segment <code>i</code> starts at <code>i</code> segment sizes. */
+  private final ByteBuffer[] segments;
+
+  /**
+   * Constructor.
+   *
+   * @param inputFile Path to input file.
+   * @throws OntoLibException In case of problems with file I/O or an invalid file.
+   */
+  public BinaryScoreDistributionReader(File inputFile) throws OntoLibException {
+    this.inputFile = inputFile;
+    try (FileChannel channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ)) {
+      final ByteBuffer header =
+          ByteBuffer.allocate(BinaryScoreDistributionFormat.HEADER_SIZE)
+              .order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) {
+        if (channel.read(header) < 0) {
+          throw new OntoLibException("File " + inputFile + " is truncated");
+        }
+      }
+      header.flip();
+      if (header.getInt() != BinaryScoreDistributionFormat.MAGIC) {
+        throw new OntoLibException(
+            inputFile + " is not a binary score distribution file, magic number incorrect");
+      }
+      final int formatVersion = header.getInt();
+      if (formatVersion != BinaryScoreDistributionFormat.FORMAT_VERSION) {
+        throw new OntoLibException(
+            "Unsupported format version " + formatVersion + " in " + inputFile);
+      }
+      this.numEntries = header.getInt();
+      header.getInt(); // reserved
+      final long indexOffset = header.getLong();
+
+      final long indexSize = (long) numEntries * BinaryScoreDistributionFormat.INDEX_ENTRY_SIZE;
+      if (numEntries < 0 || indexOffset < BinaryScoreDistributionFormat.HEADER_SIZE
+          || indexSize > Integer.MAX_VALUE || channel.size() < indexOffset + indexSize) {
+        throw new OntoLibException("File " + inputFile + " is truncated or corrupt");
+      }
+      this.index = channel.map(FileChannel.MapMode.READ_ONLY, indexOffset, indexSize)
+          .order(ByteOrder.LITTLE_ENDIAN);
+      this.segments = mapSegments(channel, indexOffset);
+    } catch (IOException e) {
+      throw new OntoLibException("Problem opening file " + inputFile, e);
+    }
+  }
+
+  /**
+   * Map the records in segments of {@link #SEGMENT_SIZE} bytes, each extended by the size of the
+   * largest record.
+   */
+  private ByteBuffer[] mapSegments(FileChannel channel, long indexOffset)
+      throws IOException, OntoLibException {
+    long maxRecordSize = 0;
+    for (int i = 0; i < numEntries; ++i) {
+      final long offset = entryOffset(i);
+      final long recordSize = recordSize(i);
+      if (recordSize < 0 || offset < BinaryScoreDistributionFormat.HEADER_SIZE
+          || offset + recordSize > indexOffset) {
+        throw new OntoLibException("Invalid record offset in index of " + inputFile);
+      }
+      maxRecordSize = Math.max(maxRecordSize, recordSize);
+    }
+    if (SEGMENT_SIZE + maxRecordSize > Integer.MAX_VALUE) {
+      throw new OntoLibException("Record too large in " + inputFile);
+    }
+
+    final long dataSize = indexOffset - BinaryScoreDistributionFormat.HEADER_SIZE;
+    final int numSegments = (int) ((dataSize + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+    final ByteBuffer[] result = new ByteBuffer[numSegments];
+    for (int i = 0; i < numSegments; ++i) {
+      final long start = i * SEGMENT_SIZE;
+      final long length = Math.min(SEGMENT_SIZE + maxRecordSize, dataSize - start);
+      result[i] = channel.map(FileChannel.MapMode.READ_ONLY,
+          BinaryScoreDistributionFormat.HEADER_SIZE + start, length)
+          .order(ByteOrder.LITTLE_ENDIAN);
+    }
+    return result;
+  }
+
+  private int entryInt(int i, int field) {
+    return index.getInt(i * BinaryScoreDistributionFormat.INDEX_ENTRY_SIZE + field);
+  }
+
+  private long entryOffset(int i) {
+    return index.getLong(i * BinaryScoreDistributionFormat.INDEX_ENTRY_SIZE
+        + BinaryScoreDistributionFormat.ENTRY_OFFSET);
+  }
+
+  private long recordSize(int i) {
+    return 2L * Float.BYTES * entryInt(i, BinaryScoreDistributionFormat.ENTRY_NUM_POINTS);
+  }
+
+  /**
+   * Binary search in the index.
+   *
+   * @return Index of the first entry not smaller than <code>(termCount, objectId)</code>.
+   */
+  private int lowerBound(int termCount, int objectId) {
+    int lo = 0;
+    int hi = numEntries;
+    while (lo < hi) {
+      final int mid = (lo + hi) >>> 1;
+      int cmp = Integer.compare(
+          entryInt(mid, BinaryScoreDistributionFormat.ENTRY_NUM_TERMS), termCount);
+      if (cmp == 0) {
+        cmp = Integer.compare(
+            entryInt(mid, BinaryScoreDistributionFormat.ENTRY_OBJECT_ID), objectId);
+      }
+      if (cmp < 0) {
+        lo = mid + 1;
+      } else {
+        hi = mid;
+      }
+    }
+    return lo;
+  }
+
+  /**
+   * Decode the record of the <code>i</code>-th index entry.
+   */
+  private ObjectScoreDistribution decode(int i) throws OntoLibException {
+    final int numTerms = entryInt(i, BinaryScoreDistributionFormat.ENTRY_NUM_TERMS);
+    final int objectId = entryInt(i, BinaryScoreDistributionFormat.ENTRY_OBJECT_ID);
+    final int sampleSize = entryInt(i, BinaryScoreDistributionFormat.ENTRY_SAMPLE_SIZE);
+    final int numPoints = entryInt(i, BinaryScoreDistributionFormat.ENTRY_NUM_POINTS);
+    final long dataOffset = entryOffset(i) - BinaryScoreDistributionFormat.HEADER_SIZE;
+
+    final double[] scores = new double[numPoints];
+    final double[] cumFreqs = new double[numPoints];
+    if (numPoints > 0) {
+      final ByteBuffer segment = segments[(int) (dataOffset / SEGMENT_SIZE)];
+      final int pos = (int) (dataOffset % SEGMENT_SIZE);
+      for (int j = 0; j < numPoints; ++j) {
+        scores[j] = segment.getFloat(pos + j * Float.BYTES);
+        cumFreqs[j] = segment.getFloat(pos + (numPoints + j) * Float.BYTES);
+      }
+    }
+
+    try {
+      return new ObjectScoreDistribution(objectId, numTerms, sampleSize, scores, cumFreqs);
+    } catch (IllegalArgumentException e) {
+      throw new OntoLibException("Invalid score distribution for object ID " + objectId, e);
+    }
+  }
+
+  @Override
+  public ObjectScoreDistribution readForTermCountAndObject(int termCount, int objectId)
+      throws OntoLibException {
+    final int i = lowerBound(termCount, objectId);
+    if (i == numEntries
+        || entryInt(i, BinaryScoreDistributionFormat.ENTRY_NUM_TERMS) != termCount
+        || entryInt(i, BinaryScoreDistributionFormat.ENTRY_OBJECT_ID) != objectId) {
+      throw new OntoLibException(
+          "Distribution not found for term count: " + termCount + " and object ID: " + objectId);
+    }
+    return decode(i);
+  }
+
+  @Override
+  public ScoreDistribution readForTermCount(int termCount) throws OntoLibException {
+    final Map<Integer, ObjectScoreDistribution> dists = new TreeMap<>();
+    for (int i = lowerBound(termCount, Integer.MIN_VALUE); i < numEntries
+        && entryInt(i, BinaryScoreDistributionFormat.ENTRY_NUM_TERMS) == termCount; ++i) {
+      final ObjectScoreDistribution dist = decode(i);
+      dists.put(dist.getObjectId(), dist);
+    }
+    if (dists.isEmpty()) {
+      throw new OntoLibException("Distribution not found for term count: " + termCount);
+    }
+    return new ScoreDistribution(termCount, dists);
+  }
+
+  @Override
+  public Map<Integer, ScoreDistribution> readAll() throws OntoLibException {
+    final Map<Integer, ScoreDistribution> result = new HashMap<>();
+    int i = 0;
+    while (i < numEntries) {
+      final int termCount = entryInt(i, BinaryScoreDistributionFormat.ENTRY_NUM_TERMS);
+      final ScoreDistribution dist = readForTermCount(termCount);
+      result.put(termCount, dist);
+      i += dist.getObjectIds().size();
+    }
+    return result;
+  }
+
+  /**
+   * @return Number of stored object score distributions.
+   */
+  public int countObjectScoreDistributions() {
+    return numEntries;
+  }
+
+  /**
+   * Does nothing, the mapped file is released once the reader is garbage collected.
+   */
+  @Override
+  public void close() throws IOException {}
+
+}
@@ -0,0 +1,191 @@
+package com.github.phenomics.ontolib.io.scoredist;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
+import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistribution;
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Class for writing out {@link ScoreDistribution} objects to indexed binary files.
+ *
+ * <p>
+ * The points of each object's distribution are stored as <code>float</code>s, and an index sorted
+ * by term count and object ID is written on {@link #close()}, see
+ * {@link BinaryScoreDistributionFormat} for the layout. The file is only valid after closing the
+ * writer.
+ * </p>
+ *
+ * @see BinaryScoreDistributionReader
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class BinaryScoreDistributionWriter implements ScoreDistributionWriter {
+
+  /** Index entry of one record. */
+  private static final class Entry implements Comparable<Entry> {
+
+    /** Number of terms the distribution was computed for. */
+    private final int numTerms;
+
+    /** "World object" ID. */
+    private final int objectId;
+
+    /** Sample size of the distribution. */
+    private final int sampleSize;
+
+    /** Number of points of the record. */
+    private final int numPoints;
+
+    /** Offset of the record in the file. */
+    private final long offset;
+
+    Entry(int numTerms, int objectId, int sampleSize, int numPoints, long offset) {
+      this.numTerms = numTerms;
+      this.objectId = objectId;
+      this.sampleSize = sampleSize;
+      this.numPoints = numPoints;
+      this.offset = offset;
+    }
+
+    @Override
+    public int compareTo(Entry other) {
+      final int result = Integer.compare(numTerms, other.numTerms);
+      return (result != 0) ? result : Integer.compare(objectId, other.objectId);
+    }
+
+  }
+
+  /** Path to the file to write to. */
+  private final File outputFile;
+
+  /** The {@link FileChannel} to write to. */
+  private final FileChannel channel;
+
+  /** Buffer for encoding records. */
+  private ByteBuffer buffer = allocate(64 * 1024);
+
+  /** Offset of the next record. */
+  private long offset = BinaryScoreDistributionFormat.HEADER_SIZE;
+
+  /** The index entries written so far. */
+  private final List<Entry> entries = new ArrayList<>();
+
+  /** Keys of the records written so far, for detecting duplicates. */
+  private final Set<Long> keys = new HashSet<>();
+
+  /**
+   * Constructor.
+   *
+   * @param outputFile Path to output file.
+   * @throws OntoLibException If {@code outputFile} could not be opened for writing.
+   */
+  public BinaryScoreDistributionWriter(File outputFile) throws OntoLibException {
+    this.outputFile = outputFile;
+    try {
+      this.channel = FileChannel.open(outputFile.toPath(), StandardOpenOption.WRITE,
+          StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING);
+      // Reserve the header, written on closing.
+      this.channel.position(BinaryScoreDistributionFormat.HEADER_SIZE);
+    } catch (IOException e) {
+      throw new OntoLibException("Problem opening file " + outputFile + " for writing", e);
+    }
+  }
+
+  private static ByteBuffer allocate(int capacity) {
+    return ByteBuffer.allocate(capacity).order(ByteOrder.LITTLE_ENDIAN);
+  }
+
+  @Override
+  public void write(int numTerms, ScoreDistribution scoreDistribution, int resolution)
+      throws OntoLibException {
+    final List<Integer> objectIds = new ArrayList<>(scoreDistribution.getObjectIds());
+    Collections.sort(objectIds);
+    for (int objectId : objectIds) {
+      if (!keys.add(((long) numTerms << 32) | (objectId & 0xffffffffL))) {
+        throw new OntoLibException(
+            "Duplicate object ID " + objectId + " detected for " + numTerms + " terms");
+      }
+      final ObjectScoreDistribution dist = scoreDistribution.getObjectScoreDistribution(objectId);
+      final ScoreDistributionPoints points = ScoreDistributionPoints.of(dist, resolution);
+
+      final int recordSize = 2 * Float.BYTES * points.size();
+      if (buffer.capacity() < recordSize) {
+        buffer = allocate(recordSize);
+      }
+      buffer.clear();
+      for (int i = 0; i < points.size(); ++i) {
+        buffer.putFloat((float) points.scoreAt(i));
+      }
+      for (int i = 0; i < points.size(); ++i) {
+        buffer.putFloat((float) points.cumulativeFrequencyAt(i));
+      }
+      buffer.flip();
+      writeFully(buffer);
+
+      entries
+          .add(new Entry(numTerms, objectId, dist.getSampleSize(), points.size(), offset));
+      offset += recordSize;
+    }
+  }
+
+  private void writeFully(ByteBuffer src) throws OntoLibException {
+    try {
+      while (src.hasRemaining()) {
+        channel.write(src);
+      }
+    } catch (IOException e) {
+      throw new OntoLibException("Problem writing to file " + outputFile, e);
+    }
+  }
+
+  /**
+   * Write out index and header and close the file.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      Collections.sort(entries);
+      final ByteBuffer indexBuffer =
+          allocate(BinaryScoreDistributionFormat.INDEX_ENTRY_SIZE * 1024);
+      for (Entry entry : entries) {
+        if (indexBuffer.remaining() < BinaryScoreDistributionFormat.INDEX_ENTRY_SIZE) {
+          indexBuffer.flip();
+          writeFully(indexBuffer);
+          indexBuffer.clear();
+        }
+        indexBuffer.putInt(entry.numTerms);
+        indexBuffer.putInt(entry.objectId);
+        indexBuffer.putInt(entry.sampleSize);
+        indexBuffer.putInt(entry.numPoints);
+        indexBuffer.putLong(entry.offset);
+      }
+      indexBuffer.flip();
+      writeFully(indexBuffer);
+
+      final ByteBuffer header = allocate(BinaryScoreDistributionFormat.HEADER_SIZE);
+      header.putInt(BinaryScoreDistributionFormat.MAGIC);
+      header.putInt(BinaryScoreDistributionFormat.FORMAT_VERSION);
+      header.putInt(entries.size());
+      header.putInt(0);
+      header.putLong(offset);
+      header.flip();
+      channel.position(0);
+      writeFully(header);
+    } catch (OntoLibException e) {
+      throw new IOException("Problem writing index to file " + outputFile, e);
+    } finally {
+      channel.close();
+    }
+  }
+
+}
@@ -13,11 +13,25 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Read score distributions from H2 database.
  *
+ * <p>
+ * The score and cumulative frequency arrays are decoded from packed little-endian
+ * <code>VARBINARY</code> columns without Java deserialization, or from Java-serialized
+ * <code>OTHER</code> columns as written by earlier versions, see
+ * {@link H2ScoreDistributionWriter.ArrayEncoding}.
+ * </p>
+ *
+ * <p>
+ * The queries are prepared once on construction. Distributions read by
+ * {@link #readForTermCountAndObject(int, int)} are kept in a bounded least-recently-used cache,
+ * and {@link #prefetch(int)} loads all distributions of a term count into memory. The reader can
+ * be used concurrently from multiple threads, database queries are serialized on the connection.
+ * </p>
+ *
  * <h4>H2 Dependency Notes</h4>
  *
  * <p>
@@ -29,38 +43,86 @@ import java.util.TreeMap;
  */
 public class H2ScoreDistributionReader implements ScoreDistributionReader {
 
+  /** Default number of cached object score distributions. */
+  public static final int DEFAULT_CACHE_SIZE = 10_000;
+
   /** Path to database. */
   private final String pathDb;
 
   /** Name of the table to use. */
   private final String tableName;
 
-  /** Connection of the database to use. */
+  /** Connection of the database to use, also guards the prepared statements. */
   private final Connection conn;
 
+  /** Prepared query for all term counts. */
+  private final PreparedStatement selectTermCountsStmt;
+
+  /** Prepared query by term count. */
+  private final PreparedStatement selectByTermCountStmt;
+
+  /** Prepared query by term count and object ID. */
+  private final PreparedStatement selectByTermCountAndObjectStmt;
+
+  /** Cache of object score distributions, keyed by {@link #key(int, int)}. */
+  private final LruCache<Long, ObjectScoreDistribution> cache;
+
+  /** Prefetched score distributions by term count. */
+  private final Map<Integer, ScoreDistribution> prefetched = new ConcurrentHashMap<>();
+
   /** H2 query for selecting all term counts. */
-  private final static String H2_SELECT_TERM_COUNTS = "SELECT DISTINCT (term_count) from %s";
+  private final static String H2_SELECT_TERM_COUNTS = "SELECT DISTINCT num_terms FROM %s";
 
   /** H2 query for selecting by term count. */
   private final static String H2_SELECT_BY_TERM_COUNT_STATEMENT =
-      "SELECT (term_count, object_id, scores, p_values) FROM % WHERE (term_count = ?)";
+      "SELECT num_terms, entrez_id, sample_size, scores, p_values FROM %s WHERE num_terms = ?";
 
   /** H2 query for selecting by term count and object ID. */
   private final static String H2_SELECT_BY_TERM_COUNT_AND_OBJECT_STATEMENT =
-      "SELECT (term_count, object_id, scores, p_values) FROM % WHERE (term_count = ? AND object_id = ?)";
+      "SELECT num_terms, entrez_id, sample_size, scores, p_values FROM %s "
+          + "WHERE num_terms = ? AND entrez_id = ?";
 
   /**
-   * Create new reader object.
+   * Create new reader object, caching up to {@link #DEFAULT_CACHE_SIZE} distributions.
    *
    * @param pathDb Path to H2 database to read from.
    * @param tableName Name of table to use for scores.
    * @throws OntoLibException If there was a problem opening the H2 database connection.
    */
   public H2ScoreDistributionReader(String pathDb, String tableName) throws OntoLibException {
-    super();
+    this(pathDb, tableName, DEFAULT_CACHE_SIZE);
+  }
+
+  /**
+   * Create new reader object.
+   *
+   * @param pathDb Path to H2 database to read from.
+   * @param tableName Name of table to use for scores.
+   * @param cacheSize Largest number of cached object score distributions, {@code 0} for no
+   *        caching.
+   * @throws OntoLibException If there was a problem opening the H2 database connection.
+   */
+  public H2ScoreDistributionReader(String pathDb, String tableName, int cacheSize)
+      throws OntoLibException {
     this.pathDb = pathDb;
     this.tableName = tableName;
+    this.cache = new LruCache<>(cacheSize);
     this.conn = openConnection();
+    try {
+      this.selectTermCountsStmt =
+          conn.prepareStatement(String.format(H2_SELECT_TERM_COUNTS, tableName));
+      this.selectByTermCountStmt =
+          conn.prepareStatement(String.format(H2_SELECT_BY_TERM_COUNT_STATEMENT, tableName));
+      this.selectByTermCountAndObjectStmt = conn.prepareStatement(
+          String.format(H2_SELECT_BY_TERM_COUNT_AND_OBJECT_STATEMENT, tableName));
+    } catch (SQLException e) {
+      try {
+        conn.close();
+      } catch (SQLException e2) {
+        e.addSuppressed(e2);
+      }
+      throw new OntoLibException("Problem preparing queries for table " + tableName, e);
+    }
   }
 
   /**
@@ -83,38 +145,72 @@ public class H2ScoreDistributionReader implements ScoreDistributionReader {
 
     // Check whether the table already exists.
     final boolean tableExists;
-    try (final ResultSet rs =
-        result.getMetaData().getTables(null, null, tableName, new String[] {"TABLE"})) {
+    try (final ResultSet rs = result.getMetaData().getTables(null, null,
+        tableName.toUpperCase(), new String[] {"TABLE"})) {
       tableExists = rs.next();
-      if (!tableExists) {
-        throw new OntoLibException("Table of name " + tableName + " does not exist in database!");
-      }
     } catch (SQLException e) {
       throw new OntoLibException("Checking for table of name " + tableName + " failed", e);
     }
+    if (!tableExists) {
+      try {
+        result.close();
+      } catch (SQLException e) {
+        // ignore, the missing table is reported
+      }
+      throw new OntoLibException("Table of name " + tableName + " does not exist in database!");
+    }
 
     return result;
   }
 
+  /**
+   * @return Cache key for the given term count and object ID.
+   */
+  private static long key(int termCount, int objectId) {
+    return ((long) termCount << 32) | (objectId & 0xffffffffL);
+  }
+
   @Override
   public ObjectScoreDistribution readForTermCountAndObject(int termCount, int objectId)
       throws OntoLibException {
-    try (final PreparedStatement stmt = conn
-        .prepareStatement(String.format(H2_SELECT_BY_TERM_COUNT_AND_OBJECT_STATEMENT, tableName))) {
-      stmt.setInt(1, termCount);
-      stmt.setInt(2, objectId);
-      try (final ResultSet rs = stmt.executeQuery()) {
-        while (rs.next()) {
-          return objectScoreDistributionFromResultSet(rs);
+    final ScoreDistribution prefetchedDist = prefetched.get(termCount);
+    if (prefetchedDist != null) {
+      final ObjectScoreDistribution result = prefetchedDist.getObjectScoreDistribution(objectId);
+      if (result == null) {
+        throw new OntoLibException(
+            "Found no object for termCount: " + termCount + ", objectId: " + objectId);
+      }
+      return result;
+    }
+
+    final long key = key(termCount, objectId);
+    final ObjectScoreDistribution cached = cache.get(key);
+    if (cached != null) {
+      return cached;
+    }
+
+    ObjectScoreDistribution result = null;
+    synchronized (conn) {
+      try {
+        selectByTermCountAndObjectStmt.setInt(1, termCount);
+        selectByTermCountAndObjectStmt.setInt(2, objectId);
+        try (final ResultSet rs = selectByTermCountAndObjectStmt.executeQuery()) {
+          if (rs.next()) {
+            result = objectScoreDistributionFromResultSet(rs);
+          }
         }
+      } catch (SQLException e) {
+        throw new OntoLibException("Problem with getting object score distribution for termCount: "
+            + termCount + ", objectId: " + objectId, e);
       }
-    } catch (SQLException e) {
-      throw new OntoLibException("Problem with getting object score distribution for termCount: "
-          + termCount + ", objectId: " + objectId);
     }
 
-    throw new OntoLibException(
-        "Found no object for termCount: " + termCount + ", objectId: " + objectId);
+    if (result == null) {
+      throw new OntoLibException(
+          "Found no object for termCount: " + termCount + ", objectId: " + objectId);
+    }
+    cache.put(key, result);
+    return result;
   }
 
   /**
@@ -129,31 +225,58 @@ public class H2ScoreDistributionReader implements ScoreDistributionReader {
     final int termCount = rs.getInt(1);
     final int objectId = rs.getInt(2);
     final int sampleSize = rs.getInt(3);
-    final double[] scores = (double[]) rs.getObject(4);
-    final double[] pValues = (double[]) rs.getObject(5);
-    final TreeMap<Double, Double> scoreDist = new TreeMap<Double, Double>();
-    for (int i = 0; i < scores.length; ++i) {
-      scoreDist.put(scores[i], pValues[i]);
+    final double[] scores = decodeArray(rs.getObject(4));
+    final double[] pValues = decodeArray(rs.getObject(5));
+    try {
+      return new ObjectScoreDistribution(objectId, termCount, sampleSize, scores, pValues);
+    } catch (IllegalArgumentException e) {
+      throw new SQLException("Invalid score distribution for object ID " + objectId, e);
+    }
+  }
+
+  /**
+   * Decode array column value.
+   *
+   * @param value The column value, packed <code>byte[]</code> or deserialized
+   *        <code>double[]</code>.
+   * @return The decoded <code>double[]</code>.
+   * @throws SQLException If the value has an unexpected type.
+   */
+  private static double[] decodeArray(Object value) throws SQLException {
+    if (value instanceof byte[]) {
+      try {
+        return PackedDoubleArrays.decode((byte[]) value);
+      } catch (IllegalArgumentException e) {
+        throw new SQLException("Invalid packed array in score distribution table", e);
+      }
+    } else if (value instanceof double[]) {
+      return (double[]) value;
+    } else {
+      throw new SQLException("Unexpected array column value in score distribution table");
     }
-    return new ObjectScoreDistribution(termCount, objectId, sampleSize, scoreDist);
   }
 
   @Override
   public ScoreDistribution readForTermCount(int termCount) throws OntoLibException {
-    final Map<Integer, ObjectScoreDistribution> dists = new HashMap<>();
+    final ScoreDistribution prefetchedDist = prefetched.get(termCount);
+    if (prefetchedDist != null) {
+      return prefetchedDist;
+    }
 
-    try (final PreparedStatement stmt =
-        conn.prepareStatement(String.format(H2_SELECT_BY_TERM_COUNT_STATEMENT, tableName))) {
-      stmt.setInt(1, termCount);
-      try (final ResultSet rs = stmt.executeQuery()) {
-        while (rs.next()) {
-          final ObjectScoreDistribution objScoreDist = objectScoreDistributionFromResultSet(rs);
-          dists.put(objScoreDist.getObjectId(), objScoreDist);
+    final Map<Integer, ObjectScoreDistribution> dists = new HashMap<>();
+    synchronized (conn) {
+      try {
+        selectByTermCountStmt.setInt(1, termCount);
+        try (final ResultSet rs = selectByTermCountStmt.executeQuery()) {
+          while (rs.next()) {
+            final ObjectScoreDistribution objScoreDist = objectScoreDistributionFromResultSet(rs);
+            dists.put(objScoreDist.getObjectId(), objScoreDist);
+          }
         }
+      } catch (SQLException e) {
+        throw new OntoLibException(
+            "Problem with getting object score distributions for termCount: " + termCount, e);
       }
-    } catch (SQLException e) {
-      throw new OntoLibException(
-          "Problem with getting object score distributions for termCount: " + termCount);
     }
 
     if (dists.size() == 0) {
@@ -163,19 +286,37 @@ public class H2ScoreDistributionReader implements ScoreDistributionReader {
     }
   }
 
+  /**
+   * Load all distributions for the given term count into memory.
+   *
+   * <p>
+   * Subsequent reads for this term count are answered from memory without querying the database
+   * or using the cache.
+   * </p>
+   *
+   * @param termCount The number of terms to prefetch the score distributions for.
+   * @return The prefetched {@link ScoreDistribution}.
+   * @throws OntoLibException In the case of problems when reading or if there are no
+   *         distributions for the term count.
+   */
+  public ScoreDistribution prefetch(int termCount) throws OntoLibException {
+    final ScoreDistribution result = readForTermCount(termCount);
+    prefetched.put(termCount, result);
+    return result;
+  }
+
   @Override
   public Map<Integer, ScoreDistribution> readAll() throws OntoLibException {
     // Get all term counts.
     final List<Integer> termCounts = new ArrayList<>();
-    try (
-        final PreparedStatement stmt =
-            conn.prepareStatement(String.format(H2_SELECT_TERM_COUNTS, tableName));
-        final ResultSet rs = stmt.executeQuery()) {
-      while (rs.next()) {
-        termCounts.add(rs.getInt(1));
+    synchronized (conn) {
+      try (final ResultSet rs = selectTermCountsStmt.executeQuery()) {
+        while (rs.next()) {
+          termCounts.add(rs.getInt(1));
+        }
+      } catch (SQLException e) {
+        throw new OntoLibException("Problem querying the database for term counts", e);
       }
-    } catch (SQLException e) {
-      throw new OntoLibException("Problem querying the database for term counts", e);
     }
 
     // Query for all term counts.
@@ -186,12 +327,23 @@ public class H2ScoreDistributionReader implements ScoreDistributionReader {
     return result;
   }
 
+  /**
+   * @return Number of currently cached object score distributions.
+   */
+  public int getCacheSize() {
+    return cache.size();
+  }
+
   @Override
   public void close() throws IOException {
-    try {
-      conn.close();
-    } catch (SQLException e) {
-      throw new IOException("Problem closing connection to database", e);
+    cache.clear();
+    prefetched.clear();
+    synchronized (conn) {
+      try {
+        conn.close();
+      } catch (SQLException e) {
+        throw new IOException("Problem closing connection to database", e);
+      }
     }
   }
 
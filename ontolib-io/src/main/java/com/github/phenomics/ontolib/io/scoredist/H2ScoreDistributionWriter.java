@@ -6,8 +6,9 @@ import java.sql.DriverManager;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map.Entry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import com.github.phenomics.ontolib.base.OntoLibException;
@@ -22,6 +23,14 @@ import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistribution;
  * object initialization will fail.
  * </p>
  *
+ * <p>
+ * Rows are inserted through one prepared statement using JDBC batches of configurable size, each
+ * batch is committed in its own transaction, and the last one on {@link #close()}. The score and
+ * cumulative frequency arrays are stored either as Java-serialized <code>OTHER</code> columns or
+ * as packed little-endian <code>VARBINARY</code> columns, see {@link ArrayEncoding}.
+ * {@link H2ScoreDistributionReader} reads both encodings.
+ * </p>
+ *
  * <h4>H2 Dependency Notes</h4>
  *
  * <p>
@@ -38,29 +47,60 @@ public final class H2ScoreDistributionWriter implements ScoreDistributionWriter
    */
   private static final Logger LOGGER = LoggerFactory.getLogger(H2ScoreDistributionWriter.class);
 
+  /** Default number of rows per batch and transaction. */
+  public static final int DEFAULT_BATCH_SIZE = 1000;
+
+  /** Encoding of the score and cumulative frequency arrays. */
+  public enum ArrayEncoding {
+    /** Java-serialized <code>double[]</code> in <code>OTHER</code> columns. */
+    JAVA_SERIALIZATION("OTHER"),
+    /** Packed little-endian doubles in <code>VARBINARY</code> columns. */
+    PACKED("VARBINARY");
+
+    /** SQL type of the array columns. */
+    private final String sqlType;
+
+    private ArrayEncoding(String sqlType) {
+      this.sqlType = sqlType;
+    }
+  }
+
   /** Path to database. */
   private final String pathDb;
 
   /** Name of the table to use. */
   private final String tableName;
 
+  /** Encoding of the arrays. */
+  private final ArrayEncoding encoding;
+
+  /** Number of rows per batch and transaction. */
+  private final int batchSize;
+
   /** Connection of the database to use. */
   private final Connection conn;
 
+  /** The prepared insert statement. */
+  private final PreparedStatement insertStmt;
+
+  /** Number of rows in the current batch. */
+  private int batchCount = 0;
+
   /** H2 statement for dropping table. */
   private final static String H2_DROP_TABLE_STATEMENT = "DROP TABLE %s";
 
   /** H2 statement for creating table. */
   private final static String[] H2_CREATE_TABLE_STATEMENTS = new String[] {
-      "CREATE TABLE %s (num_terms INT, entrez_id INT, sample_size INT, scores OTHER, p_values OTHER)",
-      "CREATE INDEX ON %s (num_terms)", "CREATE UNIQUE INDEX ON %s (num_terms, entrez_id)"};
+      "CREATE TABLE %1$s (num_terms INT, entrez_id INT, sample_size INT, scores %2$s, "
+          + "p_values %2$s)",
+      "CREATE INDEX ON %1$s (num_terms)", "CREATE UNIQUE INDEX ON %1$s (num_terms, entrez_id)"};
 
   /** H2 statement for insterting into table. */
   private final static String H2_INSERT_STATEMENT =
       "INSERT INTO %s (num_terms, entrez_id, sample_size, scores, p_values) VALUES (?, ?, ?, ?, ?)";
 
   /**
-   * Object constructor.
+   * Object constructor, using Java serialization for the arrays and {@link #DEFAULT_BATCH_SIZE}.
    *
    * @param pathDb Path to the database to use.
    * @param dataTableName Name of the table to use.
@@ -69,9 +109,36 @@ public final class H2ScoreDistributionWriter implements ScoreDistributionWriter
    */
   public H2ScoreDistributionWriter(String pathDb, String dataTableName, boolean resetTableIfExists)
       throws OntoLibException {
+    this(pathDb, dataTableName, resetTableIfExists, ArrayEncoding.JAVA_SERIALIZATION,
+        DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * Object constructor.
+   *
+   * @param pathDb Path to the database to use.
+   * @param dataTableName Name of the table to use.
+   * @param resetTableIfExists Whether or not to reset the table if it already exists. Otherwise,
+   *        {@link OntoLibException} will be thrown.
+   * @param encoding The {@link ArrayEncoding} to use for the arrays.
+   * @param batchSize Number of rows per batch and transaction, at least {@code 1}.
+   */
+  public H2ScoreDistributionWriter(String pathDb, String dataTableName, boolean resetTableIfExists,
+      ArrayEncoding encoding, int batchSize) throws OntoLibException {
+    if (batchSize < 1) {
+      throw new IllegalArgumentException("Batch size must be positive but was " + batchSize);
+    }
     this.pathDb = pathDb;
     this.tableName = dataTableName;
+    this.encoding = encoding;
+    this.batchSize = batchSize;
     this.conn = openConnection(resetTableIfExists);
+    try {
+      this.conn.setAutoCommit(false);
+      this.insertStmt = conn.prepareStatement(String.format(H2_INSERT_STATEMENT, tableName));
+    } catch (SQLException e) {
+      throw new OntoLibException("Problem preparing insert statement", e);
+    }
   }
 
   /**
@@ -122,7 +189,7 @@ public final class H2ScoreDistributionWriter implements ScoreDistributionWriter
     // CREATE table, add indices
     LOGGER.info("Creating table {} and indices...", tableName);
     for (String sql : H2_CREATE_TABLE_STATEMENTS) {
-      final String sqlStmt = String.format(sql, tableName);
+      final String sqlStmt = String.format(sql, tableName, encoding.sqlType);
       LOGGER.info("Executing SQL statement: {}", sqlStmt);
       try (final PreparedStatement stmt = resultConn.prepareStatement(sqlStmt)) {
         stmt.executeUpdate();
@@ -136,11 +203,19 @@ public final class H2ScoreDistributionWriter implements ScoreDistributionWriter
     return resultConn;
   }
 
+  /**
+   * Write out and commit the pending batch, and close the connection.
+   */
   @Override
   public void close() throws IOException {
     try {
-      conn.close();
-    } catch (SQLException e) {
+      try {
+        flushBatch();
+      } finally {
+        insertStmt.close();
+        conn.close();
+      }
+    } catch (OntoLibException | SQLException e) {
       throw new IOException("Problem closing connection to database", e);
     }
   }
@@ -148,12 +223,38 @@ public final class H2ScoreDistributionWriter implements ScoreDistributionWriter
   @Override
   public void write(int numTerms, ScoreDistribution scoreDistribution, int resolution)
       throws OntoLibException {
-    for (int objectId : scoreDistribution.getObjectIds()) {
+    final List<Integer> objectIds = new ArrayList<>(scoreDistribution.getObjectIds());
+    Collections.sort(objectIds);
+    for (int objectId : objectIds) {
       final ObjectScoreDistribution dist = scoreDistribution.getObjectScoreDistribution(objectId);
       writeObjectScoreDistribution(numTerms, dist, resolution);
     }
   }
 
+  /**
+   * Execute and commit the current batch, if any; it is rolled back on failure.
+   *
+   * @throws OntoLibException In case of problems when writing to database.
+   */
+  private void flushBatch() throws OntoLibException {
+    if (batchCount == 0) {
+      return;
+    }
+    try {
+      insertStmt.executeBatch();
+      conn.commit();
+    } catch (SQLException e) {
+      try {
+        conn.rollback();
+      } catch (SQLException e2) {
+        e.addSuppressed(e2);
+      }
+      throw new OntoLibException("Problem with inserting into score distribution table", e);
+    } finally {
+      batchCount = 0;
+    }
+  }
+
   /**
    * Write score distribution for one number of terms and one object.
    *
@@ -164,46 +265,25 @@ public final class H2ScoreDistributionWriter implements ScoreDistributionWriter
    */
   private void writeObjectScoreDistribution(int numTerms, ObjectScoreDistribution dist,
       int resolution) throws OntoLibException {
-    final double scores[];
-    final double pValues[];
-
-    final List<Double> observedScores = dist.observedScores();
-    if (resolution != 0) {
-      scores = new double[resolution + 1];
-      pValues = new double[resolution + 1];
-
-      for (int i = 0; i <= resolution; ++i) {
-        final double pos = (((double) observedScores.size() - 1) / resolution) * i;
-        final int left = Math.max(0, (int) Math.floor(pos));
-        final int right = Math.min(observedScores.size() - 1, (int) Math.ceil(pos));
-        final double dx = right - pos;
-        final double score = observedScores.get(left)
-            + (1 - dx) * (observedScores.get(right) - observedScores.get(left));
-        scores[i] = score;
-        pValues[i] = dist.estimatePValue(score);
-      }
-    } else {
-      scores = new double[dist.getCumulativeFrequencies().size()];
-      pValues = new double[dist.getCumulativeFrequencies().size()];
-
-      int i = 0;
-      for (Entry<Double, Double> e : dist.getCumulativeFrequencies().entrySet()) {
-        scores[i] = e.getKey();
-        pValues[i] = e.getValue();
+    final ScoreDistributionPoints points = ScoreDistributionPoints.of(dist, resolution);
+    try {
+      insertStmt.setInt(1, numTerms);
+      insertStmt.setInt(2, dist.getObjectId());
+      insertStmt.setInt(3, dist.getSampleSize());
+      if (encoding == ArrayEncoding.PACKED) {
+        insertStmt.setBytes(4, PackedDoubleArrays.encode(points.getScores()));
+        insertStmt.setBytes(5, PackedDoubleArrays.encode(points.getCumulativeFrequencies()));
+      } else {
+        insertStmt.setObject(4, points.getScores());
+        insertStmt.setObject(5, points.getCumulativeFrequencies());
       }
-    }
-
-    final String sqlStmt = String.format(H2_INSERT_STATEMENT, tableName);
-    try (final PreparedStatement stmt = conn.prepareStatement(sqlStmt)) {
-      stmt.setInt(1, numTerms);
-      stmt.setInt(2, dist.getObjectId());
-      stmt.setInt(3, dist.getSampleSize());
-      stmt.setObject(4, scores);
-      stmt.setObject(5, pValues);
-      stmt.executeUpdate();
+      insertStmt.addBatch();
     } catch (SQLException e) {
       throw new OntoLibException("Problem with inserting into score distribution table", e);
     }
+    if (++batchCount == batchSize) {
+      flushBatch();
+    }
   }
 
 }
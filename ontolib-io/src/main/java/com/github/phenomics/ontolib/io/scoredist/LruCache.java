@@ -0,0 +1,80 @@
+package com.github.phenomics.ontolib.io.scoredist;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Bounded, thread-safe cache that evicts the least recently used entry.
+ *
+ * <p>
+ * The cache is a {@link LinkedHashMap} in access order, all operations synchronize on the cache
+ * object. Loading of missing values is left to the caller, so concurrent misses for the same key
+ * may load the value multiple times.
+ * </p>
+ *
+ * @param <K> Key type.
+ * @param <V> Value type.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class LruCache<K, V> {
+
+  /** Largest number of entries, <code>0</code> for disabling the cache. */
+  private final int capacity;
+
+  /** The cached entries, in access order. */
+  private final LinkedHashMap<K, V> entries;
+
+  /**
+   * Constructor.
+   *
+   * @param capacity Largest number of entries, {@code 0} for disabling the cache.
+   */
+  LruCache(int capacity) {
+    if (capacity < 0) {
+      throw new IllegalArgumentException("Cache capacity must not be negative: " + capacity);
+    }
+    this.capacity = capacity;
+    this.entries = new LinkedHashMap<K, V>(16, 0.75f, true) {
+      private static final long serialVersionUID = 1L;
+
+      @Override
+      protected boolean removeEldestEntry(Map.Entry<K, V> eldest) {
+        return size() > LruCache.this.capacity;
+      }
+    };
+  }
+
+  /**
+   * @param key The key to look up.
+   * @return The cached value, <code>null</code> if not cached.
+   */
+  synchronized V get(K key) {
+    return entries.get(key);
+  }
+
+  /**
+   * Put value into the cache, evicting the least recently used entry if full.
+   *
+   * @param key The key to store the value for.
+   * @param value The value to store.
+   */
+  synchronized void put(K key, V value) {
+    if (capacity > 0) {
+      entries.put(key, value);
+    }
+  }
+
+  /**
+   * @return Number of cached entries.
+   */
+  synchronized int size() {
+    return entries.size();
+  }
+
+  /** Remove all entries. */
+  synchronized void clear() {
+    entries.clear();
+  }
+
+}
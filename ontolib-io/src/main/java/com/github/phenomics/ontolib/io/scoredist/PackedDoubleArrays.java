@@ -0,0 +1,42 @@
+package com.github.phenomics.ontolib.io.scoredist;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+/**
+ * Encoding of <code>double[]</code> arrays as packed little-endian bytes for storage in binary
+ * database columns.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class PackedDoubleArrays {
+
+  /** Private constructor, no instantiation. */
+  private PackedDoubleArrays() {}
+
+  /**
+   * @param values The values to encode.
+   * @return The values as little-endian IEEE 754 doubles, eight bytes per value.
+   */
+  static byte[] encode(double[] values) {
+    final byte[] result = new byte[values.length * Double.BYTES];
+    ByteBuffer.wrap(result).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().put(values);
+    return result;
+  }
+
+  /**
+   * @param bytes The bytes written by {@link #encode(double[])}.
+   * @return The decoded values.
+   * @throws IllegalArgumentException If the number of bytes is not a multiple of eight.
+   */
+  static double[] decode(byte[] bytes) {
+    if (bytes.length % Double.BYTES != 0) {
+      throw new IllegalArgumentException(
+          "Packed double array has invalid length " + bytes.length);
+    }
+    final double[] result = new double[bytes.length / Double.BYTES];
+    ByteBuffer.wrap(bytes).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer().get(result);
+    return result;
+  }
+
+}
@@ -0,0 +1,93 @@
+package com.github.phenomics.ontolib.io.scoredist;
+
+import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
+
+/**
+ * Points of an {@link ObjectScoreDistribution} as written by the score distribution writers,
+ * optionally resampled to a fixed resolution.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class ScoreDistributionPoints {
+
+  /** The scores, sorted ascendingly. */
+  private final double[] scores;
+
+  /** The cumulative frequencies of the scores at the same indices. */
+  private final double[] cumulativeFrequencies;
+
+  private ScoreDistributionPoints(double[] scores, double[] cumulativeFrequencies) {
+    this.scores = scores;
+    this.cumulativeFrequencies = cumulativeFrequencies;
+  }
+
+  /**
+   * Get the points of an {@link ObjectScoreDistribution}.
+   *
+   * <p>
+   * When resampling, <code>resolution + 1</code> scores are interpolated at equidistant ranks of
+   * the observed scores and written with their cumulative frequency, i.e., <code>1 - p</code>.
+   * </p>
+   *
+   * @param dist The {@link ObjectScoreDistribution} to get the points of.
+   * @param resolution The number of points to resample to; {@code 0} for no resampling.
+   * @return The resulting {@link ScoreDistributionPoints}.
+   */
+  static ScoreDistributionPoints of(ObjectScoreDistribution dist, int resolution) {
+    final int numScores = dist.countScores();
+    if (resolution == 0) {
+      return new ScoreDistributionPoints(dist.getScores(), dist.getCumulativeFrequencyValues());
+    }
+
+    final double[] scores = new double[resolution + 1];
+    final double[] cumulativeFrequencies = new double[resolution + 1];
+    for (int i = 0; i <= resolution; ++i) {
+      final double pos = (((double) numScores - 1) / resolution) * i;
+      final int left = Math.max(0, (int) Math.floor(pos));
+      final int right = Math.min(numScores - 1, (int) Math.ceil(pos));
+      final double dx = right - pos;
+      scores[i] = dist.scoreAt(left) + (1 - dx) * (dist.scoreAt(right) - dist.scoreAt(left));
+      // Write cumulative frequency as in the full resolution case, not the p value.
+      cumulativeFrequencies[i] = 1.0 - dist.estimatePValue(scores[i]);
+    }
+    return new ScoreDistributionPoints(scores, cumulativeFrequencies);
+  }
+
+  /**
+   * @return The scores, sorted ascendingly; the array is not copied.
+   */
+  double[] getScores() {
+    return scores;
+  }
+
+  /**
+   * @return The cumulative frequencies at the same indices as the scores; the array is not copied.
+   */
+  double[] getCumulativeFrequencies() {
+    return cumulativeFrequencies;
+  }
+
+  /**
+   * @return Number of points.
+   */
+  int size() {
+    return scores.length;
+  }
+
+  /**
+   * @param i Index of the point.
+   * @return Score of the <code>i</code>-th point.
+   */
+  double scoreAt(int i) {
+    return scores[i];
+  }
+
+  /**
+   * @param i Index of the point.
+   * @return Cumulative frequency of the <code>i</code>-th point.
+   */
+  double cumulativeFrequencyAt(int i) {
+    return cumulativeFrequencies[i];
+  }
+
+}
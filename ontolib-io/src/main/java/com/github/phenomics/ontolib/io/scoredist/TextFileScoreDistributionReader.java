@@ -1,21 +1,40 @@
 package com.github.phenomics.ontolib.io.scoredist;
 
-import java.io.BufferedReader;
 import java.io.File;
-import java.io.FileReader;
 import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.TreeMap;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
 import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.io.utils.LineAlignedChunks;
 import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
 import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistribution;
 
 /**
  * Class for reading in {@link ScoreDistribution} objects from text files.
  *
+ * <p>
+ * Records are parsed from the raw bytes of the file by {@link TextScoreDistributionLineParser},
+ * with the same results as splitting the lines and using {@link Double#parseDouble(String)}. When
+ * constructed with more than one thread, {@link #readAll()} splits the remainder of the file into
+ * chunks at line breaks and parses the chunks in parallel, using {@link LineAlignedChunks}. The
+ * results are combined in file order, such that later records for the same term count and object
+ * ID take precedence as in sequential reading.
+ * </p>
+ *
  * @see ScoreDistributionReader
  * @see TextFileScoreDistributionWriter
  *
@@ -23,44 +42,105 @@ import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistribution;
  */
 public class TextFileScoreDistributionReader implements ScoreDistributionReader {
 
+  /**
+   * The {@link Logger} object to use for logging.
+   */
+  private static final Logger LOGGER =
+      LoggerFactory.getLogger(TextFileScoreDistributionReader.class);
+
+  /** Initial number of bytes of the line buffers. */
+  private static final int LINE_BUFFER_SIZE = 64 * 1024;
+
   /** Path to the file read from. */
   private final File inputFile;
 
-  /** The {@link BufferedReader} to use. */
-  private final BufferedReader reader;
+  /** Number of threads to use in {@link #readAll()}. */
+  private final int numThreads;
+
+  /** Minimal number of bytes in a chunk. */
+  private final long minChunkSize;
 
-  /** The currently read line. */
-  private String nextLine;
+  /** The {@link FileChannel} to read from. */
+  private final FileChannel channel;
+
+  /** Source of the lines for sequential reading. */
+  private final LineSource lines;
+
+  /** Parser for sequential reading. */
+  private final TextScoreDistributionLineParser parser = new TextScoreDistributionLineParser();
 
   /**
-   * Constructor.
-   * 
+   * Constructor, reading with one thread.
+   *
    * @param inputFile Path to input file.
    * @throws OntoLibException In case of problems with file I/O.
    */
   public TextFileScoreDistributionReader(File inputFile) throws OntoLibException {
+    this(inputFile, 1);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param inputFile Path to input file.
+   * @param numThreads Number of threads to use for parsing in {@link #readAll()}.
+   * @throws OntoLibException In case of problems with file I/O.
+   */
+  public TextFileScoreDistributionReader(File inputFile, int numThreads)
+      throws OntoLibException {
+    this(inputFile, numThreads, LineAlignedChunks.DEFAULT_MIN_CHUNK_SIZE);
+  }
+
+  /**
+   * Constructor.
+   *
+   * @param inputFile Path to input file.
+   * @param numThreads Number of threads to use for parsing in {@link #readAll()}.
+   * @param minChunkSize Minimal number of bytes in a chunk.
+   * @throws OntoLibException In case of problems with file I/O.
+   */
+  TextFileScoreDistributionReader(File inputFile, int numThreads, long minChunkSize)
+      throws OntoLibException {
+    if (numThreads < 1) {
+      throw new IllegalArgumentException("Number of threads must be positive: " + numThreads);
+    }
     this.inputFile = inputFile;
+    this.numThreads = numThreads;
+    this.minChunkSize = minChunkSize;
+    try {
+      this.channel = FileChannel.open(inputFile.toPath(), StandardOpenOption.READ);
+    } catch (IOException e) {
+      throw new OntoLibException("Problem initializing reader for file " + inputFile, e);
+    }
     try {
-      this.reader = new BufferedReader(new FileReader(this.inputFile));
+      this.lines = new LineSource(channel, 0, channel.size());
       readHeader();
     } catch (IOException e) {
-      throw new OntoLibException("Problem initializing reader for file " + inputFile);
+      try {
+        channel.close();
+      } catch (IOException e2) {
+        e.addSuppressed(e2);
+      }
+      throw new OntoLibException("Problem initializing reader for file " + inputFile, e);
     }
   }
 
   private void readHeader() throws IOException {
-    nextLine = reader.readLine();
-    if (nextLine == null) {
+    if (!lines.nextLine()) {
       throw new IOException("Could not read header from file!");
     }
 
-    final String expected = "#numTerms\tentrezId\tsampleSize\tdistribution";
-    if (!expected.equals(nextLine)) {
+    int end = lines.getLineEnd();
+    if (end > lines.getLineStart() && lines.getBuffer()[end - 1] == '\r') {
+      --end;
+    }
+    final String header = new String(lines.getBuffer(), lines.getLineStart(),
+        end - lines.getLineStart(), StandardCharsets.UTF_8);
+    final String expected = TextFileScoreDistributionWriter.HEADER;
+    if (!expected.equals(header)) {
       throw new IOException(
-          "Invalid header, was: \"" + nextLine + "\", expected: \"" + expected + "\"");
+          "Invalid header, was: \"" + header + "\", expected: \"" + expected + "\"");
     }
-
-    nextLine = reader.readLine();
   }
 
   @Override
@@ -79,34 +159,32 @@ public class TextFileScoreDistributionReader implements ScoreDistributionReader
 
     final Map<Integer, Map<Integer, ObjectScoreDistribution>> tmp = new HashMap<>();
 
-    while (nextLine != null) {
-      final String[] arr = nextLine.trim().split("\t");
-      final int numTerms = Integer.parseInt(arr[0]);
-      final int entrezId = Integer.parseInt(arr[1]);
-      final int sampleSize = Integer.parseInt(arr[2]);
-      final String dist = arr[3];
-
-      final TreeMap<Double, Double> cumFreqs = new TreeMap<>();
-      for (String pairStr : dist.split(",")) {
-        final String[] pair = pairStr.split(":");
-        cumFreqs.put(Double.parseDouble(pair[0]), Double.parseDouble(pair[1]));
-      }
-
-      final ObjectScoreDistribution scoreDist =
-          new ObjectScoreDistribution(entrezId, numTerms, sampleSize, cumFreqs);
-
-      if (!tmp.containsKey(numTerms)) {
-        tmp.put(numTerms, new TreeMap<>());
-      }
-      tmp.get(numTerms).put(entrezId, scoreDist);
-
+    List<Long> bounds = Collections.emptyList();
+    if (numThreads > 1) {
       try {
-        nextLine = reader.readLine();
+        bounds = LineAlignedChunks.computeBounds(channel, lines.getOffset(), numThreads,
+            minChunkSize, LineAlignedChunks.ANY_LINE);
       } catch (IOException e) {
         throw new OntoLibException("Could not load score distributions", e);
       }
     }
 
+    if (bounds.size() <= 2) {
+      ObjectScoreDistribution scoreDist;
+      while ((scoreDist = readNext()) != null) {
+        putInto(tmp, scoreDist);
+      }
+    } else {
+      LOGGER.info("Parsing {} chunks with {} threads...",
+          new Object[] {bounds.size() - 1, numThreads});
+      for (List<ObjectScoreDistribution> chunk : parseChunks(bounds)) {
+        for (ObjectScoreDistribution scoreDist : chunk) {
+          putInto(tmp, scoreDist);
+        }
+      }
+      lines.skipToEnd();
+    }
+
     for (Entry<Integer, Map<Integer, ObjectScoreDistribution>> e : tmp.entrySet()) {
       final int numTerms = e.getKey();
       result.put(numTerms, new ScoreDistribution(numTerms, e.getValue()));
@@ -115,12 +193,67 @@ public class TextFileScoreDistributionReader implements ScoreDistributionReader
     return result;
   }
 
+  /**
+   * Put {@link ObjectScoreDistribution} into map by term count and object ID.
+   */
+  private static void putInto(Map<Integer, Map<Integer, ObjectScoreDistribution>> tmp,
+      ObjectScoreDistribution scoreDist) {
+    final int numTerms = scoreDist.getNumTerms();
+    if (!tmp.containsKey(numTerms)) {
+      tmp.put(numTerms, new TreeMap<>());
+    }
+    tmp.get(numTerms).put(scoreDist.getObjectId(), scoreDist);
+  }
+
+  /**
+   * Parse chunks in parallel.
+   *
+   * @param bounds Chunk boundaries from {@link LineAlignedChunks}.
+   * @return The parsed {@link ObjectScoreDistribution}s of each chunk, in file order.
+   * @throws OntoLibException In the case of problems when reading or parsing.
+   */
+  private List<List<ObjectScoreDistribution>> parseChunks(List<Long> bounds)
+      throws OntoLibException {
+    try {
+      return LineAlignedChunks.process(bounds, numThreads, (begin, end, chunkIndex) -> {
+        final List<ObjectScoreDistribution> result = new ArrayList<>();
+        final TextScoreDistributionLineParser chunkParser = new TextScoreDistributionLineParser();
+        final LineSource chunkLines = new LineSource(channel, begin, end);
+        while (chunkLines.nextLine()) {
+          result.add(chunkParser.parse(chunkLines.getBuffer(), chunkLines.getLineStart(),
+              chunkLines.getLineEnd()));
+        }
+        return result;
+      });
+    } catch (IOException e) {
+      throw new OntoLibException("Could not load score distributions from " + inputFile, e);
+    }
+  }
+
+  /**
+   * Read the next record of the file, for processing files record by record.
+   *
+   * @return The {@link ObjectScoreDistribution} of the next record, <code>null</code> at the end
+   *         of the file.
+   * @throws OntoLibException In the case of problems when reading or parsing.
+   */
+  public ObjectScoreDistribution readNext() throws OntoLibException {
+    try {
+      if (!lines.nextLine()) {
+        return null;
+      }
+    } catch (IOException e) {
+      throw new OntoLibException("Could not load score distributions", e);
+    }
+    return parser.parse(lines.getBuffer(), lines.getLineStart(), lines.getLineEnd());
+  }
+
   @Override
   public ObjectScoreDistribution readForTermCountAndObject(int termCount, int objectId)
       throws OntoLibException {
     final ObjectScoreDistribution result =
         readForTermCount(termCount).getObjectScoreDistribution(objectId);
-    if (result != null) {
+    if (result == null) {
       throw new OntoLibException(
           "Distribution not found for term count: " + termCount + " and object ID: " + objectId);
     } else {
@@ -130,7 +263,152 @@ public class TextFileScoreDistributionReader implements ScoreDistributionReader
 
   @Override
   public void close() throws IOException {
-    this.reader.close();
+    this.channel.close();
+  }
+
+  /**
+   * Buffered reading of the lines in a range of a {@link FileChannel}.
+   *
+   * <p>
+   * Uses positional reads only, such that multiple objects can share one channel concurrently. The
+   * current line is exposed as a range of the internal buffer, which grows for long lines.
+   * </p>
+   */
+  private static final class LineSource {
+
+    /** The {@link FileChannel} to read from. */
+    private final FileChannel channel;
+
+    /** Offset after the range to read. */
+    private long endOffset;
+
+    /** Offset in the file of <code>buffer[limit]</code>. */
+    private long readOffset;
+
+    /** Buffer with the bytes read. */
+    private byte[] buffer = new byte[LINE_BUFFER_SIZE];
+
+    /** Offset of the first unconsumed byte in the buffer. */
+    private int pos = 0;
+
+    /** Offset after the last read byte in the buffer. */
+    private int limit = 0;
+
+    /** Offset up to which the unconsumed bytes contain no line break. */
+    private int scanned = 0;
+
+    /** Start of the current line in the buffer. */
+    private int lineStart = 0;
+
+    /** End of the current line in the buffer, excluding the line break. */
+    private int lineEnd = 0;
+
+    /**
+     * Constructor.
+     *
+     * @param channel The {@link FileChannel} to read from.
+     * @param beginOffset Offset of the first line.
+     * @param endOffset Offset after the range to read.
+     */
+    LineSource(FileChannel channel, long beginOffset, long endOffset) {
+      this.channel = channel;
+      this.readOffset = beginOffset;
+      this.endOffset = endOffset;
+    }
+
+    /**
+     * Advance to the next line.
+     *
+     * @return <code>false</code> if the end of the range has been reached.
+     * @throws IOException In case of problems with file I/O.
+     */
+    boolean nextLine() throws IOException {
+      while (true) {
+        for (int i = scanned; i < limit; ++i) {
+          if (buffer[i] == '\n') {
+            return consumeLine(i, i + 1);
+          }
+        }
+        scanned = limit;
+        if (readOffset >= endOffset || !fill()) {
+          return (pos < limit) && consumeLine(limit, limit);
+        }
+      }
+    }
+
+    /**
+     * Make <code>buffer[pos:end]</code> the current line and continue at <code>next</code>.
+     */
+    private boolean consumeLine(int end, int next) {
+      lineStart = pos;
+      lineEnd = end;
+      pos = next;
+      scanned = next;
+      return true;
+    }
+
+    /**
+     * Read more bytes into the buffer, moving or growing it as necessary.
+     *
+     * @return <code>false</code> if the file ended prematurely.
+     * @throws IOException In case of problems with file I/O.
+     */
+    private boolean fill() throws IOException {
+      if (pos > 0) {
+        System.arraycopy(buffer, pos, buffer, 0, limit - pos);
+        limit -= pos;
+        scanned -= pos;
+        pos = 0;
+      }
+      if (limit == buffer.length) {
+        buffer = Arrays.copyOf(buffer, 2 * buffer.length);
+      }
+      final int maxRead = (int) Math.min(buffer.length - limit, endOffset - readOffset);
+      final int numRead = channel.read(ByteBuffer.wrap(buffer, limit, maxRead), readOffset);
+      if (numRead <= 0) {
+        endOffset = readOffset;
+        return false;
+      }
+      readOffset += numRead;
+      limit += numRead;
+      return true;
+    }
+
+    /** Skip the remaining lines. */
+    void skipToEnd() {
+      pos = limit;
+      scanned = limit;
+      readOffset = endOffset;
+    }
+
+    /**
+     * @return Offset in the file of the first unconsumed byte.
+     */
+    long getOffset() {
+      return readOffset - (limit - pos);
+    }
+
+    /**
+     * @return The buffer containing the current line.
+     */
+    byte[] getBuffer() {
+      return buffer;
+    }
+
+    /**
+     * @return Start of the current line in the buffer.
+     */
+    int getLineStart() {
+      return lineStart;
+    }
+
+    /**
+     * @return End of the current line in the buffer, excluding the line break.
+     */
+    int getLineEnd() {
+      return lineEnd;
+    }
+
   }
 
 }
@@ -5,8 +5,8 @@ import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.PrintStream;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
-import java.util.Map.Entry;
 
 import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
 import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistribution;
@@ -15,6 +15,11 @@ import com.google.common.base.Joiner;
 /**
  * Class for writing out {@link ScoreDistribution} objects to text files.
  *
+ * <p>
+ * The records of each call to {@link #write(int, ScoreDistribution, int)} are written sorted by
+ * object ID, so files written for ascending term counts are sorted by term count and object ID.
+ * </p>
+ *
  * @see Hdf5ScoreDistributionWriter
  * @see TextFileScoreDistributionReader
  *
@@ -22,6 +27,9 @@ import com.google.common.base.Joiner;
  */
 public class TextFileScoreDistributionWriter implements ScoreDistributionWriter {
 
+  /** The header line of score distribution text files. */
+  public static final String HEADER = "#numTerms\tentrezId\tsampleSize\tdistribution";
+
   /** Path to the file to write to. */
   private final File outputFile;
 
@@ -37,29 +45,19 @@ public class TextFileScoreDistributionWriter implements ScoreDistributionWriter
   public TextFileScoreDistributionWriter(File outputFile) throws FileNotFoundException {
     this.outputFile = outputFile;
     this.out = new PrintStream(this.outputFile);
-    this.out.println("#numTerms\tentrezId\tsampleSize\tdistribution");
+    this.out.println(HEADER);
   }
 
   @Override
   public void write(int numTerms, ScoreDistribution scoreDistribution, int resolution) {
-    for (int objectId : scoreDistribution.getObjectIds()) {
+    final List<Integer> objectIds = new ArrayList<>(scoreDistribution.getObjectIds());
+    Collections.sort(objectIds);
+    for (int objectId : objectIds) {
       final ObjectScoreDistribution dist = scoreDistribution.getObjectScoreDistribution(objectId);
-      final List<Double> scores = dist.observedScores();
-      final ArrayList<String> points = new ArrayList<>();
-      if (resolution != 0) {
-        for (int i = 0; i <= resolution; ++i) {
-          final double pos = (((double) scores.size() - 1) / resolution) * i;
-          final int left = Math.max(0, (int) Math.floor(pos));
-          final int right = Math.min(scores.size() - 1, (int) Math.ceil(pos));
-          final double dx = right - pos;
-          final double score = scores.get(left) + (1 - dx) * (scores.get(right) - scores.get(left));
-          final double pValue = dist.estimatePValue(score);
-          points.add(score + ":" + pValue);
-        }
-      } else {
-        for (Entry<Double, Double> e : dist.getCumulativeFrequencies().entrySet()) {
-          points.add(e.getKey() + ":" + e.getValue());
-        }
+      final ScoreDistributionPoints distPoints = ScoreDistributionPoints.of(dist, resolution);
+      final ArrayList<String> points = new ArrayList<>(distPoints.size());
+      for (int i = 0; i < distPoints.size(); ++i) {
+        points.add(distPoints.scoreAt(i) + ":" + distPoints.cumulativeFrequencyAt(i));
       }
 
       out.print(numTerms);
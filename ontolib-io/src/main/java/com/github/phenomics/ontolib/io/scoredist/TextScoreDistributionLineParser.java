@@ -0,0 +1,389 @@
+package com.github.phenomics.ontolib.io.scoredist;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/**
+ * Parser for the records of score distribution text files as written by
+ * {@link TextFileScoreDistributionWriter}.
+ *
+ * <p>
+ * Records are parsed directly from the bytes of a line into reused primitive arrays, without
+ * splitting into {@link String}s. Numbers are converted with a fast path for the decimal
+ * representations written by {@link Double#toString(double)}. If the decimal significand and the
+ * power of ten are exactly representable as doubles, the value is computed by a single, correctly
+ * rounded multiplication or division. Otherwise, the significand is multiplied with a truncated
+ * 64 bit approximation of the power of five, and the result is used if the approximation error
+ * cannot influence the rounding (Eisel-Lemire algorithm). All other numbers, including subnormal
+ * results and the rare ambiguous cases, are converted by {@link Double#parseDouble(String)}. Thus,
+ * the results are identical to parsing with {@link Double#parseDouble(String)}.
+ * </p>
+ *
+ * <p>
+ * Objects of this class are not thread-safe, use one per thread.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+final class TextScoreDistributionLineParser {
+
+  /** Powers of ten that are exactly representable as <code>double</code>. */
+  private static final double[] POWERS_OF_TEN = {1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8,
+      1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15, 1e16, 1e17, 1e18, 1e19, 1e20, 1e21, 1e22};
+
+  /** Smallest decimal exponent handled by the Eisel-Lemire algorithm. */
+  private static final int MIN_POWER_OF_FIVE = -342;
+
+  /** Largest decimal exponent handled by the Eisel-Lemire algorithm. */
+  private static final int MAX_POWER_OF_FIVE = 308;
+
+  /**
+   * Powers of five <code>5^q</code> for <code>q</code> from {@link #MIN_POWER_OF_FIVE}, as the
+   * upper 64 bits of a binary mantissa, truncated.
+   */
+  private static final long[] POWERS_OF_FIVE_MANTISSAS =
+      new long[MAX_POWER_OF_FIVE - MIN_POWER_OF_FIVE + 1];
+
+  /**
+   * Binary exponents of the powers of five, i.e., <code>floor(log2(5^q))</code>.
+   */
+  private static final int[] POWERS_OF_FIVE_EXPONENTS =
+      new int[MAX_POWER_OF_FIVE - MIN_POWER_OF_FIVE + 1];
+
+  static {
+    final BigInteger five = BigInteger.valueOf(5);
+    for (int q = MIN_POWER_OF_FIVE; q <= MAX_POWER_OF_FIVE; ++q) {
+      final int i = q - MIN_POWER_OF_FIVE;
+      final BigInteger power = five.pow(Math.abs(q));
+      final int bitLength = power.bitLength();
+      if (q >= 0) {
+        // 2^(bitLength - 1) <= 5^q < 2^bitLength, keep the upper 64 bits.
+        POWERS_OF_FIVE_MANTISSAS[i] = (bitLength > 64) ? power.shiftRight(bitLength - 64)
+            .longValue() : power.shiftLeft(64 - bitLength).longValue();
+        POWERS_OF_FIVE_EXPONENTS[i] = bitLength - 1;
+      } else {
+        // 2^-bitLength < 5^q < 2^(1 - bitLength), scale to [2^63, 2^64).
+        POWERS_OF_FIVE_MANTISSAS[i] =
+            BigInteger.ONE.shiftLeft(63 + bitLength).divide(power).longValue();
+        POWERS_OF_FIVE_EXPONENTS[i] = -bitLength;
+      }
+    }
+  }
+
+  /** Largest significand that is exactly representable as <code>double</code>. */
+  private static final long MAX_EXACT_SIGNIFICAND = 1L << 53;
+
+  /** Largest number of significant digits accumulated in the fast path, fits into a long. */
+  private static final int MAX_SIGNIFICAND_DIGITS = 18;
+
+  /** Largest number of exponent digits accepted in the fast path. */
+  private static final int MAX_EXPONENT_DIGITS = 4;
+
+  /** Largest number of integer digits accepted in the fast path, fits into an int. */
+  private static final int MAX_INT_DIGITS = 9;
+
+  /** Largest number of characters of a record to include in error messages. */
+  private static final int MAX_ERROR_RECORD_LENGTH = 100;
+
+  /** Initial capacity of the parse buffers. */
+  private static final int INITIAL_CAPACITY = 64;
+
+  /** Buffer for the scores of the current record. */
+  private double[] scores = new double[INITIAL_CAPACITY];
+
+  /** Buffer for the cumulative frequencies of the current record. */
+  private double[] cumulativeFrequencies = new double[INITIAL_CAPACITY];
+
+  /**
+   * Parse record.
+   *
+   * <p>
+   * Surrounding whitespace, including a carriage return, is ignored. Fields after the fourth are
+   * ignored as when splitting at tabs.
+   * </p>
+   *
+   * @param buf Buffer with the bytes of the record.
+   * @param start Offset of the first byte of the record in <code>buf</code>.
+   * @param end Offset after the last byte of the record in <code>buf</code>, excluding the line
+   *        break.
+   * @return The parsed {@link ObjectScoreDistribution}.
+   * @throws OntoLibException If the record is malformed.
+   */
+  ObjectScoreDistribution parse(byte[] buf, int start, int end) throws OntoLibException {
+    // Trim as String.trim().
+    while (start < end && (buf[start] & 0xff) <= ' ') {
+      ++start;
+    }
+    while (end > start && (buf[end - 1] & 0xff) <= ' ') {
+      --end;
+    }
+
+    // Tokenize fields.
+    final int tab1 = indexOf(buf, start, end, '\t');
+    final int tab2 = indexOf(buf, tab1 + 1, end, '\t');
+    final int tab3 = indexOf(buf, tab2 + 1, end, '\t');
+    if (tab3 >= end) {
+      throw invalidRecord(buf, start, end, null);
+    }
+    final int distEnd = indexOf(buf, tab3 + 1, end, '\t');
+
+    final int numTerms = parseInt(buf, start, tab1, start, end);
+    final int objectId = parseInt(buf, tab1 + 1, tab2, start, end);
+    final int sampleSize = parseInt(buf, tab2 + 1, tab3, start, end);
+
+    // Parse the comma-separated score:frequency pairs.
+    int numPairs = 0;
+    int pos = tab3 + 1;
+    while (pos < distEnd) {
+      final int comma = indexOf(buf, pos, distEnd, ',');
+      final int colon = indexOf(buf, pos, comma, ':');
+      if (colon >= comma) {
+        throw invalidRecord(buf, start, end, null);
+      }
+      if (numPairs == scores.length) {
+        scores = Arrays.copyOf(scores, 2 * numPairs);
+        cumulativeFrequencies = Arrays.copyOf(cumulativeFrequencies, 2 * numPairs);
+      }
+      scores[numPairs] = parseDouble(buf, pos, colon, start, end);
+      cumulativeFrequencies[numPairs] =
+          parseDouble(buf, colon + 1, indexOf(buf, colon + 1, comma, ':'), start, end);
+      ++numPairs;
+      pos = comma + 1;
+    }
+
+    try {
+      return new ObjectScoreDistribution(objectId, numTerms, sampleSize, scores,
+          cumulativeFrequencies, numPairs);
+    } catch (IllegalArgumentException e) {
+      throw new OntoLibException("Invalid score distribution for entrez ID " + objectId, e);
+    }
+  }
+
+  /**
+   * @return Offset of the first <code>c</code> in <code>buf[from:to]</code>, <code>to</code> if
+   *         there is none.
+   */
+  private static int indexOf(byte[] buf, int from, int to, char c) {
+    for (int i = from; i < to; ++i) {
+      if (buf[i] == c) {
+        return i;
+      }
+    }
+    return to;
+  }
+
+  /**
+   * Parse <code>int</code> value as {@link Integer#parseInt(String)}.
+   *
+   * @param buf Buffer to parse from.
+   * @param from Offset of the first byte of the number.
+   * @param to Offset after the last byte of the number.
+   * @param recordStart Offset of the record, for error messages.
+   * @param recordEnd End of the record, for error messages.
+   * @return The parsed value.
+   * @throws OntoLibException If the value is not a valid <code>int</code>.
+   */
+  private static int parseInt(byte[] buf, int from, int to, int recordStart, int recordEnd)
+      throws OntoLibException {
+    int i = from;
+    final boolean negative = (i < to && buf[i] == '-');
+    if (i < to && (buf[i] == '-' || buf[i] == '+')) {
+      ++i;
+    }
+    if (i == to || to - i > MAX_INT_DIGITS) {
+      return slowParseInt(buf, from, to, recordStart, recordEnd);
+    }
+    int value = 0;
+    for (; i < to; ++i) {
+      final int digit = buf[i] - '0';
+      if (digit < 0 || digit > 9) {
+        return slowParseInt(buf, from, to, recordStart, recordEnd);
+      }
+      value = 10 * value + digit;
+    }
+    return negative ? -value : value;
+  }
+
+  /**
+   * Parse <code>int</code> value with {@link Integer#parseInt(String)}.
+   */
+  private static int slowParseInt(byte[] buf, int from, int to, int recordStart, int recordEnd)
+      throws OntoLibException {
+    try {
+      return Integer.parseInt(new String(buf, from, to - from, StandardCharsets.US_ASCII));
+    } catch (NumberFormatException e) {
+      throw invalidRecord(buf, recordStart, recordEnd, e);
+    }
+  }
+
+  /**
+   * Parse <code>double</code> value, yielding the same result as
+   * {@link Double#parseDouble(String)}.
+   *
+   * @param buf Buffer to parse from.
+   * @param from Offset of the first byte of the number.
+   * @param to Offset after the last byte of the number.
+   * @param recordStart Offset of the record, for error messages.
+   * @param recordEnd End of the record, for error messages.
+   * @return The parsed value.
+   * @throws OntoLibException If the value is not a valid <code>double</code>.
+   */
+  private static double parseDouble(byte[] buf, int from, int to, int recordStart,
+      int recordEnd) throws OntoLibException {
+    int i = from;
+    final boolean negative = (i < to && buf[i] == '-');
+    if (i < to && (buf[i] == '-' || buf[i] == '+')) {
+      ++i;
+    }
+
+    // Accumulate significant digits of integer and fractional part.
+    long significand = 0;
+    int numSignificantDigits = 0;
+    int numDigits = 0;
+    int exponent = 0;
+    for (; i < to && buf[i] >= '0' && buf[i] <= '9'; ++i, ++numDigits) {
+      significand = 10 * significand + (buf[i] - '0');
+      if (significand != 0 && ++numSignificantDigits > MAX_SIGNIFICAND_DIGITS) {
+        return slowParseDouble(buf, from, to, recordStart, recordEnd);
+      }
+    }
+    if (i < to && buf[i] == '.') {
+      for (++i; i < to && buf[i] >= '0' && buf[i] <= '9'; ++i, ++numDigits) {
+        significand = 10 * significand + (buf[i] - '0');
+        --exponent;
+        if (significand != 0 && ++numSignificantDigits > MAX_SIGNIFICAND_DIGITS) {
+          return slowParseDouble(buf, from, to, recordStart, recordEnd);
+        }
+      }
+    }
+    if (numDigits == 0) {
+      return slowParseDouble(buf, from, to, recordStart, recordEnd);
+    }
+
+    // Explicit exponent.
+    if (i < to && (buf[i] == 'E' || buf[i] == 'e')) {
+      ++i;
+      final boolean negativeExponent = (i < to && buf[i] == '-');
+      if (i < to && (buf[i] == '-' || buf[i] == '+')) {
+        ++i;
+      }
+      if (i == to || to - i > MAX_EXPONENT_DIGITS) {
+        return slowParseDouble(buf, from, to, recordStart, recordEnd);
+      }
+      int explicitExponent = 0;
+      for (; i < to; ++i) {
+        final int digit = buf[i] - '0';
+        if (digit < 0 || digit > 9) {
+          return slowParseDouble(buf, from, to, recordStart, recordEnd);
+        }
+        explicitExponent = 10 * explicitExponent + digit;
+      }
+      exponent += negativeExponent ? -explicitExponent : explicitExponent;
+    }
+    if (i != to) {
+      return slowParseDouble(buf, from, to, recordStart, recordEnd);
+    }
+
+    // Fast path, exact operands and a single correctly rounded operation.
+    if (significand == 0) {
+      return negative ? -0.0 : 0.0;
+    } else if (significand <= MAX_EXACT_SIGNIFICAND && exponent >= -22 && exponent <= 22) {
+      final double value = (exponent < 0) ? significand / POWERS_OF_TEN[-exponent]
+          : significand * POWERS_OF_TEN[exponent];
+      return negative ? -value : value;
+    }
+
+    final double value = eiselLemire(significand, exponent);
+    if (Double.isNaN(value)) {
+      return slowParseDouble(buf, from, to, recordStart, recordEnd);
+    } else {
+      return negative ? -value : value;
+    }
+  }
+
+  /**
+   * Compute <code>significand * 10^exponent</code> with the Eisel-Lemire algorithm.
+   *
+   * <p>
+   * The truncated table mantissa makes the computed upper product word at most one smaller than
+   * the exact one. Thus, the result is correctly rounded unless the bits below the rounding bit
+   * are close to all zeros or all ones, in which case the computation gives up.
+   * </p>
+   *
+   * @param significand Positive decimal significand.
+   * @param exponent Decimal exponent.
+   * @return The correctly rounded, positive, normal value, or {@link Double#NaN} if the value
+   *         could not be determined.
+   */
+  private static double eiselLemire(long significand, int exponent) {
+    if (exponent < MIN_POWER_OF_FIVE || exponent > MAX_POWER_OF_FIVE) {
+      return Double.NaN;
+    }
+    final int i = exponent - MIN_POWER_OF_FIVE;
+
+    // Normalize significand to [2^63, 2^64) and multiply with the power of five mantissa.
+    final int leadingZeros = Long.numberOfLeadingZeros(significand);
+    final long upper =
+        unsignedMultiplyHigh(significand << leadingZeros, POWERS_OF_FIVE_MANTISSAS[i]);
+
+    // Keep 54 bits, i.e., the 53 bits of the double mantissa and the rounding bit.
+    final int upperBit = (int) (upper >>> 63);
+    final int shift = upperBit + 9;
+    final long lowBits = upper & 0x1FF;
+    if (lowBits <= 1 || lowBits >= 0x1FE) {
+      return Double.NaN;
+    }
+    long mantissa = ((upper >>> shift) + 1) >>> 1;
+    int binaryExponent = shift + 2 + exponent - leadingZeros + POWERS_OF_FIVE_EXPONENTS[i];
+    if (mantissa == (1L << 53)) {
+      mantissa >>>= 1;
+      ++binaryExponent;
+    }
+
+    // Give up on subnormal and infinite results.
+    final int biasedExponent = binaryExponent + 52 + 1023;
+    if (biasedExponent <= 0 || biasedExponent >= 2047) {
+      return Double.NaN;
+    }
+    return Math.scalb((double) mantissa, binaryExponent);
+  }
+
+  /**
+   * @return Upper 64 bits of the unsigned 128 bit product of <code>x</code> and <code>y</code>.
+   */
+  private static long unsignedMultiplyHigh(long x, long y) {
+    final long x0 = x & 0xFFFFFFFFL;
+    final long x1 = x >>> 32;
+    final long y0 = y & 0xFFFFFFFFL;
+    final long y1 = y >>> 32;
+    final long p01 = x0 * y1;
+    final long middle = x1 * y0 + ((x0 * y0) >>> 32) + (p01 & 0xFFFFFFFFL);
+    return x1 * y1 + (middle >>> 32) + (p01 >>> 32);
+  }
+
+  /**
+   * Parse <code>double</code> value with {@link Double#parseDouble(String)}.
+   */
+  private static double slowParseDouble(byte[] buf, int from, int to, int recordStart,
+      int recordEnd) throws OntoLibException {
+    try {
+      return Double.parseDouble(new String(buf, from, to - from, StandardCharsets.US_ASCII));
+    } catch (NumberFormatException e) {
+      throw invalidRecord(buf, recordStart, recordEnd, e);
+    }
+  }
+
+  /**
+   * @return {@link OntoLibException} describing the invalid record.
+   */
+  private static OntoLibException invalidRecord(byte[] buf, int start, int end, Throwable cause) {
+    final int length = Math.min(end - start, MAX_ERROR_RECORD_LENGTH);
+    final String record = new String(buf, start, length, StandardCharsets.US_ASCII)
+        + ((length < end - start) ? "..." : "");
+    return new OntoLibException("Invalid score distribution record \"" + record + "\"", cause);
+  }
+
+}
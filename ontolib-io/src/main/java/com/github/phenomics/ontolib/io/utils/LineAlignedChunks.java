@@ -0,0 +1,200 @@
+package com.github.phenomics.ontolib.io.utils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.IntPredicate;
+
+/**
+ * Splitting of files into chunks at line starts and parallel processing of the chunks.
+ *
+ * <p>
+ * {@link #computeBounds(FileChannel, long, int, long, IntPredicate)} splits a file range into
+ * about equally sized chunks that start at the beginning of a line, optionally only at lines
+ * starting with certain bytes. {@link #process(List, int, ChunkProcessor)} then processes the
+ * chunks on a fixed thread pool and returns the results in file order.
+ * </p>
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public final class LineAlignedChunks {
+
+  /** Default minimal number of bytes in a chunk. */
+  public static final long DEFAULT_MIN_CHUNK_SIZE = 1024 * 1024;
+
+  /** Accept chunk boundaries at all line starts. */
+  public static final IntPredicate ANY_LINE = firstByte -> true;
+
+  /** Number of chunks to create per thread, for balancing the load. */
+  private static final int CHUNKS_PER_THREAD = 4;
+
+  /** Number of bytes to read at once when searching for chunk boundaries. */
+  private static final int SCAN_BUFFER_SIZE = 8 * 1024;
+
+  /**
+   * Processing of one chunk.
+   *
+   * @param <T> Type of the chunk result.
+   * @param <E> Type of the checked exception thrown besides {@link IOException}.
+   */
+  @FunctionalInterface
+  public interface ChunkProcessor<T, E extends Exception> {
+
+    /**
+     * Process chunk.
+     *
+     * @param beginOffset Offset of the first byte of the chunk.
+     * @param endOffset Offset after the last byte of the chunk.
+     * @param chunkIndex Index of the chunk, <code>0</code> for the first one.
+     * @return The chunk result.
+     * @throws IOException In case of problems with file I/O.
+     * @throws E In case of problems with processing.
+     */
+    T process(long beginOffset, long endOffset, int chunkIndex) throws IOException, E;
+
+  }
+
+  /** Private constructor, no instantiation. */
+  private LineAlignedChunks() {}
+
+  /**
+   * Compute chunk boundaries.
+   *
+   * <p>
+   * The range is split into up to four chunks per thread of at least <code>minChunkSize</code>
+   * bytes each, all chunks but the first start at a line whose first byte is accepted by
+   * <code>lineStart</code>.
+   * </p>
+   *
+   * @param channel {@link FileChannel} of the file to split.
+   * @param beginOffset Offset of the first chunk, the start of a line.
+   * @param numThreads Number of threads the chunks will be processed with.
+   * @param minChunkSize Minimal number of bytes in a chunk.
+   * @param lineStart Predicate on the first byte of lines that chunks may start at, e.g.,
+   *        {@link #ANY_LINE}.
+   * @return Offsets of the chunk starts, followed by the file size.
+   * @throws IOException In case of problems with file I/O.
+   */
+  public static List<Long> computeBounds(FileChannel channel, long beginOffset, int numThreads,
+      long minChunkSize, IntPredicate lineStart) throws IOException {
+    final long size = channel.size();
+    final long numChunks = Math.max(1,
+        Math.min((long) numThreads * CHUNKS_PER_THREAD, (size - beginOffset) / minChunkSize));
+
+    final List<Long> bounds = new ArrayList<>();
+    bounds.add(beginOffset);
+    for (long i = 1; i < numChunks; ++i) {
+      final long lastBound = bounds.get(bounds.size() - 1);
+      final long bound = findLineStart(channel,
+          Math.max(lastBound + 1, beginOffset + (size - beginOffset) * i / numChunks), size,
+          lineStart);
+      if (bound == size) {
+        break;
+      } else if (bound > lastBound) {
+        bounds.add(bound);
+      }
+    }
+    bounds.add(size);
+    return bounds;
+  }
+
+  /**
+   * Find the first accepted line start at or after <code>offset</code>.
+   *
+   * @param channel {@link FileChannel} of the file.
+   * @param offset Offset to start searching at, must be positive.
+   * @param size Size of the file.
+   * @param lineStart Predicate on the first byte of the line.
+   * @return Offset of the line start, <code>size</code> if there is no such line.
+   * @throws IOException In case of problems with file I/O.
+   */
+  private static long findLineStart(FileChannel channel, long offset, long size,
+      IntPredicate lineStart) throws IOException {
+    final ByteBuffer buffer = ByteBuffer.allocate(SCAN_BUFFER_SIZE);
+    long position = offset - 1; // position of the line break before the line
+    byte prev = 0;
+    while (position < size) {
+      buffer.clear();
+      final int numRead = channel.read(buffer, position);
+      if (numRead <= 0) {
+        break;
+      }
+      for (int i = 0; i < numRead; ++i) {
+        final byte b = buffer.get(i);
+        if (prev == '\n' && lineStart.test(b)) {
+          return position + i;
+        }
+        prev = b;
+      }
+      position += numRead;
+    }
+    return size;
+  }
+
+  /**
+   * Process chunks on a fixed thread pool.
+   *
+   * <p>
+   * Exceptions thrown by <code>processor</code> are rethrown unwrapped. A plain
+   * {@link ExecutorService} is used as a <code>ForkJoinPool</code> would wrap checked exceptions.
+   * </p>
+   *
+   * @param bounds Chunk boundaries from
+   *        {@link #computeBounds(FileChannel, long, int, long, IntPredicate)}.
+   * @param numThreads Number of threads to use.
+   * @param processor The {@link ChunkProcessor} to call for each chunk.
+   * @param <T> Type of the chunk results.
+   * @param <E> Type of the checked exception thrown by <code>processor</code>.
+   * @return The chunk results, in the order of the chunks.
+   * @throws IOException In case of problems with file I/O or if interrupted.
+   * @throws E If thrown by <code>processor</code>.
+   */
+  @SuppressWarnings("unchecked")
+  public static <T, E extends Exception> List<T> process(List<Long> bounds, int numThreads,
+      ChunkProcessor<T, E> processor) throws IOException, E {
+    final List<Callable<T>> tasks = new ArrayList<>();
+    for (int i = 0; i + 1 < bounds.size(); ++i) {
+      final long begin = bounds.get(i);
+      final long end = bounds.get(i + 1);
+      final int chunkIndex = i;
+      tasks.add(() -> processor.process(begin, end, chunkIndex));
+    }
+
+    final ExecutorService pool = Executors.newFixedThreadPool(numThreads);
+    try {
+      final List<T> results = new ArrayList<>(tasks.size());
+      for (Future<T> future : pool.invokeAll(tasks)) {
+        results.add(future.get());
+      }
+      return results;
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      final InterruptedIOException ex =
+          new InterruptedIOException("Interrupted while processing chunks");
+      ex.initCause(e);
+      throw ex;
+    } catch (ExecutionException e) {
+      final Throwable cause = e.getCause();
+      if (cause instanceof IOException) {
+        throw (IOException) cause;
+      } else if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      } else if (cause instanceof Error) {
+        throw (Error) cause;
+      } else {
+        throw (E) cause;
+      }
+    } finally {
+      pool.shutdown();
+    }
+  }
+
+}
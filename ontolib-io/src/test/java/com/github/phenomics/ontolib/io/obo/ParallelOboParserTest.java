@@ -0,0 +1,116 @@
+package com.github.phenomics.ontolib.io.obo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.phenomics.ontolib.base.OntoLibRuntimeException;
+import com.github.phenomics.ontolib.io.utils.ResourceUtils;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+
+/**
+ * Tests for the {@link ParallelOboParser} class, comparing against sequential parsing.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class ParallelOboParserTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  @Test
+  public void testSameResultAsSequential() throws IOException {
+    for (String name : Lists.newArrayList("hp_head.obo", "go_head.obo", "mp_head.obo",
+        "crossSpeciesPheno_head.obo")) {
+      final File file = tmpFolder.newFile(name);
+      ResourceUtils.copyResourceToFile("/" + name, file);
+
+      final CollectingListener sequential = new CollectingListener();
+      new StreamingOboParser(sequential).parseFile(file);
+
+      // Use tiny chunks such that each stanza ends up in its own chunk.
+      for (int numThreads : new int[] {1, 2, 4}) {
+        final CollectingListener parallel = new CollectingListener();
+        new ParallelOboParser(numThreads, 1).parseFile(file, parallel);
+
+        assertTrue(parallel.parsingComplete);
+        assertEquals(name, sequential.getOboFile().toString(),
+            parallel.getOboFile().toString());
+      }
+    }
+  }
+
+  @Test
+  public void testHeaderOnly() throws IOException {
+    final File file = writeFile("format-version: 1.2", "data-version: 2017-06-10", "");
+
+    final CollectingListener parallel = new CollectingListener();
+    new ParallelOboParser(4, 1).parseFile(file, parallel);
+
+    assertEquals(2, parallel.header.getEntries().size());
+    assertEquals(0, parallel.stanzas.size());
+  }
+
+  @Test
+  public void testParseErrorReportsLine() throws IOException {
+    final File file = writeFile("format-version: 1.2", "", "[Term]", "id: HP:0000001", "",
+        "[Term]", "id: HP:0000002", "is_obsolete: maybe", "");
+
+    try {
+      new ParallelOboParser(4, 1).parseFile(file, new CollectingListener());
+      fail("Expected OntoLibRuntimeException");
+    } catch (OntoLibRuntimeException e) {
+      assertTrue(e.getMessage(), e.getMessage().startsWith("Failed to parse at line 8 "));
+    }
+  }
+
+  private File writeFile(String... lines) throws IOException {
+    final File file = tmpFolder.newFile();
+    Files.write(file.toPath(), Joiner.on('\n').join(lines).getBytes(StandardCharsets.UTF_8));
+    return file;
+  }
+
+  /**
+   * Helper class for collecting parse result; header and stanzas.
+   */
+  private static final class CollectingListener implements OboParseResultListener {
+
+    private Header header = null;
+
+    private List<Stanza> stanzas = Lists.newArrayList();
+
+    private boolean parsingComplete = false;
+
+    @Override
+    public void parsedHeader(Header header) {
+      this.header = header;
+    }
+
+    @Override
+    public void parsedStanza(Stanza stanza) {
+      stanzas.add(stanza);
+    }
+
+    @Override
+    public void parsedFile() {
+      parsingComplete = true;
+    }
+
+    public OboFile getOboFile() {
+      return new OboFile(header, stanzas);
+    }
+
+  }
+
+}
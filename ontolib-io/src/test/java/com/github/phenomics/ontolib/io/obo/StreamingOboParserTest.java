@@ -0,0 +1,166 @@
+package com.github.phenomics.ontolib.io.obo;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import com.github.phenomics.ontolib.base.OntoLibRuntimeException;
+import com.github.phenomics.ontolib.io.utils.ResourceUtils;
+import com.google.common.base.Joiner;
+import com.google.common.collect.Lists;
+
+/**
+ * Tests for the streaming {@link OboParser.Implementation}, comparing against the ANTLR-based one.
+ *
+ * @author <a href="mailto:manuel.holtgrewe@bihealth.de">Manuel Holtgrewe</a>
+ */
+public class StreamingOboParserTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private static final List<String> OBO_LINES = Lists.newArrayList("format-version: 1.2",
+      "data-version: releases/2017-06-10 {key=value} ! comment", "", "[Term]", "id: HP:0000001",
+      "name: All", "def: \"Term Definition\" [database-ref] {key=value} ! comment",
+      "synonym: \"Synonym Name\" EXACT {key=value} ! comment",
+      "xref: UMLS:C1234 \"description\" {key=value}", "is_a: HP:0000002 ! parent",
+      "relationship: part_of HP:0000003", "", "[Typedef]", "id: part_of", "name: part of",
+      "is_transitive: true", "");
+
+  private static final String OBO_STRING = Joiner.on('\n').join(OBO_LINES);
+
+  private final OboParser streamingParser =
+      new OboParser(false, OboParser.Implementation.STREAMING);
+
+  private final OboParser antlrParser = new OboParser(false, OboParser.Implementation.ANTLR);
+
+  @Test
+  public void testDefaultImplementation() {
+    assertEquals(OboParser.Implementation.STREAMING, new OboParser().getImplementation());
+  }
+
+  @Test
+  public void testParseString() {
+    final OboFile oboFile = streamingParser.parseString(OBO_STRING);
+
+    assertEquals(2, oboFile.getHeader().getEntries().size());
+    assertEquals(2, oboFile.getStanzas().size());
+    assertEquals("[StanzaEntryId [id=HP:0000001, getType()=ID, getTrailingModifier()=null, "
+        + "getComment()=null], StanzaEntryName [name=All, getType()=NAME, "
+        + "getTrailingModifier()=null, getComment()=null], StanzaEntryDef [text=Term Definition, "
+        + "dbXrefList=DbXrefList [dbXrefs=[DbXref [name=database-ref, description=null, "
+        + "trailingModifier=null]]], getType()=DEF, getTrailingModifier()=TrailingModifier "
+        + "[keyValue=[KeyValue [key=key, value=value]]], getComment()=comment], StanzaEntrySynonym "
+        + "[text=Synonym Name, termSynonymScope=EXACT, synonymTypeName=null, dbXrefList=null, "
+        + "getType()=SYNONYM, getTrailingModifier()=TrailingModifier [keyValue=[KeyValue "
+        + "[key=key, value=value]]], getComment()=comment], StanzaEntryXref [dbXref=DbXref "
+        + "[name=UMLS:C1234, description=description, trailingModifier=TrailingModifier "
+        + "[keyValue=[KeyValue [key=key, value=value]]]], getType()=XREF, getTrailingModifier()="
+        + "TrailingModifier [keyValue=[KeyValue [key=key, value=value]]], getComment()=null], "
+        + "StanzaEntryIsA [id=HP:0000002, getType()=IS_A, getTrailingModifier()=null, "
+        + "getComment()=parent], StanzaEntryRelationship [ids=[HP:0000003], relationshipType="
+        + "part_of, getType()=RELATIONSHIP, getTrailingModifier()=null, getComment()=null]]",
+        oboFile.getStanzas().get(0).getStanzaEntries().toString());
+  }
+
+  @Test
+  public void testParseStringSameAsAntlr() {
+    // The ANTLR grammar does not accept entries in [Typedef] stanzas, so compare without them.
+    final String termsOnly = Joiner.on('\n').join(OBO_LINES.subList(0, 12));
+    assertEquals(antlrParser.parseString(termsOnly).toString(),
+        streamingParser.parseString(termsOnly).toString());
+  }
+
+  @Test
+  public void testParseTypedefStanza() {
+    final OboFile oboFile = streamingParser.parseString(OBO_STRING);
+
+    assertEquals(StanzaType.TYPEDEF, oboFile.getStanzas().get(1).getType());
+    assertEquals("[StanzaEntryId [id=part_of, getType()=ID, getTrailingModifier()=null, "
+        + "getComment()=null], StanzaEntryName [name=part of, getType()=NAME, "
+        + "getTrailingModifier()=null, getComment()=null], StanzaEntryIsTransitive [value=true, "
+        + "getType()=IS_TRANSITIVE, getTrailingModifier()=null, getComment()=null]]",
+        oboFile.getStanzas().get(1).getStanzaEntries().toString());
+  }
+
+  @Test
+  public void testParseCrLfLineEndings() {
+    final String crLf = Joiner.on("\r\n").join(OBO_LINES);
+    assertEquals(streamingParser.parseString(OBO_STRING).toString(),
+        streamingParser.parseString(crLf).toString());
+  }
+
+  @Test
+  public void testParseChannel() throws IOException {
+    final CollectingListener listener = new CollectingListener();
+    final ReadableByteChannel channel = Channels
+        .newChannel(new ByteArrayInputStream(OBO_STRING.getBytes(StandardCharsets.UTF_8)));
+    streamingParser.parseChannel(channel, listener);
+
+    assertTrue(listener.parsingComplete);
+    assertEquals(streamingParser.parseString(OBO_STRING).toString(),
+        new OboFile(listener.header, listener.stanzas).toString());
+  }
+
+  @Test
+  public void testParseFilesSameAsAntlr() throws IOException {
+    for (String name : Lists.newArrayList("hp_head.obo", "go_head.obo", "mp_head.obo",
+        "crossSpeciesPheno_head.obo")) {
+      final File file = tmpFolder.newFile(name);
+      ResourceUtils.copyResourceToFile("/" + name, file);
+
+      assertEquals(name, antlrParser.parseFile(file).toString(),
+          streamingParser.parseFile(file).toString());
+    }
+  }
+
+  @Test(expected = OntoLibRuntimeException.class)
+  public void testParseErrorMissingColon() {
+    streamingParser.parseString("format-version: 1.2\n\n[Term]\nid HP:0000001\n");
+  }
+
+  @Test(expected = OntoLibRuntimeException.class)
+  public void testParseErrorUnknownStanza() {
+    streamingParser.parseString("format-version: 1.2\n\n[Unknown]\nid: HP:0000001\n");
+  }
+
+  /**
+   * Helper class for collecting parse result; header and stanzas.
+   */
+  private static final class CollectingListener implements OboParseResultListener {
+
+    private Header header = null;
+
+    private List<Stanza> stanzas = Lists.newArrayList();
+
+    private boolean parsingComplete = false;
+
+    @Override
+    public void parsedHeader(Header header) {
+      this.header = header;
+    }
+
+    @Override
+    public void parsedStanza(Stanza stanza) {
+      stanzas.add(stanza);
+    }
+
+    @Override
+    public void parsedFile() {
+      parsingComplete = true;
+    }
+
+  }
+
+}
@@ -35,7 +35,7 @@ public class HpoOboParserTest {
     final HpoOntology ontology = parser.parse();
 
     assertEquals(
-        "ImmutableDirectedGraph [edgeLists={ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000001]=ImmutableVertexEdgeList [inEdges=[ImmutableEdge [source=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000005], dest=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000001], id=1], ImmutableEdge [source=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000118], dest=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000001], id=4]], outEdges=[]], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000005]=ImmutableVertexEdgeList [inEdges=[ImmutableEdge [source=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000006], dest=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000005], id=2], ImmutableEdge [source=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000007], dest=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000005], id=3]], outEdges=[ImmutableEdge [source=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000005], dest=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000001], id=1]]], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000006]=ImmutableVertexEdgeList [inEdges=[], outEdges=[ImmutableEdge [source=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000006], dest=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000005], id=2]]], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000007]=ImmutableVertexEdgeList [inEdges=[], outEdges=[ImmutableEdge [source=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000007], dest=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000005], id=3]]], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000118]=ImmutableVertexEdgeList [inEdges=[], outEdges=[ImmutableEdge [source=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000118], dest=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000001], id=4]]]}, edgeCount=4]",
+        "ImmutableIndexedDirectedGraph [vertices=[ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000001], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000005], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000006], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000007], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000118]], edges=[ImmutableEdge [source=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000005], dest=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000001], id=1], ImmutableEdge [source=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000006], dest=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000005], id=2], ImmutableEdge [source=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000007], dest=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000005], id=3], ImmutableEdge [source=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000118], dest=ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000001], id=4]]]",
         ontology.getGraph().toString());
     assertEquals(
         "[ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000001], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000005], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000006], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000007], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0000118], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0001415], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0001416], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0001447], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0001448], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0001451], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0001453], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0001455], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0001456], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0001461], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0001463], ImmutableTermId [prefix=ImmutableTermPrefix [value=HP], id=0001526]]",
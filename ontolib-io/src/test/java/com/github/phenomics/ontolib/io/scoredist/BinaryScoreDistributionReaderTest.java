@@ -0,0 +1,110 @@
+package com.github.phenomics.ontolib.io.scoredist;
+
+import static org.junit.Assert.assertEquals;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
+import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistribution;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class BinaryScoreDistributionReaderTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private File binaryFile;
+
+  @Before
+  public void setUp() throws IOException, OntoLibException {
+    binaryFile = tmpFolder.newFile("scores.bin");
+    try (BinaryScoreDistributionWriter writer = new BinaryScoreDistributionWriter(binaryFile)) {
+      writer.write(2, buildScoreDistribution(2, 30, 10, 20), 0);
+      writer.write(1, buildScoreDistribution(1, 20, 10), 0);
+    }
+  }
+
+  private static ScoreDistribution buildScoreDistribution(int numTerms, int... objectIds) {
+    final Map<Integer, ObjectScoreDistribution> dists = new TreeMap<>();
+    for (int objectId : objectIds) {
+      dists.put(objectId, new ObjectScoreDistribution(objectId, numTerms, 100,
+          new double[] {0.0, 0.25 * numTerms, 0.5 * numTerms}, new double[] {0.5, 0.75, 1.0}));
+    }
+    return new ScoreDistribution(numTerms, dists);
+  }
+
+  @Test
+  public void testReadForTermCountAndObject() throws OntoLibException, IOException {
+    try (BinaryScoreDistributionReader reader = new BinaryScoreDistributionReader(binaryFile)) {
+      assertEquals(5, reader.countObjectScoreDistributions());
+      final ObjectScoreDistribution dist = reader.readForTermCountAndObject(2, 20);
+      assertEquals(
+          "ObjectScoreDistribution [objectId=20, numTerms=2, sampleSize=100, "
+              + "cumulativeFrequencies={0.0=0.5, 0.5=0.75, 1.0=1.0}]",
+          dist.toString());
+    }
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testReadForTermCountAndObjectMissing() throws OntoLibException, IOException {
+    try (BinaryScoreDistributionReader reader = new BinaryScoreDistributionReader(binaryFile)) {
+      reader.readForTermCountAndObject(1, 30);
+    }
+  }
+
+  @Test
+  public void testReadForTermCount() throws OntoLibException, IOException {
+    try (BinaryScoreDistributionReader reader = new BinaryScoreDistributionReader(binaryFile)) {
+      final ScoreDistribution dist = reader.readForTermCount(2);
+      assertEquals(2, dist.getNumTerms());
+      assertEquals("[10, 20, 30]", dist.getObjectIds().toString());
+    }
+  }
+
+  @Test
+  public void testReadAll() throws OntoLibException, IOException {
+    try (BinaryScoreDistributionReader reader = new BinaryScoreDistributionReader(binaryFile)) {
+      final Map<Integer, ScoreDistribution> dists = reader.readAll();
+      assertEquals(2, dists.size());
+      assertEquals("[10, 20]", dists.get(1).getObjectIds().toString());
+      assertEquals("[10, 20, 30]", dists.get(2).getObjectIds().toString());
+    }
+  }
+
+  @Test
+  public void testResampling() throws OntoLibException, IOException {
+    final File resampledFile = tmpFolder.newFile("resampled.bin");
+    try (BinaryScoreDistributionWriter writer =
+        new BinaryScoreDistributionWriter(resampledFile)) {
+      writer.write(1, buildScoreDistribution(1, 10), 4);
+    }
+    try (BinaryScoreDistributionReader reader =
+        new BinaryScoreDistributionReader(resampledFile)) {
+      final ObjectScoreDistribution dist = reader.readForTermCountAndObject(1, 10);
+      assertEquals(5, dist.countScores());
+      assertEquals(0.125, dist.scoreAt(1), 1e-6);
+      assertEquals(1.0, dist.cumulativeFrequencyAt(4), 1e-6);
+    }
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testDuplicateObjectId() throws OntoLibException, IOException {
+    try (BinaryScoreDistributionWriter writer =
+        new BinaryScoreDistributionWriter(tmpFolder.newFile("duplicate.bin"))) {
+      writer.write(1, buildScoreDistribution(1, 10));
+      writer.write(1, buildScoreDistribution(1, 10));
+    }
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testInvalidFile() throws OntoLibException, IOException {
+    new BinaryScoreDistributionReader(tmpFolder.newFile("empty.bin")).close();
+  }
+
+}
@@ -0,0 +1,193 @@
+package com.github.phenomics.ontolib.io.scoredist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.io.scoredist.H2ScoreDistributionWriter.ArrayEncoding;
+import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
+import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistribution;
+import java.io.File;
+import java.io.IOException;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.TreeSet;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class H2ScoreDistributionReaderTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private String pathDb;
+
+  @Before
+  public void setUp() throws IOException, OntoLibException {
+    pathDb = new File(tmpFolder.getRoot(), "scores").getAbsolutePath();
+    for (ArrayEncoding encoding : ArrayEncoding.values()) {
+      try (H2ScoreDistributionWriter writer =
+          new H2ScoreDistributionWriter(pathDb, tableName(encoding), false, encoding, 2)) {
+        writer.write(2, buildScoreDistribution(2, 30, 10, 20), 0);
+        writer.write(1, buildScoreDistribution(1, 20, 10), 0);
+      }
+    }
+  }
+
+  private static String tableName(ArrayEncoding encoding) {
+    return "scores_" + encoding.name().toLowerCase();
+  }
+
+  private static ScoreDistribution buildScoreDistribution(int numTerms, int... objectIds) {
+    final Map<Integer, ObjectScoreDistribution> dists = new TreeMap<>();
+    for (int objectId : objectIds) {
+      dists.put(objectId, new ObjectScoreDistribution(objectId, numTerms, 100,
+          new double[] {0.0, 0.25 * numTerms, 0.5 * numTerms}, new double[] {0.5, 0.75, 1.0}));
+    }
+    return new ScoreDistribution(numTerms, dists);
+  }
+
+  /**
+   * @return Sorted object IDs of <code>dist</code> as string.
+   */
+  private static String objectIds(ScoreDistribution dist) {
+    return new TreeSet<>(dist.getObjectIds()).toString();
+  }
+
+  @Test
+  public void testReadForTermCountAndObject() throws OntoLibException, IOException {
+    for (ArrayEncoding encoding : ArrayEncoding.values()) {
+      try (H2ScoreDistributionReader reader =
+          new H2ScoreDistributionReader(pathDb, tableName(encoding))) {
+        assertEquals(encoding.name(),
+            "ObjectScoreDistribution [objectId=20, numTerms=2, sampleSize=100, "
+                + "cumulativeFrequencies={0.0=0.5, 0.5=0.75, 1.0=1.0}]",
+            reader.readForTermCountAndObject(2, 20).toString());
+      }
+    }
+  }
+
+  @Test
+  public void testReadForTermCountAndObjectCache() throws OntoLibException, IOException {
+    for (ArrayEncoding encoding : ArrayEncoding.values()) {
+      try (H2ScoreDistributionReader reader =
+          new H2ScoreDistributionReader(pathDb, tableName(encoding), 1)) {
+        assertEquals(0, reader.getCacheSize());
+
+        // Miss, then hit.
+        final ObjectScoreDistribution first = reader.readForTermCountAndObject(2, 20);
+        assertEquals(1, reader.getCacheSize());
+        assertSame(first, reader.readForTermCountAndObject(2, 20));
+
+        // Miss evicting the first distribution, which is then read again.
+        final ObjectScoreDistribution second = reader.readForTermCountAndObject(1, 20);
+        assertEquals(1, reader.getCacheSize());
+        assertSame(second, reader.readForTermCountAndObject(1, 20));
+        final ObjectScoreDistribution reread = reader.readForTermCountAndObject(2, 20);
+        assertNotSame(first, reread);
+        assertEquals(first.toString(), reread.toString());
+      }
+    }
+  }
+
+  @Test
+  public void testReadForTermCountAndObjectNoCache() throws OntoLibException, IOException {
+    try (H2ScoreDistributionReader reader =
+        new H2ScoreDistributionReader(pathDb, tableName(ArrayEncoding.PACKED), 0)) {
+      final ObjectScoreDistribution first = reader.readForTermCountAndObject(2, 20);
+      assertEquals(0, reader.getCacheSize());
+      assertNotSame(first, reader.readForTermCountAndObject(2, 20));
+    }
+  }
+
+  @Test
+  public void testReadForTermCountAndObjectMissing() throws OntoLibException, IOException {
+    for (ArrayEncoding encoding : ArrayEncoding.values()) {
+      try (H2ScoreDistributionReader reader =
+          new H2ScoreDistributionReader(pathDb, tableName(encoding))) {
+        try {
+          reader.readForTermCountAndObject(1, 30);
+          fail("Expected OntoLibException for " + encoding);
+        } catch (OntoLibException e) {
+          // expected
+        }
+        assertEquals(0, reader.getCacheSize());
+      }
+    }
+  }
+
+  @Test
+  public void testReadForTermCount() throws OntoLibException, IOException {
+    for (ArrayEncoding encoding : ArrayEncoding.values()) {
+      try (H2ScoreDistributionReader reader =
+          new H2ScoreDistributionReader(pathDb, tableName(encoding))) {
+        final ScoreDistribution dist = reader.readForTermCount(2);
+        assertEquals(2, dist.getNumTerms());
+        assertEquals("[10, 20, 30]", objectIds(dist));
+        assertEquals(
+            "ObjectScoreDistribution [objectId=30, numTerms=2, sampleSize=100, "
+                + "cumulativeFrequencies={0.0=0.5, 0.5=0.75, 1.0=1.0}]",
+            dist.getObjectScoreDistribution(30).toString());
+      }
+    }
+  }
+
+  @Test
+  public void testReadAll() throws OntoLibException, IOException {
+    for (ArrayEncoding encoding : ArrayEncoding.values()) {
+      try (H2ScoreDistributionReader reader =
+          new H2ScoreDistributionReader(pathDb, tableName(encoding))) {
+        final Map<Integer, ScoreDistribution> dists = reader.readAll();
+        assertEquals(2, dists.size());
+        assertEquals("[10, 20]", objectIds(dists.get(1)));
+        assertEquals("[10, 20, 30]", objectIds(dists.get(2)));
+      }
+    }
+  }
+
+  @Test
+  public void testPrefetch() throws OntoLibException, IOException {
+    for (ArrayEncoding encoding : ArrayEncoding.values()) {
+      try (H2ScoreDistributionReader reader =
+          new H2ScoreDistributionReader(pathDb, tableName(encoding))) {
+        final ScoreDistribution prefetched = reader.prefetch(2);
+        assertEquals("[10, 20, 30]", objectIds(prefetched));
+
+        // Prefetched term counts are answered from memory, bypassing the cache.
+        assertSame(prefetched, reader.readForTermCount(2));
+        assertSame(prefetched.getObjectScoreDistribution(10),
+            reader.readForTermCountAndObject(2, 10));
+        assertEquals(0, reader.getCacheSize());
+
+        // Other term counts still go through the cache.
+        reader.readForTermCountAndObject(1, 10);
+        assertEquals(1, reader.getCacheSize());
+
+        try {
+          reader.readForTermCountAndObject(2, 40);
+          fail("Expected OntoLibException for " + encoding);
+        } catch (OntoLibException e) {
+          // expected
+        }
+      }
+    }
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testPrefetchMissing() throws OntoLibException, IOException {
+    try (H2ScoreDistributionReader reader =
+        new H2ScoreDistributionReader(pathDb, tableName(ArrayEncoding.PACKED))) {
+      reader.prefetch(3);
+    }
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testMissingTable() throws OntoLibException, IOException {
+    new H2ScoreDistributionReader(pathDb, "no_such_table").close();
+  }
+
+}
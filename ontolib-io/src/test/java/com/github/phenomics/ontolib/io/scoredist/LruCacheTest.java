@@ -0,0 +1,32 @@
+package com.github.phenomics.ontolib.io.scoredist;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+public class LruCacheTest {
+
+  @Test
+  public void testEvictsLeastRecentlyUsed() {
+    final LruCache<Integer, String> cache = new LruCache<>(2);
+    cache.put(1, "one");
+    cache.put(2, "two");
+    assertEquals("one", cache.get(1));
+    cache.put(3, "three");
+
+    assertEquals(2, cache.size());
+    assertEquals("one", cache.get(1));
+    assertNull(cache.get(2));
+    assertEquals("three", cache.get(3));
+  }
+
+  @Test
+  public void testDisabled() {
+    final LruCache<Integer, String> cache = new LruCache<>(0);
+    cache.put(1, "one");
+    assertEquals(0, cache.size());
+    assertNull(cache.get(1));
+  }
+
+}
@@ -0,0 +1,31 @@
+package com.github.phenomics.ontolib.io.scoredist;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+public class PackedDoubleArraysTest {
+
+  @Test
+  public void testRoundTrip() {
+    final double[] values = new double[] {0.0, 0.5, -1.25, Double.MAX_VALUE};
+    final byte[] bytes = PackedDoubleArrays.encode(values);
+    assertEquals(32, bytes.length);
+    assertArrayEquals(values, PackedDoubleArrays.decode(bytes), 0.0);
+  }
+
+  @Test
+  public void testLittleEndian() {
+    final byte[] bytes = PackedDoubleArrays.encode(new double[] {1.0});
+    // 1.0 is 0x3ff0000000000000, the most significant byte comes last.
+    assertEquals(0, bytes[0]);
+    assertEquals((byte) 0x3f, bytes[7]);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidLength() {
+    PackedDoubleArrays.decode(new byte[7]);
+  }
+
+}
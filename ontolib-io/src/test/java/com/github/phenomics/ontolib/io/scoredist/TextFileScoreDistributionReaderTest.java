@@ -0,0 +1,220 @@
+package com.github.phenomics.ontolib.io.scoredist;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
+import com.github.phenomics.ontolib.ontology.scoredist.ScoreDistribution;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class TextFileScoreDistributionReaderTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private File textFile;
+
+  @Before
+  public void setUp() throws IOException {
+    textFile = tmpFolder.newFile("scores.txt");
+    final String content = TextFileScoreDistributionWriter.HEADER + "\n"
+        + "1\t10\t100\t0.0:0.5,1.0:1.0\n" + "1\t20\t100\t0.0:0.25,0.5:0.75,2.0:1.0\n"
+        + "2\t10\t200\t0.0:0.5,1.5:1.0\n";
+    Files.write(textFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testReadNext() throws OntoLibException, IOException {
+    try (TextFileScoreDistributionReader reader = new TextFileScoreDistributionReader(textFile)) {
+      final ObjectScoreDistribution first = reader.readNext();
+      assertEquals(
+          "ObjectScoreDistribution [objectId=10, numTerms=1, sampleSize=100, "
+              + "cumulativeFrequencies={0.0=0.5, 1.0=1.0}]",
+          first.toString());
+      assertEquals(20, reader.readNext().getObjectId());
+      assertEquals(2, reader.readNext().getNumTerms());
+      assertNull(reader.readNext());
+    }
+  }
+
+  @Test
+  public void testReadAll() throws OntoLibException, IOException {
+    try (TextFileScoreDistributionReader reader = new TextFileScoreDistributionReader(textFile)) {
+      final Map<Integer, ScoreDistribution> dists = reader.readAll();
+      assertEquals(2, dists.size());
+      assertEquals("[10, 20]", dists.get(1).getObjectIds().toString());
+      assertEquals(
+          "ObjectScoreDistribution [objectId=20, numTerms=1, sampleSize=100, "
+              + "cumulativeFrequencies={0.0=0.25, 0.5=0.75, 2.0=1.0}]",
+          dists.get(1).getObjectScoreDistribution(20).toString());
+      assertEquals("[10]", dists.get(2).getObjectIds().toString());
+    }
+  }
+
+  @Test
+  public void testReadForTermCountAndObject() throws OntoLibException, IOException {
+    try (TextFileScoreDistributionReader reader = new TextFileScoreDistributionReader(textFile)) {
+      assertEquals(200, reader.readForTermCountAndObject(2, 10).getSampleSize());
+    }
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testReadForTermCountAndObjectMissing() throws OntoLibException, IOException {
+    try (TextFileScoreDistributionReader reader = new TextFileScoreDistributionReader(textFile)) {
+      reader.readForTermCountAndObject(2, 20);
+    }
+  }
+
+  @Test
+  public void testCarriageReturnsAndMissingFinalLineBreak() throws OntoLibException, IOException {
+    final File crlfFile = tmpFolder.newFile("crlf.txt");
+    final String content = TextFileScoreDistributionWriter.HEADER + "\r\n"
+        + "1\t10\t100\t0.0:0.5,1.0:1.0\r\n" + "1\t20\t100\t0.0:0.25,2.0:1.0";
+    Files.write(crlfFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    try (TextFileScoreDistributionReader reader = new TextFileScoreDistributionReader(crlfFile)) {
+      assertEquals(10, reader.readNext().getObjectId());
+      assertEquals(
+          "ObjectScoreDistribution [objectId=20, numTerms=1, sampleSize=100, "
+              + "cumulativeFrequencies={0.0=0.25, 2.0=1.0}]",
+          reader.readNext().toString());
+      assertNull(reader.readNext());
+    }
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testInvalidRecord() throws OntoLibException, IOException {
+    final File invalidFile = tmpFolder.newFile("invalid.txt");
+    final String content = TextFileScoreDistributionWriter.HEADER + "\n" + "1\t10\t0.0:0.5\n";
+    Files.write(invalidFile.toPath(), content.getBytes(StandardCharsets.UTF_8));
+    try (TextFileScoreDistributionReader reader =
+        new TextFileScoreDistributionReader(invalidFile)) {
+      reader.readNext();
+    }
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testParallelInvalidRecord() throws OntoLibException, IOException {
+    final File invalidFile = tmpFolder.newFile("parallel-invalid.txt");
+    final StringBuilder content = new StringBuilder(TextFileScoreDistributionWriter.HEADER);
+    for (int objectId = 0; objectId < 100; ++objectId) {
+      content.append('\n').append("1\t").append(objectId).append("\t100\t0.0:0.5,1.0:1.0");
+    }
+    content.append("\n1\t100\t100\t0.0:0.5,x:1.0\n");
+    Files.write(invalidFile.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+    try (TextFileScoreDistributionReader reader =
+        new TextFileScoreDistributionReader(invalidFile, 4, 256)) {
+      reader.readAll();
+    }
+  }
+
+  @Test
+  public void testParallelReadAllMatchesSplitting() throws OntoLibException, IOException {
+    final File randomFile = tmpFolder.newFile("random.txt");
+    final Random rng = new Random(42);
+    final StringBuilder content = new StringBuilder(TextFileScoreDistributionWriter.HEADER);
+    for (int numTerms = 1; numTerms <= 3; ++numTerms) {
+      for (int objectId = 0; objectId < 200; ++objectId) {
+        content.append('\n').append(numTerms).append('\t').append(objectId).append("\t1000\t");
+        double score = -1.0;
+        final int numPoints = 1 + rng.nextInt(50);
+        for (int i = 0; i < numPoints; ++i) {
+          score += Math.abs(randomDouble(rng));
+          content.append((i > 0) ? "," : "").append(score).append(':')
+              .append((i + 1.0) / numPoints);
+        }
+      }
+      // Later records replace earlier ones for the same object.
+      content.append('\n').append(numTerms).append("\t7\t1\t0.1:0.30000000000000004");
+    }
+    content.append('\n');
+    Files.write(randomFile.toPath(), content.toString().getBytes(StandardCharsets.UTF_8));
+
+    final Map<Integer, ScoreDistribution> expected = readAllBySplitting(randomFile);
+    try (TextFileScoreDistributionReader reader =
+        new TextFileScoreDistributionReader(randomFile, 4, 256)) {
+      // The first record is consumed sequentially, the rest in parallel.
+      assertEquals(0, reader.readNext().getObjectId());
+      final Map<Integer, ScoreDistribution> actual = reader.readAll();
+      assertEquals(expected.keySet(), actual.keySet());
+      for (int numTerms : expected.keySet()) {
+        final ScoreDistribution expectedDist = expected.get(numTerms);
+        final ScoreDistribution actualDist = actual.get(numTerms);
+        final List<Integer> objectIds = new ArrayList<>(expectedDist.getObjectIds());
+        if (numTerms == 1) {
+          objectIds.remove(Integer.valueOf(0));
+        }
+        assertEquals(objectIds, new ArrayList<>(actualDist.getObjectIds()));
+        for (int objectId : objectIds) {
+          final ObjectScoreDistribution e = expectedDist.getObjectScoreDistribution(objectId);
+          final ObjectScoreDistribution a = actualDist.getObjectScoreDistribution(objectId);
+          assertEquals(e.getSampleSize(), a.getSampleSize());
+          assertArrayEquals(e.getScores(), a.getScores(), 0.0);
+          assertArrayEquals(e.getCumulativeFrequencyValues(), a.getCumulativeFrequencyValues(),
+              0.0);
+        }
+      }
+      assertNull(reader.readNext());
+    }
+  }
+
+  /**
+   * @return Random double of varying magnitude and number of digits.
+   */
+  private static double randomDouble(Random rng) {
+    switch (rng.nextInt(4)) {
+      case 0:
+        return rng.nextDouble();
+      case 1:
+        return rng.nextInt(1000) / 100.0;
+      case 2:
+        return rng.nextDouble() * Math.pow(10, rng.nextInt(40) - 20);
+      default:
+        return Double.longBitsToDouble(rng.nextLong() & 0x3fffffffffffffffL) % 1e-3;
+    }
+  }
+
+  /**
+   * Read score distribution file by splitting lines into strings, for comparison.
+   */
+  private static Map<Integer, ScoreDistribution> readAllBySplitting(File file)
+      throws IOException {
+    final Map<Integer, Map<Integer, ObjectScoreDistribution>> tmp = new TreeMap<>();
+    final List<String> lines = Files.readAllLines(file.toPath(), StandardCharsets.UTF_8);
+    for (String line : lines.subList(1, lines.size())) {
+      final String[] arr = line.trim().split("\t");
+      final String[] pairs = arr[3].split(",");
+      final double[] scores = new double[pairs.length];
+      final double[] cumFreqs = new double[pairs.length];
+      for (int i = 0; i < pairs.length; ++i) {
+        final String[] pair = pairs[i].split(":");
+        scores[i] = Double.parseDouble(pair[0]);
+        cumFreqs[i] = Double.parseDouble(pair[1]);
+      }
+      final int numTerms = Integer.parseInt(arr[0]);
+      final int objectId = Integer.parseInt(arr[1]);
+      tmp.computeIfAbsent(numTerms, k -> new TreeMap<>()).put(objectId,
+          new ObjectScoreDistribution(objectId, numTerms, Integer.parseInt(arr[2]), scores,
+              cumFreqs));
+    }
+    final Map<Integer, ScoreDistribution> result = new TreeMap<>();
+    for (Map.Entry<Integer, Map<Integer, ObjectScoreDistribution>> e : tmp.entrySet()) {
+      result.put(e.getKey(), new ScoreDistribution(e.getKey(), e.getValue()));
+    }
+    return result;
+  }
+
+}
@@ -0,0 +1,82 @@
+package com.github.phenomics.ontolib.io.scoredist;
+
+import static org.junit.Assert.assertEquals;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import com.github.phenomics.ontolib.ontology.scoredist.ObjectScoreDistribution;
+import java.nio.charset.StandardCharsets;
+import java.util.Random;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TextScoreDistributionLineParserTest {
+
+  private TextScoreDistributionLineParser parser;
+
+  @Before
+  public void setUp() {
+    parser = new TextScoreDistributionLineParser();
+  }
+
+  private ObjectScoreDistribution parse(String line) throws OntoLibException {
+    final byte[] bytes = ("xx" + line + "yy").getBytes(StandardCharsets.US_ASCII);
+    return parser.parse(bytes, 2, bytes.length - 2);
+  }
+
+  /**
+   * Parse the value as a score and check that the result is identical to
+   * {@link Double#parseDouble(String)}.
+   */
+  private void assertParsesAsDouble(String value) throws OntoLibException {
+    final double actual = parse("1\t2\t3\t" + value + ":1.0").scoreAt(0);
+    assertEquals(value, Double.doubleToRawLongBits(Double.parseDouble(value)),
+        Double.doubleToRawLongBits(actual));
+  }
+
+  @Test
+  public void testParse() throws OntoLibException {
+    assertEquals(
+        "ObjectScoreDistribution [objectId=20, numTerms=1, sampleSize=100, "
+            + "cumulativeFrequencies={0.0=0.25, 0.5=0.75, 2.0=1.0}]",
+        parse(" 1\t20\t100\t0.0:0.25,0.5:0.75,2.0:1.0\r").toString());
+  }
+
+  @Test
+  public void testParseDoubleSpecialValues() throws OntoLibException {
+    for (String value : new String[] {"0.0", "-0.0", "+1.5", ".5", "5.", "1e3", "1.0E-4",
+        "4.9E-324", "1.7976931348623157E308", "0.30000000000000004", "123456789012345678901",
+        "9007199254740993", "1.0E23", "1.0E-23", "NaN", "-Infinity", "0x1p3", "2.5d", "00000.1",
+        "2.2250738585072014E-308", "2.225073858507201E-308", "9.999999999999999E22",
+        "8.98846567431158E307", "1.0E309", "1.0E-330"}) {
+      assertParsesAsDouble(value);
+    }
+  }
+
+  @Test
+  public void testParseDoubleRandomValues() throws OntoLibException {
+    final Random rng = new Random(42);
+    for (int i = 0; i < 100_000; ++i) {
+      final double value = Double.longBitsToDouble(rng.nextLong());
+      if (!Double.isNaN(value)) {
+        assertParsesAsDouble(Double.toString(value));
+      }
+      assertParsesAsDouble(Double.toString(rng.nextDouble()));
+      assertParsesAsDouble(Double.toString(rng.nextInt(100_000) / 1000.0));
+      assertParsesAsDouble(
+          rng.nextInt(100_000) + "." + rng.nextInt(1000) + "E" + (rng.nextInt(60) - 30));
+      assertParsesAsDouble(String.format("%d.%016dE%d", 1 + rng.nextInt(9),
+          Math.abs(rng.nextLong() % 10_000_000_000_000_000L), rng.nextInt(660) - 340));
+    }
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testParseInvalidNumber() throws OntoLibException {
+    parse("1\t2\t3\t0.x:1.0");
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testParseMissingFrequency() throws OntoLibException {
+    parse("1\t2\t3\t0.0:0.5,1.0");
+  }
+
+}
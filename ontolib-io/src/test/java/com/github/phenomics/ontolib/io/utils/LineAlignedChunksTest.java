@@ -0,0 +1,84 @@
+package com.github.phenomics.ontolib.io.utils;
+
+import static org.junit.Assert.assertEquals;
+
+import com.github.phenomics.ontolib.base.OntoLibException;
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class LineAlignedChunksTest {
+
+  @Rule
+  public TemporaryFolder tmpFolder = new TemporaryFolder();
+
+  private File file;
+
+  @Before
+  public void setUp() throws IOException {
+    file = tmpFolder.newFile("lines.txt");
+    Files.write(file.toPath(),
+        "header\n[a]\nxx\n[b]\nyyyy\n[c]\n".getBytes(StandardCharsets.US_ASCII));
+  }
+
+  @Test
+  public void testComputeBoundsAnyLine() throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final List<Long> bounds =
+          LineAlignedChunks.computeBounds(channel, 7, 4, 1, LineAlignedChunks.ANY_LINE);
+      assertEquals("[7, 11, 14, 18, 23, 27]", bounds.toString());
+    }
+  }
+
+  @Test
+  public void testComputeBoundsPredicate() throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final List<Long> bounds =
+          LineAlignedChunks.computeBounds(channel, 0, 4, 1, firstByte -> firstByte == '[');
+      assertEquals("[0, 7, 14, 23, 27]", bounds.toString());
+    }
+  }
+
+  @Test
+  public void testComputeBoundsMinChunkSize() throws IOException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final List<Long> bounds =
+          LineAlignedChunks.computeBounds(channel, 0, 4, 100, LineAlignedChunks.ANY_LINE);
+      assertEquals("[0, 27]", bounds.toString());
+    }
+  }
+
+  @Test
+  public void testProcessKeepsOrder() throws IOException, OntoLibException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final List<Long> bounds =
+          LineAlignedChunks.computeBounds(channel, 0, 4, 1, LineAlignedChunks.ANY_LINE);
+      final List<String> results = LineAlignedChunks.process(bounds, 4,
+          (begin, end, chunkIndex) -> chunkIndex + ":" + begin + "-" + end);
+      assertEquals("[0:0-7, 1:7-11, 2:11-14, 3:14-18, 4:18-23, 5:23-27]", results.toString());
+    }
+  }
+
+  @Test(expected = OntoLibException.class)
+  public void testProcessRethrowsCheckedException() throws IOException, OntoLibException {
+    try (FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+      final List<Long> bounds =
+          LineAlignedChunks.computeBounds(channel, 0, 2, 1, LineAlignedChunks.ANY_LINE);
+      LineAlignedChunks.process(bounds, 2, (begin, end, chunkIndex) -> {
+        if (chunkIndex == 1) {
+          throw new OntoLibException("Problem in chunk " + chunkIndex);
+        }
+        return chunkIndex;
+      });
+    }
+  }
+
+}